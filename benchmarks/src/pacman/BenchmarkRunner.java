@@ -0,0 +1,16 @@
+package pacman;
+
+// Ejecuta los benchmarks siempre con el perfilador de GC para que cada
+// resultado muestre también los bytes asignados por operación (gc.alloc.rate.norm).
+// El resto de argumentos se pasan tal cual a JMH (-l, -f, -wi, filtros, ...).
+//
+// Uso: cd benchmarks && mvn package && java -jar target/benchmarks.jar [opciones de JMH]
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        String[] withProfiler = new String[args.length + 2];
+        withProfiler[0] = "-prof";
+        withProfiler[1] = "gc";
+        System.arraycopy(args, 0, withProfiler, 2, args.length);
+        org.openjdk.jmh.Main.main(withProfiler);
+    }
+}
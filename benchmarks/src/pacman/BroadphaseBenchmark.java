@@ -0,0 +1,121 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Colisiones con N fantasmas: recorrido lineal frente al hash espacial por tiles. Cada
+// invocación mueve todos los fantasmas un paso (con la actualización incremental del
+// hash en su caso). Las variantes *PacmanOnly hacen solo la consulta de Pacman, que es
+// O(N) en ambos casos por el movimiento; las *AllGhosts buscan además los vecinos de
+// cada fantasma, que es O(N^2) con el recorrido lineal.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadphaseBenchmark {
+    private static final int T = GameEngine.TILE_SIZE;
+
+    @Param({"3", "50", "500", "5000"})
+    public int ghosts;
+
+    private LevelGrid grid;
+    private SpatialHash hash;
+    private int[] xs;
+    private int[] ys;
+    private int[] dx;
+    private int[] dy;
+    private int[] out;
+    private int pacX;
+    private int pacY;
+
+    @Setup
+    public void setUp() {
+        GameEngine engine = new GameEngine(1);
+        grid = engine.getGrid();
+        hash = SpatialHash.forGrid(grid, ghosts);
+        xs = new int[ghosts];
+        ys = new int[ghosts];
+        dx = new int[ghosts];
+        dy = new int[ghosts];
+        out = new int[ghosts];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ghosts; i++) {
+            xs[i] = random.nextInt(grid.getPixelWidth() - T);
+            ys[i] = random.nextInt(grid.getPixelHeight() - T);
+            dx[i] = random.nextBoolean() ? 2 : -2;
+            dy[i] = random.nextBoolean() ? 2 : -2;
+            hash.insert(i, xs[i], ys[i]);
+        }
+        pacX = engine.getPacman().getX();
+        pacY = engine.getPacman().getY();
+    }
+
+    // Rebote dentro del tablero: todos los fantasmas se mueven en cada tick
+    private void moveGhost(int i) {
+        int x = xs[i] + dx[i];
+        int y = ys[i] + dy[i];
+        if (x < 0 || x > grid.getPixelWidth() - T) {
+            dx[i] = -dx[i];
+            x = xs[i] + dx[i];
+        }
+        if (y < 0 || y > grid.getPixelHeight() - T) {
+            dy[i] = -dy[i];
+            y = ys[i] + dy[i];
+        }
+        xs[i] = x;
+        ys[i] = y;
+    }
+
+    @Benchmark
+    public int linearPacmanOnly() {
+        for (int i = 0; i < ghosts; i++) {
+            moveGhost(i);
+        }
+        int hits = 0;
+        for (int i = 0; i < ghosts; i++) {
+            if (GameEngine.overlaps(pacX, pacY, xs[i], ys[i])) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int hashPacmanOnly() {
+        for (int i = 0; i < ghosts; i++) {
+            moveGhost(i);
+            hash.move(i, xs[i], ys[i]);
+        }
+        // query ya aplica la misma prueba exacta de solape que el recorrido lineal
+        return hash.query(pacX, pacY, T, T, out);
+    }
+
+    @Benchmark
+    public int linearAllGhosts() {
+        int hits = linearPacmanOnly();
+        for (int i = 0; i < ghosts; i++) {
+            for (int j = i + 1; j < ghosts; j++) {
+                if (GameEngine.overlaps(xs[i], ys[i], xs[j], ys[j])) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int hashAllGhosts() {
+        int hits = hashPacmanOnly();
+        int pairs = 0;
+        for (int i = 0; i < ghosts; i++) {
+            // Cada fantasma se encuentra a sí mismo
+            pairs += hash.queryNear(i, 0, out) - 1;
+        }
+        // Cada pareja aparece desde sus dos fantasmas
+        return hits + pairs / 2;
+    }
+}
@@ -0,0 +1,59 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Consultas de colisión que Pacman y los fantasmas hacen en cada tick.
+// Board delega estas llamadas en GameEngine, así que se miden ahí directamente.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    // Número de posiciones precalculadas (potencia de dos para usar una máscara)
+    private static final int POSITIONS = 1024;
+
+    private GameEngine engine;
+    private int[] xs;
+    private int[] ys;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(1);
+        xs = new int[POSITIONS];
+        ys = new int[POSITIONS];
+        java.util.Random random = new java.util.Random(42);
+        int width = engine.getBoardPixelWidth();
+        // Incluye posiciones fuera del tablero para cubrir los túneles
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = random.nextInt(width + 4 * GameEngine.TILE_SIZE) - 2 * GameEngine.TILE_SIZE;
+            ys[i] = random.nextInt(GameEngine.BOARD_HEIGHT * GameEngine.TILE_SIZE);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (POSITIONS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean isWall() {
+        int i = next();
+        return engine.isWall(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    public boolean canMove() {
+        int i = next();
+        return engine.canMove(xs[i], ys[i], GameEngine.TILE_SIZE);
+    }
+
+    @Benchmark
+    public int wrapX() {
+        return engine.wrapX(xs[next()]);
+    }
+}
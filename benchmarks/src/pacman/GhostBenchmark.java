@@ -0,0 +1,65 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+// Movimiento y decisión de un fantasma para cada nivel de inteligencia; "maze1023" es un
+// laberinto generado de 1023x1023 (sin tabla de todos los pares) con 64 fantasmas
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GhostBenchmark {
+    @Param({"1", "2", "3"})
+    public int intelligence;
+
+    @Param({"builtin", "maze1023"})
+    public String map;
+
+    private GameEngine engine;
+    private Pacman pacman;
+    private Ghost ghost;
+
+    @Setup
+    public void setUp() {
+        int col = 9;
+        int row = 9;
+        if ("builtin".equals(map)) {
+            engine = new GameEngine(1);
+        } else {
+            Level level = new MazeGenerator(1).generate("maze", 1023, 1023);
+            engine = new GameEngine(new Level[] {level}, 1, intelligence, 64, 1);
+            col = level.getGhostColumn(0);
+            row = level.getGhostRow(0);
+        }
+        pacman = engine.getPacman();
+        ghost = new Ghost(col * GameEngine.TILE_SIZE, row * GameEngine.TILE_SIZE, Color.RED,
+                engine, pacman, intelligence);
+    }
+
+    @Benchmark
+    public int move() {
+        ghost.move();
+        return ghost.getX();
+    }
+
+    // Todos los fantasmas del nivel, como en un tick
+    @Benchmark
+    public int moveAll() {
+        int sum = 0;
+        for (Ghost g : engine.getGhosts()) {
+            g.move();
+            sum += g.getX();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Direction calculateBestDirection() {
+        return ghost.calculateBestDirection(pacman.getX(), pacman.getY());
+    }
+}
@@ -0,0 +1,36 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Fase de movimiento de los fantasmas (GhostStore.update) en un laberinto generado de
+// 255x255 con distintos números de fantasmas e hilos
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GhostStoreBenchmark {
+    @Param({"3", "1024", "8192"})
+    public int ghosts;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private GhostStore store;
+
+    @Setup
+    public void setUp() {
+        Level level = new MazeGenerator(1).generate("maze", 255, 255);
+        GameEngine engine = new GameEngine(new Level[] {level}, 1, 3, ghosts, 1);
+        store = engine.getGhostStore();
+    }
+
+    @Benchmark
+    public int update() {
+        store.update(threads);
+        return store.getX(0);
+    }
+}
@@ -0,0 +1,25 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Tiempo de generar un laberinto procedural en memoria. Debe caber con holgura en la
+// pausa de 2 segundos entre niveles incluso para los mapas más grandes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MazeGeneratorBenchmark {
+    @Param({"19", "255", "1023", "4095"})
+    public int size;
+
+    private long seed;
+
+    @Benchmark
+    public Level generate() {
+        return new MazeGenerator(seed++).generate("benchmark", size, size);
+    }
+}
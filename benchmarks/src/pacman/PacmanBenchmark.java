@@ -0,0 +1,34 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Movimiento de Pacman en un tick
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacmanBenchmark {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private Pacman pacman;
+    private int calls;
+
+    @Setup
+    public void setUp() {
+        pacman = new GameEngine(1).getPacman();
+    }
+
+    @Benchmark
+    public int move() {
+        // Cambiar de dirección cada tile para que Pacman no se quede parado contra una pared
+        if ((++calls & 3) == 0) {
+            pacman.setNextDirection(DIRECTIONS[(calls >>> 2) & 3]);
+        }
+        pacman.move();
+        return pacman.getX();
+    }
+}
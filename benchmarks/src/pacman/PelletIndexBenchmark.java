@@ -0,0 +1,94 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.LongBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Consultas sobre los puntos de un laberinto de 4095x4095 del que solo quedan unos
+// pocos (el caso caro para un bot al final del nivel): el índice frente a recorrer el
+// plano de puntos entero con popcount y numberOfTrailingZeros.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PelletIndexBenchmark {
+    private static final int SIZE = 4095;
+
+    @Param({"1000", "100000"})
+    public int pellets;
+
+    private LevelGrid grid;
+    private PelletIndex index;
+    private int[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        grid = new MazeGenerator(1).generate("maze", SIZE, SIZE).newGrid();
+        GameRandom random = new GameRandom(2);
+        int total = grid.countCells(GameEngine.POINT);
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                if (grid.get(col, row) == GameEngine.POINT && random.nextInt(total) >= pellets) {
+                    grid.set(col, row, GameEngine.EMPTY);
+                }
+            }
+        }
+        index = new PelletIndex(grid);
+        queries = new int[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextInt(SIZE * SIZE);
+        }
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (queries.length - 1);
+        return queries[next];
+    }
+
+    @Benchmark
+    public int nearest() {
+        int cell = nextQuery();
+        return index.nearest(cell % SIZE, cell / SIZE);
+    }
+
+    @Benchmark
+    public int nearestByScan() {
+        int cell = nextQuery();
+        int col = cell % SIZE;
+        int row = cell / SIZE;
+        LongBuffer bits = grid.getPelletBits();
+        int best = Integer.MAX_VALUE;
+        int bestCell = -1;
+        for (int word = 0; word < bits.limit(); word++) {
+            for (long w = bits.get(word); w != 0; w &= w - 1) {
+                int c = word << 6 | Long.numberOfTrailingZeros(w);
+                int distance = Math.abs(c % SIZE - col) + Math.abs(c / SIZE - row);
+                if (distance < best) {
+                    best = distance;
+                    bestCell = c;
+                }
+            }
+        }
+        return bestCell;
+    }
+
+    @Benchmark
+    public int remaining() {
+        return index.getRemaining();
+    }
+
+    @Benchmark
+    public int remainingByPopcount() {
+        return grid.countCells(GameEngine.POINT);
+    }
+
+    @Benchmark
+    public int countInRegion() {
+        int cell = nextQuery();
+        return index.countInRegion(cell % SIZE - 100, cell / SIZE - 100, cell % SIZE + 100, cell / SIZE + 100);
+    }
+}
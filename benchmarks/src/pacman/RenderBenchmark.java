@@ -0,0 +1,53 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Un fotograma de GameRenderer a 1x, 2x y 4x: scaledLayers usa las capas rasterizadas
+// al tamaño de tile de la vista y scaledGraphics escala el Graphics y copia las capas
+// de 1x con ese transform
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    @Param({"1", "2", "4"})
+    public int scale;
+
+    private GameRenderer renderer;
+    private BufferedImage view;
+    private Graphics2D g;
+
+    @Setup
+    public void setUp() {
+        GameEngine engine = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 1);
+        renderer = new GameRenderer(engine);
+        view = new BufferedImage(engine.getGrid().getPixelWidth() * scale,
+                (engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT) * scale, BufferedImage.TYPE_INT_RGB);
+        g = view.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage scaledLayers() {
+        renderer.render(g, null, 0.5, view.getWidth(), view.getHeight());
+        return view;
+    }
+
+    @Benchmark
+    public BufferedImage scaledGraphics() {
+        g.scale(scale, scale);
+        renderer.render(g, null, 0.5);
+        g.scale(1.0 / scale, 1.0 / scale);
+        return view;
+    }
+}
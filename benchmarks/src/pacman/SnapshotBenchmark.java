@@ -0,0 +1,50 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste de tomar y restaurar instantáneas de partida. "builtin" es el nivel 1 con tres
+// fantasmas; "maze4095" es un laberinto generado de 4095x4095 (4096 páginas de puntos)
+// con 64 fantasmas. La restauración alterna entre dos instantáneas separadas 100 ticks,
+// así que cada vez reescribe las páginas donde se han comido puntos entre ambas.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+    @Param({"builtin", "maze4095"})
+    public String map;
+
+    private GameEngine engine;
+    private GameSnapshot early;
+    private GameSnapshot late;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        if ("builtin".equals(map)) {
+            engine = new GameEngine(1, 0, 3, 1);
+        } else {
+            Level level = new MazeGenerator(1).generate("maze", 4095, 4095);
+            engine = new GameEngine(new Level[] {level}, 1, 0, 64, 1);
+        }
+        early = engine.snapshot();
+        engine.step(100);
+        late = engine.snapshot();
+    }
+
+    @Benchmark
+    public GameSnapshot snapshot() {
+        return engine.snapshot();
+    }
+
+    @Benchmark
+    public long restore() {
+        toggle = !toggle;
+        engine.restore(toggle ? early : late);
+        return engine.getTickCount();
+    }
+}
@@ -0,0 +1,39 @@
+package pacman;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Un tick completo de GameEngine en cada uno de los tres niveles
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickBenchmark {
+    @Param({"1", "2", "3"})
+    public int level;
+
+    private GameEngine engine;
+    private GameSnapshot start;
+
+    @Setup
+    public void setUp() {
+        // Semilla fija para que las ejecuciones sean comparables
+        engine = new GameEngine(level, 0, GameEngine.DEFAULT_GHOST_COUNT, 1);
+        start = engine.snapshot();
+    }
+
+    @Benchmark
+    public long tick() {
+        engine.step();
+        // Al perder o completar el nivel se vuelve a su principio (sin la pausa entre
+        // niveles). Pasa una vez cada cientos de ticks: la restauración queda como un valor
+        // atípico raro en vez de un Level.Invocation en cada llamada.
+        if (engine.isGameLost() || engine.isGameWon()) {
+            engine.restore(start);
+        }
+        return engine.getTickCount();
+    }
+}
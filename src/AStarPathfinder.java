@@ -0,0 +1,183 @@
+// Búsqueda A* entre tiles de un LevelGrid (con túneles horizontales).
+// Todos los conjuntos abiertos/cerrados son arrays primitivos reutilizados entre
+// búsquedas: en vez de limpiarlos se usa un sello de generación por búsqueda, así
+// que después del calentamiento una búsqueda no reserva memoria.
+public class AStarPathfinder {
+    private final LevelGrid grid;
+    private final int width;
+    private final int height;
+    private final int cells;
+
+    // Coste desde el origen, padre en el camino y sellos de generación
+    private final int[] gScore;
+    private final int[] parent;
+    private final int[] seenStamp;
+    private final int[] closedStamp;
+    private int stamp;
+
+    // Último camino encontrado (se reutiliza entre búsquedas)
+    private int[] path = new int[64];
+
+    // Montículo binario de celdas ordenado por f = g + h; admite entradas repetidas
+    private int[] heap;
+    private int[] heapF;
+    private int heapSize;
+
+    private long searches;
+    private long expandedNodes;
+
+    public AStarPathfinder(LevelGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.cells = width * height;
+        gScore = new int[cells];
+        parent = new int[cells];
+        seenStamp = new int[cells];
+        closedStamp = new int[cells];
+        heap = new int[64];
+        heapF = new int[64];
+    }
+
+    public LevelGrid getGrid() {
+        return grid;
+    }
+
+    // Busca el camino más corto de from a to (índices fila * ancho + columna).
+    // Devuelve el número de celdas del camino, origen y destino incluidos, o -1
+    // si no hay camino. Las celdas se leen con getPath() hasta la siguiente búsqueda.
+    public int findPath(int from, int to) {
+        searches++;
+        if (isBlocked(from) || isBlocked(to)) {
+            return -1;
+        }
+        if (++stamp == 0) {
+            // Desbordamiento del sello: limpiar una vez cada 2^32 búsquedas
+            java.util.Arrays.fill(seenStamp, 0);
+            java.util.Arrays.fill(closedStamp, 0);
+            stamp = 1;
+        }
+        heapSize = 0;
+        gScore[from] = 0;
+        parent[from] = -1;
+        seenStamp[from] = stamp;
+        push(from, heuristic(from, to));
+
+        while (heapSize > 0) {
+            int cell = pop();
+            if (closedStamp[cell] == stamp) {
+                continue;
+            }
+            closedStamp[cell] = stamp;
+            expandedNodes++;
+            if (cell == to) {
+                return writePath(to);
+            }
+            int col = cell % width;
+            int row = cell / width;
+            int nextG = gScore[cell] + 1;
+            // Mismo orden que Direction.values(): LEFT, RIGHT, UP, DOWN
+            relax(cell, row * width + (col == 0 ? width - 1 : col - 1), nextG, to);
+            relax(cell, row * width + (col == width - 1 ? 0 : col + 1), nextG, to);
+            if (row > 0) {
+                relax(cell, cell - width, nextG, to);
+            }
+            if (row < height - 1) {
+                relax(cell, cell + width, nextG, to);
+            }
+        }
+        return -1;
+    }
+
+    private void relax(int cell, int neighbor, int g, int to) {
+        if (isBlocked(neighbor) || closedStamp[neighbor] == stamp) {
+            return;
+        }
+        if (seenStamp[neighbor] != stamp || g < gScore[neighbor]) {
+            seenStamp[neighbor] = stamp;
+            gScore[neighbor] = g;
+            parent[neighbor] = cell;
+            push(neighbor, g + heuristic(neighbor, to));
+        }
+    }
+
+    private boolean isBlocked(int cell) {
+        return grid.isWallTile(cell % width, cell / width);
+    }
+
+    // Distancia Manhattan teniendo en cuenta que se puede cruzar por el túnel
+    private int heuristic(int cell, int to) {
+        int dx = Math.abs(cell % width - to % width);
+        int dy = Math.abs(cell / width - to / width);
+        return Math.min(dx, width - dx) + dy;
+    }
+
+    public int[] getPath() {
+        return path;
+    }
+
+    private int writePath(int to) {
+        int length = gScore[to] + 1;
+        if (length > path.length) {
+            path = new int[Math.max(length, path.length * 2)];
+        }
+        int cell = to;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        return length;
+    }
+
+    private void push(int cell, int f) {
+        if (heapSize == heap.length) {
+            heap = java.util.Arrays.copyOf(heap, heapSize * 2);
+            heapF = java.util.Arrays.copyOf(heapF, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapF[up] <= f) {
+                break;
+            }
+            heap[i] = heap[up];
+            heapF[i] = heapF[up];
+            i = up;
+        }
+        heap[i] = cell;
+        heapF[i] = f;
+    }
+
+    private int pop() {
+        int result = heap[0];
+        int lastCell = heap[--heapSize];
+        int lastF = heapF[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapF[child + 1] < heapF[child]) {
+                child++;
+            }
+            if (heapF[child] >= lastF) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapF[i] = heapF[child];
+            i = child;
+        }
+        heap[i] = lastCell;
+        heapF[i] = lastF;
+        return result;
+    }
+
+    public long getSearches() {
+        return searches;
+    }
+
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AStarPathfinder class.
+ */
+public class AStarPathfinderTest {
+
+    @Test
+    public void testPathLengthsMatchBfsDistances() {
+        for (int level = 1; level <= GameEngine.getLevelCount(); level++) {
+            LevelGrid grid = new GameEngine(level).getGrid();
+            DistanceField field = new DistanceField(grid);
+            AStarPathfinder pathfinder = new AStarPathfinder(grid);
+            int width = grid.getWidth();
+            for (int from = 0; from < width * grid.getHeight(); from += 7) {
+                for (int to = 0; to < width * grid.getHeight(); to += 5) {
+                    int expected = field.distance(from % width, from / width, to % width, to / width);
+                    int length = pathfinder.findPath(from, to);
+                    if (expected == DistanceField.UNREACHABLE) {
+                        Assertions.assertEquals(-1, length);
+                    } else {
+                        Assertions.assertEquals(expected + 1, length, "level " + level + " " + from + "->" + to);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPathIsContiguousAndWalkable() {
+        LevelGrid grid = new GameEngine(3).getGrid();
+        AStarPathfinder pathfinder = new AStarPathfinder(grid);
+        int width = grid.getWidth();
+        int from = 1 * width + 1;
+        int to = 17 * width + 17;
+        int length = pathfinder.findPath(from, to);
+        int[] path = pathfinder.getPath();
+        Assertions.assertEquals(from, path[0]);
+        Assertions.assertEquals(to, path[length - 1]);
+        for (int i = 1; i < length; i++) {
+            Assertions.assertFalse(grid.isWallTile(path[i] % width, path[i] / width));
+            Direction dir = PathCache.direction(width, path[i - 1], path[i]);
+            assertNotNull(dir);
+        }
+    }
+
+    @Test
+    public void testPathThroughTunnel() {
+        LevelGrid grid = new GameEngine(1).getGrid();
+        AStarPathfinder pathfinder = new AStarPathfinder(grid);
+        int width = grid.getWidth();
+        Assertions.assertEquals(2, pathfinder.findPath(9 * width, 9 * width + width - 1));
+    }
+
+    @Test
+    public void testWallEndpointsHaveNoPath() {
+        LevelGrid grid = new GameEngine(1).getGrid();
+        AStarPathfinder pathfinder = new AStarPathfinder(grid);
+        Assertions.assertEquals(-1, pathfinder.findPath(0, grid.getWidth() + 1));
+        Assertions.assertEquals(1, pathfinder.getSearches());
+    }
+}
@@ -0,0 +1,33 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Bytes reservados en el heap por el hilo actual, según la JVM (HotSpot y derivadas).
+// Sirve para comprobar que los caminos de tick y de dibujo no generan basura.
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS = lookup();
+
+    private AllocationMeter() {
+    }
+
+    private static com.sun.management.ThreadMXBean lookup() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    // Total acumulado del hilo actual, o -1 si la JVM no lo soporta
+    public static long currentThreadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,30 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the AllocationMeter class.
+ */
+public class AllocationMeterTest {
+
+    private static Object sink;
+
+    @Test
+    public void testCountsAllocatedBytes() {
+        Assumptions.assumeTrue(AllocationMeter.isSupported());
+        long before = AllocationMeter.currentThreadAllocatedBytes();
+        sink = new byte[1 << 20];
+        long after = AllocationMeter.currentThreadAllocatedBytes();
+        Assertions.assertTrue(after - before >= 1 << 20);
+        Assertions.assertNotNull(sink);
+    }
+
+    @Test
+    public void testUnsupportedReportsMinusOne() {
+        if (!AllocationMeter.isSupported()) {
+            Assertions.assertEquals(-1, AllocationMeter.currentThreadAllocatedBytes());
+        } else {
+            Assertions.assertTrue(AllocationMeter.currentThreadAllocatedBytes() >= 0);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Piloto automático para Pacman: en cada cruce prueba las direcciones posibles con
+// muchas simulaciones cortas (Monte-Carlo) a partir de una instantánea de la partida y
+// elige la de mejor media. Cada hilo tiene su propio GameEngine donde restaura la
+// instantánea, así que los fantasmas se mueven con las mismas reglas de Ghost.move;
+// solo se les cambia la semilla en cada simulación para no conocer su futuro real.
+//
+// Las simulaciones se reparten entre los hilos hasta agotar el presupuesto de tiempo
+// por decisión o el máximo de simulaciones. Con presupuesto 0 solo cuenta el máximo y
+// la decisión es la misma en cada ejecución, para partidas de regresión.
+public class Autopilot implements AutoCloseable {
+    // Por defecto, un cuarto de tick para decidir
+    public static final long DEFAULT_BUDGET_NANOS = GameEngine.TICK_MILLIS * 1_000_000L / 4;
+    public static final int DEFAULT_MAX_ROLLOUTS = 4096;
+    // Ticks simulados por simulación (unos 2,5 segundos de juego)
+    public static final int DEFAULT_HORIZON = 64;
+    // Valor de una simulación: puntos comidos, menos la muerte y la distancia al
+    // punto más cercano al terminar (para no dar vueltas cuando no hay puntos cerca)
+    private static final double DEATH_PENALTY = 1000;
+    private static final double LEVEL_BONUS = 500;
+    private static final double DISTANCE_WEIGHT = 0.5;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int TILE = GameEngine.TILE_SIZE;
+
+    private final GameEngine engine;
+    private final Worker[] workers;
+    private final ExecutorService pool;
+    private final List<Future<Void>> futures = new ArrayList<>();
+    private final long budgetNanos;
+    private final int maxRollouts;
+    private final int horizon;
+
+    // Estadísticas
+    private long decisions;
+    private long rollouts;
+    private long decisionNanos;
+    private long lastDecisionNanos;
+    private long maxDecisionNanos;
+
+    public Autopilot(GameEngine engine) {
+        this(engine, Runtime.getRuntime().availableProcessors(), DEFAULT_BUDGET_NANOS, DEFAULT_MAX_ROLLOUTS,
+                DEFAULT_HORIZON);
+    }
+
+    public Autopilot(GameEngine engine, int threads, long budgetNanos, int maxRollouts, int horizon) {
+        if (threads <= 0 || budgetNanos < 0 || maxRollouts <= 0 || horizon <= 0) {
+            throw new IllegalArgumentException("invalid autopilot settings: threads=" + threads + " budget="
+                    + budgetNanos + " rollouts=" + maxRollouts + " horizon=" + horizon);
+        }
+        this.engine = engine;
+        this.budgetNanos = budgetNanos;
+        this.maxRollouts = maxRollouts;
+        this.horizon = horizon;
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        pool = Executors.newFixedThreadPool(Math.max(1, threads - 1), runnable -> {
+            Thread thread = new Thread(runnable, "pacman-autopilot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Llamar antes de cada tick: en los cruces decide y cambia la dirección de Pacman
+    public void steer() {
+        if (engine.isGameWon() || engine.isGameLost()) {
+            return;
+        }
+        Pacman pacman = engine.getPacman();
+        if (!isDecisionPoint(pacman)) {
+            return;
+        }
+        pacman.setNextDirection(decide());
+    }
+
+    // En tiles exactos donde hay más de una salida sin dar la vuelta, o ninguna
+    boolean isDecisionPoint(Pacman pacman) {
+        if (pacman.getX() % TILE != 0 || pacman.getY() % TILE != 0) {
+            return false;
+        }
+        int exits = 0;
+        boolean forward = false;
+        for (Direction direction : DIRECTIONS) {
+            if (direction != pacman.getDirection().opposite() && canGo(engine, pacman, direction)) {
+                exits++;
+                forward |= direction == pacman.getDirection();
+            }
+        }
+        return exits > 1 || !forward;
+    }
+
+    private static boolean canGo(GameEngine engine, Pacman pacman, Direction direction) {
+        int x = pacman.getX();
+        int y = pacman.getY();
+        switch (direction) {
+            case LEFT: x--; break;
+            case RIGHT: x++; break;
+            case UP: y--; break;
+            default: y++; break;
+        }
+        return engine.canMove(x, y, TILE);
+    }
+
+    // Mejor dirección para el estado actual según las simulaciones
+    public Direction decide() {
+        long start = System.nanoTime();
+        Pacman pacman = engine.getPacman();
+        int candidates = 0;
+        Direction[] options = new Direction[DIRECTIONS.length];
+        for (Direction direction : DIRECTIONS) {
+            if (canGo(engine, pacman, direction)) {
+                options[candidates++] = direction;
+            }
+        }
+        if (candidates <= 1) {
+            return candidates == 1 ? options[0] : pacman.getDirection();
+        }
+
+        GameSnapshot snapshot = engine.snapshot();
+        long deadline = budgetNanos > 0 ? start + budgetNanos : Long.MAX_VALUE;
+        // Semilla de las simulaciones: depende solo de la partida y del tick
+        long seed = GameRandom.mix64(engine.getSeed() ^ engine.getTickCount());
+        for (Worker worker : workers) {
+            worker.prepare(snapshot, options, candidates, deadline, seed);
+        }
+        // El primer trabajador corre en este hilo: con un solo hilo no hay que esperar a nadie
+        futures.clear();
+        for (int i = 1; i < workers.length; i++) {
+            futures.add(pool.submit(workers[i]));
+        }
+        workers[0].call();
+        try {
+            for (Future<Void> done : futures) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("autopilot rollout failed", e.getCause());
+        }
+
+        Direction best = pacman.getDirection();
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < candidates; c++) {
+            double total = 0;
+            int count = 0;
+            for (Worker worker : workers) {
+                total += worker.totals[c];
+                count += worker.counts[c];
+                rollouts += worker.counts[c];
+            }
+            if (count > 0 && total / count > bestValue) {
+                bestValue = total / count;
+                best = options[c];
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        decisions++;
+        decisionNanos += elapsed;
+        lastDecisionNanos = elapsed;
+        maxDecisionNanos = Math.max(maxDecisionNanos, elapsed);
+        return best;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public long getRollouts() {
+        return rollouts;
+    }
+
+    // Simulaciones por segundo de tiempo de decisión (todos los hilos juntos)
+    public double getRolloutsPerSecond() {
+        return rollouts * 1e9 / Math.max(1, decisionNanos);
+    }
+
+    public long getLastDecisionNanos() {
+        return lastDecisionNanos;
+    }
+
+    public long getMaxDecisionNanos() {
+        return maxDecisionNanos;
+    }
+
+    public double getMeanDecisionNanos() {
+        return decisions == 0 ? 0.0 : (double) decisionNanos / decisions;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    // Simulaciones de un hilo, por rondas de una simulación por candidata: las rondas
+    // worker, worker + hilos, ... Así cada hilo prueba todas las direcciones aunque el
+    // número de hilos sea múltiplo del de candidatas, y la simulación k = ronda *
+    // candidatas + candidata tiene la misma semilla con cualquier número de hilos.
+    private final class Worker implements java.util.concurrent.Callable<Void> {
+        private final int index;
+        private final GameRandom random = new GameRandom(0);
+        private final double[] totals = new double[DIRECTIONS.length];
+        private final int[] counts = new int[DIRECTIONS.length];
+        private GameEngine sandbox;
+        private GameSnapshot snapshot;
+        private Direction[] options;
+        private int candidates;
+        private long deadline;
+        private long seed;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        void prepare(GameSnapshot snapshot, Direction[] options, int candidates, long deadline, long seed) {
+            this.snapshot = snapshot;
+            this.options = options;
+            this.candidates = candidates;
+            this.deadline = deadline;
+            this.seed = seed;
+            java.util.Arrays.fill(totals, 0);
+            java.util.Arrays.fill(counts, 0);
+        }
+
+        @Override
+        public Void call() {
+            if (sandbox == null) {
+                sandbox = new GameEngine(new Level[] {snapshot.getLevel()}, snapshot.getLevelNumber(),
+                        engine.getGhostIntelligence(), engine.getGhostCount(), engine.getSeed());
+            }
+            for (long round = index; round * candidates < maxRollouts; round += workers.length) {
+                for (int i = 0; i < candidates; i++) {
+                    // La ronda empieza cada vez por otra candidata: si se acaba el tiempo a
+                    // mitad de ronda no sale siempre ganando la primera
+                    int candidate = (int) ((round + i) % candidates);
+                    long k = round * candidates + candidate;
+                    if (k >= maxRollouts) {
+                        continue;
+                    }
+                    if (System.nanoTime() >= deadline) {
+                        return null;
+                    }
+                    totals[candidate] += rollout(options[candidate], GameRandom.mix64(seed + k));
+                    counts[candidate]++;
+                }
+            }
+            return null;
+        }
+
+        private double rollout(Direction first, long rolloutSeed) {
+            sandbox.restore(snapshot);
+            random.setState(rolloutSeed, random.getGamma());
+            Ghost[] ghosts = sandbox.getGhosts();
+            for (int i = 0; i < ghosts.length; i++) {
+                ghosts[i].reseed(random.nextLong());
+            }
+            Pacman pacman = sandbox.getPacman();
+            pacman.setNextDirection(first);
+            int eaten = sandbox.getPointsEaten();
+            int level = sandbox.getCurrentLevel();
+            for (int t = 0; t < horizon && !sandbox.isGameLost() && !sandbox.isGameWon(); t++) {
+                if (t > 0 && pacman.getX() % TILE == 0 && pacman.getY() % TILE == 0) {
+                    randomTurn(pacman);
+                }
+                sandbox.step();
+            }
+            if (sandbox.isGameLost()) {
+                return sandbox.getPointsEaten() - eaten - DEATH_PENALTY;
+            }
+            if (sandbox.isGameWon() || sandbox.getCurrentLevel() != level) {
+                return sandbox.getPointsEaten() - eaten + LEVEL_BONUS;
+            }
+            LevelGrid grid = sandbox.getGrid();
+            int col = grid.tileColumn(pacman.getX());
+            int row = grid.tileRow(pacman.getY());
+            int nearest = sandbox.getPellets().nearest(col, row);
+            int distance = nearest == PelletIndex.NONE ? 0
+                    : Math.abs(nearest % grid.getWidth() - col) + Math.abs(nearest / grid.getWidth() - row);
+            return sandbox.getPointsEaten() - eaten - DISTANCE_WEIGHT * distance;
+        }
+
+        // Política de las simulaciones: dirección al azar sin dar la vuelta si hay otra
+        private void randomTurn(Pacman pacman) {
+            Direction back = pacman.getDirection().opposite();
+            int start = random.nextInt(DIRECTIONS.length);
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                Direction direction = DIRECTIONS[(start + i) % DIRECTIONS.length];
+                if (direction != back && canGo(sandbox, pacman, direction)) {
+                    pacman.setNextDirection(direction);
+                    return;
+                }
+            }
+            pacman.setNextDirection(back);
+        }
+    }
+
+    // Uso: java Autopilot [semilla] [hilos] [ticks]
+    // Juega una partida sin pantalla con el piloto y muestra su rendimiento.
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long maxTicks = args.length > 2 ? Long.parseLong(args[2]) : 20_000;
+        GameEngine engine = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, seed);
+        try (Autopilot autopilot = new Autopilot(engine, threads, DEFAULT_BUDGET_NANOS, DEFAULT_MAX_ROLLOUTS,
+                DEFAULT_HORIZON)) {
+            long start = System.nanoTime();
+            while (engine.getTickCount() < maxTicks && !engine.isGameLost()) {
+                autopilot.steer();
+                engine.step();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("seed=%d threads=%d ticks=%d level=%d score=%d %s in %.1fs%n", seed, threads,
+                    engine.getTickCount(), engine.getCurrentLevel(), engine.getPacman().getScore(),
+                    engine.isGameLost() ? "lost" : "alive", seconds);
+            System.out.printf("decisions=%d rollouts=%d (%.0f/s), decision latency mean %.2f ms, max %.2f ms%n",
+                    autopilot.getDecisions(), autopilot.getRollouts(), autopilot.getRolloutsPerSecond(),
+                    autopilot.getMeanDecisionNanos() / 1e6, autopilot.getMaxDecisionNanos() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the Autopilot class.
+ */
+public class AutopilotTest {
+
+    // Sin presupuesto de tiempo: siempre el mismo número de simulaciones
+    private static Autopilot fixed(GameEngine engine, int threads) {
+        return new Autopilot(engine, threads, 0, 64, 32);
+    }
+
+    private static GameEngine play(GameEngine engine, Autopilot autopilot, int ticks) {
+        for (int t = 0; t < ticks && !engine.isGameLost(); t++) {
+            autopilot.steer();
+            engine.step();
+        }
+        return engine;
+    }
+
+    @Test
+    public void testFixedRolloutsAreDeterministic() {
+        GameEngine a = new GameEngine(1, 0, 3, 11);
+        GameEngine b = new GameEngine(1, 0, 3, 11);
+        try (Autopilot one = fixed(a, 1); Autopilot two = fixed(b, 3)) {
+            play(a, one, 600);
+            play(b, two, 600);
+            Assertions.assertEquals(a.stateHash(), b.stateHash());
+            Assertions.assertEquals(one.getRollouts(), two.getRollouts());
+        }
+    }
+
+    @Test
+    public void testAutopilotEatsPellets() {
+        GameEngine engine = new GameEngine(1, 0, 3, 5);
+        try (Autopilot autopilot = fixed(engine, 2)) {
+            play(engine, autopilot, 1000);
+            Assertions.assertTrue(engine.getPointsEaten() >= 60, "ate " + engine.getPointsEaten());
+            Assertions.assertTrue(autopilot.getDecisions() > 0);
+            Assertions.assertTrue(autopilot.getRollouts() >= autopilot.getDecisions() * 64);
+            Assertions.assertTrue(autopilot.getRolloutsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void testDecisionPointsOnlyAtJunctions() {
+        GameEngine engine = new GameEngine(1, 0, 0, 1);
+        try (Autopilot autopilot = fixed(engine, 1)) {
+            Pacman pacman = engine.getPacman();
+            // Entre dos tiles nunca se decide
+            pacman.setNextDirection(Direction.LEFT);
+            int startX = pacman.getX();
+            engine.step();
+            Assertions.assertNotEquals(startX, pacman.getX(), "Pacman did not move");
+            Assertions.assertNotEquals(0, pacman.getX() % GameEngine.TILE_SIZE);
+            Assertions.assertFalse(autopilot.isDecisionPoint(pacman));
+            autopilot.steer();
+            Assertions.assertEquals(0, autopilot.getDecisions());
+        }
+    }
+
+    @Test
+    public void testBudgetLimitsDecisionTime() {
+        GameEngine engine = new GameEngine(1, 0, 3, 3);
+        long budget = 2_000_000L;
+        try (Autopilot autopilot = new Autopilot(engine, 1, budget, Integer.MAX_VALUE, 64)) {
+            for (int i = 0; i < 5; i++) {
+                autopilot.decide();
+                // Se comprueba antes de cada simulación: como mucho se pasa en una (y en la
+                // planificación del sistema, de ahí el margen amplio)
+                Assertions.assertTrue(autopilot.getLastDecisionNanos() < budget + 50_000_000L);
+            }
+            Assertions.assertTrue(autopilot.getRollouts() > 0);
+        }
+    }
+
+    @Test
+    public void testDecideDoesNotChangeTheGame() {
+        GameEngine engine = new GameEngine(1, 0, 3, 9);
+        engine.step(40);
+        long before = engine.stateHash();
+        try (Autopilot autopilot = fixed(engine, 2)) {
+            autopilot.decide();
+        }
+        Assertions.assertEquals(before, engine.stateHash());
+    }
+
+    @Test
+    public void testInvalidSettingsAreRejected() {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Autopilot(engine, 0, 0, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Autopilot(engine, 1, 0, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Autopilot(engine, 1, -1, 1, 1));
+    }
+}
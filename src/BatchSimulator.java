@@ -0,0 +1,194 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Ejecuta muchas partidas completas sin pantalla repartidas en un ForkJoinPool.
+// Cada partida usa su propio GameEngine, así que los hilos no comparten estado;
+// los resultados se guardan en arrays primitivos indexados por partida.
+public class BatchSimulator {
+    // Límite de ticks por nivel para que una partida bloqueada termine
+    public static final int MAX_TICKS_PER_LEVEL = 20_000;
+    // Partidas que juega cada tarea hoja del ForkJoinPool
+    private static final int GAMES_PER_TASK = 8;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int games;
+    private final int[] intelligenceLevels;
+    private final long seed;
+
+    public BatchSimulator(int games, int[] intelligenceLevels, long seed) {
+        if (games <= 0) {
+            throw new IllegalArgumentException("games must be positive: " + games);
+        }
+        if (intelligenceLevels.length == 0) {
+            throw new IllegalArgumentException("at least one intelligence level is required");
+        }
+        this.games = games;
+        this.intelligenceLevels = intelligenceLevels.clone();
+        this.seed = seed;
+    }
+
+    public Results run(ForkJoinPool pool) {
+        Results results = new Results(games);
+        long start = System.nanoTime();
+        pool.invoke(new GameRange(results, 0, games));
+        results.elapsedNanos = System.nanoTime() - start;
+        return results;
+    }
+
+    // Juega la partida número index: los niveles 1..N hasta perder o completarlos todos
+    void playGame(int index, Results results) {
+        int intelligence = intelligenceLevels[index % intelligenceLevels.length];
+        SplittableRandom random = new SplittableRandom(seed + index);
+        // La partida también se siembra: una partida concreta se puede volver a jugar igual
+        GameEngine engine = new GameEngine(1, intelligence, GameEngine.DEFAULT_GHOST_COUNT, seed + index);
+        int score = 0;
+        long ticks = 0;
+        int levelsCleared = 0;
+
+        for (int level = 1; level <= GameEngine.getLevelCount(); level++) {
+            if (level > 1) {
+                engine.loadLevel(level);
+            }
+            int levelTicks = 0;
+            while (levelTicks < MAX_TICKS_PER_LEVEL && !engine.isGameWon() && !engine.isGameLost()) {
+                steerPacman(engine.getPacman(), random);
+                engine.step();
+                levelTicks++;
+            }
+            ticks += levelTicks;
+            score += engine.getPacman().getScore();
+            if (!engine.isGameWon()) {
+                break;
+            }
+            levelsCleared++;
+        }
+
+        results.intelligence[index] = (byte) intelligence;
+        results.levelsCleared[index] = (byte) levelsCleared;
+        results.scores[index] = score;
+        results.ticks[index] = ticks;
+    }
+
+    // Jugador aleatorio: en cada cruce de tiles elige una dirección nueva con probabilidad 3/4
+    private static void steerPacman(Pacman pacman, SplittableRandom random) {
+        if (pacman.getX() % GameEngine.TILE_SIZE == 0 && pacman.getY() % GameEngine.TILE_SIZE == 0
+                && random.nextInt(4) != 0) {
+            pacman.setNextDirection(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+        }
+    }
+
+    private class GameRange extends RecursiveAction {
+        private final Results results;
+        private final int from;
+        private final int to;
+
+        GameRange(Results results, int from, int to) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    playGame(i, results);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GameRange(results, from, mid), new GameRange(results, mid, to));
+        }
+    }
+
+    // Resultados por columnas: una posición por partida en cada array
+    public static class Results {
+        public final int[] scores;
+        public final long[] ticks;
+        public final byte[] levelsCleared;
+        public final byte[] intelligence;
+        private long elapsedNanos;
+
+        Results(int games) {
+            scores = new int[games];
+            ticks = new long[games];
+            levelsCleared = new byte[games];
+            intelligence = new byte[games];
+        }
+
+        public int getGames() {
+            return scores.length;
+        }
+
+        public long getTotalTicks() {
+            long total = 0;
+            for (long t : ticks) {
+                total += t;
+            }
+            return total;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getGamesPerSecond() {
+            return getGames() * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        public double getTicksPerSecond() {
+            return getTotalTicks() * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        // Fracción de partidas de una inteligencia dada que completaron todos los niveles
+        public double getWinRate(int ghostIntelligence) {
+            int played = 0;
+            int won = 0;
+            for (int i = 0; i < scores.length; i++) {
+                if (intelligence[i] == ghostIntelligence) {
+                    played++;
+                    if (levelsCleared[i] == GameEngine.getLevelCount()) {
+                        won++;
+                    }
+                }
+            }
+            return played == 0 ? 0.0 : (double) won / played;
+        }
+
+        public double getMeanScore(int ghostIntelligence) {
+            long sum = 0;
+            int played = 0;
+            for (int i = 0; i < scores.length; i++) {
+                if (intelligence[i] == ghostIntelligence) {
+                    sum += scores[i];
+                    played++;
+                }
+            }
+            return played == 0 ? 0.0 : (double) sum / played;
+        }
+    }
+
+    // Uso: java BatchSimulator [partidas] [hilos] [semilla]
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        int[] levels = {1, 2, 3, 4, 5};
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Results results = new BatchSimulator(games, levels, seed).run(pool);
+            System.out.printf("games=%d threads=%d time=%.2fs%n",
+                    results.getGames(), threads, results.getElapsedNanos() / 1e9);
+            System.out.printf("throughput: %.0f games/s, %.0f ticks/s%n",
+                    results.getGamesPerSecond(), results.getTicksPerSecond());
+            for (int level : levels) {
+                System.out.printf("ghost intelligence %d: win rate %.3f, mean score %.1f%n",
+                        level, results.getWinRate(level), results.getMeanScore(level));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the BatchSimulator class.
+ */
+public class BatchSimulatorTest {
+
+    @Test
+    public void testRunFillsEveryGame() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            BatchSimulator.Results results = new BatchSimulator(20, new int[] {1, 3}, 7L).run(pool);
+            Assertions.assertEquals(20, results.getGames());
+            for (int i = 0; i < results.getGames(); i++) {
+                Assertions.assertEquals(i % 2 == 0 ? 1 : 3, results.intelligence[i]);
+                Assertions.assertTrue(results.ticks[i] > 0);
+                Assertions.assertTrue(results.scores[i] >= 0);
+                Assertions.assertTrue(results.levelsCleared[i] >= 0
+                        && results.levelsCleared[i] <= GameEngine.getLevelCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testThroughputIsReported() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            BatchSimulator.Results results = new BatchSimulator(4, new int[] {2}, 1L).run(pool);
+            Assertions.assertTrue(results.getElapsedNanos() > 0);
+            Assertions.assertTrue(results.getTotalTicks() > 0);
+            Assertions.assertTrue(results.getGamesPerSecond() > 0);
+            Assertions.assertTrue(results.getTicksPerSecond() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWinRateAndMeanScoreForUnknownLevel() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            BatchSimulator.Results results = new BatchSimulator(2, new int[] {1}, 1L).run(pool);
+            Assertions.assertEquals(0.0, results.getWinRate(9));
+            Assertions.assertEquals(0.0, results.getMeanScore(9));
+            double winRate = results.getWinRate(1);
+            Assertions.assertTrue(winRate >= 0.0 && winRate <= 1.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(0, new int[] {1}, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(1, new int[0], 1L));
+    }
+}
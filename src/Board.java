@@ -4,318 +4,176 @@ import java.awt.event.*;
 
 public class Board extends JPanel implements ActionListener {
     private Timer timer;
-    private Pacman pacman;
-    private Ghost[] ghosts;
+    private final GameEngine engine;
+    private final GameRenderer renderer;
+    // Si no es null, conduce a Pacman en lugar del teclado
+    private Autopilot autopilot;
+    private static final int STATUS_HEIGHT = GameRenderer.STATUS_HEIGHT;
+    // Zona que se repinta tras cada tick, en coordenadas del panel. Las zonas se piden con
+    // repaint y el RepaintManager las une en un solo pintado por tick.
+    private final Rectangle dirty = new Rectangle();
     
     // Constantes del tablero
-    public static final int TILE_SIZE = 20;
-    public static final int BOARD_WIDTH = 19;
-    public static final int BOARD_HEIGHT = 19;
+    public static final int TILE_SIZE = GameEngine.TILE_SIZE;
+    public static final int BOARD_WIDTH = GameEngine.BOARD_WIDTH;
+    public static final int BOARD_HEIGHT = GameEngine.BOARD_HEIGHT;
     
     // Tipos de celda
-    public static final int EMPTY = 0;
-    public static final int WALL = 1;
-    public static final int POINT = 2;
+    public static final int EMPTY = GameEngine.EMPTY;
+    public static final int WALL = GameEngine.WALL;
+    public static final int POINT = GameEngine.POINT;
     
-    // Nivel actual y puntos totales
-    private int currentLevel = 1;
-    private int totalPoints;
-    private int pointsEaten;
-    private boolean gameWon = false;
-    private boolean gameLost = false;
-    
-    // Mapa del nivel actual
-    private int[][] levelMap;
-    
-    // Posiciones de spawn de Pacman para cada nivel {x, y} en tiles
-    private static final int[][] PACMAN_SPAWN = {
-        {9, 15},  // Nivel 1 - posición original
-        {9, 13},   // Nivel 2 - posición segura (área vacía)
-        {9, 13}    // Nivel 3 - posición segura
-    };
-    
-    // Diseños de los 3 niveles (1 = pared, 2 = punto, 0 = vacío)
-    private static final int[][][] LEVELS = {
-        // Nivel 1 - Laberinto simple
-        {
-            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-            {1,2,2,2,2,2,2,2,2,1,2,2,2,2,2,2,2,2,1},
-            {1,2,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,2,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,2,1,1,2,1,2,1,1,1,1,1,2,1,2,1,1,2,1},
-            {1,2,2,2,2,1,2,2,2,1,2,2,2,1,2,2,2,2,1},
-            {1,1,1,1,2,1,1,1,0,1,0,1,1,1,2,1,1,1,1},
-            {0,0,0,1,2,1,0,0,0,0,0,0,0,1,2,1,0,0,0},
-            {1,1,1,1,2,1,0,1,1,0,1,1,0,1,2,1,1,1,1},
-            {0,0,0,0,2,0,0,1,0,0,0,1,0,0,2,0,0,0,0},
-            {1,1,1,1,2,1,0,1,1,1,1,1,0,1,2,1,1,1,1},
-            {0,0,0,1,2,1,0,0,0,0,0,0,0,1,2,1,0,0,0},
-            {1,1,1,1,2,1,0,1,1,1,1,1,0,1,2,1,1,1,1},
-            {1,2,2,2,2,2,2,2,2,1,2,2,2,2,2,2,2,2,1},
-            {1,2,1,1,2,1,1,1,2,1,2,1,1,1,2,1,1,2,1},
-            {1,2,2,1,2,2,2,2,2,2,2,2,2,2,2,1,2,2,1},
-            {1,1,2,1,2,1,2,1,1,1,1,1,2,1,2,1,2,1,1},
-            {1,2,2,2,2,1,2,2,2,1,2,2,2,1,2,2,2,2,1},
-            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        },
-        // Nivel 2 - Laberinto intermedio
-        {
-            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,2,1,1,1,2,1,1,1,1,1,1,1,2,1,1,1,2,1},
-            {1,2,1,0,0,2,0,0,0,1,0,0,0,2,0,0,1,2,1},
-            {1,2,1,0,1,2,1,1,0,1,0,1,1,2,1,0,1,2,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,2,1,0,1,2,1,0,0,0,0,0,1,2,1,0,1,2,1},
-            {1,2,1,0,0,2,1,0,1,1,1,0,1,2,0,0,1,2,1},
-            {1,2,1,1,1,2,1,0,1,0,1,0,1,2,1,1,1,2,1},
-            {1,2,2,2,2,2,0,0,0,0,0,0,0,2,2,2,2,2,1},
-            {1,2,1,1,1,2,1,0,1,0,1,0,1,2,1,1,1,2,1},
-            {1,2,1,0,0,2,1,0,1,1,1,0,1,2,0,0,1,2,1},
-            {1,2,1,0,1,2,1,0,0,0,0,0,1,2,1,0,1,2,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,2,1,0,1,2,1,1,0,1,0,1,1,2,1,0,1,2,1},
-            {1,2,1,0,0,2,0,0,0,1,0,0,0,2,0,0,1,2,1},
-            {1,2,1,1,1,2,1,1,1,1,1,1,1,2,1,1,1,2,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        },
-        // Nivel 3 - Laberinto avanzado
-        {
-            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-            {1,2,2,2,1,2,2,2,2,2,2,2,2,2,1,2,2,2,1},
-            {1,2,1,2,1,2,1,1,1,1,1,1,1,2,1,2,1,2,1},
-            {1,2,1,2,2,2,2,2,2,1,2,2,2,2,2,2,1,2,1},
-            {1,2,1,1,1,1,1,1,2,1,2,1,1,1,1,1,1,2,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,1,1,2,1,1,1,0,1,0,1,0,1,1,1,2,1,1,1},
-            {0,0,1,2,1,0,0,0,0,0,0,0,0,0,1,2,1,0,0},
-            {1,1,1,2,1,0,1,1,0,0,0,1,1,0,1,2,1,1,1},
-            {2,2,2,2,0,0,1,0,0,0,0,0,1,0,0,2,2,2,2},
-            {1,1,1,2,1,0,1,1,1,0,1,1,1,0,1,2,1,1,1},
-            {0,0,1,2,1,0,0,0,0,0,0,0,0,0,1,2,1,0,0},
-            {1,1,1,2,1,1,1,0,1,1,1,0,1,1,1,2,1,1,1},
-            {1,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,2,1},
-            {1,2,1,1,1,1,1,1,2,1,2,1,1,1,1,1,1,2,1},
-            {1,2,1,2,2,2,2,2,2,1,2,2,2,2,2,2,1,2,1},
-            {1,2,1,2,1,1,2,1,1,1,1,1,2,1,1,2,1,2,1},
-            {1,2,2,2,1,2,2,2,2,2,2,2,2,2,1,2,2,2,1},
-            {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        }
-    };
-
     public Board() {
+        this(new GameEngine());
+    }
+
+    public Board(GameEngine engine) {
+        this.engine = engine;
         setFocusable(true);
         setBackground(Color.BLACK);
-        setPreferredSize(new Dimension(BOARD_WIDTH * TILE_SIZE, BOARD_HEIGHT * TILE_SIZE + 30));
-        loadLevel(currentLevel);
-        timer = new Timer(40, this);
-        timer.start();
+        timer = new Timer(GameEngine.TICK_MILLIS, this);
         addKeyListener(new PacmanKeyAdapter());
+        renderer = new GameRenderer(engine);
     }
-    
-    private void loadLevel(int level) {
-        // Copiar el mapa del nivel
-        int levelIndex = (level - 1) % 3;
-        levelMap = new int[BOARD_HEIGHT][BOARD_WIDTH];
-        totalPoints = 0;
-        pointsEaten = 0;
-        
-        for (int y = 0; y < BOARD_HEIGHT; y++) {
-            for (int x = 0; x < BOARD_WIDTH; x++) {
-                levelMap[y][x] = LEVELS[levelIndex][y][x];
-                if (levelMap[y][x] == POINT) {
-                    totalPoints++;
-                }
-            }
+
+    // El tamaño es el del nivel cargado más la barra de estado
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
         }
-        
-        // Inicializar Pacman y fantasmas
-        int spawnX = PACMAN_SPAWN[levelIndex][0] * TILE_SIZE;
-        int spawnY = PACMAN_SPAWN[levelIndex][1] * TILE_SIZE;
-        pacman = new Pacman(spawnX, spawnY, this);
-        
-        // Crear fantasmas con inteligencia basada en el nivel actual
-        // Nivel 1: 10% de probabilidad de perseguir (suficiente para salir del área inicial)
-        // Nivel 2: 30% de probabilidad de perseguir
-        // Nivel 3+: 60%+ de probabilidad de perseguir con mejor pathfinding
-        ghosts = new Ghost[] {
-            new Ghost(9 * TILE_SIZE, 9 * TILE_SIZE, Color.RED, this, pacman, currentLevel),
-            new Ghost(8 * TILE_SIZE, 9 * TILE_SIZE, Color.PINK, this, pacman, currentLevel),
-            new Ghost(10 * TILE_SIZE, 9 * TILE_SIZE, Color.CYAN, this, pacman, currentLevel)
-        };
-        
-        gameWon = false;
-        gameLost = false;
+        LevelGrid grid = engine.getGrid();
+        return new Dimension(grid.getPixelWidth(), grid.getPixelHeight() + STATUS_HEIGHT);
     }
 
+    // El timer solo corre mientras el panel está en pantalla
     @Override
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        drawBoard(g);
-        pacman.draw(g);
-        for (Ghost ghost : ghosts) {
-            ghost.draw(g);
-        }
-        drawStatus(g);
+    public void addNotify() {
+        super.addNotify();
+        timer.start();
     }
 
-    private void drawBoard(Graphics g) {
-        for (int y = 0; y < BOARD_HEIGHT; y++) {
-            for (int x = 0; x < BOARD_WIDTH; x++) {
-                int cellValue = levelMap[y][x];
-                int pixelX = x * TILE_SIZE;
-                int pixelY = y * TILE_SIZE;
-                
-                if (cellValue == WALL) {
-                    // Dibujar pared
-                    g.setColor(Color.BLUE);
-                    g.fillRect(pixelX, pixelY, TILE_SIZE, TILE_SIZE);
-                    g.setColor(Color.BLUE.darker());
-                    g.drawRect(pixelX, pixelY, TILE_SIZE - 1, TILE_SIZE - 1);
-                } else if (cellValue == POINT) {
-                    // Dibujar punto
-                    g.setColor(Color.WHITE);
-                    int dotSize = 4;
-                    g.fillOval(pixelX + TILE_SIZE / 2 - dotSize / 2, 
-                              pixelY + TILE_SIZE / 2 - dotSize / 2, 
-                              dotSize, dotSize);
-                }
-            }
-        }
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
     }
-    
-    private void drawStatus(Graphics g) {
-        g.setColor(Color.YELLOW);
-        g.drawString("Score: " + pacman.getScore(), 10, BOARD_HEIGHT * TILE_SIZE + 20);
-        g.drawString("Level: " + currentLevel, 150, BOARD_HEIGHT * TILE_SIZE + 20);
-        
-        if (gameWon) {
-            g.setColor(Color.GREEN);
-            g.setFont(new Font("Arial", Font.BOLD, 20));
-            g.drawString("LEVEL COMPLETE!", BOARD_WIDTH * TILE_SIZE / 2 - 80, BOARD_HEIGHT * TILE_SIZE / 2);
-        } else if (gameLost) {
-            g.setColor(Color.RED);
-            g.setFont(new Font("Arial", Font.BOLD, 20));
-            g.drawString("GAME OVER!", BOARD_WIDTH * TILE_SIZE / 2 - 60, BOARD_HEIGHT * TILE_SIZE / 2);
+
+    // Las zonas pedidas en un tick llegan juntas en un solo pintado: cuenta como un fotograma
+    @Override
+    public void paintComponent(Graphics g) {
+        GameMetrics meter = renderer.getMetrics();
+        long start = meter != null ? System.nanoTime() : 0;
+        super.paintComponent(g);
+        renderer.render(g, getGraphicsConfiguration(), 1.0, getWidth(), getHeight());
+        if (meter != null) {
+            meter.recordFrame(start, System.nanoTime() - start);
         }
     }
 
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (!gameWon && !gameLost) {
-            pacman.move();
-            for (Ghost ghost : ghosts) {
-                ghost.move();
-            }
-            checkPointCollision();
-            checkGhostCollision();
-            checkLevelComplete();
+        int level = engine.getCurrentLevel();
+        boolean won = engine.isGameWon();
+        if (autopilot != null) {
+            autopilot.steer();
         }
-        repaint();
-    }
-    
-    private void checkPointCollision() {
-        int pacTileX = (pacman.getX() + TILE_SIZE / 2) / TILE_SIZE;
-        int pacTileY = (pacman.getY() + TILE_SIZE / 2) / TILE_SIZE;
-        
-        if (pacTileX >= 0 && pacTileX < BOARD_WIDTH && pacTileY >= 0 && pacTileY < BOARD_HEIGHT) {
-            if (levelMap[pacTileY][pacTileX] == POINT) {
-                levelMap[pacTileY][pacTileX] = EMPTY;
-                pacman.addScore(10);
-                pointsEaten++;
-            }
+        renderer.beforeTick();
+        engine.step();
+        if (engine.isGameLost()) {
+            timer.stop();
+        }
+        if (level != engine.getCurrentLevel()) {
+            // El nivel nuevo puede tener otro tamaño
+            revalidate();
+            repaint();
+        } else if (won != engine.isGameWon() || engine.isGameLost()) {
+            // Mensaje en el centro: repintar todo
+            repaint();
+        } else {
+            repaintSprites();
+            renderer.toView(0, engine.getGrid().getPixelHeight(), engine.getGrid().getPixelWidth(),
+                    STATUS_HEIGHT, dirty);
+            repaint(0, 0, dirty.y, getWidth(), dirty.height);
         }
     }
-    
-    private void checkGhostCollision() {
-        Rectangle pacRect = new Rectangle(pacman.getX(), pacman.getY(), TILE_SIZE, TILE_SIZE);
-        for (Ghost ghost : ghosts) {
-            Rectangle ghostRect = new Rectangle(ghost.getX(), ghost.getY(), TILE_SIZE, TILE_SIZE);
-            if (pacRect.intersects(ghostRect)) {
-                gameLost = true;
-                timer.stop();
-            }
+
+    // Repinta solo los rectángulos que cubren la posición anterior y la nueva de cada sprite
+    private void repaintSprites() {
+        repaintSprite(renderer.getPreviousX(0), renderer.getPreviousY(0),
+                engine.getPacman().getX(), engine.getPacman().getY());
+        Ghost[] ghosts = engine.getGhosts();
+        for (int i = 0; i < ghosts.length; i++) {
+            repaintSprite(renderer.getPreviousX(i + 1), renderer.getPreviousY(i + 1),
+                    ghosts[i].getX(), ghosts[i].getY());
         }
     }
-    
-    private void checkLevelComplete() {
-        if (pointsEaten >= totalPoints) {
-            gameWon = true;
-            timer.stop();
-            // Avanzar al siguiente nivel después de un breve delay
-            Timer levelTimer = new Timer(2000, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    ((Timer) e.getSource()).stop();
-                    currentLevel++;
-                    loadLevel(currentLevel);
-                    timer.start();
-                    repaint();
-                }
-            });
-            levelTimer.setRepeats(false);
-            levelTimer.start();
+
+    // Las posiciones son del juego; el renderer las pasa a la escala con la que dibuja
+    private void repaintSprite(int oldX, int oldY, int newX, int newY) {
+        if (Math.abs(newX - oldX) > TILE_SIZE || Math.abs(newY - oldY) > TILE_SIZE) {
+            // Salto por el túnel: dos zonas separadas
+            repaintArea(oldX, oldY, TILE_SIZE, TILE_SIZE);
+            repaintArea(newX, newY, TILE_SIZE, TILE_SIZE);
+            return;
         }
+        int x = Math.min(oldX, newX);
+        int y = Math.min(oldY, newY);
+        repaintArea(x, y, Math.abs(newX - oldX) + TILE_SIZE, Math.abs(newY - oldY) + TILE_SIZE);
+    }
+
+    private void repaintArea(int x, int y, int width, int height) {
+        renderer.toView(x, y, width, height, dirty);
+        repaint(dirty);
     }
     
     // Método para verificar si hay una pared en una posición dada
     public boolean isWall(int x, int y) {
-        int tileX = x / TILE_SIZE;
-        int tileY = y / TILE_SIZE;
-        
-        // Permitir salir por los lados (túneles)
-        if (tileX < 0 || tileX >= BOARD_WIDTH) {
-            // Si está fuera de los límites horizontales, verificar si hay un túnel
-            // (si la celda en el borde opuesto no es pared)
-            if (tileY >= 0 && tileY < BOARD_HEIGHT) {
-                // Verificar el borde correspondiente
-                if (tileX < 0) {
-                    // Saliendo por la izquierda, verificar si hay túnel en el borde izquierdo
-                    return levelMap[tileY][0] == WALL;
-                } else {
-                    // Saliendo por la derecha, verificar si hay túnel en el borde derecho
-                    return levelMap[tileY][BOARD_WIDTH - 1] == WALL;
-                }
-            }
-            return true;
-        }
-        
-        if (tileY < 0 || tileY >= BOARD_HEIGHT) {
-            return true; // Fuera de límites verticales se considera pared
-        }
-        return levelMap[tileY][tileX] == WALL;
+        return engine.isWall(x, y);
     }
     
     // Método para verificar si un movimiento es válido (no hay pared)
     public boolean canMove(int x, int y, int size) {
-        // Verificar las 4 esquinas del sprite
-        return !isWall(x, y) && 
-               !isWall(x + size - 1, y) && 
-               !isWall(x, y + size - 1) && 
-               !isWall(x + size - 1, y + size - 1);
+        return engine.canMove(x, y, size);
     }
     
     // Método para obtener el ancho del tablero en píxeles
     public int getBoardPixelWidth() {
-        return BOARD_WIDTH * TILE_SIZE;
+        return engine.getBoardPixelWidth();
     }
     
     // Método para aplicar el efecto túnel (wrap-around horizontal)
     public int wrapX(int x) {
-        int boardPixelWidth = getBoardPixelWidth();
-        if (x < -TILE_SIZE) {
-            return boardPixelWidth - TILE_SIZE;
-        } else if (x >= boardPixelWidth) {
-            return 0;
-        }
-        return x;
+        return engine.wrapX(x);
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    // Medidas de ticks y fotogramas con su HUD (F3 lo muestra u oculta); null las quita
+    public void setMetrics(GameMetrics metrics) {
+        engine.setMetrics(metrics);
+        renderer.setMetrics(metrics);
+    }
+
+    // Mide el primer fotograma y el primer tick (ver StartupTimer)
+    public void setStartupTimer(StartupTimer startup) {
+        engine.addListener(startup);
+        renderer.setStartupTimer(startup);
+    }
+
+    public void setAutopilot(Autopilot autopilot) {
+        this.autopilot = autopilot;
     }
 
     private class PacmanKeyAdapter extends KeyAdapter {
         @Override
         public void keyPressed(KeyEvent e) {
-            pacman.keyPressed(e);
+            if (e.getKeyCode() == KeyEvent.VK_F3) {
+                GameCanvas.toggleHud(renderer.getMetrics());
+            }
+            engine.getPacman().keyPressed(e);
         }
     }
 }
\ No newline at end of file
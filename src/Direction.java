@@ -10,4 +10,13 @@ public enum Direction {
     public int getAngle() {
         return angle;
     }
+
+    public Direction opposite() {
+        switch (this) {
+            case LEFT: return RIGHT;
+            case RIGHT: return LEFT;
+            case UP: return DOWN;
+            default: return UP;
+        }
+    }
 }
\ No newline at end of file
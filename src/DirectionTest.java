@@ -41,4 +41,12 @@ public class DirectionTest {
         assertNotNull(Direction.valueOf("UP"));
         assertNotNull(Direction.valueOf("DOWN"));
     }
+
+    @Test
+    public void testOppositeDirections() {
+        Assertions.assertEquals(Direction.RIGHT, Direction.LEFT.opposite());
+        Assertions.assertEquals(Direction.LEFT, Direction.RIGHT.opposite());
+        Assertions.assertEquals(Direction.DOWN, Direction.UP.opposite());
+        Assertions.assertEquals(Direction.UP, Direction.DOWN.opposite());
+    }
 }
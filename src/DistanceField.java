@@ -0,0 +1,197 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Distancias de camino más corto (BFS) entre tiles del laberinto, incluidos los túneles.
+// En mapas pequeños se precalculan todos los pares al cargar el nivel y la siguiente
+// dirección hacia cualquier destino es una lectura de array. En mapas grandes los campos
+// se calculan por destino bajo demanda y se guardan en una caché LRU limitada.
+// Cada Level guarda su DistanceField, así que lo comparten todas las partidas del nivel.
+public class DistanceField {
+    // Mapas de hasta este número de celdas usan tablas de todos los pares
+    public static final int ALL_PAIRS_MAX_CELLS = 1024;
+    // Campos por destino que se conservan en modo perezoso
+    public static final int DEFAULT_LAZY_FIELDS = 64;
+    // Celdas que suman como mucho los campos perezosos en caché (5 bytes por celda)
+    public static final long LAZY_CACHE_CELLS = 1L << 24;
+
+    public static final int UNREACHABLE = -1;
+    private static final byte NO_DIRECTION = -1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+    private final int height;
+    private final int cells;
+    // Solo se leen las paredes, que no cambian durante la partida
+    private final LevelGrid grid;
+
+    // Modo todos los pares: índice destino * celdas + origen. Caben en short porque un
+    // camino tiene menos pasos que celdas el mapa; los campos perezosos usan int, ya que
+    // un laberinto grande puede tener caminos de más de 65535 tiles.
+    private final short[] allDistances;
+    private final byte[] allDirections;
+
+    // Modo perezoso: destino -> campo
+    private final Map<Integer, Field> lazyFields;
+
+    // Campo de distancias hacia un único destino
+    private static final class Field {
+        final int[] distances;
+        final byte[] directions;
+
+        Field(int cells) {
+            distances = new int[cells];
+            directions = new byte[cells];
+        }
+    }
+
+    // Indica si new DistanceField(grid) precalcula todos los pares, sin construirlo
+    public static boolean usesAllPairs(LevelGrid grid) {
+        return (long) grid.getWidth() * grid.getHeight() <= ALL_PAIRS_MAX_CELLS;
+    }
+
+    public DistanceField(LevelGrid grid) {
+        this(grid, DEFAULT_LAZY_FIELDS);
+    }
+
+    public DistanceField(LevelGrid grid, int maxLazyFields) {
+        this(grid, ALL_PAIRS_MAX_CELLS, maxLazyFields);
+    }
+
+    DistanceField(LevelGrid grid, int allPairsMaxCells, int maxLazyFields) {
+        this.grid = grid;
+        width = grid.getWidth();
+        height = grid.getHeight();
+        cells = width * height;
+
+        if (cells <= Math.min(allPairsMaxCells, Short.MAX_VALUE)) {
+            allDistances = new short[cells * cells];
+            allDirections = new byte[cells * cells];
+            int[] queue = new int[cells];
+            int[] distances = new int[cells];
+            for (int target = 0; target < cells; target++) {
+                fill(target, distances, allDirections, target * cells, queue);
+                for (int i = 0; i < cells; i++) {
+                    allDistances[target * cells + i] = (short) distances[i];
+                }
+            }
+            lazyFields = null;
+        } else {
+            allDistances = null;
+            allDirections = null;
+            // En mapas enormes caben menos campos en memoria
+            final int maxFields = (int) Math.max(1, Math.min(maxLazyFields, LAZY_CACHE_CELLS / cells));
+            lazyFields = new LinkedHashMap<Integer, Field>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Field> eldest) {
+                    return size() > maxFields;
+                }
+            };
+        }
+    }
+
+    public boolean isAllPairs() {
+        return allDistances != null;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Longitud del camino más corto en tiles, o UNREACHABLE
+    public int distance(int fromCol, int fromRow, int toCol, int toRow) {
+        int from = fromRow * width + fromCol;
+        int to = toRow * width + toCol;
+        if (!walkable(from) || !walkable(to)) {
+            return UNREACHABLE;
+        }
+        if (allDistances != null) {
+            return allDistances[to * cells + from];
+        }
+        return lazyField(to).distances[from];
+    }
+
+    // Primer paso del camino más corto desde (fromCol, fromRow) hasta (toCol, toRow).
+    // Devuelve null si ya está en el destino o si no hay camino.
+    public Direction nextDirection(int fromCol, int fromRow, int toCol, int toRow) {
+        int from = fromRow * width + fromCol;
+        int to = toRow * width + toCol;
+        if (!walkable(from) || !walkable(to)) {
+            return null;
+        }
+        byte direction;
+        if (allDirections != null) {
+            direction = allDirections[to * cells + from];
+        } else {
+            direction = lazyField(to).directions[from];
+        }
+        return direction == NO_DIRECTION ? null : DIRECTIONS[direction];
+    }
+
+    synchronized int getCachedFieldCount() {
+        return lazyFields == null ? 0 : lazyFields.size();
+    }
+
+    private synchronized Field lazyField(int target) {
+        Field field = lazyFields.get(target);
+        if (field == null) {
+            field = new Field(cells);
+            fill(target, field.distances, field.directions, 0, new int[cells]);
+            lazyFields.put(target, field);
+        }
+        return field;
+    }
+
+    // BFS desde el destino; para cada celda guarda la distancia (en distances, desde 0) y
+    // la dirección del vecino por el que se llega antes al destino (en directions, desde offset)
+    private void fill(int target, int[] distances, byte[] directions, int offset, int[] queue) {
+        for (int i = 0; i < cells; i++) {
+            distances[i] = UNREACHABLE;
+            directions[offset + i] = NO_DIRECTION;
+        }
+        if (!walkable(target)) {
+            return;
+        }
+        distances[target] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = target;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distances[cell] + 1;
+            for (Direction dir : DIRECTIONS) {
+                int neighbor = neighbor(cell, dir);
+                if (neighbor >= 0 && distances[neighbor] == UNREACHABLE) {
+                    distances[neighbor] = next;
+                    // Desde el vecino se llega a esta celda moviéndose en sentido contrario
+                    directions[offset + neighbor] = (byte) dir.opposite().ordinal();
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    // Celda vecina transitable en una dirección (con túneles horizontales), o -1
+    private int neighbor(int cell, Direction dir) {
+        int col = cell % width;
+        int row = cell / width;
+        switch (dir) {
+            case LEFT: col = col == 0 ? width - 1 : col - 1; break;
+            case RIGHT: col = col == width - 1 ? 0 : col + 1; break;
+            case UP: row--; break;
+            case DOWN: row++; break;
+        }
+        if (row < 0 || row >= height) {
+            return -1;
+        }
+        int index = row * width + col;
+        return walkable(index) ? index : -1;
+    }
+
+    private boolean walkable(int cell) {
+        return !grid.isWallTile(cell % width, cell / width);
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DistanceField class.
+ */
+public class DistanceFieldTest {
+
+    @Test
+    public void testSmallLevelsUseAllPairs() {
+        DistanceField field = new DistanceField(new GameEngine(1).getGrid());
+        Assertions.assertTrue(field.isAllPairs());
+    }
+
+    @Test
+    public void testDistanceAlongCorridor() {
+        DistanceField field = new DistanceField(new GameEngine(1).getGrid());
+        Assertions.assertEquals(0, field.distance(1, 1, 1, 1));
+        Assertions.assertEquals(2, field.distance(1, 1, 1, 3));
+        Assertions.assertEquals(Direction.DOWN, field.nextDirection(1, 1, 1, 3));
+        assertNull(field.nextDirection(1, 1, 1, 1));
+    }
+
+    @Test
+    public void testTunnelIsOneStep() {
+        // Fila 9 del nivel 1: las columnas 0 y 18 están conectadas por el túnel
+        DistanceField field = new DistanceField(new GameEngine(1).getGrid());
+        Assertions.assertEquals(1, field.distance(0, 9, 18, 9));
+        Assertions.assertEquals(Direction.LEFT, field.nextDirection(0, 9, 18, 9));
+        Assertions.assertEquals(Direction.RIGHT, field.nextDirection(18, 9, 0, 9));
+    }
+
+    @Test
+    public void testWallsAreUnreachable() {
+        DistanceField field = new DistanceField(new GameEngine(1).getGrid());
+        Assertions.assertEquals(DistanceField.UNREACHABLE, field.distance(0, 0, 1, 1));
+        assertNull(field.nextDirection(1, 1, 0, 0));
+    }
+
+    @Test
+    public void testNextDirectionReducesDistance() {
+        LevelGrid grid = new GameEngine(3).getGrid();
+        DistanceField field = new DistanceField(grid);
+        int fromCol = 1;
+        int fromRow = 1;
+        int toCol = 17;
+        int toRow = 17;
+        int steps = 0;
+        int expected = field.distance(fromCol, fromRow, toCol, toRow);
+        while (fromCol != toCol || fromRow != toRow) {
+            Direction dir = field.nextDirection(fromCol, fromRow, toCol, toRow);
+            switch (dir) {
+                case LEFT: fromCol = fromCol == 0 ? grid.getWidth() - 1 : fromCol - 1; break;
+                case RIGHT: fromCol = fromCol == grid.getWidth() - 1 ? 0 : fromCol + 1; break;
+                case UP: fromRow--; break;
+                case DOWN: fromRow++; break;
+            }
+            Assertions.assertFalse(grid.isWallTile(fromCol, fromRow));
+            steps++;
+        }
+        Assertions.assertEquals(expected, steps);
+    }
+
+    @Test
+    public void testLazyFieldsMatchAllPairs() {
+        LevelGrid grid = new GameEngine(2).getGrid();
+        DistanceField allPairs = new DistanceField(grid);
+        DistanceField lazy = new DistanceField(grid, 0, 8);
+        assertFalse(lazy.isAllPairs());
+        for (int row = 0; row < grid.getHeight(); row++) {
+            for (int col = 0; col < grid.getWidth(); col++) {
+                Assertions.assertEquals(allPairs.distance(col, row, 9, 9), lazy.distance(col, row, 9, 9));
+                Assertions.assertEquals(allPairs.nextDirection(col, row, 9, 9), lazy.nextDirection(col, row, 9, 9));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyFieldsAreEvicted() {
+        LevelGrid grid = new GameEngine(1).getGrid();
+        DistanceField lazy = new DistanceField(grid, 0, 2);
+        lazy.distance(1, 1, 1, 3);
+        lazy.distance(1, 1, 2, 3);
+        lazy.distance(1, 1, 3, 3);
+        Assertions.assertEquals(2, lazy.getCachedFieldCount());
+    }
+
+    @Test
+    public void testLevelFieldsAreCached() {
+        GameEngine first = new GameEngine(2);
+        GameEngine second = new GameEngine(2);
+        assertSame(first.getDistanceField(), second.getDistanceField());
+    }
+
+    @Test
+    public void testLongCorridorDistancesDoNotOverflow() {
+        // Pasillo recto de 70000 tiles: hay caminos de más de 65535 pasos
+        int length = 70_000;
+        LevelGrid grid = new LevelGrid(length + 2, 3);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < length + 2; col++) {
+                boolean open = row == 1 && col > 0 && col <= length;
+                grid.set(col, row, open ? GameEngine.EMPTY : GameEngine.WALL);
+            }
+        }
+        DistanceField field = new DistanceField(grid, 1);
+        assertFalse(field.isAllPairs());
+        Assertions.assertEquals(length - 1, field.distance(length, 1, 1, 1));
+        Assertions.assertEquals(65_535, field.distance(65_536, 1, 1, 1));
+        Assertions.assertEquals(Direction.LEFT, field.nextDirection(length, 1, 1, 1));
+    }
+}
@@ -0,0 +1,275 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Dibuja fotogramas de una partida en imágenes fuera de pantalla (funciona con
+// java.awt.headless=true) y los codifica en otros hilos: miniaturas para CI, vídeos de
+// repeticiones o capturas para informes de errores.
+// El hilo de la simulación solo dibuja (lo mismo que Board.paintComponent) en una de
+// las imágenes libres y la deja en una cola; los hilos codificadores la pasan al
+// FrameSink y la devuelven. Hay tantas imágenes como indique buffers, así que la
+// memoria está acotada: con offer, si no queda ninguna libre el fotograma se descarta y
+// la partida no espera nunca; con capture se espera a que haya una.
+public class FrameExporter implements GameEngine.Listener, AutoCloseable {
+    public static final int DEFAULT_BUFFERS = 64;
+
+    // Destino de los fotogramas. Lo llaman a la vez todos los hilos codificadores y la
+    // imagen solo es válida durante la llamada.
+    public interface FrameSink {
+        void write(long frame, long tick, BufferedImage image) throws IOException;
+    }
+
+    private static final class Frame {
+        final BufferedImage image;
+        final Graphics2D graphics;
+        long index;
+        long tick;
+
+        Frame(BufferedImage image) {
+            this.image = image;
+            this.graphics = image != null ? image.createGraphics() : null;
+        }
+    }
+
+    // Avisa a un codificador de que termine
+    private static final Frame STOP = new Frame(null);
+
+    private final GameEngine engine;
+    private final GameRenderer renderer;
+    private final FrameSink sink;
+    private final int width;
+    private final int height;
+    private final ArrayBlockingQueue<Frame> free;
+    private final ArrayBlockingQueue<Frame> pending;
+    private final Thread[] encoders;
+    private final AtomicLong written = new AtomicLong();
+    // Primer error de codificación; los fotogramas siguientes se descartan
+    private volatile IOException failure;
+
+    // Solo los toca el hilo de la simulación
+    private long nextIndex;
+    private volatile long captured;
+    private volatile long dropped;
+    private int interval;
+    private boolean blocking;
+    private volatile boolean closed;
+
+    // Fotogramas de width x height píxeles (el juego se escala para llenarlos, como en Board)
+    public FrameExporter(GameEngine engine, int width, int height, FrameSink sink, int encoderThreads, int buffers) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("frame size must be positive: " + width + "x" + height);
+        }
+        if (encoderThreads < 1) {
+            throw new IllegalArgumentException("encoderThreads must be at least 1: " + encoderThreads);
+        }
+        if (buffers < 1) {
+            throw new IllegalArgumentException("buffers must be at least 1: " + buffers);
+        }
+        this.engine = engine;
+        this.renderer = new GameRenderer(engine);
+        this.sink = sink;
+        this.width = width;
+        this.height = height;
+        free = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            free.add(new Frame(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB)));
+        }
+        // Caben todos los fotogramas y los avisos de parada, así que put nunca espera
+        pending = new ArrayBlockingQueue<>(buffers + encoderThreads);
+        encoders = new Thread[encoderThreads];
+        for (int i = 0; i < encoderThreads; i++) {
+            encoders[i] = new Thread(this::encodeLoop, "pacman-frame-encoder-" + i);
+            encoders[i].setDaemon(true);
+            encoders[i].start();
+        }
+        engine.addListener(this);
+    }
+
+    // Fotogramas del tamaño natural del nivel actual multiplicado por scale
+    public FrameExporter(GameEngine engine, int scale, FrameSink sink, int encoderThreads) {
+        this(engine, engine.getGrid().getPixelWidth() * scale,
+                (engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT) * scale,
+                sink, encoderThreads, DEFAULT_BUFFERS);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Captura un fotograma automáticamente cada ticks ticks (0 = solo a mano). Con
+    // blocking se espera a que haya una imagen libre en vez de descartar el fotograma.
+    public void captureEvery(int ticks, boolean blocking) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("ticks must not be negative: " + ticks);
+        }
+        this.interval = ticks;
+        this.blocking = blocking;
+    }
+
+    @Override
+    public void tickCompleted(long tick) {
+        if (interval == 0 || tick % interval != 0 || closed) {
+            return;
+        }
+        if (!blocking) {
+            offer();
+            return;
+        }
+        try {
+            capture();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Dibuja el estado actual si hay una imagen libre; si no, descarta el fotograma y
+    // devuelve false sin esperar
+    public boolean offer() {
+        Frame frame = closed ? null : free.poll();
+        if (frame == null) {
+            dropped++;
+            return false;
+        }
+        submit(frame);
+        return true;
+    }
+
+    // Dibuja el estado actual, esperando a que los codificadores liberen una imagen
+    public void capture() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("exporter is closed");
+        }
+        submit(free.take());
+    }
+
+    private void submit(Frame frame) {
+        Graphics2D g = frame.graphics;
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+        renderer.render(g, null, 1.0, width, height);
+        frame.index = nextIndex++;
+        frame.tick = engine.getTickCount();
+        captured++;
+        pending.add(frame);
+    }
+
+    private void encodeLoop() {
+        while (true) {
+            Frame frame;
+            try {
+                frame = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (frame == STOP) {
+                return;
+            }
+            if (failure == null) {
+                try {
+                    sink.write(frame.index, frame.tick, frame.image);
+                    written.incrementAndGet();
+                } catch (IOException e) {
+                    failure = e;
+                } catch (RuntimeException e) {
+                    failure = new IOException("frame " + frame.index + " could not be encoded", e);
+                }
+            }
+            free.add(frame);
+        }
+    }
+
+    // Fotogramas dibujados y entregados a los codificadores
+    public long getFramesCaptured() {
+        return captured;
+    }
+
+    // Fotogramas descartados por offer al no quedar imágenes libres
+    public long getFramesDropped() {
+        return dropped;
+    }
+
+    public long getFramesWritten() {
+        return written.get();
+    }
+
+    // Espera a que se codifiquen todos los fotogramas capturados y para los hilos.
+    // Lanza el primer error de codificación, si lo hubo.
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            for (int i = 0; i < encoders.length; i++) {
+                pending.add(STOP);
+            }
+            try {
+                for (Thread encoder : encoders) {
+                    encoder.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for frame encoders", e);
+            }
+            for (Frame frame : free) {
+                frame.graphics.dispose();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // ---- Destinos ----
+
+    // PNG numerados (frame-000000.png, ...) en un directorio (ver PngEncoder)
+    public static FrameSink pngSequence(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        // Cada codificador usa su propio PngEncoder
+        ThreadLocal<PngEncoder> encoders = ThreadLocal.withInitial(PngEncoder::new);
+        return (frame, tick, image) -> {
+            Path file = directory.resolve(String.format("frame-%06d.png", frame));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                encoders.get().write(image, out);
+            }
+        };
+    }
+
+    // Uso: java FrameExporter repetición directorio [cada N ticks] [escala] [hilos]
+    // Exporta los fotogramas de una repetición como PNG numerados, sin pantalla.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        ReplayLog log = ReplayLog.read(Paths.get(args[0]));
+        Path directory = Paths.get(args[1]);
+        int every = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int scale = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        GameEngine engine = log.newEngine();
+        long start = System.nanoTime();
+        FrameExporter exporter = new FrameExporter(engine, scale, pngSequence(directory), threads);
+        try {
+            exporter.capture();
+            exporter.captureEvery(every, true);
+            log.play(engine);
+        } finally {
+            exporter.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("frames=%d size=%dx%d threads=%d time=%.2fs (%.0f frames/s) -> %s%n",
+                exporter.getFramesWritten(), exporter.getWidth(), exporter.getHeight(), threads, seconds,
+                exporter.getFramesWritten() / Math.max(seconds, 1e-9), directory);
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Unit tests for the FrameExporter class.
+ */
+public class FrameExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Copia de cada fotograma por número
+    private static final class CopySink implements FrameExporter.FrameSink {
+        final Map<Long, BufferedImage> frames = new ConcurrentHashMap<>();
+        final Map<Long, Long> ticks = new ConcurrentHashMap<>();
+
+        @Override
+        public void write(long frame, long tick, BufferedImage image) {
+            BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            copy.setData(image.getRaster());
+            frames.put(frame, copy);
+            ticks.put(frame, tick);
+        }
+    }
+
+    @Test
+    public void testFrameMatchesBoardPaint() throws Exception {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        engine.step(20);
+        CopySink sink = new CopySink();
+        try (FrameExporter exporter = new FrameExporter(engine, 1, sink, 2)) {
+            exporter.capture();
+        }
+        BufferedImage frame = sink.frames.get(0L);
+
+        Board board = new Board(engine);
+        board.setSize(frame.getWidth(), frame.getHeight());
+        BufferedImage painted = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = painted.createGraphics();
+        board.paintComponent(g);
+        g.dispose();
+        for (int y = 0; y < frame.getHeight(); y++) {
+            for (int x = 0; x < frame.getWidth(); x++) {
+                Assertions.assertEquals(painted.getRGB(x, y), frame.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testCaptureEveryTicks() throws IOException {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        CopySink sink = new CopySink();
+        FrameExporter exporter = new FrameExporter(engine, 1, sink, 2);
+        exporter.captureEvery(5, true);
+        engine.step(50);
+        exporter.close();
+        Assertions.assertEquals(10, exporter.getFramesCaptured());
+        Assertions.assertEquals(10, exporter.getFramesWritten());
+        Assertions.assertEquals(50L, sink.ticks.get(9L).longValue());
+        // Después de cerrar no se captura nada más
+        engine.step(5);
+        Assertions.assertEquals(10, exporter.getFramesCaptured());
+    }
+
+    @Test
+    public void testOfferDropsFramesInsteadOfWaiting() throws Exception {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        FrameExporter exporter = new FrameExporter(engine, 100, 100, (frame, tick, image) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1, 2);
+        Assertions.assertTrue(exporter.offer());
+        Assertions.assertTrue(exporter.offer());
+        // Las dos imágenes están ocupadas: el tercero se descarta sin bloquear
+        Assertions.assertFalse(exporter.offer());
+        Assertions.assertEquals(1, exporter.getFramesDropped());
+        release.countDown();
+        exporter.close();
+        Assertions.assertEquals(2, exporter.getFramesWritten());
+    }
+
+    @Test
+    public void testEncodingErrorIsReportedOnClose() throws InterruptedException {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        FrameExporter exporter = new FrameExporter(engine, 10, 10, (frame, tick, image) -> {
+            throw new IOException("disk full");
+        }, 1, 1);
+        exporter.capture();
+        IOException error = Assertions.assertThrows(IOException.class, exporter::close);
+        Assertions.assertEquals("disk full", error.getMessage());
+        Assertions.assertThrows(IllegalStateException.class, exporter::capture);
+    }
+
+    @Test
+    public void testPngSequenceOfReplay() throws IOException {
+        GameEngine recorded = new GameEngine(1, 0, 3, 7);
+        ReplayLog.Recorder recorder = ReplayLog.record(recorded);
+        recorded.getPacman().setNextDirection(Direction.LEFT);
+        recorded.step(30);
+        ReplayLog log = recorder.finish();
+
+        Path directory = tempDir.resolve("frames");
+        GameEngine engine = log.newEngine();
+        FrameExporter exporter = new FrameExporter(engine, 2, FrameExporter.pngSequence(directory), 2);
+        exporter.captureEvery(10, true);
+        Assertions.assertTrue(log.matches(log.play(engine)));
+        exporter.close();
+
+        Assertions.assertEquals(3, exporter.getFramesWritten());
+        for (int frame = 0; frame < 3; frame++) {
+            Path file = directory.resolve(String.format("frame-%06d.png", frame));
+            Assertions.assertTrue(Files.exists(file), file.toString());
+            BufferedImage image = ImageIO.read(file.toFile());
+            Assertions.assertEquals(exporter.getWidth(), image.getWidth());
+            Assertions.assertEquals(2 * (engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT),
+                    image.getHeight());
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        FrameExporter.FrameSink sink = (frame, tick, image) -> { };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FrameExporter(engine, 0, 10, sink, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FrameExporter(engine, 10, 10, sink, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FrameExporter(engine, 10, 10, sink, 1, 0));
+    }
+}
@@ -1,18 +1,188 @@
 import javax.swing.JFrame;
+import javax.swing.JScrollPane;
+import java.awt.Dimension;
+import java.awt.Toolkit;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 public class Game extends JFrame {
+    // Solo uno de los dos existe, según el modo de renderizado
+    private GameCanvas canvas;
+    private Board board;
+
     public Game() {
-        Board board = new Board();
-        add(board);
+        this(true, 1);
+    }
+
+    // activeRendering elige el bucle con BufferStrategy; si no, se usa el Board con Swing Timer
+    public Game(boolean activeRendering, int fastForward) {
+        this(new GameEngine(), activeRendering, fastForward);
+    }
+
+    public Game(GameEngine engine, boolean activeRendering, int fastForward) {
+        LevelGrid grid = engine.getGrid();
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        boolean fitsOnScreen = grid.getPixelWidth() <= screen.width
+                && grid.getPixelHeight() + GameRenderer.STATUS_HEIGHT <= screen.height;
+        if (activeRendering && fitsOnScreen) {
+            canvas = new GameCanvas(engine);
+            canvas.setFastForward(fastForward);
+            canvas.setPreferredSize(zoomed(canvas.getPreferredSize(), screen));
+            add(canvas);
+        } else if (fitsOnScreen) {
+            board = new Board(engine);
+            board.setPreferredSize(zoomed(board.getPreferredSize(), screen));
+            add(board);
+        } else {
+            // Los laberintos más grandes que la pantalla se juegan con desplazamiento
+            board = new Board(engine);
+            add(new JScrollPane(board));
+        }
         setTitle("Pac-Man");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         pack();
+        if (!fitsOnScreen) {
+            setSize(Math.min(getWidth(), screen.width), Math.min(getHeight(), screen.height));
+        }
+        // Al cambiar el tamaño de la ventana el juego se vuelve a escalar para llenarla
         setLocationRelativeTo(null);
-        setResizable(false);
     }
 
-    public static void main(String[] args) {
-        Game game = new Game();
+    // Tamaño inicial: el mayor zoom entero con el que la ventana ocupa como mucho tres
+    // cuartos de la pantalla (en pantallas 4K sin escalado del sistema sale 3x o 4x)
+    static Dimension zoomed(Dimension size, Dimension screen) {
+        int zoom = Math.max(1, Math.min(screen.width * 3 / 4 / size.width, screen.height * 3 / 4 / size.height));
+        return new Dimension(size.width * zoom, size.height * zoom);
+    }
+
+    // Pacman pasa a jugar solo (ver Autopilot)
+    public void setAutopilot(Autopilot autopilot) {
+        if (canvas != null) {
+            canvas.setAutopilot(autopilot);
+        } else {
+            board.setAutopilot(autopilot);
+        }
+    }
+
+    // Medidas de rendimiento con HUD en el marcador (ver GameMetrics)
+    public void setMetrics(GameMetrics metrics) {
+        if (canvas != null) {
+            canvas.setMetrics(metrics);
+        } else {
+            board.setMetrics(metrics);
+        }
+    }
+
+    // Mide el arranque hasta el primer fotograma y el primer tick (ver StartupTimer)
+    public void setStartupTimer(StartupTimer startup) {
+        if (canvas != null) {
+            canvas.setStartupTimer(startup);
+        } else {
+            board.setStartupTimer(startup);
+        }
+    }
+
+    // Guarda la repetición de la partida al cerrar la ventana
+    private void saveReplayOnClose(final ReplayLog.Recorder recorder, final Path file) {
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                try {
+                    recorder.finish().write(file);
+                } catch (IOException ex) {
+                    System.err.println("cannot save replay to " + file + ": " + ex.getMessage());
+                }
+            }
+        });
+    }
+
+    // Opciones: --timer para usar el Swing Timer, --fast-forward N para simular N ticks por tick,
+    // --level FICHERO para jugar un nivel en formato de texto o binario, --seed N para repetir
+    // una partida, --record FICHERO para guardar su repetición (ver ReplayLog), --autopilot
+    // para que Pacman juegue solo (ver Autopilot), --metrics para medir ticks y fotogramas
+    // con un HUD en el marcador (F3 lo oculta; con JFR también quedan en la grabación) y
+    // --startup-report o --startup-log FICHERO para escribir los tiempos de arranque en
+    // stderr o añadirlos a un CSV (ver StartupTimer)
+    public static void main(String[] args) throws IOException {
+        StartupTimer startup = new StartupTimer();
+        boolean activeRendering = true;
+        int fastForward = 1;
+        Level level = null;
+        long seed = GameRandom.newSeed();
+        Path replayFile = null;
+        boolean autopilot = false;
+        boolean metrics = false;
+        boolean startupReport = false;
+        Path startupLog = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--timer".equals(args[i])) {
+                activeRendering = false;
+            } else if ("--fast-forward".equals(args[i]) && i + 1 < args.length) {
+                fastForward = Integer.parseInt(args[++i]);
+            } else if ("--level".equals(args[i]) && i + 1 < args.length) {
+                level = LevelLoader.load(Paths.get(args[++i]));
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if ("--record".equals(args[i]) && i + 1 < args.length) {
+                replayFile = Paths.get(args[++i]);
+            } else if ("--autopilot".equals(args[i])) {
+                autopilot = true;
+            } else if ("--metrics".equals(args[i])) {
+                metrics = true;
+            } else if ("--startup-report".equals(args[i])) {
+                startupReport = true;
+            } else if ("--startup-log".equals(args[i]) && i + 1 < args.length) {
+                startupLog = Paths.get(args[++i]);
+            }
+        }
+        // El motor (primer nivel y fantasmas) se prepara en otro hilo mientras este inicia
+        // AWT, que es lo más lento del arranque; las distancias del nivel siguen
+        // calculándose en segundo plano hasta que algún fantasma las necesita
+        final Level customLevel = level;
+        final long gameSeed = seed;
+        CompletableFuture<GameEngine> engineReady = CompletableFuture.supplyAsync(() -> customLevel != null
+                ? new GameEngine(new Level[] {customLevel}, 1, 0, GameEngine.DEFAULT_GHOST_COUNT, gameSeed)
+                : new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, gameSeed));
+        Toolkit.getDefaultToolkit();
+        GameEngine engine = engineReady.join();
+        startup.engineReady();
+
+        ReplayLog.Recorder recorder = replayFile != null ? ReplayLog.record(engine) : null;
+        Game game = new Game(engine, activeRendering, fastForward);
+        if (recorder != null) {
+            game.saveReplayOnClose(recorder, replayFile);
+        }
+        if (metrics) {
+            game.setMetrics(new GameMetrics());
+        }
+        if (startupReport || startupLog != null) {
+            final boolean print = startupReport;
+            final Path log = startupLog;
+            startup.setOnComplete(() -> {
+                if (print) {
+                    startup.print(System.err);
+                }
+                if (log != null) {
+                    try {
+                        startup.writeLog(log);
+                    } catch (IOException e) {
+                        System.err.println("cannot write startup log " + log + ": " + e.getMessage());
+                    }
+                }
+            });
+            game.setStartupTimer(startup);
+        }
         game.setVisible(true);
+        startup.windowShown();
+
+        // Lo que no hace falta para el primer fotograma se prepara con la ventana ya visible
+        // (el piloto automático empieza a conducir unos ticks después)
+        if (autopilot) {
+            game.setAutopilot(new Autopilot(engine));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,274 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferStrategy;
+
+// Modo de renderizado activo: un hilo propio simula a ritmo fijo (un tick cada
+// TICK_MILLIS) y dibuja con un BufferStrategy tan rápido como refresca la pantalla,
+// interpolando las posiciones entre el tick anterior y el actual. En avance rápido
+// se simulan varios ticks por cada fotograma. El Board con Swing Timer sigue siendo
+// la alternativa cuando no se quiere o no se puede usar este modo. El juego se escala
+// para llenar el canvas (ver GameRenderer).
+public class GameCanvas extends Canvas implements Runnable {
+    public static final long TICK_NANOS = GameEngine.TICK_MILLIS * 1_000_000L;
+    // Ticks que se recuperan como mucho por fotograma a velocidad normal; si el
+    // retraso es mayor se descarta para no entrar en una espiral de ticks atrasados
+    public static final int MAX_CATCH_UP_TICKS = 5;
+    public static final int DEFAULT_REFRESH_RATE = 60;
+    private static final int[] FAST_FORWARD_STEPS = {1, 4, 16, 64};
+    // Tecla de retroceso: vuelve 5 segundos atrás
+    public static final int REWIND_TICKS = 5000 / GameEngine.TICK_MILLIS;
+
+    private final GameEngine engine;
+    private final GameRenderer renderer;
+    private volatile Direction pendingDirection;
+    private volatile boolean rewindRequested;
+    // Si no es null, conduce a Pacman en lugar del teclado
+    private volatile Autopilot autopilot;
+    // Keyframes de la sesión para poder rebobinar
+    private final GameTimeline timeline;
+    private volatile int fastForward = 1;
+    // Hilo del bucle activo; al ponerlo a null (o a otro hilo) el anterior deja de dibujar
+    private volatile Thread loopThread;
+
+    // Tiempo simulado pendiente, en nanosegundos; solo lo toca el hilo del bucle
+    private long accumulator;
+
+    public GameCanvas(GameEngine engine) {
+        this.engine = engine;
+        this.renderer = new GameRenderer(engine);
+        // Solo se rebobina REWIND_TICKS: no hace falta guardar más historia
+        this.timeline = GameTimeline.attach(engine, GameTimeline.DEFAULT_KEYFRAME_INTERVAL, REWIND_TICKS);
+        setBackground(Color.BLACK);
+        setFocusable(true);
+        // Todo el dibujo lo hace el hilo del bucle
+        setIgnoreRepaint(true);
+        addKeyListener(new CanvasKeyAdapter());
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        LevelGrid grid = engine.getGrid();
+        return new Dimension(grid.getPixelWidth(), grid.getPixelHeight() + GameRenderer.STATUS_HEIGHT);
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public GameTimeline getTimeline() {
+        return timeline;
+    }
+
+    public Autopilot getAutopilot() {
+        return autopilot;
+    }
+
+    public void setAutopilot(Autopilot autopilot) {
+        this.autopilot = autopilot;
+    }
+
+    // Medidas de ticks y fotogramas con su HUD (F3 lo muestra u oculta); null las quita
+    public void setMetrics(GameMetrics metrics) {
+        engine.setMetrics(metrics);
+        renderer.setMetrics(metrics);
+    }
+
+    // Mide el primer fotograma y el primer tick (ver StartupTimer)
+    public void setStartupTimer(StartupTimer startup) {
+        engine.addListener(startup);
+        renderer.setStartupTimer(startup);
+    }
+
+    public int getFastForward() {
+        return fastForward;
+    }
+
+    // Ticks simulados por cada tick de tiempo real (1 = velocidad normal)
+    public void setFastForward(int ticksPerTick) {
+        if (ticksPerTick < 1) {
+            throw new IllegalArgumentException("fast-forward must be at least 1: " + ticksPerTick);
+        }
+        fastForward = ticksPerTick;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        start();
+    }
+
+    // Se llama con el árbol de componentes bloqueado: no se espera al hilo del bucle, que
+    // también lo necesita para dibujar, solo se le avisa
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    public synchronized void start() {
+        if (loopThread != null) {
+            return;
+        }
+        createBufferStrategy(2);
+        Thread thread = new Thread(this, "pacman-render-loop");
+        thread.setDaemon(true);
+        loopThread = thread;
+        thread.start();
+    }
+
+    // Avisa al bucle de que termine sin esperarle. El bucle lo comprueba antes de cada
+    // fotograma y tras cada show, así que no vuelve a tocar el componente.
+    public synchronized void stop() {
+        loopThread = null;
+    }
+
+    @Override
+    public void run() {
+        Thread self = Thread.currentThread();
+        long frameNanos = 1_000_000_000L / refreshRate();
+        long last = System.nanoTime();
+        while (loopThread == self) {
+            long now = System.nanoTime();
+            advance(now - last);
+            last = now;
+            if (!renderFrame(getAlpha(), self)) {
+                return;
+            }
+
+            long sleepNanos = frameNanos - (System.nanoTime() - now);
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Avanza la simulación el tiempo real transcurrido (multiplicado por el avance
+    // rápido) en ticks fijos. Devuelve cuántos ticks se han ejecutado.
+    int advance(long elapsedNanos) {
+        int speed = fastForward;
+        accumulator += elapsedNanos * speed;
+        long maxBacklog = TICK_NANOS * MAX_CATCH_UP_TICKS * speed;
+        if (accumulator > maxBacklog) {
+            accumulator = maxBacklog;
+        }
+        if (rewindRequested) {
+            rewindRequested = false;
+            timeline.rewind(REWIND_TICKS);
+        }
+        int ticks = 0;
+        Autopilot pilot = autopilot;
+        while (accumulator >= TICK_NANOS) {
+            Direction direction = pendingDirection;
+            if (direction != null) {
+                engine.getPacman().setNextDirection(direction);
+                pendingDirection = null;
+            }
+            if (pilot != null) {
+                pilot.steer();
+            }
+            renderer.beforeTick();
+            engine.step();
+            accumulator -= TICK_NANOS;
+            ticks++;
+        }
+        return ticks;
+    }
+
+    // Fracción del siguiente tick ya transcurrida, para interpolar
+    double getAlpha() {
+        return (double) accumulator / TICK_NANOS;
+    }
+
+    // Dibuja y presenta un fotograma; false si el bucle self ya debe terminar
+    private boolean renderFrame(double alpha, Thread self) {
+        if (loopThread != self) {
+            return false;
+        }
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            return true;
+        }
+        GameMetrics meter = renderer.getMetrics();
+        long start = meter != null ? System.nanoTime() : 0;
+        try {
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        g.setColor(Color.BLACK);
+                        g.fillRect(0, 0, getWidth(), getHeight());
+                        renderer.render(g, getGraphicsConfiguration(), alpha, getWidth(), getHeight());
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+                if (loopThread != self) {
+                    return false;
+                }
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            // El componente se ha quitado justo entre la comprobación y el dibujo
+            if (loopThread != self) {
+                return false;
+            }
+            throw e;
+        }
+        Toolkit.getDefaultToolkit().sync();
+        // Un fotograma por cada show, aunque haya habido que redibujarlo
+        if (meter != null) {
+            meter.recordFrame(start, System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    private int refreshRate() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null) {
+            int rate = config.getDevice().getDisplayMode().getRefreshRate();
+            if (rate != DisplayMode.REFRESH_RATE_UNKNOWN && rate > 0) {
+                return rate;
+            }
+        }
+        return DEFAULT_REFRESH_RATE;
+    }
+
+    // Las teclas llegan por el hilo de eventos: la dirección se aplica en el siguiente tick
+    private class CanvasKeyAdapter extends KeyAdapter {
+        @Override
+        public void keyPressed(KeyEvent e) {
+            switch (e.getKeyCode()) {
+                case KeyEvent.VK_LEFT: pendingDirection = Direction.LEFT; break;
+                case KeyEvent.VK_RIGHT: pendingDirection = Direction.RIGHT; break;
+                case KeyEvent.VK_UP: pendingDirection = Direction.UP; break;
+                case KeyEvent.VK_DOWN: pendingDirection = Direction.DOWN; break;
+                case KeyEvent.VK_F: setFastForward(nextFastForward(fastForward)); break;
+                case KeyEvent.VK_BACK_SPACE: rewindRequested = true; break;
+                case KeyEvent.VK_F3: toggleHud(renderer.getMetrics()); break;
+            }
+        }
+    }
+
+    static void toggleHud(GameMetrics metrics) {
+        if (metrics != null) {
+            metrics.setHudVisible(!metrics.isHudVisible());
+        }
+    }
+
+    // Tecla F: 1x, 4x, 16x, 64x y vuelta a 1x
+    static int nextFastForward(int current) {
+        for (int i = 0; i < FAST_FORWARD_STEPS.length - 1; i++) {
+            if (current < FAST_FORWARD_STEPS[i + 1]) {
+                return FAST_FORWARD_STEPS[i + 1];
+            }
+        }
+        return FAST_FORWARD_STEPS[0];
+    }
+}
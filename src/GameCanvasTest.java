@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the GameCanvas class.
+ */
+public class GameCanvasTest {
+
+    private GameEngine engine;
+    private GameCanvas canvas;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new GameEngine();
+        canvas = new GameCanvas(engine);
+    }
+
+    @Test
+    public void testFixedTimestepAccumulatesPartialTicks() {
+        Assertions.assertEquals(0, canvas.advance(GameCanvas.TICK_NANOS / 2));
+        Assertions.assertEquals(0.5, canvas.getAlpha(), 1e-9);
+        Assertions.assertEquals(1, canvas.advance(GameCanvas.TICK_NANOS / 2));
+        Assertions.assertEquals(0.0, canvas.getAlpha(), 1e-9);
+        Assertions.assertEquals(1, engine.getTickCount());
+    }
+
+    @Test
+    public void testBacklogIsCapped() {
+        int ticks = canvas.advance(GameCanvas.TICK_NANOS * 1000);
+        Assertions.assertEquals(GameCanvas.MAX_CATCH_UP_TICKS, ticks);
+    }
+
+    @Test
+    public void testFastForwardRunsManyTicksPerFrame() {
+        canvas.setFastForward(16);
+        int ticks = canvas.advance(GameCanvas.TICK_NANOS);
+        Assertions.assertEquals(16, ticks);
+        Assertions.assertEquals(16, engine.getTickCount());
+    }
+
+    @Test
+    public void testInvalidFastForwardRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> canvas.setFastForward(0));
+    }
+
+    @Test
+    public void testNextFastForwardCycles() {
+        Assertions.assertEquals(4, GameCanvas.nextFastForward(1));
+        Assertions.assertEquals(16, GameCanvas.nextFastForward(4));
+        Assertions.assertEquals(64, GameCanvas.nextFastForward(16));
+        Assertions.assertEquals(1, GameCanvas.nextFastForward(64));
+    }
+
+    @Test
+    public void testPreferredSizeIncludesStatusBar() {
+        Assertions.assertEquals(engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT,
+                canvas.getPreferredSize().height);
+    }
+}
@@ -0,0 +1,629 @@
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Motor de simulación sin dependencias de Swing: contiene el estado del juego
+// y las reglas de cada tick. Board solo lo dibuja y le da el ritmo.
+public class GameEngine {
+    // Constantes del tablero; el ancho y el alto son los de los niveles integrados,
+    // los niveles cargados de fichero pueden tener cualquier tamaño
+    public static final int TILE_SIZE = 20;
+    public static final int BOARD_WIDTH = 19;
+    public static final int BOARD_HEIGHT = 19;
+
+    // Tipos de celda
+    public static final int EMPTY = 0;
+    public static final int WALL = 1;
+    public static final int POINT = 2;
+
+    // Duración de un tick en milisegundos cuando se juega en tiempo real
+    public static final int TICK_MILLIS = 40;
+    // Ticks de pausa entre niveles (equivalente a los 2 segundos originales)
+    public static final int LEVEL_INTERMISSION_TICKS = 2000 / TICK_MILLIS;
+
+    // Avisos para quien dibuja el juego
+    public interface Listener {
+        default void pelletEaten(int col, int row) {
+        }
+
+        default void levelLoaded(int level) {
+        }
+
+        // Pacman ha cambiado de dirección deseada antes del tick getTickCount() + 1
+        default void pacmanTurned(Direction direction) {
+        }
+
+        // Fin de un tick (también los de la pausa entre niveles)
+        default void tickCompleted(long tick) {
+        }
+
+        // La partida ha vuelto al estado de una instantánea
+        default void stateRestored() {
+        }
+    }
+
+    private Pacman pacman;
+    private Ghost[] ghosts;
+    // Estado de los fantasmas en arrays; ghosts son vistas de sus índices
+    private GhostStore ghostStore;
+    // Hilos para mover muchos fantasmas (0 = todos los núcleos); ver GhostStore
+    private int ghostThreads;
+    private Listener[] listeners = new Listener[0];
+    private final int ghostCount;
+
+    // Nivel actual y puntos totales
+    private int currentLevel;
+    private int totalPoints;
+    private int pointsEaten;
+    private boolean gameWon = false;
+    private boolean gameLost = false;
+    private int intermissionTicks;
+    private long tickCount;
+    // Inteligencia fija de los fantasmas (0 = la del nivel actual)
+    private int ghostIntelligence;
+    // Toda la aleatoriedad de la partida sale de esta semilla: cada fantasma recibe un split()
+    private final long seed;
+    private final GameRandom random;
+
+    // Mapa del nivel actual y sus distancias precalculadas
+    private LevelGrid grid;
+    // Recuentos de los puntos que quedan y consultas de cercanía sobre grid
+    private PelletIndex pellets;
+    // Las distancias se calculan en segundo plano al entrar en el nivel y getDistanceField
+    // espera por ellas la primera vez que se usan
+    private DistanceField distanceField;
+    // Salidas de cada tile del nivel: los fantasmas solo deciden fuera de los pasillos
+    private TileExits tileExits;
+    // Solo en mapas sin tabla de todos los pares: A* compartido por los fantasmas
+    private AStarPathfinder pathfinder;
+    // Páginas del plano de puntos de la última instantánea tomada o restaurada (null si
+    // no hay ninguna en este nivel) y bits de las que han cambiado desde entonces
+    private long[][] committedPages;
+    private long[] dirtyPages;
+    // Medidas de cada tick; null (lo normal) si no se quieren
+    private GameMetrics metrics;
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    // Fantasmas por defecto y sus colores
+    public static final int DEFAULT_GHOST_COUNT = 3;
+    private static final Color[] GHOST_COLORS = {Color.RED, Color.PINK, Color.CYAN};
+
+    // Niveles integrados: se editan como texto en src/levels/levelN.txt y se juegan desde
+    // su versión binaria precompilada (ver LevelLoader.main), que se lee más deprisa
+    private static final String[] BUILT_IN_LEVEL_FILES = {
+        "/levels/level1.pmaz",
+        "/levels/level2.pmaz",
+        "/levels/level3.pmaz"
+    };
+
+    // Cada nivel integrado se carga la primera vez que se pide, no todos al arrancar
+    private static final class BuiltInLevels {
+        private static final Level[] LEVELS = new Level[BUILT_IN_LEVEL_FILES.length];
+
+        static synchronized Level get(int index) {
+            Level level = LEVELS[index];
+            if (level == null) {
+                try {
+                    level = LevelLoader.loadResource(BUILT_IN_LEVEL_FILES[index]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("cannot load built-in level " + BUILT_IN_LEVEL_FILES[index], e);
+                }
+                LEVELS[index] = level;
+            }
+            return level;
+        }
+    }
+
+    // Después de los integrados se juegan laberintos generados del mismo tamaño, con una
+    // semilla fija por nivel para que el nivel N sea siempre el mismo
+    private static final long PROCEDURAL_SEED = 0x5EED_0000L;
+    // Niveles generados que se conservan para no recalcular sus distancias en cada partida
+    private static final int CACHED_PROCEDURAL_LEVELS = 8;
+    private static final Map<Integer, Level> PROCEDURAL_LEVELS = Collections.synchronizedMap(
+            new LinkedHashMap<Integer, Level>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Level> eldest) {
+                    return size() > CACHED_PROCEDURAL_LEVELS;
+                }
+            });
+
+    // Niveles que se juegan en orden; al terminarlos se repiten o, con los integrados
+    // (levels a null), se pasa a los generados
+    private final Level[] levels;
+    private final boolean proceduralLevels;
+    private Level definition;
+    // Nivel generado en segundo plano durante la pausa de "LEVEL COMPLETE!"
+    private CompletableFuture<Level> prefetched;
+    private int prefetchedLevel;
+
+    public GameEngine() {
+        this(1);
+    }
+
+    public GameEngine(int level) {
+        this(level, 0);
+    }
+
+    public GameEngine(int level, int ghostIntelligence) {
+        this(level, ghostIntelligence, DEFAULT_GHOST_COUNT);
+    }
+
+    // ghostCount > 3 es el modo de estrés: los fantasmas extra repiten las casas y colores
+    public GameEngine(int level, int ghostIntelligence, int ghostCount) {
+        this(level, ghostIntelligence, ghostCount, GameRandom.newSeed());
+    }
+
+    // Partida reproducible: la misma semilla y las mismas entradas dan la misma partida
+    public GameEngine(int level, int ghostIntelligence, int ghostCount, long seed) {
+        this(null, true, level, ghostIntelligence, ghostCount, seed);
+    }
+
+    // Partida sobre un nivel cargado de fichero
+    public GameEngine(Level level) {
+        this(new Level[] {level}, 1, 0, DEFAULT_GHOST_COUNT);
+    }
+
+    public GameEngine(Level[] levels, int level, int ghostIntelligence, int ghostCount) {
+        this(levels, level, ghostIntelligence, ghostCount, GameRandom.newSeed());
+    }
+
+    public GameEngine(Level[] levels, int level, int ghostIntelligence, int ghostCount, long seed) {
+        this(levels, false, level, ghostIntelligence, ghostCount, seed);
+    }
+
+    private GameEngine(Level[] levels, boolean proceduralLevels, int level, int ghostIntelligence, int ghostCount,
+                       long seed) {
+        if (levels != null && levels.length == 0) {
+            throw new IllegalArgumentException("at least one level is required");
+        }
+        if (ghostCount < 0) {
+            throw new IllegalArgumentException("ghostCount must not be negative: " + ghostCount);
+        }
+        this.levels = levels != null ? levels.clone() : null;
+        this.proceduralLevels = proceduralLevels;
+        this.ghostIntelligence = ghostIntelligence;
+        this.ghostCount = ghostCount;
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+        loadLevel(level);
+    }
+
+    public void loadLevel(int level) {
+        enterLevel(level, levelFor(level));
+    }
+
+    private void enterLevel(int level, Level definition) {
+        // Copiar el mapa del nivel
+        currentLevel = level;
+        this.definition = definition;
+        grid = definition.newGrid();
+        pellets = new PelletIndex(grid);
+        committedPages = null;
+        dirtyPages = new long[(grid.getPelletPageCount() + 63) >>> 6];
+        distanceField = null;
+        definition.prefetchDistanceField();
+        tileExits = definition.getTileExits();
+        pathfinder = DistanceField.usesAllPairs(grid) ? null : new AStarPathfinder(grid);
+        totalPoints = pellets.getRemaining();
+        pointsEaten = 0;
+
+        // Inicializar Pacman y fantasmas
+        int spawnX = definition.getPacmanColumn() * TILE_SIZE;
+        int spawnY = definition.getPacmanRow() * TILE_SIZE;
+        pacman = new Pacman(spawnX, spawnY, this);
+
+        // Crear fantasmas con inteligencia basada en el nivel actual
+        // Nivel 1: 10% de probabilidad de perseguir (suficiente para salir del área inicial)
+        // Nivel 2: 30% de probabilidad de perseguir
+        // Nivel 3+: 60%+ de probabilidad de perseguir con mejor pathfinding
+        int intelligence = ghostIntelligence > 0 ? ghostIntelligence : currentLevel;
+        ghosts = new Ghost[ghostCount];
+        ghostStore = new GhostStore(this, pacman, ghostCount);
+        for (int i = 0; i < ghostCount; i++) {
+            int home = i % definition.getGhostHomeCount();
+            ghosts[i] = new Ghost(ghostStore, definition.getGhostColumn(home) * TILE_SIZE,
+                    definition.getGhostRow(home) * TILE_SIZE, GHOST_COLORS[i % GHOST_COLORS.length],
+                    splitRandom(), intelligence);
+        }
+
+        gameWon = false;
+        gameLost = false;
+        intermissionTicks = 0;
+
+        for (Listener listener : listeners) {
+            listener.levelLoaded(level);
+        }
+    }
+
+    private int levelCount() {
+        return levels != null ? levels.length : BUILT_IN_LEVEL_FILES.length;
+    }
+
+    private Level levelFor(int level) {
+        if (!proceduralLevels || level <= levelCount()) {
+            int index = (level - 1) % levelCount();
+            return levels != null ? levels[index] : BuiltInLevels.get(index);
+        }
+        if (prefetched != null && prefetchedLevel == level) {
+            Level next = prefetched.join();
+            prefetched = null;
+            return next;
+        }
+        return getProceduralLevel(level);
+    }
+
+    // Laberinto generado para un nivel posterior a los integrados (con sus distancias ya calculadas)
+    public static Level getProceduralLevel(int level) {
+        return PROCEDURAL_LEVELS.computeIfAbsent(level, n -> {
+            Level generated = new MazeGenerator(PROCEDURAL_SEED + n)
+                    .generate("Laberinto generado " + n, BOARD_WIDTH, BOARD_HEIGHT);
+            generated.getDistanceField();
+            generated.getTileExits();
+            return generated;
+        });
+    }
+
+    // Generador propio para una entidad nueva de la partida
+    public GameRandom splitRandom() {
+        return random.split();
+    }
+
+    // Lo llama Pacman cuando cambia la dirección deseada (teclado o simulación)
+    void pacmanTurned(Direction direction) {
+        for (Listener listener : listeners) {
+            listener.pacmanTurned(direction);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        Listener[] updated = java.util.Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    // Avanza la simulación un tick
+    public void step() {
+        if (gameLost) {
+            return;
+        }
+        GameMetrics meter = metrics;
+        long start = meter != null ? System.nanoTime() : 0;
+        long ghostNanos = 0;
+        tickCount++;
+        if (gameWon) {
+            // Pausa de "LEVEL COMPLETE!" antes de pasar al siguiente nivel
+            if (--intermissionTicks <= 0) {
+                loadLevel(currentLevel + 1);
+            }
+        } else {
+            pacman.move();
+            long ghostStart = meter != null ? System.nanoTime() : 0;
+            ghostStore.update(ghostThreads > 0 ? ghostThreads : CORES);
+            if (meter != null) {
+                ghostNanos = System.nanoTime() - ghostStart;
+            }
+            checkPointCollision();
+            checkGhostCollision();
+            checkLevelComplete();
+        }
+        if (meter != null) {
+            long end = System.nanoTime();
+            meter.recordTick(tickCount, end, end - start, ghostNanos);
+        }
+        for (Listener listener : listeners) {
+            listener.tickCompleted(tickCount);
+        }
+    }
+
+    // Avanza hasta n ticks; se detiene antes si Pacman pierde.
+    // Devuelve el número de ticks simulados.
+    public int step(int n) {
+        int done = 0;
+        while (done < n && !gameLost) {
+            step();
+            done++;
+        }
+        return done;
+    }
+
+    private void checkPointCollision() {
+        int pacTileX = (pacman.getX() + TILE_SIZE / 2) / TILE_SIZE;
+        int pacTileY = (pacman.getY() + TILE_SIZE / 2) / TILE_SIZE;
+
+        if (pacTileX >= 0 && pacTileX < grid.getWidth() && pacTileY >= 0 && pacTileY < grid.getHeight()) {
+            if (pellets.remove(pacTileX, pacTileY)) {
+                int page = grid.pelletPageOf(pacTileX, pacTileY);
+                dirtyPages[page >>> 6] |= 1L << page;
+                pacman.addScore(10);
+                pointsEaten++;
+                for (Listener listener : listeners) {
+                    listener.pelletEaten(pacTileX, pacTileY);
+                }
+            }
+        }
+    }
+
+    // Recorrido lineal: con la colisión de Pacman como única consulta es más rápido que
+    // mantener un SpatialHash con cualquier número de fantasmas (ver BroadphaseBenchmark)
+    private void checkGhostCollision() {
+        int pacX = pacman.getX();
+        int pacY = pacman.getY();
+        for (int i = 0; i < ghostCount; i++) {
+            if (overlaps(pacX, pacY, ghostStore.getX(i), ghostStore.getY(i))) {
+                gameLost = true;
+                return;
+            }
+        }
+    }
+
+    // Misma prueba que Rectangle.intersects para dos cuadrados de TILE_SIZE, sin crear objetos
+    static boolean overlaps(int x1, int y1, int x2, int y2) {
+        return x1 < x2 + TILE_SIZE && x2 < x1 + TILE_SIZE
+                && y1 < y2 + TILE_SIZE && y2 < y1 + TILE_SIZE;
+    }
+
+    private void checkLevelComplete() {
+        if (pellets.getRemaining() == 0) {
+            gameWon = true;
+            intermissionTicks = LEVEL_INTERMISSION_TICKS;
+            // El siguiente laberinto se genera mientras dura la pausa
+            final int next = currentLevel + 1;
+            if (proceduralLevels && next > levelCount()) {
+                prefetchedLevel = next;
+                prefetched = CompletableFuture.supplyAsync(() -> getProceduralLevel(next));
+            }
+        }
+    }
+
+    // ---- Instantáneas ----
+
+    // Captura el estado completo de la partida en unos microsegundos: el estado plano
+    // y solo las páginas del plano de puntos que han cambiado desde la última
+    // instantánea tomada o restaurada; las demás se comparten con ella
+    public GameSnapshot snapshot() {
+        int longs = GameSnapshot.HEADER_LONGS + Pacman.STATE_LONGS;
+        for (Ghost ghost : ghosts) {
+            longs += ghost.stateLongs();
+        }
+        long[] state = new long[longs];
+        state[GameSnapshot.LEVEL] = currentLevel;
+        state[GameSnapshot.TICK] = tickCount;
+        state[GameSnapshot.POINTS] = GameSnapshot.pack(totalPoints, pointsEaten);
+        state[GameSnapshot.FLAGS] = GameSnapshot.pack(intermissionTicks, (gameWon ? 1 : 0) | (gameLost ? 2 : 0));
+        state[GameSnapshot.RANDOM_STATE] = random.getState();
+        state[GameSnapshot.RANDOM_GAMMA] = random.getGamma();
+        state[GameSnapshot.GHOSTS] = ghosts.length;
+        int at = pacman.writeState(state, GameSnapshot.HEADER_LONGS);
+        for (Ghost ghost : ghosts) {
+            at = ghost.writeState(state, at);
+        }
+
+        long[][] pages;
+        if (committedPages == null) {
+            pages = new long[grid.getPelletPageCount()][];
+            for (int page = 0; page < pages.length; page++) {
+                pages[page] = grid.copyPelletPage(page);
+            }
+        } else {
+            pages = committedPages.clone();
+            for (int word = 0; word < dirtyPages.length; word++) {
+                for (long bits = dirtyPages[word]; bits != 0; bits &= bits - 1) {
+                    int page = word << 6 | Long.numberOfTrailingZeros(bits);
+                    pages[page] = grid.copyPelletPage(page);
+                }
+            }
+        }
+        commitPages(pages);
+        return new GameSnapshot(definition, state, pages);
+    }
+
+    // Vuelve al estado de una instantánea de esta partida (o de otra con los mismos
+    // fantasmas). Solo se reescriben las páginas de puntos que difieren.
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.getGhostCount() != ghostCount) {
+            throw new IllegalArgumentException("snapshot has " + snapshot.getGhostCount()
+                    + " ghosts, this game has " + ghostCount);
+        }
+        if (snapshot.getLevelNumber() != currentLevel || snapshot.getLevel() != definition) {
+            enterLevel(snapshot.getLevelNumber(), snapshot.getLevel());
+        }
+        long[][] pages = snapshot.getPelletPages();
+        for (int page = 0; page < pages.length; page++) {
+            if (committedPages == null || committedPages[page] != pages[page]
+                    || (dirtyPages[page >>> 6] & 1L << page) != 0) {
+                pellets.loadPage(page, pages[page]);
+            }
+        }
+        commitPages(pages);
+
+        long[] state = snapshot.getState();
+        tickCount = state[GameSnapshot.TICK];
+        totalPoints = GameSnapshot.high(state[GameSnapshot.POINTS]);
+        pointsEaten = GameSnapshot.low(state[GameSnapshot.POINTS]);
+        intermissionTicks = GameSnapshot.high(state[GameSnapshot.FLAGS]);
+        gameWon = (GameSnapshot.low(state[GameSnapshot.FLAGS]) & 1) != 0;
+        gameLost = (GameSnapshot.low(state[GameSnapshot.FLAGS]) & 2) != 0;
+        random.setState(state[GameSnapshot.RANDOM_STATE], state[GameSnapshot.RANDOM_GAMMA]);
+        int at = pacman.readState(state, GameSnapshot.HEADER_LONGS);
+        for (int i = 0; i < ghosts.length; i++) {
+            at = ghosts[i].readState(state, at);
+        }
+
+        for (Listener listener : listeners) {
+            listener.stateRestored();
+        }
+    }
+
+    private void commitPages(long[][] pages) {
+        committedPages = pages;
+        java.util.Arrays.fill(dirtyPages, 0);
+    }
+
+    // Método para verificar si hay una pared en una posición dada
+    public boolean isWall(int x, int y) {
+        return grid.isWall(x, y);
+    }
+
+    // Método para verificar si un movimiento es válido (no hay pared)
+    public boolean canMove(int x, int y, int size) {
+        return grid.canMove(x, y, size);
+    }
+
+    // Método para obtener el ancho del tablero en píxeles
+    public int getBoardPixelWidth() {
+        return grid.getPixelWidth();
+    }
+
+    // Método para aplicar el efecto túnel (wrap-around horizontal)
+    public int wrapX(int x) {
+        int boardPixelWidth = getBoardPixelWidth();
+        if (x < -TILE_SIZE) {
+            return boardPixelWidth - TILE_SIZE;
+        } else if (x >= boardPixelWidth) {
+            return 0;
+        }
+        return x;
+    }
+
+    // Tipo de celda en coordenadas de tile
+    public int getCell(int tileX, int tileY) {
+        return grid.get(tileX, tileY);
+    }
+
+    public LevelGrid getGrid() {
+        return grid;
+    }
+
+    // La pueden pedir a la vez los hilos que mueven fantasmas: todos reciben la misma
+    // instancia del Level, así que basta con guardarla sin sincronizar
+    public DistanceField getDistanceField() {
+        DistanceField field = distanceField;
+        if (field == null) {
+            field = definition.getDistanceField();
+            distanceField = field;
+        }
+        return field;
+    }
+
+    public TileExits getTileExits() {
+        return tileExits;
+    }
+
+    public AStarPathfinder getPathfinder() {
+        return pathfinder;
+    }
+
+    public Pacman getPacman() {
+        return pacman;
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public PelletIndex getPellets() {
+        return pellets;
+    }
+
+    public GhostStore getGhostStore() {
+        return ghostStore;
+    }
+
+    public int getGhostThreads() {
+        return ghostThreads;
+    }
+
+    // Hilos que pueden mover los fantasmas cuando hay al menos GhostStore.PARALLEL_MIN_GHOSTS
+    // (0 = todos los núcleos); el resultado es el mismo con cualquier número
+    public void setGhostThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads must not be negative: " + threads);
+        }
+        ghostThreads = threads;
+    }
+
+    public Ghost[] getGhosts() {
+        return ghosts;
+    }
+
+    public int getCurrentLevel() {
+        return currentLevel;
+    }
+
+    public int getTotalPoints() {
+        return totalPoints;
+    }
+
+    public int getPointsEaten() {
+        return pointsEaten;
+    }
+
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    public boolean isGameLost() {
+        return gameLost;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    // Número de niveles integrados (los siguientes se generan)
+    public static int getLevelCount() {
+        return BUILT_IN_LEVEL_FILES.length;
+    }
+
+    public static Level getBuiltInLevel(int level) {
+        return BuiltInLevels.get((level - 1) % BUILT_IN_LEVEL_FILES.length);
+    }
+
+    public Level getLevel() {
+        return definition;
+    }
+
+    public int getGhostIntelligence() {
+        return ghostIntelligence;
+    }
+
+    public int getGhostCount() {
+        return ghostCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Niveles integrados seguidos de los generados (frente a una lista propia que se repite)
+    public boolean usesBuiltInLevels() {
+        return proceduralLevels;
+    }
+
+    // Resumen del estado de la partida: nivel, ticks, puntos, mapa y posición, dirección
+    // y puntuación de cada entidad. Dos partidas con el mismo resumen se han jugado igual.
+    public long stateHash() {
+        long hash = GameRandom.mix64(currentLevel);
+        hash = GameRandom.mix64(hash ^ tickCount);
+        hash = GameRandom.mix64(hash ^ ((long) pointsEaten << 32 | totalPoints));
+        hash = GameRandom.mix64(hash ^ ((gameWon ? 1 : 0) | (gameLost ? 2 : 0) | (long) intermissionTicks << 2));
+        hash = GameRandom.mix64(hash ^ grid.contentHash());
+        hash = GameRandom.mix64(hash ^ ((long) pacman.getX() << 32 | pacman.getY() & 0xFFFFFFFFL));
+        hash = GameRandom.mix64(hash ^ ((long) pacman.getScore() << 8
+                | pacman.getDirection().ordinal() << 4 | pacman.getNextDirection().ordinal()));
+        for (Ghost ghost : ghosts) {
+            hash = GameRandom.mix64(hash ^ ((long) ghost.getX() << 32 | ghost.getY() & 0xFFFFFFFFL));
+            hash = GameRandom.mix64(hash ^ ghost.getDirection().ordinal());
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,213 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GameEngine class.
+ */
+public class GameEngineTest {
+
+    private GameEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new GameEngine();
+    }
+
+    @Test
+    public void testInitialState() {
+        Assertions.assertEquals(1, engine.getCurrentLevel());
+        Assertions.assertEquals(0, engine.getTickCount());
+        Assertions.assertEquals(0, engine.getPointsEaten());
+        Assertions.assertTrue(engine.getTotalPoints() > 0);
+        Assertions.assertEquals(3, engine.getGhosts().length);
+        assertFalse(engine.isGameWon());
+        assertFalse(engine.isGameLost());
+    }
+
+    @Test
+    public void testPacmanSpawnPerLevel() {
+        Assertions.assertEquals(9 * GameEngine.TILE_SIZE, engine.getPacman().getX());
+        Assertions.assertEquals(15 * GameEngine.TILE_SIZE, engine.getPacman().getY());
+
+        engine.loadLevel(2);
+        Assertions.assertEquals(2, engine.getCurrentLevel());
+        Assertions.assertEquals(13 * GameEngine.TILE_SIZE, engine.getPacman().getY());
+    }
+
+    @Test
+    public void testStepAdvancesTickCount() {
+        engine.step();
+        Assertions.assertEquals(1, engine.getTickCount());
+    }
+
+    @Test
+    public void testStepNRunsRequestedTicks() {
+        int done = engine.step(10);
+        Assertions.assertEquals(10, done);
+        Assertions.assertEquals(10, engine.getTickCount());
+    }
+
+    @Test
+    public void testStepEatsPointsUnderPacman() {
+        // Pacman empieza moviéndose a la izquierda por una fila llena de puntos
+        engine.step(8);
+        Assertions.assertTrue(engine.getPointsEaten() > 0);
+        Assertions.assertEquals(engine.getPointsEaten() * 10, engine.getPacman().getScore());
+    }
+
+    @Test
+    public void testStepStopsWhenGameLost() {
+        // Con semilla fija y Pacman sin control, los fantasmas lo atrapan siempre
+        GameEngine seeded = new GameEngine(1, 0, 3, 1);
+        int done = seeded.step(1_000_000);
+        Assertions.assertTrue(seeded.isGameLost());
+        Assertions.assertTrue(done < 1_000_000);
+        long ticks = seeded.getTickCount();
+        Assertions.assertEquals(0, seeded.step(5));
+        Assertions.assertEquals(ticks, seeded.getTickCount());
+    }
+
+    @Test
+    public void testIsWallAndCanMove() {
+        Assertions.assertTrue(engine.isWall(0, 0));
+        assertFalse(engine.isWall(GameEngine.TILE_SIZE, GameEngine.TILE_SIZE));
+        Assertions.assertTrue(engine.canMove(GameEngine.TILE_SIZE, GameEngine.TILE_SIZE, GameEngine.TILE_SIZE));
+        assertFalse(engine.canMove(0, 0, GameEngine.TILE_SIZE));
+    }
+
+    @Test
+    public void testTunnelRowsAreOpen() {
+        // La fila 9 del nivel 1 es un túnel: se puede salir por ambos lados
+        int y = 9 * GameEngine.TILE_SIZE;
+        assertFalse(engine.isWall(-GameEngine.TILE_SIZE, y));
+        assertFalse(engine.isWall(engine.getBoardPixelWidth(), y));
+        Assertions.assertTrue(engine.isWall(-GameEngine.TILE_SIZE, 0));
+    }
+
+    @Test
+    public void testWrapX() {
+        Assertions.assertEquals(0, engine.wrapX(engine.getBoardPixelWidth()));
+        Assertions.assertEquals(engine.getBoardPixelWidth() - GameEngine.TILE_SIZE,
+                engine.wrapX(-GameEngine.TILE_SIZE - 1));
+        Assertions.assertEquals(50, engine.wrapX(50));
+    }
+
+    @Test
+    public void testListenerIsNotifiedOfPelletsAndLevels() {
+        final int[] pellets = new int[1];
+        final int[] loaded = new int[1];
+        engine.addListener(new GameEngine.Listener() {
+            @Override
+            public void pelletEaten(int col, int row) {
+                pellets[0]++;
+                Assertions.assertEquals(GameEngine.EMPTY, engine.getCell(col, row));
+            }
+
+            @Override
+            public void levelLoaded(int level) {
+                loaded[0] = level;
+            }
+        });
+        engine.step(8);
+        Assertions.assertEquals(engine.getPointsEaten(), pellets[0]);
+        engine.loadLevel(2);
+        Assertions.assertEquals(2, loaded[0]);
+    }
+
+    @Test
+    public void testOverlapsMatchesRectangleIntersects() {
+        int t = GameEngine.TILE_SIZE;
+        for (int dx = -t - 1; dx <= t + 1; dx++) {
+            for (int dy = -t - 1; dy <= t + 1; dy += 7) {
+                java.awt.Rectangle a = new java.awt.Rectangle(100, 100, t, t);
+                java.awt.Rectangle b = new java.awt.Rectangle(100 + dx, 100 + dy, t, t);
+                Assertions.assertEquals(a.intersects(b), GameEngine.overlaps(100, 100, 100 + dx, 100 + dy));
+            }
+        }
+    }
+
+    @Test
+    public void testSteadyStateTickDoesNotAllocate() {
+        org.junit.jupiter.api.Assumptions.assumeTrue(AllocationMeter.isSupported());
+        // Calentamiento: partidas completas para que se reserven todos los buffers
+        for (int i = 0; i < 50_000; i++) {
+            engine = restartIfOver(engine);
+            engine.step();
+        }
+        // El JIT puede reservar memoria puntualmente: se exige una ronda limpia
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5 && best > 0; round++) {
+            long allocated = 0;
+            for (int i = 0; i < 2_000; i++) {
+                engine = restartIfOver(engine);
+                long before = AllocationMeter.currentThreadAllocatedBytes();
+                engine.step();
+                allocated += AllocationMeter.currentThreadAllocatedBytes() - before;
+            }
+            best = Math.min(best, allocated);
+        }
+        Assertions.assertEquals(0, best, "bytes allocated over 2000 ticks");
+    }
+
+    // Cargar un nivel sí reserva memoria: queda fuera de la medición
+    private static GameEngine restartIfOver(GameEngine engine) {
+        return engine.isGameLost() || engine.isGameWon() ? new GameEngine() : engine;
+    }
+
+    @Test
+    public void testStressModeSpawnsManyGhosts() {
+        GameEngine stress = new GameEngine(1, 1, 500, 2);
+        Assertions.assertEquals(500, stress.getGhosts().length);
+        stress.step(20);
+        // La partida se pierde justo cuando algún fantasma toca a Pacman
+        boolean touching = false;
+        Pacman pacman = stress.getPacman();
+        for (Ghost ghost : stress.getGhosts()) {
+            touching |= GameEngine.overlaps(pacman.getX(), pacman.getY(), ghost.getX(), ghost.getY());
+        }
+        Assertions.assertEquals(touching, stress.isGameLost());
+    }
+
+    @Test
+    public void testGameWithoutGhostsIsNeverLost() {
+        GameEngine empty = new GameEngine(1, 1, 0);
+        Assertions.assertEquals(0, empty.getGhosts().length);
+        empty.step(50);
+        Assertions.assertFalse(empty.isGameLost());
+    }
+
+    @Test
+    public void testLevelsAfterBuiltInOnesAreGenerated() {
+        int first = GameEngine.getLevelCount() + 1;
+        engine.loadLevel(first);
+        Level generated = engine.getLevel();
+        Assertions.assertNotSame(GameEngine.getBuiltInLevel(first), generated);
+        Assertions.assertEquals(GameEngine.BOARD_WIDTH, generated.getWidth());
+        Assertions.assertEquals(GameEngine.BOARD_HEIGHT, generated.getHeight());
+        Assertions.assertTrue(engine.getTotalPoints() > 0);
+        Assertions.assertSame(generated, GameEngine.getProceduralLevel(first));
+        engine.loadLevel(first + 1);
+        Assertions.assertNotSame(generated, engine.getLevel());
+    }
+
+    @Test
+    public void testCustomLevelListRepeats() {
+        Level level = GameEngine.getBuiltInLevel(2);
+        GameEngine custom = new GameEngine(new Level[] {level}, 5, 0, GameEngine.DEFAULT_GHOST_COUNT);
+        Assertions.assertSame(level, custom.getLevel());
+    }
+
+    @Test
+    public void testSameSeedPlaysTheSameGame() {
+        GameEngine a = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 1234);
+        GameEngine b = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 1234);
+        Assertions.assertEquals(1234, a.getSeed());
+        for (int i = 0; i < 500; i++) {
+            a.step();
+            b.step();
+            Assertions.assertEquals(a.stateHash(), b.stateHash(), "tick " + i);
+        }
+    }
+}
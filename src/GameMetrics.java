@@ -0,0 +1,153 @@
+// Medidas de rendimiento del juego en marcha: duración de cada tick y del movimiento de
+// los fantasmas, duración de cada fotograma, variación del intervalo entre fotogramas y
+// memoria reservada por fotograma. Se guardan en histogramas por ventanas de un segundo
+// (lo que muestra el HUD de GameRenderer) que se acumulan en totales, y si la JVM tiene
+// Flight Recorder también se emiten como eventos pacman.Tick y pacman.Frame.
+//
+// Sin métricas (GameEngine.setMetrics y GameRenderer.setMetrics a null, lo normal) el
+// coste es una comprobación de null por tick y por fotograma. Ticks y fotogramas se
+// registran desde el mismo hilo, como hacen Board y GameCanvas.
+public class GameMetrics {
+    public static final int TICK = 0;
+    public static final int GHOSTS = 1;
+    public static final int PAINT = 2;
+    public static final int JITTER = 3;
+    public static final int ALLOCATION = 4;
+    private static final int METRICS = 5;
+    public static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private static final boolean JFR = jfrAvailable();
+
+    private final Histogram[] window = new Histogram[METRICS];
+    private final Histogram[] totals = new Histogram[METRICS];
+    // Resumen de la última ventana completa, para el HUD
+    private final long[] lastMedian = new long[METRICS];
+    private final long[] lastP99 = new long[METRICS];
+    private final long[] lastMax = new long[METRICS];
+    private double lastFramesPerSecond;
+    private double lastAllocationRate;
+    private long windowStart;
+    private long lastFrame;
+    private long lastInterval;
+    private long lastAllocated = -1;
+    private volatile boolean hudVisible = true;
+
+    public GameMetrics() {
+        for (int i = 0; i < METRICS; i++) {
+            window[i] = new Histogram();
+            totals[i] = new Histogram();
+        }
+    }
+
+    private static boolean jfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return jdk.jfr.FlightRecorder.isAvailable();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public static boolean isFlightRecorderAvailable() {
+        return JFR;
+    }
+
+    // Lo llama GameEngine al terminar cada tick; end es el instante en que termina
+    public void recordTick(long tick, long end, long tickNanos, long ghostNanos) {
+        window[TICK].record(tickNanos);
+        window[GHOSTS].record(ghostNanos);
+        if (JFR) {
+            MetricsEvents.tick(tick, tickNanos, ghostNanos);
+        }
+        advanceWindow(end);
+    }
+
+    // Lo llaman Board y GameCanvas una vez por fotograma presentado; now es su inicio
+    public void recordFrame(long now, long paintNanos) {
+        window[PAINT].record(paintNanos);
+        long interval = lastFrame == 0 ? 0 : now - lastFrame;
+        long jitter = lastInterval == 0 ? 0 : Math.abs(interval - lastInterval);
+        if (lastInterval != 0) {
+            window[JITTER].record(jitter);
+        }
+        lastInterval = interval;
+        lastFrame = now;
+        // Memoria reservada por el hilo que dibuja desde el fotograma anterior (en
+        // GameCanvas incluye los ticks simulados entre medias)
+        long allocated = AllocationMeter.currentThreadAllocatedBytes();
+        long frameBytes = lastAllocated < 0 || allocated < 0 ? 0 : allocated - lastAllocated;
+        if (lastAllocated >= 0) {
+            window[ALLOCATION].record(frameBytes);
+        }
+        lastAllocated = allocated;
+        if (JFR) {
+            MetricsEvents.frame(paintNanos, interval, jitter, frameBytes);
+        }
+        advanceWindow(now);
+    }
+
+    private void advanceWindow(long now) {
+        if (windowStart == 0) {
+            windowStart = now;
+        } else if (now - windowStart >= WINDOW_NANOS) {
+            roll(now);
+        }
+    }
+
+    // Cierra la ventana actual: guarda su resumen y la suma a los totales
+    void roll(long now) {
+        double seconds = Math.max(1, now - windowStart) / 1e9;
+        for (int i = 0; i < METRICS; i++) {
+            Histogram h = window[i];
+            lastMedian[i] = h.getPercentile(0.5);
+            lastP99[i] = h.getPercentile(0.99);
+            lastMax[i] = h.getMax();
+            totals[i].add(h);
+        }
+        lastFramesPerSecond = window[PAINT].getCount() / seconds;
+        lastAllocationRate = window[ALLOCATION].getSum() / seconds;
+        for (Histogram h : window) {
+            h.clear();
+        }
+        windowStart = now;
+    }
+
+    // Todas las muestras hasta la última ventana cerrada
+    public Histogram getTotal(int metric) {
+        return totals[metric];
+    }
+
+    // Muestras de la ventana en curso
+    public Histogram getWindow(int metric) {
+        return window[metric];
+    }
+
+    public long getLastMedian(int metric) {
+        return lastMedian[metric];
+    }
+
+    public long getLastP99(int metric) {
+        return lastP99[metric];
+    }
+
+    public long getLastMax(int metric) {
+        return lastMax[metric];
+    }
+
+    public double getLastFramesPerSecond() {
+        return lastFramesPerSecond;
+    }
+
+    // Bytes por segundo reservados por el hilo que dibuja en la última ventana
+    public double getLastAllocationRate() {
+        return lastAllocationRate;
+    }
+
+    public boolean isHudVisible() {
+        return hudVisible;
+    }
+
+    public void setHudVisible(boolean visible) {
+        hudVisible = visible;
+    }
+}
@@ -0,0 +1,138 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for the GameMetrics class.
+ */
+public class GameMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEngineRecordsTicks() {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        GameMetrics metrics = new GameMetrics();
+        engine.setMetrics(metrics);
+        engine.step(100);
+        Assertions.assertEquals(100, metrics.getWindow(GameMetrics.TICK).getCount());
+        Assertions.assertEquals(100, metrics.getWindow(GameMetrics.GHOSTS).getCount());
+        Assertions.assertTrue(metrics.getWindow(GameMetrics.TICK).getSum()
+                >= metrics.getWindow(GameMetrics.GHOSTS).getSum());
+        engine.setMetrics(null);
+        engine.step(10);
+        Assertions.assertEquals(100, metrics.getWindow(GameMetrics.TICK).getCount());
+    }
+
+    @Test
+    public void testWindowRollsIntoTotals() {
+        GameMetrics metrics = new GameMetrics();
+        long start = 1_000_000L;
+        for (int i = 0; i < 60; i++) {
+            // Fotogramas cada 16 ms con 2 ms de dibujo
+            metrics.recordFrame(start + i * 16_000_000L, 2_000_000L);
+        }
+        // Aún no ha pasado un segundo
+        Assertions.assertEquals(60, metrics.getWindow(GameMetrics.PAINT).getCount());
+        Assertions.assertEquals(0, metrics.getTotal(GameMetrics.PAINT).getCount());
+        metrics.recordFrame(start + 70 * 16_000_000L, 2_000_000L);
+        Assertions.assertEquals(61, metrics.getTotal(GameMetrics.PAINT).getCount());
+        Assertions.assertEquals(0, metrics.getWindow(GameMetrics.PAINT).getCount());
+        Assertions.assertEquals(2_000_000L, metrics.getLastMax(GameMetrics.PAINT));
+        Assertions.assertTrue(metrics.getLastFramesPerSecond() > 50 && metrics.getLastFramesPerSecond() < 70);
+        // Intervalos constantes salvo el salto final
+        Assertions.assertEquals(0, metrics.getLastMedian(GameMetrics.JITTER));
+    }
+
+    @Test
+    public void testRendererDrawsHudWithoutRecordingFrames() {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        GameRenderer renderer = new GameRenderer(engine);
+        GameMetrics metrics = new GameMetrics();
+        metrics.setHudVisible(true);
+        renderer.setMetrics(metrics);
+        BufferedImage image = new BufferedImage(engine.getGrid().getPixelWidth(),
+                engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int i = 0; i < 5; i++) {
+                renderer.render(g, null, 1.0);
+            }
+        } finally {
+            g.dispose();
+        }
+        // Los fotogramas los registra quien los presenta (Board, GameCanvas)
+        Assertions.assertEquals(0, metrics.getWindow(GameMetrics.PAINT).getCount());
+    }
+
+    @Test
+    public void testBoardRecordsOneFramePerPaint() {
+        Board board = new Board(new GameEngine(1, 0, 3, 1));
+        GameMetrics metrics = new GameMetrics();
+        board.setMetrics(metrics);
+        board.setSize(board.getPreferredSize());
+        BufferedImage image = new BufferedImage(board.getWidth(), board.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int i = 0; i < 5; i++) {
+                board.paintComponent(g);
+            }
+        } finally {
+            g.dispose();
+        }
+        Assertions.assertEquals(5, metrics.getWindow(GameMetrics.PAINT).getCount());
+        Assertions.assertEquals(3, metrics.getWindow(GameMetrics.JITTER).getCount());
+    }
+
+    @Test
+    public void testTicksStayAllocationFreeWithMetrics() {
+        Assumptions.assumeTrue(AllocationMeter.isSupported());
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        engine.setMetrics(new GameMetrics());
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 10 && best > 0; round++) {
+            if (engine.isGameLost() || engine.isGameWon()) {
+                engine = new GameEngine(1, 0, 3, round);
+                engine.setMetrics(new GameMetrics());
+                engine.step();
+            }
+            long before = AllocationMeter.currentThreadAllocatedBytes();
+            engine.step(500);
+            best = Math.min(best, AllocationMeter.currentThreadAllocatedBytes() - before);
+        }
+        Assertions.assertEquals(0, best);
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        Assumptions.assumeTrue(GameMetrics.isFlightRecorderAvailable());
+        Path file = tempDir.resolve("metrics.jfr");
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        engine.setMetrics(new GameMetrics());
+        try (Recording recording = new Recording()) {
+            recording.enable("pacman.Tick");
+            recording.start();
+            engine.step(50);
+            recording.stop();
+            recording.dump(file);
+        }
+        int ticks = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if ("pacman.Tick".equals(event.getEventType().getName())) {
+                ticks++;
+                Assertions.assertTrue(event.getDuration("tickTime").toNanos() >= 0);
+            }
+        }
+        Assertions.assertEquals(engine.getTickCount(), ticks);
+    }
+}
@@ -0,0 +1,88 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Protocolo binario entre GameServer y sus clientes (little endian, como los ficheros).
+// Cada mensaje va en una trama [longitud int32][tipo byte][datos].
+//
+// Cliente -> servidor:
+//   JOIN  semilla long, nivel inicial int, inteligencia int, fantasmas byte: partida nueva
+//   TURN  dirección byte: giro de Pacman, se aplica antes del siguiente tick
+// Servidor -> cliente:
+//   FULL  estado completo: al unirse, al cambiar de nivel y tras perder actualizaciones
+//         tick long, nivel int, puntuación int, estado byte, ancho y alto int, plano de
+//         puntos (número de longs int y los longs), entidades byte y por cada una x, y int
+//         y dirección byte (Pacman primero)
+//   DELTA cambios de un tick respecto al anterior enviado: ticks transcurridos, estado y
+//         puntuación ganada; entidades movidas como (índice << 2 | dirección) con el
+//         desplazamiento en zigzag; y las celdas de los puntos comidos. Todo en varints,
+//         así que un tick normal ocupa unos 20 bytes frente a los 361 del mapa de 19x19.
+final class GameProtocol {
+    static final int JOIN = 1;
+    static final int TURN = 2;
+    static final int FULL = 1;
+    static final int DELTA = 2;
+
+    static final int FLAG_WON = 1;
+    static final int FLAG_LOST = 2;
+
+    static final int FRAME_HEADER = 4;
+    // Tramas mayores se consideran un cliente roto
+    static final int MAX_CLIENT_FRAME = 64;
+    static final int MAX_GHOSTS = 64;
+    static final int JOIN_BYTES = 1 + 8 + 4 + 4 + 1;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private GameProtocol() {
+    }
+
+    static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static Direction direction(int ordinal) {
+        return DIRECTIONS[ordinal & 3];
+    }
+
+    static void putJoin(ByteBuffer out, long seed, int startLevel, int ghostIntelligence, int ghostCount) {
+        out.putInt(JOIN_BYTES);
+        out.put((byte) JOIN);
+        out.putLong(seed);
+        out.putInt(startLevel);
+        out.putInt(ghostIntelligence);
+        out.put((byte) ghostCount);
+    }
+
+    static void putTurn(ByteBuffer out, Direction direction) {
+        out.putInt(2);
+        out.put((byte) TURN);
+        out.put((byte) direction.ordinal());
+    }
+
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,100 @@
+// Fuente de aleatoriedad de una partida: SplitMix64, el mismo generador que
+// java.util.SplittableRandom, pero con el estado copiable para poder guardar y
+// restaurar partidas. Cada partida tiene una raíz con su semilla y cada fantasma
+// recibe un split() propio, así que una semilla reproduce la partida completa.
+public final class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private long gamma;
+
+    public GameRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private GameRandom(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    // Semilla nueva para partidas sin semilla explícita (se puede leer y guardar después)
+    public static long newSeed() {
+        return mix64(System.nanoTime() ^ mix64(System.currentTimeMillis()));
+    }
+
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    // Gamma impar y con suficientes transiciones de bits para un generador hijo
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int transitions = Long.bitCount(z ^ (z >>> 1));
+        return transitions < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    // Entero uniforme en [0, bound), sin sesgo
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        int r = mix32(nextSeed());
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1) {
+            // Se descartan los valores del último tramo incompleto
+        }
+        return r;
+    }
+
+    public boolean nextBoolean() {
+        return mix32(nextSeed()) < 0;
+    }
+
+    // Generador independiente derivado de este (avanza este generador)
+    public GameRandom split() {
+        return new GameRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    // Copia exacta del estado actual
+    public GameRandom copy() {
+        return new GameRandom(seed, gamma);
+    }
+
+    // Estado en crudo, para las instantáneas de partida
+    long getState() {
+        return seed;
+    }
+
+    long getGamma() {
+        return gamma;
+    }
+
+    void setState(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GameRandom class.
+ */
+public class GameRandomTest {
+
+    @Test
+    public void testSameSeedGivesSameSequence() {
+        GameRandom a = new GameRandom(123);
+        GameRandom b = new GameRandom(123);
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(a.nextLong(), b.nextLong());
+        }
+        Assertions.assertNotEquals(new GameRandom(1).nextLong(), new GameRandom(2).nextLong());
+    }
+
+    @Test
+    public void testMatchesSplittableRandom() {
+        // Mismo algoritmo: misma secuencia que java.util.SplittableRandom
+        java.util.SplittableRandom reference = new java.util.SplittableRandom(99);
+        GameRandom random = new GameRandom(99);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(reference.nextLong(), random.nextLong());
+        }
+    }
+
+    @Test
+    public void testNextIntStaysInBoundsAndCoversRange() {
+        GameRandom random = new GameRandom(5);
+        int[] counts = new int[100];
+        for (int i = 0; i < 100_000; i++) {
+            counts[random.nextInt(100)]++;
+        }
+        for (int count : counts) {
+            Assertions.assertTrue(count > 800 && count < 1200, "count " + count);
+        }
+        assertThrows(IllegalArgumentException.class, () -> random.nextInt(0));
+    }
+
+    @Test
+    public void testSplitsAreDeterministicAndIndependent() {
+        GameRandom root1 = new GameRandom(7);
+        GameRandom root2 = new GameRandom(7);
+        GameRandom childA = root1.split();
+        GameRandom childB = root1.split();
+        Assertions.assertEquals(childA.nextLong(), root2.split().nextLong());
+        Assertions.assertNotEquals(childA.nextLong(), childB.nextLong());
+    }
+
+    @Test
+    public void testCopyContinuesTheSameSequence() {
+        GameRandom random = new GameRandom(11);
+        random.nextInt(50);
+        GameRandom copy = random.copy();
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(random.nextInt(1000), copy.nextInt(1000));
+        }
+    }
+}
@@ -0,0 +1,304 @@
+import java.awt.*;
+
+// Dibuja un fotograma completo del juego: laberinto prerenderizado, sprites y marcador.
+// Lo comparten el Board (Swing Timer) y el GameCanvas (renderizado activo). Guarda las
+// posiciones de los sprites antes de cada tick para poder interpolar entre dos ticks.
+// Puede dibujar a cualquier escala: elige el tamaño de tile que cabe en la vista (en
+// píxeles reales de la pantalla, también con HiDPI) y rasteriza laberinto y sprites a
+// ese tamaño solo cuando cambia, así que cada fotograma cuesta lo mismo a 1x que a 4x.
+public class GameRenderer {
+    public static final int STATUS_HEIGHT = 30;
+    private static final int TILE_SIZE = GameEngine.TILE_SIZE;
+
+    private final GameEngine engine;
+    private final MazeLayer mazeLayer = new MazeLayer();
+    // Sprites del tamaño de tile actual; el compartido cuando no se escala
+    private SpriteAtlas atlas = SpriteAtlas.shared();
+    private static final Font STATUS_FONT = new Font(Font.DIALOG, Font.PLAIN, 12);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+    // Fuentes al tamaño de tile actual: escalar el texto con el transform del Graphics
+    // crea objetos en cada fotograma
+    private Font statusFont = STATUS_FONT;
+    private Font messageFont = MESSAGE_FONT;
+    private Font hudFont = HUD_FONT;
+    // Texto del marcador: se escribe en este buffer en vez de concatenar Strings
+    private final char[] statusText = new char[32];
+    // Medidas de fotogramas y HUD opcional junto al marcador; null si no se usan
+    private GameMetrics metrics;
+    // Se avisa tras el primer fotograma y se suelta (ver StartupTimer)
+    private volatile StartupTimer startup;
+
+    // Escala del último fotograma: píxeles de pantalla por tile y esquina del tablero
+    // dentro de la vista, en píxeles de pantalla
+    private int tileSize = TILE_SIZE;
+    private int originX;
+    private int originY;
+    // Píxeles de pantalla por píxel del componente (mayor que 1 con HiDPI); solo se
+    // consulta cuando cambia la GraphicsConfiguration
+    private GraphicsConfiguration scaleConfig;
+    private double deviceScale = 1.0;
+
+    // Posición de cada sprite antes del último tick: índice 0 Pacman, i + 1 el fantasma i
+    private int[] previousX = new int[0];
+    private int[] previousY = new int[0];
+
+    public GameRenderer(GameEngine engine) {
+        this.engine = engine;
+        engine.addListener(new GameEngine.Listener() {
+            @Override
+            public void pelletEaten(int col, int row) {
+                mazeLayer.erasePellet(col, row);
+            }
+
+            @Override
+            public void stateRestored() {
+                // Sin interpolar desde las posiciones de antes del salto
+                mazeLayer.invalidate();
+                beforeTick();
+            }
+        });
+    }
+
+    // Llamar justo antes de cada engine.step()
+    public void beforeTick() {
+        Ghost[] ghosts = engine.getGhosts();
+        if (previousX.length != ghosts.length + 1) {
+            previousX = new int[ghosts.length + 1];
+            previousY = new int[ghosts.length + 1];
+        }
+        previousX[0] = engine.getPacman().getX();
+        previousY[0] = engine.getPacman().getY();
+        for (int i = 0; i < ghosts.length; i++) {
+            previousX[i + 1] = ghosts[i].getX();
+            previousY[i + 1] = ghosts[i].getY();
+        }
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setStartupTimer(StartupTimer startup) {
+        this.startup = startup;
+    }
+
+    MazeLayer getMazeLayer() {
+        return mazeLayer;
+    }
+
+    public int getPreviousX(int sprite) {
+        return previousX[sprite];
+    }
+
+    public int getPreviousY(int sprite) {
+        return previousY[sprite];
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    // Mayor tamaño de tile con el que el tablero y el marcador caben en width x height
+    // píxeles (como mínimo 1)
+    static int tileSizeFor(LevelGrid grid, int width, int height) {
+        int byWidth = width / grid.getWidth();
+        long scaledHeight = (long) grid.getHeight() * TILE_SIZE + STATUS_HEIGHT;
+        int byHeight = (int) ((long) height * TILE_SIZE / scaledHeight);
+        return Math.max(1, Math.min(byWidth, byHeight));
+    }
+
+    // Píxeles del juego a píxeles de pantalla con el tamaño de tile actual
+    private int scaled(int pixels) {
+        return tileSize == TILE_SIZE ? pixels : Math.floorDiv(pixels * tileSize, TILE_SIZE);
+    }
+
+    // Rectángulo del componente que cubre un área del tablero dada en píxeles del juego,
+    // con la escala del último fotograma (para repintar solo esa zona)
+    public void toView(int x, int y, int width, int height, Rectangle out) {
+        double scale = deviceScale;
+        int left = (int) Math.floor((originX + scaled(x)) / scale);
+        int top = (int) Math.floor((originY + scaled(y)) / scale);
+        int right = (int) Math.ceil((originX + scaled(x + width)) / scale);
+        int bottom = (int) Math.ceil((originY + scaled(y + height)) / scale);
+        out.setBounds(left, top, right - left, bottom - top);
+    }
+
+    private double deviceScale(GraphicsConfiguration config) {
+        if (config != scaleConfig) {
+            scaleConfig = config;
+            deviceScale = config != null ? config.getDefaultTransform().getScaleX() : 1.0;
+        }
+        return deviceScale;
+    }
+
+    // alpha es la fracción del siguiente tick ya transcurrida: 0 dibuja la posición
+    // anterior al último tick y 1 la actual. Dibuja a tamaño natural en la esquina.
+    public void render(Graphics g, GraphicsConfiguration config, double alpha) {
+        draw(g, config, alpha, TILE_SIZE, 0, 0);
+    }
+
+    // Como render(g, config, alpha) pero escalado para llenar una vista de width x height
+    // en coordenadas del componente, centrado y con el mayor tamaño de tile entero que cabe
+    public void render(Graphics g, GraphicsConfiguration config, double alpha, int width, int height) {
+        double scale = deviceScale(config);
+        int viewWidth = (int) Math.round(width * scale);
+        int viewHeight = (int) Math.round(height * scale);
+        LevelGrid grid = engine.getGrid();
+        int tile = tileSizeFor(grid, viewWidth, viewHeight);
+        int x = Math.max(0, (viewWidth - grid.getWidth() * tile) / 2);
+        int y = Math.max(0, (viewHeight - grid.getHeight() * tile - STATUS_HEIGHT * tile / TILE_SIZE) / 2);
+        if (scale == 1.0) {
+            draw(g, config, alpha, tile, x, y);
+            return;
+        }
+        // Con HiDPI se dibuja en píxeles reales para que las capas se copien sin escalar
+        Graphics2D g2 = (Graphics2D) g;
+        g2.scale(1 / scale, 1 / scale);
+        draw(g, config, alpha, tile, x, y);
+        g2.scale(scale, scale);
+    }
+
+    // No registra el fotograma en GameMetrics: Board y GameCanvas lo hacen una vez por
+    // fotograma presentado, que puede incluir varias llamadas o ninguna
+    private void draw(Graphics g, GraphicsConfiguration config, double alpha, int tile, int x0, int y0) {
+        GameMetrics meter = metrics;
+        tileSize = tile;
+        originX = x0;
+        originY = y0;
+        if (!mazeLayer.isBuiltFor(engine.getGrid(), tile)) {
+            mazeLayer.rebuild(engine.getGrid(), config, tile);
+        }
+        if (atlas.getSize() != tile) {
+            atlas = tile == SpriteAtlas.SPRITE_SIZE ? SpriteAtlas.shared() : new SpriteAtlas(config, tile);
+            scaleFonts(tile);
+        }
+        g.translate(x0, y0);
+        mazeLayer.draw(g);
+
+        boolean interpolate = alpha < 1.0 && previousX.length == engine.getGhosts().length + 1;
+        Pacman pacman = engine.getPacman();
+        int x = interpolate ? interpolate(previousX[0], pacman.getX(), alpha) : pacman.getX();
+        int y = interpolate ? interpolate(previousY[0], pacman.getY(), alpha) : pacman.getY();
+        atlas.drawPacman(g, pacman.getDirection(), pacman.getMouthFrame(), scaled(x), scaled(y));
+
+        Ghost[] ghosts = engine.getGhosts();
+        for (int i = 0; i < ghosts.length; i++) {
+            Ghost ghost = ghosts[i];
+            x = interpolate ? interpolate(previousX[i + 1], ghost.getX(), alpha) : ghost.getX();
+            y = interpolate ? interpolate(previousY[i + 1], ghost.getY(), alpha) : ghost.getY();
+            atlas.drawGhost(g, ghost.getColor(), ghost.getDirection(), scaled(x), scaled(y));
+        }
+        drawStatus(g);
+        if (meter != null && meter.isHudVisible()) {
+            drawHud(g, meter);
+        }
+        g.translate(-x0, -y0);
+        StartupTimer timer = startup;
+        if (timer != null) {
+            startup = null;
+            timer.frameRendered();
+        }
+    }
+
+    private void scaleFonts(int tile) {
+        if (tile == TILE_SIZE) {
+            statusFont = STATUS_FONT;
+            messageFont = MESSAGE_FONT;
+            hudFont = HUD_FONT;
+            return;
+        }
+        float factor = (float) tile / TILE_SIZE;
+        statusFont = STATUS_FONT.deriveFont(STATUS_FONT.getSize2D() * factor);
+        messageFont = MESSAGE_FONT.deriveFont(MESSAGE_FONT.getSize2D() * factor);
+        hudFont = HUD_FONT.deriveFont(HUD_FONT.getSize2D() * factor);
+    }
+
+    // Los saltos de más de un tile (túnel, nivel nuevo) no se interpolan
+    static int interpolate(int previous, int current, double alpha) {
+        int delta = current - previous;
+        if (delta > TILE_SIZE || delta < -TILE_SIZE) {
+            return current;
+        }
+        return previous + (int) Math.round(delta * alpha);
+    }
+
+    private void drawStatus(Graphics g) {
+        int boardWidth = engine.getGrid().getPixelWidth();
+        int boardHeight = engine.getGrid().getPixelHeight();
+        g.setColor(Color.YELLOW);
+        // A tamaño natural se deja la fuente que ya tenga el Graphics, como antes de escalar:
+        // cambiarla en cada fotograma crea objetos
+        if (tileSize != TILE_SIZE) {
+            g.setFont(statusFont);
+        }
+        int length = formatLabel(statusText, "Score: ", engine.getPacman().getScore());
+        g.drawChars(statusText, 0, length, scaled(10), scaled(boardHeight + 20));
+        length = formatLabel(statusText, "Level: ", engine.getCurrentLevel());
+        g.drawChars(statusText, 0, length, scaled(150), scaled(boardHeight + 20));
+
+        if (engine.isGameWon()) {
+            g.setColor(Color.GREEN);
+            g.setFont(messageFont);
+            g.drawString("LEVEL COMPLETE!", scaled(boardWidth / 2 - 80), scaled(boardHeight / 2));
+        } else if (engine.isGameLost()) {
+            g.setColor(Color.RED);
+            g.setFont(messageFont);
+            g.drawString("GAME OVER!", scaled(boardWidth / 2 - 60), scaled(boardHeight / 2));
+        }
+    }
+
+    // Percentil 99 de la última ventana de GameMetrics, a la derecha del nivel:
+    // "tick 12us paint 850us" y "60fps jit 450us 0KB/s"
+    private void drawHud(Graphics g, GameMetrics meter) {
+        int boardHeight = engine.getGrid().getPixelHeight();
+        g.setColor(Color.LIGHT_GRAY);
+        g.setFont(hudFont);
+        int length = appendText(statusText, 0, "tick ");
+        length = appendNumber(statusText, length, meter.getLastP99(GameMetrics.TICK) / 1000);
+        length = appendText(statusText, length, "us paint ");
+        length = appendNumber(statusText, length, meter.getLastP99(GameMetrics.PAINT) / 1000);
+        length = appendText(statusText, length, "us");
+        g.drawChars(statusText, 0, length, scaled(230), scaled(boardHeight + 12));
+        length = appendNumber(statusText, 0, Math.round(meter.getLastFramesPerSecond()));
+        length = appendText(statusText, length, "fps jit ");
+        length = appendNumber(statusText, length, meter.getLastP99(GameMetrics.JITTER) / 1000);
+        length = appendText(statusText, length, "us ");
+        length = appendNumber(statusText, length, Math.round(meter.getLastAllocationRate() / 1024));
+        length = appendText(statusText, length, "KB/s");
+        g.drawChars(statusText, 0, length, scaled(230), scaled(boardHeight + 25));
+    }
+
+    // Escribe label seguido de value en buffer y devuelve la longitud del texto
+    static int formatLabel(char[] buffer, String label, int value) {
+        return appendNumber(buffer, appendText(buffer, 0, label), value);
+    }
+
+    static int appendText(char[] buffer, int at, String text) {
+        text.getChars(0, text.length(), buffer, at);
+        return at + text.length();
+    }
+
+    // Escribe value en decimal a partir de at y devuelve la posición siguiente
+    static int appendNumber(char[] buffer, int at, long value) {
+        int length = at;
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[length++] = '-';
+            remaining = -remaining;
+        }
+        int digits = 1;
+        for (long v = remaining; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return length + digits;
+    }
+}
@@ -0,0 +1,177 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Unit tests for the GameRenderer class.
+ */
+public class GameRendererTest {
+
+    private GameEngine engine;
+    private GameRenderer renderer;
+    private BufferedImage frame;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new GameEngine();
+        renderer = new GameRenderer(engine);
+        frame = new BufferedImage(engine.getGrid().getPixelWidth(),
+                engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private void render(double alpha) {
+        Graphics2D g = frame.createGraphics();
+        renderer.render(g, null, alpha);
+        g.dispose();
+    }
+
+    @Test
+    public void testInterpolate() {
+        Assertions.assertEquals(100, GameRenderer.interpolate(100, 110, 0.0));
+        Assertions.assertEquals(105, GameRenderer.interpolate(100, 110, 0.5));
+        Assertions.assertEquals(110, GameRenderer.interpolate(100, 110, 1.0));
+        Assertions.assertEquals(96, GameRenderer.interpolate(100, 92, 0.5));
+    }
+
+    @Test
+    public void testJumpsAreNotInterpolated() {
+        // Cruce del túnel: de un borde al otro
+        Assertions.assertEquals(0, GameRenderer.interpolate(360, 0, 0.5));
+    }
+
+    @Test
+    public void testBeforeTickRecordsPositions() {
+        renderer.beforeTick();
+        int startX = engine.getPacman().getX();
+        engine.step();
+        Assertions.assertEquals(startX, renderer.getPreviousX(0));
+        Assertions.assertEquals(engine.getGhosts()[0].getY(), renderer.getPreviousY(1), 2);
+    }
+
+    @Test
+    public void testRenderDrawsPacmanAtInterpolatedPosition() {
+        renderer.beforeTick();
+        int startX = engine.getPacman().getX();
+        int y = engine.getPacman().getY();
+        engine.step();
+        int endX = engine.getPacman().getX();
+        Assertions.assertNotEquals(startX, endX);
+
+        // Con alpha 0 Pacman sigue en la posición anterior: su centro es amarillo
+        render(0.0);
+        Assertions.assertEquals(Color.YELLOW.getRGB(), frame.getRGB(startX + 10, y + 16));
+        render(1.0);
+        Assertions.assertEquals(Color.YELLOW.getRGB(), frame.getRGB(endX + 10, y + 16));
+    }
+
+    @Test
+    public void testRenderWithoutTicks() {
+        render(0.5);
+        Assertions.assertEquals(Color.BLUE.getRGB(), frame.getRGB(5, 5));
+    }
+
+    private BufferedImage renderScaled(int width, int height) {
+        BufferedImage view = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = view.createGraphics();
+        renderer.render(g, null, 1.0, width, height);
+        g.dispose();
+        return view;
+    }
+
+    @Test
+    public void testTileSizeFor() {
+        LevelGrid grid = engine.getGrid();
+        Assertions.assertEquals(20, GameRenderer.tileSizeFor(grid, frame.getWidth(), frame.getHeight()));
+        Assertions.assertEquals(40, GameRenderer.tileSizeFor(grid, 2 * frame.getWidth(), 2 * frame.getHeight()));
+        // Manda el lado que menos cabe, contando el marcador
+        Assertions.assertEquals(24, GameRenderer.tileSizeFor(grid, 2 * frame.getWidth(), 500));
+        Assertions.assertEquals(1, GameRenderer.tileSizeFor(grid, 10, 10));
+    }
+
+    @Test
+    public void testScaledRenderDrawsAtTileSize() {
+        int x = engine.getPacman().getX();
+        int y = engine.getPacman().getY();
+        BufferedImage view = renderScaled(2 * frame.getWidth(), 2 * frame.getHeight());
+        Assertions.assertEquals(40, renderer.getTileSize());
+        Assertions.assertEquals(40, renderer.getMazeLayer().getTileSize());
+        Assertions.assertEquals(Color.BLUE.getRGB(), view.getRGB(20, 20));
+        Assertions.assertEquals(Color.YELLOW.getRGB(), view.getRGB(2 * x + 20, 2 * y + 32));
+        // El marcador también se escala: el texto queda por debajo del tablero a 2x
+        boolean text = false;
+        for (int row = 2 * engine.getGrid().getPixelHeight(); row < view.getHeight(); row++) {
+            text |= view.getRGB(30, row) == Color.YELLOW.getRGB();
+        }
+        Assertions.assertTrue(text);
+    }
+
+    @Test
+    public void testScaledLayersAreRebuiltOnlyWhenScaleChanges() {
+        renderScaled(2 * frame.getWidth(), 2 * frame.getHeight());
+        BufferedImage maze = renderer.getMazeLayer().getImage();
+        renderScaled(2 * frame.getWidth() + 7, 2 * frame.getHeight() + 3);
+        Assertions.assertSame(maze, renderer.getMazeLayer().getImage());
+        renderScaled(3 * frame.getWidth(), 3 * frame.getHeight());
+        Assertions.assertEquals(60, renderer.getTileSize());
+        Assertions.assertNotSame(maze, renderer.getMazeLayer().getImage());
+        Assertions.assertEquals(60 * engine.getGrid().getWidth(), renderer.getMazeLayer().getImage().getWidth());
+    }
+
+    @Test
+    public void testScaledRenderCentersBoard() {
+        BufferedImage view = renderScaled(1000, frame.getHeight());
+        Assertions.assertEquals(20, renderer.getTileSize());
+        int left = (1000 - engine.getGrid().getPixelWidth()) / 2;
+        Assertions.assertEquals(0, view.getRGB(left - 5, 5) & 0xFFFFFF);
+        Assertions.assertEquals(Color.BLUE.getRGB(), view.getRGB(left + 5, 5));
+
+        Rectangle area = new Rectangle();
+        renderer.toView(20, 40, 20, 20, area);
+        Assertions.assertEquals(new Rectangle(left + 20, 40, 20, 20), area);
+    }
+
+    @Test
+    public void testToViewScalesWithTileSize() {
+        renderScaled(2 * frame.getWidth(), 2 * frame.getHeight());
+        Rectangle area = new Rectangle();
+        renderer.toView(20, 40, 20, 20, area);
+        Assertions.assertEquals(new Rectangle(40, 80, 40, 40), area);
+    }
+
+    @Test
+    public void testFormatLabel() {
+        char[] buffer = new char[32];
+        Assertions.assertEquals("Score: 0", new String(buffer, 0, GameRenderer.formatLabel(buffer, "Score: ", 0)));
+        Assertions.assertEquals("Score: 1230", new String(buffer, 0, GameRenderer.formatLabel(buffer, "Score: ", 1230)));
+        Assertions.assertEquals("Level: -7", new String(buffer, 0, GameRenderer.formatLabel(buffer, "Level: ", -7)));
+        Assertions.assertEquals("x" + Integer.MIN_VALUE,
+                new String(buffer, 0, GameRenderer.formatLabel(buffer, "x", Integer.MIN_VALUE)));
+    }
+
+    @Test
+    public void testSteadyStatePaintDoesNotAllocate() {
+        org.junit.jupiter.api.Assumptions.assumeTrue(AllocationMeter.isSupported());
+        Graphics2D g = frame.createGraphics();
+        // Java2D crea objetos temporales que solo desaparecen cuando el JIT compila
+        // el camino de dibujo: el calentamiento tiene que ser largo
+        for (int i = 0; i < 20_000; i++) {
+            renderer.beforeTick();
+            engine.step();
+            renderer.render(g, null, 0.5);
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5 && best > 0; round++) {
+            long before = AllocationMeter.currentThreadAllocatedBytes();
+            for (int i = 0; i < 200; i++) {
+                renderer.render(g, null, i / 200.0);
+            }
+            best = Math.min(best, AllocationMeter.currentThreadAllocatedBytes() - before);
+        }
+        g.dispose();
+        Assertions.assertEquals(0, best, "bytes allocated over 200 frames");
+    }
+}
@@ -0,0 +1,546 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Servidor autoritativo para muchas partidas a la vez en la misma JVM. Cada cliente
+// conectado tiene su propia partida (GameEngine); el servidor la avanza a ritmo fijo y
+// el cliente solo manda giros de Pacman (ver GameProtocol).
+//
+// Hay un bucle de eventos por hilo, cada uno con su Selector y sus sesiones: lee los
+// mensajes de sus clientes, avanza todas sus partidas cada tick y les envía los cambios.
+// Las conexiones se reparten entre los bucles al aceptarlas, así que no hay estado
+// compartido entre hilos. Si un cliente no lee y se acumulan más de MAX_BACKLOG bytes
+// sin enviar, se dejan de generar cambios para él y recibe el estado completo cuando se
+// pone al día.
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7777;
+    public static final long DEFAULT_TICK_NANOS = GameEngine.TICK_MILLIS * 1_000_000L;
+    static final int MAX_BACKLOG = 64 * 1024;
+    // Ticks que se recuperan como mucho si un bucle se retrasa (como GameCanvas)
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final ServerSocketChannel serverChannel;
+    private final Loop[] loops;
+    private final long tickNanos;
+    private volatile boolean running = true;
+    private int nextLoop;
+
+    public GameServer(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors(), DEFAULT_TICK_NANOS);
+    }
+
+    // port 0 elige un puerto libre (ver getPort)
+    public GameServer(int port, int loopCount, long tickNanos) throws IOException {
+        if (loopCount <= 0 || tickNanos <= 0) {
+            throw new IllegalArgumentException("invalid server settings: loops=" + loopCount + " tick=" + tickNanos);
+        }
+        this.tickNanos = tickNanos;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        serverChannel.configureBlocking(false);
+        loops = new Loop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new Loop(i);
+        }
+        // El primer bucle también acepta las conexiones nuevas
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (Loop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), getPort());
+    }
+
+    public int getSessionCount() {
+        int count = 0;
+        for (Loop loop : loops) {
+            count += loop.sessionCount;
+        }
+        return count;
+    }
+
+    // ---- Estadísticas (sumadas de todos los bucles) ----
+
+    public long getUpdatesSent() {
+        long total = 0;
+        for (Loop loop : loops) {
+            total += loop.updatesSent;
+        }
+        return total;
+    }
+
+    public long getBytesSent() {
+        long total = 0;
+        for (Loop loop : loops) {
+            total += loop.bytesSent;
+        }
+        return total;
+    }
+
+    // Actualizaciones que no se generaron porque el cliente no leía
+    public long getSkippedUpdates() {
+        long total = 0;
+        for (Loop loop : loops) {
+            total += loop.skippedUpdates;
+        }
+        return total;
+    }
+
+    // Tiempo máximo que ha tardado un bucle en avanzar y enviar todas sus partidas
+    public long getMaxTickNanos() {
+        long max = 0;
+        for (Loop loop : loops) {
+            max = Math.max(max, loop.maxTickNanos);
+        }
+        return max;
+    }
+
+    public double getMeanTickNanos() {
+        long ticks = 0;
+        long nanos = 0;
+        for (Loop loop : loops) {
+            ticks += loop.ticks;
+            nanos += loop.tickNanosTotal;
+        }
+        return ticks == 0 ? 0.0 : (double) nanos / ticks;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (Loop loop : loops) {
+            try {
+                loop.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        serverChannel.close();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Loop loop = loops[nextLoop++ % loops.length];
+            loop.incoming.add(channel);
+            loop.selector.wakeup();
+        }
+    }
+
+    // Un hilo con su Selector y sus sesiones
+    private final class Loop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<SocketChannel> incoming = new ConcurrentLinkedQueue<>();
+        private final List<Session> sessions = new ArrayList<>();
+        private volatile int sessionCount;
+        private volatile long updatesSent;
+        private volatile long bytesSent;
+        private volatile long skippedUpdates;
+        private volatile long ticks;
+        private volatile long tickNanosTotal;
+        private volatile long maxTickNanos;
+
+        Loop(int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "pacman-server-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long nextTick = System.nanoTime() + tickNanos;
+            try {
+                while (running) {
+                    long waitMillis = (nextTick - System.nanoTime()) / 1_000_000L;
+                    if (waitMillis > 0) {
+                        selector.select(waitMillis);
+                    } else {
+                        selector.selectNow();
+                    }
+                    registerIncoming();
+                    handleKeys();
+                    long now = System.nanoTime();
+                    if (now >= nextTick) {
+                        tick();
+                        long end = System.nanoTime();
+                        ticks++;
+                        tickNanosTotal += end - now;
+                        maxTickNanos = Math.max(maxTickNanos, end - now);
+                        nextTick += tickNanos;
+                        if (end - nextTick > MAX_CATCH_UP_TICKS * tickNanos) {
+                            nextTick = end + tickNanos;
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    System.err.println("game server loop stopped: " + e);
+                }
+            } finally {
+                for (Session session : new ArrayList<>(sessions)) {
+                    close(session);
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // Se está cerrando el servidor
+                }
+            }
+        }
+
+        private void registerIncoming() throws IOException {
+            SocketChannel channel;
+            while ((channel = incoming.poll()) != null) {
+                Session session = new Session(channel);
+                session.key = channel.register(selector, SelectionKey.OP_READ, session);
+                session.slot = sessions.size();
+                sessions.add(session);
+                sessionCount = sessions.size();
+            }
+        }
+
+        private void handleKeys() throws IOException {
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Session session = (Session) key.attachment();
+                try {
+                    if (key.isReadable() && !read(session)) {
+                        close(session);
+                        continue;
+                    }
+                    if (key.isWritable()) {
+                        flush(session);
+                    }
+                } catch (IOException e) {
+                    close(session);
+                }
+            }
+        }
+
+        // Devuelve false si el cliente ha cerrado o ha mandado algo inválido
+        private boolean read(Session session) throws IOException {
+            ByteBuffer in = session.in;
+            if (session.channel.read(in) < 0) {
+                return false;
+            }
+            in.flip();
+            try {
+                while (in.remaining() >= GameProtocol.FRAME_HEADER) {
+                    int length = in.getInt(in.position());
+                    if (length <= 0 || length > GameProtocol.MAX_CLIENT_FRAME) {
+                        return false;
+                    }
+                    if (in.remaining() < GameProtocol.FRAME_HEADER + length) {
+                        break;
+                    }
+                    in.position(in.position() + GameProtocol.FRAME_HEADER);
+                    int end = in.position() + length;
+                    if (!handle(session, in, length)) {
+                        return false;
+                    }
+                    in.position(end);
+                }
+            } finally {
+                in.compact();
+            }
+            return true;
+        }
+
+        private boolean handle(Session session, ByteBuffer in, int length) throws IOException {
+            int type = in.get();
+            if (type == GameProtocol.JOIN && length == GameProtocol.JOIN_BYTES) {
+                long seed = in.getLong();
+                int startLevel = in.getInt();
+                int intelligence = in.getInt();
+                int ghosts = in.get() & 0xFF;
+                if (startLevel <= 0 || intelligence < 0 || ghosts > GameProtocol.MAX_GHOSTS) {
+                    return false;
+                }
+                session.start(new GameEngine(startLevel, intelligence, ghosts, seed));
+                session.writeFull();
+                flush(session);
+                return true;
+            }
+            if (type == GameProtocol.TURN && length == 2) {
+                int direction = in.get();
+                if (session.engine != null) {
+                    session.engine.getPacman().setNextDirection(GameProtocol.direction(direction));
+                }
+                return true;
+            }
+            return false;
+        }
+
+        // Avanza todas las partidas un tick y envía lo que ha cambiado
+        private void tick() {
+            for (int i = 0; i < sessions.size(); i++) {
+                Session session = sessions.get(i);
+                if (session.engine == null || session.finished) {
+                    continue;
+                }
+                session.engine.step();
+                if (session.out.position() > MAX_BACKLOG) {
+                    // El cliente no lee: al ponerse al día recibirá el estado completo
+                    session.needsFull = true;
+                    session.eatenCount = 0;
+                    skippedUpdates++;
+                    continue;
+                }
+                if (session.needsFull) {
+                    session.writeFull();
+                } else {
+                    session.writeDelta();
+                }
+                session.finished = session.engine.isGameLost();
+                try {
+                    flush(session);
+                } catch (IOException e) {
+                    close(session);
+                    i--;
+                }
+            }
+        }
+
+        private void flush(Session session) throws IOException {
+            ByteBuffer out = session.out;
+            out.flip();
+            bytesSent += session.channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            // Solo se toca el Selector cuando cambia si quedan bytes por enviar
+            if (pending != session.writePending) {
+                session.writePending = pending;
+                session.key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+
+        private void close(Session session) {
+            session.key.cancel();
+            try {
+                session.channel.close();
+            } catch (IOException ignored) {
+                // Ya estaba cerrado
+            }
+            if (session.slot < 0) {
+                return;
+            }
+            // Se quita cambiándola por la última
+            Session last = sessions.remove(sessions.size() - 1);
+            if (last != session) {
+                sessions.set(session.slot, last);
+                last.slot = session.slot;
+            }
+            session.slot = -1;
+            sessionCount = sessions.size();
+        }
+
+        // Un cliente y su partida, con lo último que se le ha enviado
+        private final class Session implements GameEngine.Listener {
+            private final SocketChannel channel;
+            private SelectionKey key;
+            private int slot;
+            private final ByteBuffer in = GameProtocol.allocate(256);
+            private ByteBuffer out = GameProtocol.allocate(512);
+            private GameEngine engine;
+            private boolean needsFull;
+            private boolean writePending;
+            private boolean finished;
+            // Estado enviado: tick, puntuación y entidades (Pacman en la posición 0)
+            private long sentTick;
+            private int sentScore;
+            private int[] sentX = new int[0];
+            private int[] sentY = new int[0];
+            private byte[] sentDirection = new byte[0];
+            // Puntos comidos desde el último envío, como celdas
+            private int[] eaten = new int[16];
+            private int eatenCount;
+
+            Session(SocketChannel channel) {
+                this.channel = channel;
+            }
+
+            void start(GameEngine engine) {
+                this.engine = engine;
+                engine.addListener(this);
+                finished = false;
+                int entities = 1 + engine.getGhostCount();
+                sentX = new int[entities];
+                sentY = new int[entities];
+                sentDirection = new byte[entities];
+            }
+
+            @Override
+            public void pelletEaten(int col, int row) {
+                if (eatenCount == eaten.length) {
+                    eaten = java.util.Arrays.copyOf(eaten, eatenCount * 2);
+                }
+                eaten[eatenCount++] = row * engine.getGrid().getWidth() + col;
+            }
+
+            @Override
+            public void levelLoaded(int level) {
+                needsFull = true;
+            }
+
+            private int flags() {
+                return (engine.isGameWon() ? GameProtocol.FLAG_WON : 0)
+                        | (engine.isGameLost() ? GameProtocol.FLAG_LOST : 0);
+            }
+
+            private int entityX(int entity) {
+                return entity == 0 ? engine.getPacman().getX() : engine.getGhosts()[entity - 1].getX();
+            }
+
+            private int entityY(int entity) {
+                return entity == 0 ? engine.getPacman().getY() : engine.getGhosts()[entity - 1].getY();
+            }
+
+            private int entityDirection(int entity) {
+                return (entity == 0 ? engine.getPacman().getDirection()
+                        : engine.getGhosts()[entity - 1].getDirection()).ordinal();
+            }
+
+            private void ensure(int bytes) {
+                if (out.remaining() < bytes) {
+                    ByteBuffer bigger = GameProtocol.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                    out.flip();
+                    bigger.put(out);
+                    out = bigger;
+                }
+            }
+
+            void writeFull() {
+                LevelGrid grid = engine.getGrid();
+                int longs = LevelGrid.planeLongs(grid.getWidth(), grid.getHeight());
+                int entities = sentX.length;
+                ensure(GameProtocol.FRAME_HEADER + 40 + longs * 8 + entities * 9);
+                int start = out.position();
+                out.putInt(0);
+                out.put((byte) GameProtocol.FULL);
+                out.putLong(engine.getTickCount());
+                out.putInt(engine.getCurrentLevel());
+                out.putInt(engine.getPacman().getScore());
+                out.put((byte) flags());
+                out.putInt(grid.getWidth());
+                out.putInt(grid.getHeight());
+                out.putInt(longs);
+                LongBuffer pellets = grid.getPelletBits();
+                for (int i = 0; i < longs; i++) {
+                    out.putLong(pellets.get(i));
+                }
+                out.put((byte) entities);
+                for (int e = 0; e < entities; e++) {
+                    sentX[e] = entityX(e);
+                    sentY[e] = entityY(e);
+                    sentDirection[e] = (byte) entityDirection(e);
+                    out.putInt(sentX[e]);
+                    out.putInt(sentY[e]);
+                    out.put(sentDirection[e]);
+                }
+                out.putInt(start, out.position() - start - GameProtocol.FRAME_HEADER);
+                sentTick = engine.getTickCount();
+                sentScore = engine.getPacman().getScore();
+                eatenCount = 0;
+                needsFull = false;
+                updatesSent++;
+            }
+
+            void writeDelta() {
+                int entities = sentX.length;
+                int moved = 0;
+                for (int e = 0; e < entities; e++) {
+                    if (entityX(e) != sentX[e] || entityY(e) != sentY[e] || entityDirection(e) != sentDirection[e]) {
+                        moved++;
+                    }
+                }
+                // Varints de como mucho 5 bytes
+                ensure(GameProtocol.FRAME_HEADER + 1 + 5 + 1 + 5 + 5 + moved * 15 + 5 + eatenCount * 5);
+                int start = out.position();
+                out.putInt(0);
+                out.put((byte) GameProtocol.DELTA);
+                GameProtocol.putVarInt(out, (int) (engine.getTickCount() - sentTick));
+                out.put((byte) flags());
+                GameProtocol.putVarInt(out, engine.getPacman().getScore() - sentScore);
+                GameProtocol.putVarInt(out, moved);
+                for (int e = 0; e < entities && moved > 0; e++) {
+                    int x = entityX(e);
+                    int y = entityY(e);
+                    int direction = entityDirection(e);
+                    if (x != sentX[e] || y != sentY[e] || direction != sentDirection[e]) {
+                        GameProtocol.putVarInt(out, e << 2 | direction);
+                        GameProtocol.putVarInt(out, GameProtocol.zigzag(x - sentX[e]));
+                        GameProtocol.putVarInt(out, GameProtocol.zigzag(y - sentY[e]));
+                        sentX[e] = x;
+                        sentY[e] = y;
+                        sentDirection[e] = (byte) direction;
+                        moved--;
+                    }
+                }
+                GameProtocol.putVarInt(out, eatenCount);
+                for (int i = 0; i < eatenCount; i++) {
+                    GameProtocol.putVarInt(out, eaten[i]);
+                }
+                out.putInt(start, out.position() - start - GameProtocol.FRAME_HEADER);
+                sentTick = engine.getTickCount();
+                sentScore = engine.getPacman().getScore();
+                eatenCount = 0;
+                updatesSent++;
+            }
+        }
+    }
+
+    // Uso: java GameServer [puerto] [hilos]
+    // Sirve partidas hasta que se mata el proceso; cada 5 segundos muestra estadísticas.
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (GameServer server = new GameServer(port, threads, DEFAULT_TICK_NANOS)) {
+            System.out.printf("listening on %s with %d loops%n", server.getAddress(), threads);
+            long lastUpdates = 0;
+            long lastBytes = 0;
+            while (true) {
+                Thread.sleep(5000);
+                long updates = server.getUpdatesSent();
+                long bytes = server.getBytesSent();
+                System.out.printf("sessions=%d updates/s=%.0f bytes/update=%.1f tick mean %.2f ms max %.2f ms"
+                                + " skipped=%d%n", server.getSessionCount(), (updates - lastUpdates) / 5.0,
+                        (double) (bytes - lastBytes) / Math.max(1, updates - lastUpdates),
+                        server.getMeanTickNanos() / 1e6, server.getMaxTickNanos() / 1e6, server.getSkippedUpdates());
+                lastUpdates = updates;
+                lastBytes = bytes;
+            }
+        }
+    }
+}
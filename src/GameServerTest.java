@@ -0,0 +1,146 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Unit tests for the GameServer class.
+ */
+public class GameServerTest {
+
+    private GameServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Ticks de 2 ms para que las pruebas vayan rápido
+        server = new GameServer(0, 2, 2_000_000L);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private static void send(SocketChannel channel, ByteBuffer message) throws IOException {
+        message.flip();
+        while (message.hasRemaining()) {
+            channel.write(message);
+        }
+    }
+
+    private static void join(SocketChannel channel, long seed) throws IOException {
+        ByteBuffer message = GameProtocol.allocate(64);
+        GameProtocol.putJoin(message, seed, 1, 0, GameEngine.DEFAULT_GHOST_COUNT);
+        send(channel, message);
+    }
+
+    // Lee una trama completa y la aplica a la copia del cliente
+    private static void receive(SocketChannel channel, RemoteGame game) throws IOException {
+        ByteBuffer header = GameProtocol.allocate(GameProtocol.FRAME_HEADER);
+        readFully(channel, header);
+        ByteBuffer frame = GameProtocol.allocate(header.getInt(0));
+        readFully(channel, frame);
+        frame.flip();
+        game.apply(frame);
+        Assertions.assertFalse(frame.hasRemaining());
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("server closed the connection");
+            }
+        }
+    }
+
+    @Test
+    public void testClientMirrorsServerGame() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            join(channel, 42);
+            RemoteGame game = new RemoteGame();
+            receive(channel, game);
+            Assertions.assertEquals(1, game.getFullUpdates());
+            Assertions.assertEquals(0, game.getTick());
+
+            // Sin giros la partida del servidor es la misma que una local con la semilla
+            GameEngine local = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 42);
+            while (game.getTick() < 200 && !game.isLost()) {
+                receive(channel, game);
+            }
+            local.step((int) game.getTick());
+            Assertions.assertEquals(local.getPacman().getX(), game.getX(0));
+            Assertions.assertEquals(local.getPacman().getY(), game.getY(0));
+            Assertions.assertEquals(local.getPacman().getDirection(), game.getDirection(0));
+            for (int i = 0; i < local.getGhosts().length; i++) {
+                Assertions.assertEquals(local.getGhosts()[i].getX(), game.getX(i + 1));
+                Assertions.assertEquals(local.getGhosts()[i].getY(), game.getY(i + 1));
+            }
+            Assertions.assertEquals(local.getPacman().getScore(), game.getScore());
+            Assertions.assertEquals(local.getPellets().getRemaining(), game.getPelletCount());
+            LevelGrid grid = local.getGrid();
+            for (int row = 0; row < grid.getHeight(); row++) {
+                for (int col = 0; col < grid.getWidth(); col++) {
+                    Assertions.assertEquals(grid.get(col, row) == GameEngine.POINT, game.hasPellet(col, row));
+                }
+            }
+            Assertions.assertEquals(game.getTick(), game.getDeltaUpdates());
+        }
+    }
+
+    @Test
+    public void testTurnsAreApplied() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            join(channel, 7);
+            RemoteGame game = new RemoteGame();
+            receive(channel, game);
+            Direction start = game.getDirection(0);
+            ByteBuffer turn = GameProtocol.allocate(16);
+            GameProtocol.putTurn(turn, start.opposite());
+            send(channel, turn);
+            // Dar la vuelta siempre es posible si Pacman se estaba moviendo
+            for (int i = 0; i < 100 && game.getDirection(0) == start && !game.isLost(); i++) {
+                receive(channel, game);
+            }
+            Assertions.assertEquals(start.opposite(), game.getDirection(0));
+        }
+    }
+
+    @Test
+    public void testDeltasAreSmall() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            join(channel, 3);
+            RemoteGame game = new RemoteGame();
+            receive(channel, game);
+            long fullBytes = server.getBytesSent();
+            while (game.getDeltaUpdates() < 100 && !game.isLost()) {
+                receive(channel, game);
+            }
+            double perDelta = (double) (server.getBytesSent() - fullBytes) / server.getUpdatesSent();
+            Assertions.assertTrue(perDelta < 40, "bytes per update: " + perDelta);
+        }
+    }
+
+    @Test
+    public void testMalformedFrameClosesConnection() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            ByteBuffer bad = GameProtocol.allocate(16);
+            bad.putInt(100_000).put((byte) GameProtocol.JOIN);
+            send(channel, bad);
+            ByteBuffer buffer = GameProtocol.allocate(64);
+            Assertions.assertEquals(-1, channel.read(buffer));
+        }
+    }
+
+    @Test
+    public void testLoadClientKeepsManySessions() throws IOException {
+        LoadClient.Results results = new LoadClient(server.getAddress(), 200, 1).run(1_000_000_000L);
+        Assertions.assertEquals(200, results.getConnected());
+        Assertions.assertEquals(0, results.getErrors());
+        Assertions.assertTrue(results.getUpdates() > 200, "updates: " + results.getUpdates());
+        Assertions.assertTrue(results.getBytesPerUpdate() < 60);
+    }
+}
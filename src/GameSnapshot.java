@@ -0,0 +1,73 @@
+// Instantánea completa de una partida (ver GameEngine.snapshot y restore).
+// El estado del motor, de Pacman y de cada fantasma (incluidos sus generadores
+// aleatorios) va en un long[] plano; el plano de puntos va por páginas que se comparten
+// con la instantánea anterior mientras no cambien (copy-on-write), así que tomar una
+// instantánea solo copia las páginas donde se ha comido algún punto. Las paredes no se
+// guardan: son las del nivel, al que la instantánea guarda una referencia.
+public final class GameSnapshot {
+    // Cabecera del estado plano; después van Pacman y los fantasmas
+    static final int LEVEL = 0;
+    static final int TICK = 1;
+    static final int POINTS = 2;
+    static final int FLAGS = 3;
+    static final int RANDOM_STATE = 4;
+    static final int RANDOM_GAMMA = 5;
+    static final int GHOSTS = 6;
+    static final int HEADER_LONGS = 7;
+
+    private final Level level;
+    private final long[] state;
+    private final long[][] pelletPages;
+
+    GameSnapshot(Level level, long[] state, long[][] pelletPages) {
+        this.level = level;
+        this.state = state;
+        this.pelletPages = pelletPages;
+    }
+
+    static long pack(int high, int low) {
+        return (long) high << 32 | low & 0xFFFFFFFFL;
+    }
+
+    static int high(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    static int low(long packed) {
+        return (int) packed;
+    }
+
+    Level getLevel() {
+        return level;
+    }
+
+    long[] getState() {
+        return state;
+    }
+
+    long[][] getPelletPages() {
+        return pelletPages;
+    }
+
+    public int getLevelNumber() {
+        return (int) state[LEVEL];
+    }
+
+    public long getTick() {
+        return state[TICK];
+    }
+
+    public int getGhostCount() {
+        return (int) state[GHOSTS];
+    }
+
+    // Bytes propios del estado plano (las páginas pueden estar compartidas)
+    public int getStateBytes() {
+        return state.length * 8;
+    }
+
+    // Indica si una página del plano de puntos es la misma que en otra instantánea
+    public boolean sharesPelletPage(GameSnapshot other, int page) {
+        return pelletPages[page] == other.pelletPages[page];
+    }
+}
@@ -0,0 +1,124 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GameSnapshot class.
+ */
+public class GameSnapshotTest {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Jugador aleatorio determinista para que las partidas coman puntos y giren
+    private static void play(GameEngine engine, SplittableRandom player, int ticks) {
+        for (int i = 0; i < ticks && !engine.isGameLost(); i++) {
+            Pacman pacman = engine.getPacman();
+            if (pacman.getX() % GameEngine.TILE_SIZE == 0 && pacman.getY() % GameEngine.TILE_SIZE == 0
+                    && player.nextInt(3) == 0) {
+                pacman.setNextDirection(DIRECTIONS[player.nextInt(DIRECTIONS.length)]);
+            }
+            engine.step();
+        }
+    }
+
+    @Test
+    public void testRestoreContinuesIdentically() {
+        GameEngine engine = new GameEngine(1, 0, 3, 11);
+        play(engine, new SplittableRandom(1), 100);
+        GameSnapshot snapshot = engine.snapshot();
+        long hash = engine.stateHash();
+        Assertions.assertEquals(engine.getTickCount(), snapshot.getTick());
+
+        play(engine, new SplittableRandom(2), 300);
+        long futureHash = engine.stateHash();
+
+        engine.restore(snapshot);
+        Assertions.assertEquals(hash, engine.stateHash());
+        play(engine, new SplittableRandom(2), 300);
+        Assertions.assertEquals(futureHash, engine.stateHash());
+    }
+
+    @Test
+    public void testRestoreAcrossLevels() {
+        GameEngine engine = new GameEngine(1, 0, 3, 5);
+        play(engine, new SplittableRandom(3), 60);
+        GameSnapshot snapshot = engine.snapshot();
+        long hash = engine.stateHash();
+        engine.loadLevel(2);
+        engine.restore(snapshot);
+        Assertions.assertEquals(1, engine.getCurrentLevel());
+        Assertions.assertEquals(hash, engine.stateHash());
+    }
+
+    @Test
+    public void testRestoreIntoAnotherEngine() {
+        GameEngine engine = new GameEngine(2, 0, 4, 8);
+        play(engine, new SplittableRandom(4), 150);
+        GameEngine other = new GameEngine(1, 0, 4, 99);
+        other.restore(engine.snapshot());
+        Assertions.assertEquals(engine.stateHash(), other.stateHash());
+        play(engine, new SplittableRandom(5), 200);
+        play(other, new SplittableRandom(5), 200);
+        Assertions.assertEquals(engine.stateHash(), other.stateHash());
+
+        assertThrows(IllegalArgumentException.class, () -> new GameEngine(1, 0, 2, 1).restore(engine.snapshot()));
+    }
+
+    @Test
+    public void testUnchangedPelletPagesAreShared() {
+        // 131x131 celdas: cinco páginas en el plano de puntos
+        Level level = new MazeGenerator(3).generate("big", 131, 131);
+        GameEngine engine = new GameEngine(new Level[] {level}, 1, 0, 0, 1);
+        Assertions.assertEquals(5, engine.getGrid().getPelletPageCount());
+        GameSnapshot first = engine.snapshot();
+        GameSnapshot second = engine.snapshot();
+        for (int page = 0; page < 5; page++) {
+            Assertions.assertTrue(second.sharesPelletPage(first, page));
+        }
+
+        int pacmanPage = engine.getGrid().pelletPageOf(level.getPacmanColumn(), level.getPacmanRow());
+        engine.step(10);
+        Assertions.assertTrue(engine.getPointsEaten() > 0);
+        GameSnapshot third = engine.snapshot();
+        int changed = 0;
+        for (int page = 0; page < 5; page++) {
+            if (!third.sharesPelletPage(second, page)) {
+                changed++;
+            }
+        }
+        Assertions.assertTrue(changed >= 1 && changed <= 2, "changed pages " + changed);
+        Assertions.assertFalse(third.sharesPelletPage(second, pacmanPage));
+
+        // Al restaurar vuelven los puntos comidos
+        int points = engine.getGrid().countCells(GameEngine.POINT);
+        engine.restore(first);
+        Assertions.assertTrue(engine.getGrid().countCells(GameEngine.POINT) > points);
+        Assertions.assertEquals(0, engine.getPointsEaten());
+    }
+
+    @Test
+    public void testGhostPathCachesAreRestored() {
+        // Mapa sin tabla de todos los pares: los fantasmas persiguen con A* cacheado
+        Level level = new MazeGenerator(9).generate("maze", 63, 41);
+        GameEngine engine = new GameEngine(new Level[] {level}, 1, 5, 6, 21);
+        Assertions.assertFalse(engine.getDistanceField().isAllPairs());
+        play(engine, new SplittableRandom(6), 200);
+        GameSnapshot snapshot = engine.snapshot();
+        play(engine, new SplittableRandom(7), 400);
+        long futureHash = engine.stateHash();
+        engine.restore(snapshot);
+        play(engine, new SplittableRandom(7), 400);
+        Assertions.assertEquals(futureHash, engine.stateHash());
+    }
+
+    @Test
+    public void testStateIsCompact() {
+        GameEngine engine = new GameEngine();
+        GameSnapshot snapshot = engine.snapshot();
+        // Cabecera, Pacman y 3 fantasmas sin camino cacheado
+        Assertions.assertEquals(8 * (7 + 3 + 3 * 5), snapshot.getStateBytes());
+        Assertions.assertEquals(3, snapshot.getGhostCount());
+        Assertions.assertEquals(1, snapshot.getLevelNumber());
+    }
+}
@@ -22,6 +22,15 @@ public class GameTest {
         assertTrue(javax.swing.JFrame.class.isAssignableFrom(Game.class));
     }
 
+    @Test
+    public void testZoomedWindowFitsThreeQuartersOfScreen() {
+        java.awt.Dimension size = new java.awt.Dimension(380, 410);
+        assertEquals(size, Game.zoomed(size, new java.awt.Dimension(1920, 1080)));
+        assertEquals(new java.awt.Dimension(1140, 1230), Game.zoomed(size, new java.awt.Dimension(3840, 2160)));
+        // Nunca por debajo de 1x
+        assertEquals(size, Game.zoomed(size, new java.awt.Dimension(400, 300)));
+    }
+
     @Test
     public void testGameHasMainMethod() throws NoSuchMethodException {
         // Verify the main method exists
@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Línea de tiempo de una sesión para rebobinar y saltar a cualquier tick. Guarda una
+// instantánea (keyframe) cada cierto número de ticks y los giros de Pacman; saltar a un
+// tick restaura el keyframe anterior y vuelve a simular como mucho interval - 1 ticks
+// con los giros grabados. Los keyframes comparten las páginas de puntos sin cambios.
+//
+// Saltar no cambia la grabación, así que se puede ir hacia atrás y hacia delante. Seguir
+// jugando (o girar) desde un tick anterior al final descarta todo lo grabado después.
+// Con un historial máximo (el rebobinado de GameCanvas) se descartan los keyframes y giros
+// más antiguos de lo necesario, así que la memoria no crece con la duración de la sesión.
+public final class GameTimeline implements GameEngine.Listener {
+    // Unos 10 segundos de juego: un salto re-simula como mucho unos 255 ticks
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameEngine engine;
+    private final int interval;
+    // Ticks hacia atrás desde el final que se pueden recuperar como mínimo
+    private final long maxHistory;
+    // Primer tick recuperable: el del keyframe más antiguo que se conserva
+    private long startTick;
+    // Keyframe k: estado al final del tick startTick + k * interval
+    private final List<GameSnapshot> keyframes = new ArrayList<>();
+    // Giros ordenados por tick
+    private long[] eventTicks = new long[64];
+    private byte[] eventDirections = new byte[64];
+    private int eventCount;
+    private long endTick;
+    // Mientras se re-simula un salto no se graba nada
+    private boolean seeking;
+
+    private GameTimeline(GameEngine engine, int interval, long maxHistory) {
+        this.engine = engine;
+        this.interval = interval;
+        this.maxHistory = maxHistory;
+        this.startTick = engine.getTickCount();
+        this.endTick = startTick;
+        keyframes.add(engine.snapshot());
+    }
+
+    public static GameTimeline attach(GameEngine engine) {
+        return attach(engine, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public static GameTimeline attach(GameEngine engine, int keyframeInterval) {
+        return attach(engine, keyframeInterval, Long.MAX_VALUE);
+    }
+
+    // Solo garantiza poder volver maxHistoryTicks ticks desde el final de la grabación
+    public static GameTimeline attach(GameEngine engine, int keyframeInterval, long maxHistoryTicks) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("keyframeInterval must be positive: " + keyframeInterval);
+        }
+        if (maxHistoryTicks <= 0) {
+            throw new IllegalArgumentException("maxHistoryTicks must be positive: " + maxHistoryTicks);
+        }
+        GameTimeline timeline = new GameTimeline(engine, keyframeInterval, maxHistoryTicks);
+        engine.addListener(timeline);
+        return timeline;
+    }
+
+    @Override
+    public void pacmanTurned(Direction direction) {
+        if (seeking) {
+            return;
+        }
+        long tick = engine.getTickCount();
+        if (tick < endTick) {
+            truncate(tick);
+        }
+        if (eventCount == eventTicks.length) {
+            eventTicks = Arrays.copyOf(eventTicks, eventCount * 2);
+            eventDirections = Arrays.copyOf(eventDirections, eventCount * 2);
+        }
+        eventTicks[eventCount] = tick;
+        eventDirections[eventCount] = (byte) direction.ordinal();
+        eventCount++;
+    }
+
+    @Override
+    public void tickCompleted(long tick) {
+        if (seeking) {
+            return;
+        }
+        if (tick - 1 < endTick) {
+            truncate(tick - 1);
+        }
+        endTick = tick;
+        if ((tick - startTick) % interval == 0) {
+            keyframes.add(engine.snapshot());
+            forgetBefore(tick - maxHistory);
+        }
+    }
+
+    // Descarta los keyframes que ya no hacen falta para llegar a tick, y sus giros
+    private void forgetBefore(long tick) {
+        int drop = 0;
+        while (drop + 1 < keyframes.size() && startTick + (long) (drop + 1) * interval <= tick) {
+            drop++;
+        }
+        if (drop == 0) {
+            return;
+        }
+        keyframes.subList(0, drop).clear();
+        startTick += (long) drop * interval;
+        int first = firstEventAtOrAfter(startTick);
+        System.arraycopy(eventTicks, first, eventTicks, 0, eventCount - first);
+        System.arraycopy(eventDirections, first, eventDirections, 0, eventCount - first);
+        eventCount -= first;
+    }
+
+    // Se descarta el futuro grabado después de tick: giros desde tick y keyframes posteriores
+    private void truncate(long tick) {
+        eventCount = firstEventAtOrAfter(tick);
+        int keep = (int) ((tick - startTick) / interval) + 1;
+        keyframes.subList(keep, keyframes.size()).clear();
+        endTick = tick;
+    }
+
+    private int firstEventAtOrAfter(long tick) {
+        int low = 0;
+        int high = eventCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (eventTicks[mid] < tick) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Lleva la partida al final del tick indicado, dentro de lo grabado
+    public void seek(long tick) {
+        if (tick < startTick || tick > endTick) {
+            throw new IllegalArgumentException("tick " + tick + " outside the recorded range ["
+                    + startTick + ", " + endTick + "]");
+        }
+        int keyframe = (int) ((tick - startTick) / interval);
+        seeking = true;
+        try {
+            engine.restore(keyframes.get(keyframe));
+            int event = firstEventAtOrAfter(engine.getTickCount());
+            while (engine.getTickCount() < tick && !engine.isGameLost()) {
+                while (event < eventCount && eventTicks[event] == engine.getTickCount()) {
+                    engine.getPacman().setNextDirection(DIRECTIONS[eventDirections[event++]]);
+                }
+                engine.step();
+            }
+        } finally {
+            seeking = false;
+        }
+    }
+
+    // Retrocede hasta ticks ticks, sin pasar del inicio de la grabación
+    public void rewind(long ticks) {
+        seek(Math.max(startTick, engine.getTickCount() - ticks));
+    }
+
+    public long getStartTick() {
+        return startTick;
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public long getMaxHistoryTicks() {
+        return maxHistory;
+    }
+
+    public int getKeyframeInterval() {
+        return interval;
+    }
+
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+}
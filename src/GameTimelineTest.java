@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GameTimeline class.
+ */
+public class GameTimelineTest {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Juega y guarda el resumen del estado al final de cada tick
+    private static long[] play(GameEngine engine, SplittableRandom player, int ticks) {
+        long[] hashes = new long[ticks + 1];
+        hashes[0] = engine.stateHash();
+        for (int i = 1; i <= ticks; i++) {
+            Pacman pacman = engine.getPacman();
+            if (pacman.getX() % GameEngine.TILE_SIZE == 0 && pacman.getY() % GameEngine.TILE_SIZE == 0
+                    && player.nextInt(3) == 0) {
+                pacman.setNextDirection(DIRECTIONS[player.nextInt(DIRECTIONS.length)]);
+            }
+            engine.step();
+            hashes[i] = engine.stateHash();
+        }
+        return hashes;
+    }
+
+    @Test
+    public void testSeekReproducesEveryRecordedTick() {
+        GameEngine engine = new GameEngine(1, 0, 0, 3);
+        GameTimeline timeline = GameTimeline.attach(engine, 64);
+        long[] hashes = play(engine, new SplittableRandom(1), 1000);
+        Assertions.assertEquals(1000, timeline.getEndTick());
+        Assertions.assertEquals(1000 / 64 + 1, timeline.getKeyframeCount());
+        Assertions.assertTrue(timeline.getEventCount() > 0);
+
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 50; i++) {
+            int tick = random.nextInt(1001);
+            timeline.seek(tick);
+            Assertions.assertEquals(tick, engine.getTickCount());
+            Assertions.assertEquals(hashes[tick], engine.stateHash(), "tick " + tick);
+        }
+        // Saltar no cambia la grabación
+        Assertions.assertEquals(1000, timeline.getEndTick());
+    }
+
+    @Test
+    public void testSeekResimulatesLessThanOneInterval() {
+        GameEngine engine = new GameEngine(1, 0, 0, 4);
+        GameTimeline timeline = GameTimeline.attach(engine, 32);
+        play(engine, new SplittableRandom(3), 500);
+        final int[] ticks = new int[1];
+        engine.addListener(new GameEngine.Listener() {
+            @Override
+            public void tickCompleted(long tick) {
+                ticks[0]++;
+            }
+        });
+        for (int tick = 0; tick <= 500; tick += 7) {
+            ticks[0] = 0;
+            timeline.seek(tick);
+            Assertions.assertTrue(ticks[0] < 32, "resimulated " + ticks[0]);
+        }
+    }
+
+    @Test
+    public void testPlayingAfterRewindOverwritesTheFuture() {
+        GameEngine engine = new GameEngine(1, 0, 0, 5);
+        GameTimeline timeline = GameTimeline.attach(engine, 16);
+        play(engine, new SplittableRandom(4), 200);
+        timeline.rewind(120);
+        Assertions.assertEquals(80, engine.getTickCount());
+        long[] newFuture = play(engine, new SplittableRandom(9), 50);
+        Assertions.assertEquals(130, timeline.getEndTick());
+        assertThrows(IllegalArgumentException.class, () -> timeline.seek(131));
+        timeline.seek(100);
+        Assertions.assertEquals(newFuture[20], engine.stateHash());
+    }
+
+    @Test
+    public void testRewindKeepsReplayRecordingConsistent() {
+        GameEngine engine = new GameEngine(1, 0, 0, 6);
+        ReplayLog.Recorder recorder = ReplayLog.record(engine);
+        GameTimeline timeline = GameTimeline.attach(engine, 32);
+        play(engine, new SplittableRandom(5), 300);
+        timeline.rewind(150);
+        play(engine, new SplittableRandom(6), 100);
+        ReplayLog log = recorder.finish();
+        Assertions.assertTrue(log.matches(log.replay()));
+    }
+
+    @Test
+    public void testSeekOutsideRecordingIsRejected() {
+        GameEngine engine = new GameEngine(1, 0, 0, 7);
+        GameTimeline timeline = GameTimeline.attach(engine);
+        engine.step(10);
+        assertThrows(IllegalArgumentException.class, () -> timeline.seek(-1));
+        assertThrows(IllegalArgumentException.class, () -> timeline.seek(11));
+        assertThrows(IllegalArgumentException.class, () -> GameTimeline.attach(engine, 0));
+    }
+
+    @Test
+    public void testLimitedHistoryForgetsOldKeyframesAndTurns() {
+        GameEngine engine = new GameEngine(1, 0, 0, 8);
+        GameTimeline timeline = GameTimeline.attach(engine, 16, 40);
+        long[] hashes = play(engine, new SplittableRandom(7), 1000);
+        Assertions.assertEquals(1000, timeline.getEndTick());
+        // Keyframes justos para volver 40 ticks atrás
+        Assertions.assertTrue(timeline.getKeyframeCount() <= 40 / 16 + 2, "" + timeline.getKeyframeCount());
+        Assertions.assertTrue(timeline.getStartTick() <= 1000 - 40);
+        // Entre keyframes el final avanza sin descartar nada: como mucho dos intervalos de más
+        Assertions.assertTrue(timeline.getStartTick() >= 1000 - 40 - 2 * 16);
+        Assertions.assertTrue(timeline.getEventCount() <= 40 + 2 * 16);
+        assertThrows(IllegalArgumentException.class, () -> timeline.seek(timeline.getStartTick() - 1));
+
+        timeline.rewind(40);
+        Assertions.assertEquals(960, engine.getTickCount());
+        Assertions.assertEquals(hashes[960], engine.stateHash());
+        timeline.seek(timeline.getStartTick());
+        Assertions.assertEquals(hashes[(int) timeline.getStartTick()], engine.stateHash());
+        assertThrows(IllegalArgumentException.class, () -> GameTimeline.attach(engine, 16, 0));
+    }
+}
@@ -0,0 +1,516 @@
+import java.util.concurrent.RecursiveAction;
+
+// Fantasmas de una partida como estructura de arrays: posición, dirección, generador y
+// nivel de inteligencia de cada uno en arrays primitivos indexados por fantasma; Ghost
+// es solo una vista de un índice.
+//
+// La fase de movimiento (update) reparte los fantasmas entre hilos cuando hay muchos.
+// Cada trozo lee las posiciones del tick anterior y escribe las nuevas en un segundo
+// juego de arrays que se intercambia al terminar, y un fantasma solo modifica su propio
+// generador y su propio camino cacheado: el resultado no depende del reparto ni del
+// orden en que acaben los hilos. Con pocos fantasmas (el caso normal de tres) se mueven
+// en el hilo que llama y en el sitio, sin tareas ni copias.
+public final class GhostStore {
+    // Fantasmas a partir de los que el movimiento se reparte entre hilos
+    public static final int PARALLEL_MIN_GHOSTS = 256;
+    // Fantasmas mínimos por trozo, para que cada tarea compense lo que cuesta lanzarla
+    private static final int MIN_CHUNK = 64;
+    private static final int SIZE = 20;
+    private static final int SPEED = 2;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Paso en píxeles por ordinal de Direction (LEFT, RIGHT, UP, DOWN)
+    private static final int[] STEP_X = {-SPEED, SPEED, 0, 0};
+    private static final int[] STEP_Y = {0, 0, -SPEED, SPEED};
+
+    private final GameEngine engine;
+    private final Pacman pacman;
+    private final int capacity;
+    private int count;
+
+    // Estado leído y escrito en cada tick; next* solo se usa en la fase paralela
+    private int[] xs;
+    private int[] ys;
+    private byte[] directions;
+    private int[] nextXs;
+    private int[] nextYs;
+    private byte[] nextDirections;
+
+    // Estado de la IA: generador SplitMix64 (ver GameRandom), inteligencia y camino A*
+    // en mapas sin tabla de distancias completa
+    private final long[] seeds;
+    private final long[] gammas;
+    private final int[] intelligence;
+    private final PathCache[] pathCaches;
+
+    // Movimiento en el hilo que llama (usa el A* del motor) y trozos de la fase paralela
+    private final Mover mover = new Mover(true);
+    private Chunk[] chunks = new Chunk[0];
+
+    public GhostStore(GameEngine engine, Pacman pacman, int capacity) {
+        this.engine = engine;
+        this.pacman = pacman;
+        this.capacity = capacity;
+        xs = new int[capacity];
+        ys = new int[capacity];
+        directions = new byte[capacity];
+        seeds = new long[capacity];
+        gammas = new long[capacity];
+        intelligence = new int[capacity];
+        pathCaches = new PathCache[capacity];
+    }
+
+    // Añade un fantasma con su propio generador y devuelve su índice
+    public int add(int x, int y, int intelligenceLevel, GameRandom random) {
+        if (count == capacity) {
+            throw new IllegalStateException("ghost store is full: " + capacity);
+        }
+        int i = count++;
+        xs[i] = x;
+        ys[i] = y;
+        intelligence[i] = intelligenceLevel;
+        directions[i] = (byte) random.nextInt(4);
+        seeds[i] = random.getState();
+        gammas[i] = random.getGamma();
+        return i;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    public Direction getDirection(int i) {
+        return DIRECTIONS[directions[i]];
+    }
+
+    public int getIntelligence(int i) {
+        return intelligence[i];
+    }
+
+    public PathCache getPathCache(int i) {
+        return pathCaches[i];
+    }
+
+    // Mueve un solo fantasma (Ghost.move)
+    public void move(int i) {
+        move(i, mover, xs, ys, directions);
+    }
+
+    // Mueve el fantasma i escribiendo su posición y dirección nuevas en out*
+    private void move(int i, Mover mover, int[] outX, int[] outY, byte[] outDirections) {
+        int x = xs[i];
+        int y = ys[i];
+        int direction = directions[i];
+        if (x % GameEngine.TILE_SIZE != 0 || y % GameEngine.TILE_SIZE != 0) {
+            // Entre dos tiles (nueve de cada diez ticks) se termina el paso empezado sin
+            // cargar el resto del estado
+            int nextX = x + STEP_X[direction];
+            int nextY = y + STEP_Y[direction];
+            if (engine.canMove(nextX, nextY, SIZE)) {
+                outX[i] = engine.wrapX(nextX);
+                outY[i] = nextY;
+                outDirections[i] = (byte) direction;
+                return;
+            }
+        }
+        mover.move(i, outX, outY, outDirections);
+    }
+
+    // Mueve todos los fantasmas un tick usando hasta threads hilos
+    public void update(int threads) {
+        int workers = Math.min(threads, count / MIN_CHUNK);
+        if (count < PARALLEL_MIN_GHOSTS || workers <= 1) {
+            for (int i = 0; i < count; i++) {
+                move(i, mover, xs, ys, directions);
+            }
+            return;
+        }
+        if (chunks.length != workers) {
+            chunks = new Chunk[workers];
+            for (int k = 0; k < workers; k++) {
+                chunks[k] = new Chunk(k == 0);
+            }
+        }
+        if (nextXs == null) {
+            nextXs = new int[capacity];
+            nextYs = new int[capacity];
+            nextDirections = new byte[capacity];
+        }
+        for (int k = 0; k < workers; k++) {
+            Chunk chunk = chunks[k];
+            chunk.from = (int) ((long) count * k / workers);
+            chunk.to = (int) ((long) count * (k + 1) / workers);
+        }
+        // El primer trozo lo mueve el hilo que llama mientras el resto van al pool común
+        for (int k = 1; k < workers; k++) {
+            chunks[k].reinitialize();
+            chunks[k].fork();
+        }
+        chunks[0].compute();
+        for (int k = 1; k < workers; k++) {
+            chunks[k].join();
+        }
+
+        int[] swap = xs;
+        xs = nextXs;
+        nextXs = swap;
+        swap = ys;
+        ys = nextYs;
+        nextYs = swap;
+        byte[] swapDirections = directions;
+        directions = nextDirections;
+        nextDirections = swapDirections;
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private final Mover mover;
+        int from;
+        int to;
+
+        Chunk(boolean caller) {
+            mover = caller ? GhostStore.this.mover : new Mover(false);
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = from; i < to; i++) {
+                move(i, mover, nextXs, nextYs, nextDirections);
+            }
+        }
+    }
+
+    // Primer paso del camino más corto hacia el objetivo (Ghost.calculateBestDirection)
+    public Direction bestDirection(int i, int targetX, int targetY) {
+        mover.load(i);
+        return mover.calculateBestDirection(targetX, targetY);
+    }
+
+    // Longs que ocupa un fantasma en una instantánea (ver GameSnapshot); el plan del camino
+    // cacheado se guarda porque uno planificado antes puede diferir de uno nuevo en los empates
+    public int stateLongs(int i) {
+        return 5 + (pathCaches[i] == null ? 0 : PathCache.STATE_LONGS);
+    }
+
+    public int writeState(int i, long[] state, int at) {
+        state[at++] = GameSnapshot.pack(xs[i], ys[i]);
+        state[at++] = directions[i];
+        state[at++] = seeds[i];
+        state[at++] = gammas[i];
+        state[at++] = pathCaches[i] == null ? 0 : 1;
+        return pathCaches[i] == null ? at : pathCaches[i].writeState(state, at);
+    }
+
+    public int readState(int i, long[] state, int at) {
+        xs[i] = GameSnapshot.high(state[at]);
+        ys[i] = GameSnapshot.low(state[at++]);
+        directions[i] = (byte) state[at++];
+        seeds[i] = state[at++];
+        gammas[i] = state[at++];
+        if (state[at++] == 0) {
+            pathCaches[i] = null;
+            return at;
+        }
+        if (pathCaches[i] == null) {
+            pathCaches[i] = new PathCache();
+        }
+        return pathCaches[i].readState(state, at);
+    }
+
+    // Estado del generador aleatorio de un fantasma (solo avanza cuando decide al azar)
+    public long getRandomState(int i) {
+        return seeds[i];
+    }
+
+    // Cambia el futuro aleatorio de un fantasma sin tocar su posición (simulaciones de Autopilot)
+    public void reseed(int i, long seed) {
+        seeds[i] = seed;
+    }
+
+    // Decide y mueve fantasmas de uno en uno con su estado copiado a variables locales.
+    // Cada hilo tiene el suyo; el del hilo que llama usa el A* del motor y los demás uno
+    // propio.
+    private final class Mover {
+        private final boolean caller;
+        private AStarPathfinder ownPathfinder;
+        private int i;
+        private int x;
+        private int y;
+        private Direction direction;
+        private long seed;
+        private long gamma;
+
+        Mover(boolean caller) {
+            this.caller = caller;
+        }
+
+        void load(int index) {
+            i = index;
+            x = xs[index];
+            y = ys[index];
+            direction = DIRECTIONS[directions[index]];
+            seed = seeds[index];
+            gamma = gammas[index];
+        }
+
+        void move(int index, int[] outX, int[] outY, byte[] outDirections) {
+            load(index);
+            TileExits tileExits = engine.getTileExits();
+            int cell = alignedCell(engine.getGrid());
+            if (cell != TileExits.NONE && tileExits.isCorridor(cell)) {
+                // En un pasillo solo hay un camino: seguirlo sin tirar dados ni buscar caminos
+                Direction exit = tileExits.corridorExit(cell, direction);
+                if (advance(exit)) {
+                    direction = exit;
+                } else {
+                    decide();
+                }
+            } else if (cell != TileExits.NONE || !advance(direction)) {
+                // En un cruce o callejón (o atascado entre dos tiles) se decide como siempre;
+                // entre dos tiles se termina el paso empezado
+                decide();
+            }
+
+            // Aplicar efecto túnel (wrap-around horizontal)
+            outX[index] = engine.wrapX(x);
+            outY[index] = y;
+            outDirections[index] = (byte) direction.ordinal();
+            seeds[index] = seed;
+        }
+
+        private void decide() {
+            // Determinar si el fantasma debe perseguir a Pacman basado en el nivel de inteligencia
+            if (shouldChasePacman()) {
+                // Movimiento inteligente: intentar acercarse a Pacman
+                moveTowardsPacman();
+            } else {
+                // Movimiento aleatorio original
+                moveRandomly();
+            }
+        }
+
+        // Celda del tile en el que está exactamente el fantasma, o NONE si está entre dos
+        // tiles o saliendo por un túnel
+        private int alignedCell(LevelGrid grid) {
+            if (x < 0 || y < 0 || x % GameEngine.TILE_SIZE != 0 || y % GameEngine.TILE_SIZE != 0
+                    || x >= grid.getPixelWidth() || y >= grid.getPixelHeight()) {
+                return TileExits.NONE;
+            }
+            return y / GameEngine.TILE_SIZE * grid.getWidth() + x / GameEngine.TILE_SIZE;
+        }
+
+        // Avanza un paso en una dirección si no hay pared
+        private boolean advance(Direction dir) {
+            int nextX = x;
+            int nextY = y;
+
+            switch (dir) {
+                case LEFT: nextX = x - SPEED; break;
+                case RIGHT: nextX = x + SPEED; break;
+                case UP: nextY = y - SPEED; break;
+                case DOWN: nextY = y + SPEED; break;
+            }
+
+            if (engine.canMove(nextX, nextY, SIZE)) {
+                x = nextX;
+                y = nextY;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean canMoveInDirection(Direction dir) {
+            int nextX = x;
+            int nextY = y;
+
+            switch (dir) {
+                case LEFT: nextX = x - SPEED; break;
+                case RIGHT: nextX = x + SPEED; break;
+                case UP: nextY = y - SPEED; break;
+                case DOWN: nextY = y + SPEED; break;
+            }
+
+            return engine.canMove(nextX, nextY, SIZE);
+        }
+
+        // GameRandom.nextInt(bound) sobre el generador del fantasma
+        private int nextInt(int bound) {
+            int r = GameRandom.mix32(seed += gamma);
+            int m = bound - 1;
+            if ((bound & m) == 0) {
+                return r & m;
+            }
+            for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = GameRandom.mix32(seed += gamma) >>> 1) {
+                // Se descartan los valores del último tramo incompleto
+            }
+            return r;
+        }
+
+        private boolean shouldChasePacman() {
+            // Probabilidad de perseguir basada en el nivel de inteligencia
+            // Nivel 1: 10% (movimiento mayormente aleatorio pero con algo de persecución para salir del área inicial)
+            // Nivel 2: 30% de probabilidad de perseguir
+            // Nivel 3+: 60% + 10% por cada nivel adicional (máximo 60%)
+            int chaseChance;
+            switch (intelligence[i]) {
+                case 1:
+                    chaseChance = 10;
+                    break;
+                case 2:
+                    chaseChance = 30;
+                    break;
+                default:
+                    chaseChance = Math.min(60 + (intelligence[i] - 3) * 10, 60);
+                    break;
+            }
+            return nextInt(100) < chaseChance;
+        }
+
+        private void moveTowardsPacman() {
+            // Calcular la mejor dirección hacia Pacman
+            Direction bestDirection = calculateBestDirection(pacman.getX(), pacman.getY());
+
+            // Intentar moverse en la mejor dirección
+            if (advance(bestDirection)) {
+                direction = bestDirection;
+            } else {
+                // Si no puede moverse hacia Pacman, intentar movimiento alternativo
+                moveRandomly();
+            }
+        }
+
+        Direction calculateBestDirection(int targetX, int targetY) {
+            // Primer paso del camino más corto hacia el objetivo (incluye túneles):
+            // tabla precalculada del nivel o, en mapas grandes, camino A* cacheado
+            DistanceField field = engine.getDistanceField();
+            if (field != null) {
+                LevelGrid grid = engine.getGrid();
+                int fromCol = grid.tileColumn(x);
+                int fromRow = grid.tileRow(y);
+                int toCol = grid.tileColumn(targetX);
+                int toRow = grid.tileRow(targetY);
+                Direction next;
+                if (field.isAllPairs()) {
+                    next = field.nextDirection(fromCol, fromRow, toCol, toRow);
+                } else {
+                    PathCache pathCache = pathCaches[i];
+                    if (pathCache == null) {
+                        pathCache = new PathCache();
+                        pathCaches[i] = pathCache;
+                    }
+                    next = pathCache.next(pathfinder(),
+                            fromRow * grid.getWidth() + fromCol, toRow * grid.getWidth() + toCol);
+                }
+                if (next != null) {
+                    return next;
+                }
+            }
+            // Mismo tile que el objetivo o sin camino: acercarse en línea recta
+            return calculateGreedyDirection(targetX, targetY);
+        }
+
+        // A* del motor en el hilo que llama; uno propio por hilo en la fase paralela
+        private AStarPathfinder pathfinder() {
+            AStarPathfinder shared = engine.getPathfinder();
+            if (caller) {
+                return shared;
+            }
+            if (ownPathfinder == null || ownPathfinder.getGrid() != shared.getGrid()) {
+                ownPathfinder = new AStarPathfinder(shared.getGrid());
+            }
+            return ownPathfinder;
+        }
+
+        // Devuelve la primera dirección preferida sin construir listas intermedias
+        private Direction calculateGreedyDirection(int targetX, int targetY) {
+            int deltaX = targetX - x;
+            int deltaY = targetY - y;
+
+            // Nivel 3+: usar algoritmo más inteligente (priorizar la dirección con mayor diferencia)
+            if (intelligence[i] >= 3) {
+                if (Math.abs(deltaX) > Math.abs(deltaY)) {
+                    // Priorizar movimiento horizontal
+                    Direction horizontal = horizontalTowards(deltaX);
+                    if (horizontal != null) {
+                        return horizontal;
+                    }
+                    // Direcciones verticales como alternativa
+                    Direction vertical = verticalTowards(deltaY);
+                    if (vertical != null) {
+                        return vertical;
+                    }
+                } else {
+                    // Priorizar movimiento vertical
+                    Direction vertical = verticalTowards(deltaY);
+                    if (vertical != null) {
+                        return vertical;
+                    }
+                    // Direcciones horizontales como alternativa
+                    Direction horizontal = horizontalTowards(deltaX);
+                    if (horizontal != null) {
+                        return horizontal;
+                    }
+                }
+                // Sin direcciones válidas: mantener dirección actual
+                return direction;
+            }
+            // Nivel 2: elegir simplemente la dirección más directa
+            if (Math.abs(deltaX) > Math.abs(deltaY)) {
+                return deltaX > 0 ? Direction.RIGHT : Direction.LEFT;
+            }
+            return deltaY > 0 ? Direction.DOWN : Direction.UP;
+        }
+
+        private Direction horizontalTowards(int deltaX) {
+            if (deltaX > 0 && canMoveInDirection(Direction.RIGHT)) {
+                return Direction.RIGHT;
+            } else if (deltaX < 0 && canMoveInDirection(Direction.LEFT)) {
+                return Direction.LEFT;
+            }
+            return null;
+        }
+
+        private Direction verticalTowards(int deltaY) {
+            if (deltaY > 0 && canMoveInDirection(Direction.DOWN)) {
+                return Direction.DOWN;
+            } else if (deltaY < 0 && canMoveInDirection(Direction.UP)) {
+                return Direction.UP;
+            }
+            return null;
+        }
+
+        private void moveRandomly() {
+            // Intentar moverse en la dirección actual; si puede, hacerlo; si no, cambiar de dirección
+            if (advance(direction)) {
+                // Ocasionalmente cambiar de dirección incluso si puede continuar
+                if (nextInt(50) == 0) {
+                    changeDirection();
+                }
+            } else {
+                // No puede continuar, cambiar de dirección
+                changeDirection();
+            }
+        }
+
+        private void changeDirection() {
+            // Intentar encontrar una dirección válida
+            Direction newDirection;
+            int attempts = 0;
+
+            do {
+                newDirection = DIRECTIONS[nextInt(4)];
+                attempts++;
+            } while (attempts < 10 && !canMoveInDirection(newDirection));
+
+            if (attempts < 10) {
+                direction = newDirection;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the GhostStore class.
+ */
+public class GhostStoreTest {
+
+    private static GameEngine crowdedGame(int threads) {
+        Level level = new MazeGenerator(3).generate("crowd", 63, 63);
+        GameEngine engine = new GameEngine(new Level[] {level}, 1, 3, 600, 9);
+        engine.setGhostThreads(threads);
+        return engine;
+    }
+
+    @Test
+    public void testParallelUpdateMatchesSingleThread() {
+        GameEngine single = crowdedGame(1);
+        GameEngine parallel = crowdedGame(4);
+        for (int tick = 0; tick < 300; tick++) {
+            single.step();
+            parallel.step();
+            Assertions.assertEquals(single.stateHash(), parallel.stateHash(), "tick " + tick);
+        }
+        Assertions.assertArrayEquals(single.snapshot().getState(), parallel.snapshot().getState());
+    }
+
+    @Test
+    public void testGhostsAreViewsOfTheStore() {
+        GameEngine engine = new GameEngine(1, 0, 3, 5);
+        GhostStore store = engine.getGhostStore();
+        Assertions.assertEquals(3, store.size());
+        engine.step(25);
+        Ghost[] ghosts = engine.getGhosts();
+        for (int i = 0; i < ghosts.length; i++) {
+            Assertions.assertSame(store, ghosts[i].getStore());
+            Assertions.assertEquals(i, ghosts[i].getIndex());
+            Assertions.assertEquals(store.getX(i), ghosts[i].getX());
+            Assertions.assertEquals(store.getY(i), ghosts[i].getY());
+            Assertions.assertEquals(store.getDirection(i), ghosts[i].getDirection());
+        }
+    }
+
+    @Test
+    public void testStoreIsFull() {
+        GameEngine engine = new GameEngine(1);
+        GhostStore store = new GhostStore(engine, engine.getPacman(), 1);
+        store.add(20, 20, 1, new GameRandom(1));
+        Assertions.assertThrows(IllegalStateException.class, () -> store.add(20, 20, 1, new GameRandom(2)));
+    }
+
+    @Test
+    public void testNegativeThreadsAreRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameEngine(1).setGhostThreads(-1));
+    }
+}
@@ -61,4 +61,26 @@ public class GhostTest {
         Assertions.assertEquals(180, ghost1.getX());
         Assertions.assertEquals(220, ghost1.getY());
     }
+
+    @Test
+    public void testBestDirectionFollowsShortestPath() {
+        // En el nivel 1 la columna 1 está libre entre las filas 1 y 3
+        int tile = Board.TILE_SIZE;
+        Ghost chaser = new Ghost(tile, tile, Color.RED, board, pacman, 3);
+        Assertions.assertEquals(Direction.DOWN, chaser.calculateBestDirection(tile, 3 * tile));
+    }
+
+    @Test
+    public void testCorridorTravelUsesNoRandomness() {
+        // La columna 1 del nivel 1 es un pasillo entre las filas 1 y 3: en él no se decide nada
+        int tile = Board.TILE_SIZE;
+        Ghost walker = new Ghost(tile, 2 * tile, Color.RED, board, pacman, 3);
+        long before = walker.getRandomState();
+        for (int i = 0; i < tile / 2; i++) {
+            walker.move();
+        }
+        Assertions.assertEquals(before, walker.getRandomState());
+        Assertions.assertEquals(tile, walker.getX());
+        Assertions.assertTrue(walker.getY() == tile || walker.getY() == 3 * tile);
+    }
 }
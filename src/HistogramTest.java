@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for the Histogram class.
+ */
+public class HistogramTest {
+
+    @Test
+    public void testBucketsCoverAllValues() {
+        long previous = -1;
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucketOf(value);
+            long lower = Histogram.lowerBound(bucket);
+            Assertions.assertTrue(lower <= value, "value " + value);
+            // Error relativo de la cubeta por debajo de 1/16
+            Assertions.assertTrue(value - lower <= value / 16, "value " + value);
+            Assertions.assertTrue(bucket > previous || value == 0);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void testPercentilesMatchSortedSamples() {
+        Histogram histogram = new Histogram();
+        GameRandom random = new GameRandom(1);
+        long[] samples = new long[10_000];
+        for (int i = 0; i < samples.length; i++) {
+            // Latencias entre 1 us y 10 ms, sesgadas hacia las pequeñas
+            samples[i] = 1000 + (long) random.nextInt(1000) * random.nextInt(10_000);
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+        for (double p : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long exact = samples[(int) Math.ceil(p * samples.length) - 1];
+            long estimate = histogram.getPercentile(p);
+            Assertions.assertTrue(estimate <= exact && exact - estimate <= exact / 16,
+                    "p" + p + ": " + estimate + " vs " + exact);
+        }
+        Assertions.assertEquals(samples[samples.length - 1], histogram.getMax());
+        Assertions.assertEquals(samples.length, histogram.getCount());
+        Assertions.assertEquals(Arrays.stream(samples).sum(), histogram.getSum());
+    }
+
+    @Test
+    public void testAddAndClear() {
+        Histogram a = new Histogram();
+        Histogram b = new Histogram();
+        a.record(10);
+        b.record(5000);
+        b.record(-3);
+        a.add(b);
+        Assertions.assertEquals(3, a.getCount());
+        Assertions.assertEquals(5000, a.getMax());
+        Assertions.assertEquals(0, a.getPercentile(0.0));
+        a.clear();
+        Assertions.assertEquals(0, a.getCount());
+        Assertions.assertEquals(0, a.getPercentile(0.99));
+        Assertions.assertEquals(0.0, a.getMean());
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+// Definición de un nivel: mapa inicial, salida de Pacman y casas de los fantasmas.
+// El mapa de la definición es una plantilla que no se modifica; cada partida juega
+// sobre un mapa nuevo obtenido con newGrid(). Las distancias BFS y las salidas de cada tile se
+// calculan una vez por definición y los comparten todas las partidas que la usan.
+public final class Level {
+    private final String name;
+    private final LevelGrid template;
+    private final Supplier<LevelGrid> freshGrids;
+    private final int pacmanColumn;
+    private final int pacmanRow;
+    private final int[] ghostColumns;
+    private final int[] ghostRows;
+    private volatile DistanceField distanceField;
+    private volatile TileExits tileExits;
+
+    public Level(String name, LevelGrid grid, int pacmanColumn, int pacmanRow,
+                 int[] ghostColumns, int[] ghostRows) {
+        this(name, grid, grid::copy, pacmanColumn, pacmanRow, ghostColumns, ghostRows);
+    }
+
+    // freshGrids crea mapas de juego sin copiar la plantilla (por ejemplo, mapeos privados)
+    Level(String name, LevelGrid template, Supplier<LevelGrid> freshGrids, int pacmanColumn, int pacmanRow,
+          int[] ghostColumns, int[] ghostRows) {
+        if (ghostColumns.length != ghostRows.length || ghostColumns.length == 0) {
+            throw new IllegalArgumentException(name + ": at least one ghost home is required");
+        }
+        checkWalkable(name, template, "pacman spawn", pacmanColumn, pacmanRow);
+        for (int i = 0; i < ghostColumns.length; i++) {
+            checkWalkable(name, template, "ghost home " + i, ghostColumns[i], ghostRows[i]);
+        }
+        this.name = name;
+        this.template = template;
+        this.freshGrids = freshGrids;
+        this.pacmanColumn = pacmanColumn;
+        this.pacmanRow = pacmanRow;
+        this.ghostColumns = ghostColumns.clone();
+        this.ghostRows = ghostRows.clone();
+    }
+
+    private static void checkWalkable(String name, LevelGrid grid, String what, int col, int row) {
+        if (col < 0 || col >= grid.getWidth() || row < 0 || row >= grid.getHeight()) {
+            throw new IllegalArgumentException(name + ": " + what + " outside the maze at " + col + "," + row);
+        }
+        if (grid.isWallTile(col, row)) {
+            throw new IllegalArgumentException(name + ": " + what + " is inside a wall at " + col + "," + row);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWidth() {
+        return template.getWidth();
+    }
+
+    public int getHeight() {
+        return template.getHeight();
+    }
+
+    // Mapa inicial (solo lectura)
+    public LevelGrid getTemplate() {
+        return template;
+    }
+
+    // Mapa nuevo para una partida
+    public LevelGrid newGrid() {
+        return freshGrids.get();
+    }
+
+    public int getPacmanColumn() {
+        return pacmanColumn;
+    }
+
+    public int getPacmanRow() {
+        return pacmanRow;
+    }
+
+    public int getGhostHomeCount() {
+        return ghostColumns.length;
+    }
+
+    public int getGhostColumn(int home) {
+        return ghostColumns[home];
+    }
+
+    public int getGhostRow(int home) {
+        return ghostRows[home];
+    }
+
+    public DistanceField getDistanceField() {
+        DistanceField field = distanceField;
+        if (field == null) {
+            synchronized (this) {
+                field = distanceField;
+                if (field == null) {
+                    field = new DistanceField(template);
+                    distanceField = field;
+                }
+            }
+        }
+        return field;
+    }
+
+    // Empieza a calcular las distancias en segundo plano si aún no están: así no retrasan
+    // el primer fotograma. getDistanceField espera a que terminen (o las calcula en el
+    // hilo que llama si el de fondo aún no ha empezado).
+    public void prefetchDistanceField() {
+        if (distanceField == null) {
+            ForkJoinPool.commonPool().execute(this::getDistanceField);
+        }
+    }
+
+    public TileExits getTileExits() {
+        TileExits exits = tileExits;
+        if (exits == null) {
+            synchronized (this) {
+                exits = tileExits;
+                if (exits == null) {
+                    exits = new TileExits(template);
+                    tileExits = exits;
+                }
+            }
+        }
+        return exits;
+    }
+}
@@ -0,0 +1,316 @@
+import java.nio.LongBuffer;
+
+// Mapa de un nivel en formato compacto: un plano de bits de paredes y otro de puntos.
+// Los planos son LongBuffer, así que pueden vivir en el heap o ser una vista de un
+// fichero de nivel mapeado en memoria (ver LevelLoader) sin copiarlo. Los del heap (los
+// niveles integrados y generados, y toda copia) se leen directamente de su long[]: leer
+// a través del LongBuffer hace el tick bastante más lento.
+// Las colisiones usan tablas precalculadas píxel -> tile, de modo que canMove
+// se reduce a cuatro lecturas de tabla y cuatro comprobaciones de bit.
+public class LevelGrid {
+    public static final int TILE_SIZE = GameEngine.TILE_SIZE;
+
+    // Fila inexistente en la tabla de filas: fuera de límites verticales es pared
+    private static final int OUTSIDE = -1;
+    // Longs por página del plano de puntos (4096 celdas): la unidad que copian las
+    // instantáneas de partida, que comparten las páginas que no han cambiado
+    public static final int PELLET_PAGE_LONGS = 64;
+
+    private final int width;
+    private final int height;
+    // Bit i (celda fila * ancho + columna) de cada plano
+    private final LongBuffer wallBits;
+    private final LongBuffer pelletBits;
+    // Los arrays de los planos si están en el heap; null si están mapeados
+    private final long[] wallArray;
+    private final long[] pelletArray;
+
+    // Tablas para píxeles en [-TILE_SIZE, tamaño + TILE_SIZE), desplazadas TILE_SIZE.
+    // Fuera de ese rango se usa el mismo cálculo sin tabla.
+    private final int[] columnOfPixel;
+    private final int[] rowOfPixel;
+
+    public LevelGrid(int width, int height) {
+        this(width, height, LongBuffer.wrap(new long[planeLongs(width, height)]),
+                LongBuffer.wrap(new long[planeLongs(width, height)]));
+    }
+
+    // Crea un mapa sobre planos ya existentes (por ejemplo, mapeados desde un fichero)
+    LevelGrid(int width, int height, LongBuffer wallBits, LongBuffer pelletBits) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid grid size: " + width + "x" + height);
+        }
+        int longs = planeLongs(width, height);
+        if (wallBits.remaining() < longs || pelletBits.remaining() < longs) {
+            throw new IllegalArgumentException("bit planes too short for " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.wallBits = wallBits;
+        this.pelletBits = pelletBits;
+        this.wallArray = heapArray(wallBits);
+        this.pelletArray = heapArray(pelletBits);
+
+        columnOfPixel = new int[(width + 2) * TILE_SIZE];
+        for (int i = 0; i < columnOfPixel.length; i++) {
+            columnOfPixel[i] = computeColumn(i - TILE_SIZE);
+        }
+        rowOfPixel = new int[(height + 2) * TILE_SIZE];
+        for (int i = 0; i < rowOfPixel.length; i++) {
+            rowOfPixel[i] = computeRow(i - TILE_SIZE);
+        }
+    }
+
+    private LevelGrid(LevelGrid other) {
+        this.width = other.width;
+        this.height = other.height;
+        int longs = planeLongs(width, height);
+        this.wallBits = copyPlane(other.wallBits, longs);
+        this.pelletBits = copyPlane(other.pelletBits, longs);
+        this.wallArray = wallBits.array();
+        this.pelletArray = pelletBits.array();
+        // Las tablas de píxeles solo dependen del tamaño: se comparten
+        this.columnOfPixel = other.columnOfPixel;
+        this.rowOfPixel = other.rowOfPixel;
+    }
+
+    // Número de longs de un plano de bits de width x height celdas
+    public static int planeLongs(int width, int height) {
+        return (int) (((long) width * height + 63) >>> 6);
+    }
+
+    // El long[] de un plano del heap cuyo índice 0 es el del buffer, o null
+    private static long[] heapArray(LongBuffer plane) {
+        return plane.hasArray() && plane.arrayOffset() == 0 ? plane.array() : null;
+    }
+
+    private static LongBuffer copyPlane(LongBuffer plane, int longs) {
+        long[] copy = new long[longs];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = plane.get(i);
+        }
+        return LongBuffer.wrap(copy);
+    }
+
+    // Crea un mapa a partir de filas de tipos de celda (EMPTY, WALL, POINT)
+    public static LevelGrid fromRows(int[][] rows) {
+        LevelGrid grid = new LevelGrid(rows[0].length, rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row].length != grid.width) {
+                throw new IllegalArgumentException("row " + row + " has " + rows[row].length
+                        + " cells, expected " + grid.width);
+            }
+            for (int col = 0; col < grid.width; col++) {
+                grid.set(col, row, rows[row][col]);
+            }
+        }
+        return grid;
+    }
+
+    public LevelGrid copy() {
+        return new LevelGrid(this);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getPixelWidth() {
+        return width * TILE_SIZE;
+    }
+
+    public int getPixelHeight() {
+        return height * TILE_SIZE;
+    }
+
+    // Tile que contiene el centro de una entidad en la columna x, limitado al tablero
+    public int tileColumn(int x) {
+        int col = (x + TILE_SIZE / 2) / TILE_SIZE;
+        return col < 0 ? 0 : (col >= width ? width - 1 : col);
+    }
+
+    // Tile que contiene el centro de una entidad en la fila y, limitado al tablero
+    public int tileRow(int y) {
+        int row = (y + TILE_SIZE / 2) / TILE_SIZE;
+        return row < 0 ? 0 : (row >= height ? height - 1 : row);
+    }
+
+    public int get(int col, int row) {
+        int index = row * width + col;
+        long bit = 1L << index;
+        if ((wallWord(index >>> 6) & bit) != 0) {
+            return GameEngine.WALL;
+        }
+        return (pelletWord(index >>> 6) & bit) != 0 ? GameEngine.POINT : GameEngine.EMPTY;
+    }
+
+    public void set(int col, int row, int value) {
+        int index = row * width + col;
+        int word = index >>> 6;
+        long bit = 1L << index;
+        long walls = wallWord(word) & ~bit;
+        long pellets = pelletWord(word) & ~bit;
+        switch (value) {
+            case GameEngine.WALL: walls |= bit; break;
+            case GameEngine.POINT: pellets |= bit; break;
+            case GameEngine.EMPTY: break;
+            default: throw new IllegalArgumentException("unknown cell type: " + value);
+        }
+        if (wallArray != null) {
+            wallArray[word] = walls;
+        } else {
+            wallBits.put(word, walls);
+        }
+        putPelletWord(word, pellets);
+    }
+
+    public boolean isWallTile(int col, int row) {
+        int index = row * width + col;
+        return (wallWord(index >>> 6) & (1L << index)) != 0;
+    }
+
+    // Cuenta celdas de un tipo con popcount sobre los planos de bits
+    public int countCells(int value) {
+        int longs = planeLongs(width, height);
+        int walls = 0;
+        int pellets = 0;
+        for (int i = 0; i < longs; i++) {
+            walls += Long.bitCount(wallWord(i));
+            pellets += Long.bitCount(pelletWord(i));
+        }
+        switch (value) {
+            case GameEngine.WALL: return walls;
+            case GameEngine.POINT: return pellets;
+            case GameEngine.EMPTY: return width * height - walls - pellets;
+            default: return 0;
+        }
+    }
+
+    // Resumen del contenido de los dos planos (cambia al comer un punto)
+    public long contentHash() {
+        int longs = planeLongs(width, height);
+        long hash = GameRandom.mix64((long) width << 32 | height);
+        for (int i = 0; i < longs; i++) {
+            hash = GameRandom.mix64(hash ^ wallWord(i));
+            hash = GameRandom.mix64(hash ^ pelletWord(i));
+        }
+        return hash;
+    }
+
+    public int getPelletPageCount() {
+        return (planeLongs(width, height) + PELLET_PAGE_LONGS - 1) / PELLET_PAGE_LONGS;
+    }
+
+    // Página del plano de puntos que contiene una celda
+    public int pelletPageOf(int col, int row) {
+        return ((row * width + col) >>> 6) / PELLET_PAGE_LONGS;
+    }
+
+    // Copia de una página del plano de puntos (la última puede ser más corta)
+    long[] copyPelletPage(int page) {
+        int from = page * PELLET_PAGE_LONGS;
+        long[] copy = new long[Math.min(PELLET_PAGE_LONGS, planeLongs(width, height) - from)];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = pelletWord(from + i);
+        }
+        return copy;
+    }
+
+    void loadPelletPage(int page, long[] data) {
+        int from = page * PELLET_PAGE_LONGS;
+        for (int i = 0; i < data.length; i++) {
+            putPelletWord(from + i, data[i]);
+        }
+    }
+
+    // count (1..64) bits del plano de puntos desde la celda first, la primera en el bit 0
+    long pelletRun(int first, int count) {
+        int word = first >>> 6;
+        int offset = first & 63;
+        long bits = pelletWord(word) >>> offset;
+        if (offset + count > 64) {
+            bits |= pelletWord(word + 1) << (64 - offset);
+        }
+        return count == 64 ? bits : bits & ((1L << count) - 1);
+    }
+
+    long pelletWord(int word) {
+        long[] pellets = pelletArray;
+        return pellets != null ? pellets[word] : pelletBits.get(word);
+    }
+
+    private void putPelletWord(int word, long value) {
+        if (pelletArray != null) {
+            pelletArray[word] = value;
+        } else {
+            pelletBits.put(word, value);
+        }
+    }
+
+    private long wallWord(int word) {
+        long[] walls = wallArray;
+        return walls != null ? walls[word] : wallBits.get(word);
+    }
+
+    // Planos de bits en crudo, para escribir el formato binario
+    LongBuffer getWallBits() {
+        return wallBits.duplicate();
+    }
+
+    LongBuffer getPelletBits() {
+        return pelletBits.duplicate();
+    }
+
+    // Columna a comprobar para un píxel x. Fuera del tablero por los lados se
+    // comprueba la columna del borde: si no es pared, es un túnel.
+    private int computeColumn(int x) {
+        int tileX = x / TILE_SIZE;
+        if (tileX < 0) {
+            return 0;
+        }
+        return tileX >= width ? width - 1 : tileX;
+    }
+
+    // Fila a comprobar para un píxel y, u OUTSIDE si queda fuera del tablero
+    private int computeRow(int y) {
+        int tileY = y / TILE_SIZE;
+        return tileY < 0 || tileY >= height ? OUTSIDE : tileY;
+    }
+
+    private int columnAt(int x) {
+        int i = x + TILE_SIZE;
+        return i >= 0 && i < columnOfPixel.length ? columnOfPixel[i] : computeColumn(x);
+    }
+
+    private int rowAt(int y) {
+        int i = y + TILE_SIZE;
+        return i >= 0 && i < rowOfPixel.length ? rowOfPixel[i] : computeRow(y);
+    }
+
+    private boolean wallAt(int col, int row) {
+        if (row == OUTSIDE) {
+            return true;
+        }
+        int index = row * width + col;
+        return (wallWord(index >>> 6) & (1L << index)) != 0;
+    }
+
+    // Método para verificar si hay una pared en una posición dada (en píxeles)
+    public boolean isWall(int x, int y) {
+        return wallAt(columnAt(x), rowAt(y));
+    }
+
+    // Indica si una entidad de lado size cabe con su esquina superior izquierda en (x, y)
+    public boolean canMove(int x, int y, int size) {
+        int left = columnAt(x);
+        int right = columnAt(x + size - 1);
+        int top = rowAt(y);
+        int bottom = rowAt(y + size - 1);
+        return !wallAt(left, top) && !wallAt(right, top)
+                && !wallAt(left, bottom) && !wallAt(right, bottom);
+    }
+}
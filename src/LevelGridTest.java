@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LevelGrid class.
+ */
+public class LevelGridTest {
+
+    private static final int T = GameEngine.TILE_SIZE;
+
+    // Implementación original de Board.isWall sobre int[][], usada como referencia
+    private static boolean referenceIsWall(int[][] map, int x, int y) {
+        int width = map[0].length;
+        int height = map.length;
+        int tileX = x / T;
+        int tileY = y / T;
+        if (tileX < 0 || tileX >= width) {
+            if (tileY >= 0 && tileY < height) {
+                if (tileX < 0) {
+                    return map[tileY][0] == GameEngine.WALL;
+                } else {
+                    return map[tileY][width - 1] == GameEngine.WALL;
+                }
+            }
+            return true;
+        }
+        if (tileY < 0 || tileY >= height) {
+            return true;
+        }
+        return map[tileY][tileX] == GameEngine.WALL;
+    }
+
+    private static boolean referenceCanMove(int[][] map, int x, int y, int size) {
+        return !referenceIsWall(map, x, y)
+                && !referenceIsWall(map, x + size - 1, y)
+                && !referenceIsWall(map, x, y + size - 1)
+                && !referenceIsWall(map, x + size - 1, y + size - 1);
+    }
+
+    private static int[][] toRows(LevelGrid grid) {
+        int[][] rows = new int[grid.getHeight()][grid.getWidth()];
+        for (int row = 0; row < grid.getHeight(); row++) {
+            for (int col = 0; col < grid.getWidth(); col++) {
+                rows[row][col] = grid.get(col, row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testCanMoveMatchesOriginalOnAllLevels() {
+        for (int level = 1; level <= GameEngine.getLevelCount(); level++) {
+            LevelGrid grid = new GameEngine(level).getGrid();
+            int[][] map = toRows(grid);
+            for (int y = -3 * T; y < grid.getPixelHeight() + 3 * T; y++) {
+                for (int x = -3 * T; x < grid.getPixelWidth() + 3 * T; x++) {
+                    Assertions.assertEquals(referenceIsWall(map, x, y), grid.isWall(x, y),
+                            "isWall level " + level + " at " + x + "," + y);
+                    Assertions.assertEquals(referenceCanMove(map, x, y, T), grid.canMove(x, y, T),
+                            "canMove level " + level + " at " + x + "," + y);
+                    Assertions.assertEquals(referenceCanMove(map, x, y, 10), grid.canMove(x, y, 10),
+                            "canMove(10) level " + level + " at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFarOutsidePixelsUseEdgeColumns() {
+        LevelGrid grid = new GameEngine(1).getGrid();
+        int[][] map = toRows(grid);
+        int tunnelY = 9 * T;
+        Assertions.assertEquals(referenceIsWall(map, -10_000, tunnelY), grid.isWall(-10_000, tunnelY));
+        Assertions.assertEquals(referenceIsWall(map, 10_000, tunnelY), grid.isWall(10_000, tunnelY));
+        Assertions.assertTrue(grid.isWall(50, -10_000));
+        Assertions.assertTrue(grid.isWall(50, 10_000));
+    }
+
+    @Test
+    public void testSetUpdatesWallBits() {
+        LevelGrid grid = new LevelGrid(70, 3);
+        assertFalse(grid.isWallTile(65, 1));
+        grid.set(65, 1, GameEngine.WALL);
+        Assertions.assertTrue(grid.isWallTile(65, 1));
+        Assertions.assertEquals(GameEngine.WALL, grid.get(65, 1));
+        grid.set(65, 1, GameEngine.POINT);
+        assertFalse(grid.isWallTile(65, 1));
+        Assertions.assertEquals(GameEngine.POINT, grid.get(65, 1));
+    }
+
+    @Test
+    public void testFromRowsAndCountCells() {
+        LevelGrid grid = LevelGrid.fromRows(new int[][] {
+            {1, 1, 1},
+            {1, 2, 0},
+            {1, 1, 1}
+        });
+        Assertions.assertEquals(3, grid.getWidth());
+        Assertions.assertEquals(3, grid.getHeight());
+        Assertions.assertEquals(1, grid.countCells(GameEngine.POINT));
+        Assertions.assertEquals(7, grid.countCells(GameEngine.WALL));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        LevelGrid grid = new GameEngine(1).getGrid();
+        LevelGrid copy = grid.copy();
+        copy.set(1, 1, GameEngine.EMPTY);
+        Assertions.assertEquals(GameEngine.POINT, grid.get(1, 1));
+        Assertions.assertEquals(GameEngine.EMPTY, copy.get(1, 1));
+    }
+
+    @Test
+    public void testInvalidRows() {
+        assertThrows(IllegalArgumentException.class, () -> LevelGrid.fromRows(new int[][] {{1, 1}, {1}}));
+        assertThrows(IllegalArgumentException.class, () -> new LevelGrid(0, 5));
+    }
+}
@@ -0,0 +1,384 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lectura y escritura de niveles en dos formatos.
+//
+// Texto (editable a mano), por ejemplo:
+//   ; comentario
+//   name Laberinto original
+//   pacman 9 15
+//   ghost 9 9
+//   maze
+//   ###########
+//   #....#....#
+// Después de "maze" cada línea es una fila: '#' pared, '.' punto, ' ' vacío. Las filas
+// cortas se completan con celdas vacías y el ancho es el de la fila más larga.
+//
+// Binario (little endian): cabecera con "PMAZ", versión, ancho, alto, salida de Pacman
+// y casas de los fantasmas, rellena hasta múltiplo de 8 bytes, seguida del plano de
+// bits de paredes y del de puntos (un bit por celda, en longs). Los ficheros binarios
+// se mapean en memoria con NIO: abrir un laberinto de 4096x4096 no copia los planos al
+// heap, y cada partida usa un mapeo privado (copy-on-write) que no modifica el fichero.
+public final class LevelLoader {
+    public static final int MAGIC = 0x5A414D50; // "PMAZ" en little endian
+    public static final int VERSION = 1;
+
+    private static final char WALL_CHAR = '#';
+    private static final char POINT_CHAR = '.';
+    private static final char EMPTY_CHAR = ' ';
+
+    private LevelLoader() {
+    }
+
+    // Carga un fichero en cualquiera de los dos formatos (se distingue por la cabecera)
+    public static Level load(Path file) throws IOException {
+        if (isBinary(file)) {
+            return loadBinary(file);
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return readText(reader, file.getFileName().toString());
+        }
+    }
+
+    // Carga un nivel del classpath, en texto o binario
+    public static Level loadResource(String resource) throws IOException {
+        InputStream in = LevelLoader.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new FileNotFoundException("level resource not found: " + resource);
+        }
+        try (BufferedInputStream buffered = new BufferedInputStream(in)) {
+            buffered.mark(4);
+            byte[] magic = new byte[4];
+            int read = buffered.read(magic);
+            buffered.reset();
+            if (read == 4 && ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC) {
+                return readBinary(buffered, resource);
+            }
+            return readText(new InputStreamReader(buffered, StandardCharsets.UTF_8), resource);
+        }
+    }
+
+    private static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // leer los 4 bytes de la firma
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    // ---- Formato de texto ----
+
+    public static Level readText(Reader source, String name) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        String levelName = name;
+        int pacmanColumn = -1;
+        int pacmanRow = -1;
+        List<int[]> ghosts = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        boolean inMaze = false;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (inMaze) {
+                rows.add(line);
+                continue;
+            }
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith(";")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            switch (parts[0]) {
+                case "name":
+                    levelName = trimmed.substring(4).trim();
+                    break;
+                case "pacman":
+                    int[] spawn = parseCell(parts, name, lineNumber);
+                    pacmanColumn = spawn[0];
+                    pacmanRow = spawn[1];
+                    break;
+                case "ghost":
+                    ghosts.add(parseCell(parts, name, lineNumber));
+                    break;
+                case "maze":
+                    inMaze = true;
+                    break;
+                default:
+                    throw new IOException(name + ":" + lineNumber + ": unknown directive '" + parts[0] + "'");
+            }
+        }
+        // Las líneas en blanco al final del fichero no son filas
+        while (!rows.isEmpty() && rows.get(rows.size() - 1).trim().isEmpty()) {
+            rows.remove(rows.size() - 1);
+        }
+        if (rows.isEmpty()) {
+            throw new IOException(name + ": missing maze rows");
+        }
+        if (pacmanColumn < 0) {
+            throw new IOException(name + ": missing pacman spawn");
+        }
+
+        int width = 0;
+        for (String row : rows) {
+            width = Math.max(width, row.length());
+        }
+        LevelGrid grid = new LevelGrid(width, rows.size());
+        for (int row = 0; row < rows.size(); row++) {
+            String text = rows.get(row);
+            for (int col = 0; col < text.length(); col++) {
+                grid.set(col, row, cellOf(text.charAt(col), name, row, col));
+            }
+        }
+
+        int[] ghostColumns = new int[ghosts.size()];
+        int[] ghostRows = new int[ghosts.size()];
+        for (int i = 0; i < ghosts.size(); i++) {
+            ghostColumns[i] = ghosts.get(i)[0];
+            ghostRows[i] = ghosts.get(i)[1];
+        }
+        try {
+            return new Level(levelName, grid, pacmanColumn, pacmanRow, ghostColumns, ghostRows);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static int[] parseCell(String[] parts, String name, int lineNumber) throws IOException {
+        if (parts.length != 3) {
+            throw new IOException(name + ":" + lineNumber + ": expected '" + parts[0] + " <column> <row>'");
+        }
+        try {
+            return new int[] {Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+        } catch (NumberFormatException e) {
+            throw new IOException(name + ":" + lineNumber + ": invalid cell " + parts[1] + " " + parts[2], e);
+        }
+    }
+
+    private static int cellOf(char c, String name, int row, int col) throws IOException {
+        switch (c) {
+            case WALL_CHAR: return GameEngine.WALL;
+            case POINT_CHAR: return GameEngine.POINT;
+            case EMPTY_CHAR: return GameEngine.EMPTY;
+            default:
+                throw new IOException(name + ": unknown cell '" + c + "' at row " + row + ", column " + col);
+        }
+    }
+
+    public static void writeText(Level level, Writer out) throws IOException {
+        out.write("name " + level.getName() + "\n");
+        out.write("pacman " + level.getPacmanColumn() + " " + level.getPacmanRow() + "\n");
+        for (int i = 0; i < level.getGhostHomeCount(); i++) {
+            out.write("ghost " + level.getGhostColumn(i) + " " + level.getGhostRow(i) + "\n");
+        }
+        out.write("maze\n");
+        LevelGrid grid = level.getTemplate();
+        char[] row = new char[grid.getWidth()];
+        for (int r = 0; r < grid.getHeight(); r++) {
+            for (int c = 0; c < grid.getWidth(); c++) {
+                int cell = grid.get(c, r);
+                row[c] = cell == GameEngine.WALL ? WALL_CHAR : (cell == GameEngine.POINT ? POINT_CHAR : EMPTY_CHAR);
+            }
+            out.write(row);
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    // ---- Formato binario ----
+
+    static int headerSize(int ghostHomes) {
+        int size = 7 * 4 + ghostHomes * 8;
+        return (size + 7) & ~7;
+    }
+
+    // Cabecera binaria completa, con el relleno incluido
+    static ByteBuffer header(int width, int height, int pacmanColumn, int pacmanRow,
+                             int[] ghostColumns, int[] ghostRows) {
+        int homes = ghostColumns.length;
+        ByteBuffer header = ByteBuffer.allocate(headerSize(homes)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+        header.putInt(pacmanColumn).putInt(pacmanRow).putInt(homes);
+        for (int i = 0; i < homes; i++) {
+            header.putInt(ghostColumns[i]).putInt(ghostRows[i]);
+        }
+        header.clear();
+        return header;
+    }
+
+    public static void writeBinary(Level level, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            writeBinary(level, out);
+        }
+    }
+
+    public static void writeBinary(Level level, OutputStream out) throws IOException {
+        LevelGrid grid = level.getTemplate();
+        int homes = level.getGhostHomeCount();
+        int[] ghostColumns = new int[homes];
+        int[] ghostRows = new int[homes];
+        for (int i = 0; i < homes; i++) {
+            ghostColumns[i] = level.getGhostColumn(i);
+            ghostRows[i] = level.getGhostRow(i);
+        }
+        out.write(header(grid.getWidth(), grid.getHeight(), level.getPacmanColumn(), level.getPacmanRow(),
+                ghostColumns, ghostRows).array());
+        int longs = LevelGrid.planeLongs(grid.getWidth(), grid.getHeight());
+        writePlane(grid.getWallBits(), longs, out);
+        writePlane(grid.getPelletBits(), longs, out);
+        out.flush();
+    }
+
+    private static void writePlane(LongBuffer plane, int longs, OutputStream out) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(8 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < longs; i++) {
+            if (!chunk.hasRemaining()) {
+                out.write(chunk.array(), 0, chunk.position());
+                chunk.clear();
+            }
+            chunk.putLong(plane.get(i));
+        }
+        out.write(chunk.array(), 0, chunk.position());
+    }
+
+    // Cabecera ya validada de un fichero binario
+    private static final class Header {
+        int width;
+        int height;
+        int pacmanColumn;
+        int pacmanRow;
+        int[] ghostColumns;
+        int[] ghostRows;
+        int size;
+
+        long planeBytes() {
+            return (long) LevelGrid.planeLongs(width, height) * 8;
+        }
+    }
+
+    private static Header readHeader(DataInput in, String name) throws IOException {
+        Header header = new Header();
+        if (Integer.reverseBytes(in.readInt()) != MAGIC) {
+            throw new IOException(name + ": not a binary level file");
+        }
+        int version = Integer.reverseBytes(in.readInt());
+        if (version != VERSION) {
+            throw new IOException(name + ": unsupported level version " + version);
+        }
+        header.width = Integer.reverseBytes(in.readInt());
+        header.height = Integer.reverseBytes(in.readInt());
+        header.pacmanColumn = Integer.reverseBytes(in.readInt());
+        header.pacmanRow = Integer.reverseBytes(in.readInt());
+        int homes = Integer.reverseBytes(in.readInt());
+        if (header.width <= 0 || header.height <= 0 || (long) header.width * header.height > Integer.MAX_VALUE
+                || homes <= 0 || homes > 1 << 16) {
+            throw new IOException(name + ": corrupt header " + header.width + "x" + header.height
+                    + " with " + homes + " ghost homes");
+        }
+        header.ghostColumns = new int[homes];
+        header.ghostRows = new int[homes];
+        for (int i = 0; i < homes; i++) {
+            header.ghostColumns[i] = Integer.reverseBytes(in.readInt());
+            header.ghostRows[i] = Integer.reverseBytes(in.readInt());
+        }
+        header.size = headerSize(homes);
+        in.skipBytes(header.size - (7 * 4 + homes * 8));
+        return header;
+    }
+
+    // Lee un nivel binario de un stream copiándolo al heap (recursos del classpath)
+    public static Level readBinary(InputStream source, String name) throws IOException {
+        DataInputStream in = new DataInputStream(source);
+        Header header = readHeader(in, name);
+        int longs = LevelGrid.planeLongs(header.width, header.height);
+        long[] walls = new long[longs];
+        long[] pellets = new long[longs];
+        for (int i = 0; i < longs; i++) {
+            walls[i] = Long.reverseBytes(in.readLong());
+        }
+        for (int i = 0; i < longs; i++) {
+            pellets[i] = Long.reverseBytes(in.readLong());
+        }
+        LevelGrid grid = new LevelGrid(header.width, header.height, LongBuffer.wrap(walls), LongBuffer.wrap(pellets));
+        return toLevel(name, grid, grid::copy, header);
+    }
+
+    // Abre un nivel binario mapeando sus planos en memoria
+    public static Level loadBinary(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        Header header;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            header = readHeader(in, name);
+        }
+        long expected = header.size + 2 * header.planeBytes();
+        long actual = Files.size(file);
+        if (actual != expected) {
+            throw new IOException(name + ": expected " + expected + " bytes, found " + actual);
+        }
+        // Plantilla de solo lectura; cada partida recibe un mapeo privado nuevo
+        LevelGrid template = map(file, header, FileChannel.MapMode.READ_ONLY);
+        return toLevel(name, template, () -> {
+            try {
+                return map(file, header, FileChannel.MapMode.PRIVATE);
+            } catch (AccessDeniedException e) {
+                // Sin permiso de escritura no hay mapeo privado: se copia la plantilla
+                return template.copy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, header);
+    }
+
+    private static LevelGrid map(Path file, Header header, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[] {StandardOpenOption.READ}
+                : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // El mapeo sigue siendo válido después de cerrar el canal
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long planeBytes = header.planeBytes();
+            LongBuffer walls = channel.map(mode, header.size, planeBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            LongBuffer pellets = channel.map(mode, header.size + planeBytes, planeBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            return new LevelGrid(header.width, header.height, walls, pellets);
+        }
+    }
+
+    private static Level toLevel(String name, LevelGrid template, java.util.function.Supplier<LevelGrid> grids,
+                                 Header header) throws IOException {
+        try {
+            return new Level(name, template, grids, header.pacmanColumn, header.pacmanRow,
+                    header.ghostColumns, header.ghostRows);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Uso: java LevelLoader origen.txt destino.pmaz ...
+    // Precompila niveles de texto al formato binario (los integrados de src/levels se
+    // juegan desde su .pmaz; LevelLoaderTest comprueba que no se desincronizan).
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 != 0) {
+            System.err.println("usage: java LevelLoader source.txt target.pmaz [source.txt target.pmaz ...]");
+            System.exit(2);
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            Path source = java.nio.file.Paths.get(args[i]);
+            Path target = java.nio.file.Paths.get(args[i + 1]);
+            writeBinary(load(source), target);
+            System.out.printf("%s -> %s (%d bytes)%n", source, target, Files.size(target));
+        }
+    }
+}
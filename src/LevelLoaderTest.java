@@ -0,0 +1,196 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LevelLoader class.
+ */
+public class LevelLoaderTest {
+
+    private static final String SMALL =
+            "; nivel de prueba\n"
+            + "name Prueba\n"
+            + "pacman 1 1\n"
+            + "ghost 3 1\n"
+            + "ghost 2 1\n"
+            + "maze\n"
+            + "#####\n"
+            + "#. .#\n"
+            + "     \n"
+            + "#####\n";
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameCells(LevelGrid expected, LevelGrid actual) {
+        Assertions.assertEquals(expected.getWidth(), actual.getWidth());
+        Assertions.assertEquals(expected.getHeight(), actual.getHeight());
+        for (int row = 0; row < expected.getHeight(); row++) {
+            for (int col = 0; col < expected.getWidth(); col++) {
+                Assertions.assertEquals(expected.get(col, row), actual.get(col, row), "cell " + col + "," + row);
+            }
+        }
+    }
+
+    @Test
+    public void testReadText() throws IOException {
+        Level level = LevelLoader.readText(new StringReader(SMALL), "small");
+        Assertions.assertEquals("Prueba", level.getName());
+        Assertions.assertEquals(5, level.getWidth());
+        Assertions.assertEquals(4, level.getHeight());
+        Assertions.assertEquals(1, level.getPacmanColumn());
+        Assertions.assertEquals(2, level.getGhostHomeCount());
+        Assertions.assertEquals(3, level.getGhostColumn(0));
+        LevelGrid grid = level.getTemplate();
+        Assertions.assertEquals(GameEngine.WALL, grid.get(0, 0));
+        Assertions.assertEquals(GameEngine.POINT, grid.get(1, 1));
+        Assertions.assertEquals(GameEngine.EMPTY, grid.get(2, 1));
+        Assertions.assertEquals(GameEngine.EMPTY, grid.get(0, 2));
+    }
+
+    @Test
+    public void testShortRowsArePaddedWithEmptyCells() throws IOException {
+        Level level = LevelLoader.readText(new StringReader(
+                "pacman 1 1\nghost 1 1\nmaze\n###\n#\n###\n"), "short");
+        Assertions.assertEquals(3, level.getWidth());
+        Assertions.assertEquals(GameEngine.EMPTY, level.getTemplate().get(2, 1));
+    }
+
+    @Test
+    public void testTextRoundTrip() throws IOException {
+        Level level = GameEngine.getBuiltInLevel(1);
+        StringWriter out = new StringWriter();
+        LevelLoader.writeText(level, out);
+        Level copy = LevelLoader.readText(new StringReader(out.toString()), "copy");
+        assertSameCells(level.getTemplate(), copy.getTemplate());
+        Assertions.assertEquals(level.getPacmanRow(), copy.getPacmanRow());
+        Assertions.assertEquals(level.getGhostHomeCount(), copy.getGhostHomeCount());
+    }
+
+    @Test
+    public void testBuiltInLevelsMatchOriginalLayout() {
+        // Fila 9 del nivel 1: túnel abierto por los dos lados y casa de los fantasmas
+        LevelGrid grid = GameEngine.getBuiltInLevel(1).getTemplate();
+        Assertions.assertEquals(19, grid.getWidth());
+        Assertions.assertEquals(19, grid.getHeight());
+        Assertions.assertFalse(grid.isWallTile(0, 9));
+        Assertions.assertFalse(grid.isWallTile(18, 9));
+        Assertions.assertEquals(9, GameEngine.getBuiltInLevel(1).getGhostColumn(0));
+        Assertions.assertEquals(15, GameEngine.getBuiltInLevel(1).getPacmanRow());
+        Assertions.assertEquals(13, GameEngine.getBuiltInLevel(2).getPacmanRow());
+    }
+
+    @Test
+    public void testPrecompiledBuiltInLevelsMatchTextSources() throws IOException {
+        // Los .pmaz se regeneran con LevelLoader.main al editar los .txt
+        for (int level = 1; level <= GameEngine.getLevelCount(); level++) {
+            Level text = LevelLoader.loadResource("/levels/level" + level + ".txt");
+            Level binary = GameEngine.getBuiltInLevel(level);
+            assertSameCells(text.getTemplate(), binary.getTemplate());
+            Assertions.assertEquals(text.getPacmanColumn(), binary.getPacmanColumn());
+            Assertions.assertEquals(text.getPacmanRow(), binary.getPacmanRow());
+            Assertions.assertEquals(text.getGhostHomeCount(), binary.getGhostHomeCount());
+            for (int home = 0; home < text.getGhostHomeCount(); home++) {
+                Assertions.assertEquals(text.getGhostColumn(home), binary.getGhostColumn(home));
+                Assertions.assertEquals(text.getGhostRow(home), binary.getGhostRow(home));
+            }
+        }
+    }
+
+    @Test
+    public void testBinaryRoundTripThroughStream() throws IOException {
+        Level level = GameEngine.getBuiltInLevel(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelLoader.writeBinary(level, out);
+        // Cabecera de 7 enteros más 3 casas, rellena a 8 bytes, y dos planos de 6 longs
+        Assertions.assertEquals(56 + 2 * 6 * 8, out.size());
+        Level copy = LevelLoader.readBinary(new ByteArrayInputStream(out.toByteArray()), "copy");
+        assertSameCells(level.getTemplate(), copy.getTemplate());
+    }
+
+    @Test
+    public void testBinaryFileIsMemoryMapped() throws IOException {
+        Path file = tempDir.resolve("level1.pmaz");
+        LevelLoader.writeBinary(GameEngine.getBuiltInLevel(1), file);
+        Level level = LevelLoader.load(file);
+        Assertions.assertTrue(level.getTemplate().getWallBits().isDirect());
+        assertSameCells(GameEngine.getBuiltInLevel(1).getTemplate(), level.getTemplate());
+    }
+
+    @Test
+    public void testPlayingMappedLevelDoesNotModifyFile() throws IOException {
+        Path file = tempDir.resolve("level1.pmaz");
+        LevelLoader.writeBinary(GameEngine.getBuiltInLevel(1), file);
+        byte[] before = Files.readAllBytes(file);
+
+        Level level = LevelLoader.load(file);
+        GameEngine engine = new GameEngine(level);
+        engine.step(20);
+        Assertions.assertTrue(engine.getPointsEaten() > 0);
+        Assertions.assertEquals(engine.getTotalPoints(), level.getTemplate().countCells(GameEngine.POINT));
+
+        // Otra partida empieza con todos los puntos
+        GameEngine second = new GameEngine(level);
+        Assertions.assertEquals(engine.getTotalPoints(), second.getGrid().countCells(GameEngine.POINT));
+        Assertions.assertArrayEquals(before, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testHugeBinaryLevelOpensWithoutHeapCopy() throws IOException {
+        int size = 4096;
+        LevelGrid grid = new LevelGrid(size, size);
+        for (int i = 0; i < size; i++) {
+            grid.set(i, 0, GameEngine.WALL);
+            grid.set(i, size - 1, GameEngine.WALL);
+            grid.set(0, i, GameEngine.WALL);
+            grid.set(size - 1, i, GameEngine.WALL);
+        }
+        grid.set(size / 2, size / 2, GameEngine.POINT);
+        Path file = tempDir.resolve("huge.pmaz");
+        LevelLoader.writeBinary(new Level("huge", grid, 1, 1, new int[] {2}, new int[] {1}), file);
+
+        Level level = LevelLoader.load(file);
+        Assertions.assertEquals(size, level.getWidth());
+        Assertions.assertTrue(level.getTemplate().getPelletBits().isDirect());
+        LevelGrid played = level.newGrid();
+        Assertions.assertTrue(played.getWallBits().isDirect());
+        Assertions.assertEquals(GameEngine.POINT, played.get(size / 2, size / 2));
+        Assertions.assertTrue(played.isWallTile(size - 1, 123));
+        Assertions.assertEquals(1, played.countCells(GameEngine.POINT));
+        played.set(size / 2, size / 2, GameEngine.EMPTY);
+        Assertions.assertEquals(GameEngine.POINT, level.newGrid().get(size / 2, size / 2));
+    }
+
+    @Test
+    public void testInvalidText() {
+        assertThrows(IOException.class, () -> LevelLoader.readText(new StringReader(
+                "pacman 1 1\nghost 1 1\nmaze\n#x#\n"), "bad-cell"));
+        assertThrows(IOException.class, () -> LevelLoader.readText(new StringReader(
+                "ghost 1 1\nmaze\n# #\n"), "no-pacman"));
+        assertThrows(IOException.class, () -> LevelLoader.readText(new StringReader(
+                "pacman 0 0\nghost 1 0\nmaze\n# #\n"), "spawn-in-wall"));
+        assertThrows(IOException.class, () -> LevelLoader.readText(new StringReader(
+                "pacman 1 0\nmaze\n# #\n"), "no-ghosts"));
+        assertThrows(IOException.class, () -> LevelLoader.readText(new StringReader(
+                "speed 3\n"), "unknown-directive"));
+    }
+
+    @Test
+    public void testInvalidBinary() throws IOException {
+        Path file = tempDir.resolve("truncated.pmaz");
+        LevelLoader.writeBinary(GameEngine.getBuiltInLevel(1), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> LevelLoader.loadBinary(file));
+        assertThrows(IOException.class, () -> LevelLoader.readBinary(
+                new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}), "garbage"));
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Level class.
+ */
+public class LevelTest {
+
+    // Caja de width x height con borde de paredes y puntos en el interior
+    static LevelGrid box(int width, int height) {
+        LevelGrid grid = new LevelGrid(width, height);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                boolean border = row == 0 || col == 0 || row == height - 1 || col == width - 1;
+                grid.set(col, row, border ? GameEngine.WALL : GameEngine.POINT);
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    public void testNewGridIsIndependentCopy() {
+        Level level = new Level("box", box(6, 5), 1, 1, new int[] {4}, new int[] {3});
+        LevelGrid grid = level.newGrid();
+        grid.set(2, 2, GameEngine.EMPTY);
+        Assertions.assertEquals(GameEngine.POINT, level.getTemplate().get(2, 2));
+        Assertions.assertNotSame(grid, level.newGrid());
+    }
+
+    @Test
+    public void testDistanceFieldIsShared() {
+        Level level = new Level("box", box(6, 5), 1, 1, new int[] {4}, new int[] {3});
+        Assertions.assertSame(level.getDistanceField(), level.getDistanceField());
+        Assertions.assertEquals(5, level.getDistanceField().distance(1, 1, 4, 3));
+    }
+
+    @Test
+    public void testSpawnsMustBeWalkable() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Level("box", box(6, 5), 0, 0, new int[] {4}, new int[] {3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Level("box", box(6, 5), 1, 1, new int[] {9}, new int[] {3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Level("box", box(6, 5), 1, 1, new int[0], new int[0]));
+    }
+
+    @Test
+    public void testEngineUsesLoadedDimensions() {
+        Level level = new Level("wide", box(41, 23), 1, 1, new int[] {20, 21}, new int[] {11, 11});
+        GameEngine engine = new GameEngine(level);
+        Assertions.assertEquals(41 * GameEngine.TILE_SIZE, engine.getBoardPixelWidth());
+        Assertions.assertEquals(39 * 21, engine.getTotalPoints());
+        Assertions.assertEquals(20 * GameEngine.TILE_SIZE, engine.getGhosts()[0].getX());
+        Assertions.assertEquals(21 * GameEngine.TILE_SIZE, engine.getGhosts()[1].getX());
+        Assertions.assertEquals(20 * GameEngine.TILE_SIZE, engine.getGhosts()[2].getX());
+        engine.step(100);
+        Assertions.assertTrue(engine.getPointsEaten() > 0);
+
+        Board board = new Board(engine);
+        Assertions.assertEquals(41 * GameEngine.TILE_SIZE, board.getPreferredSize().width);
+        Assertions.assertEquals(23 * GameEngine.TILE_SIZE + GameRenderer.STATUS_HEIGHT, board.getPreferredSize().height);
+    }
+}
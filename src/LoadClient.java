@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+// Generador de carga para GameServer: abre muchas conexiones desde un solo hilo con un
+// Selector, une cada una a una partida, manda giros al azar y aplica todas las
+// actualizaciones a un RemoteGame, así que también comprueba que el protocolo se
+// decodifica bien. Al perder, la conexión vuelve a unirse a una partida nueva.
+public class LoadClient {
+    // Probabilidad (sobre 64) de que un cliente gire en cada tick
+    private static final int TURN_CHANCE = 4;
+
+    private final InetSocketAddress address;
+    private final int clients;
+    private final long seed;
+
+    public LoadClient(InetSocketAddress address, int clients, long seed) {
+        if (clients <= 0) {
+            throw new IllegalArgumentException("clients must be positive: " + clients);
+        }
+        this.address = address;
+        this.clients = clients;
+        this.seed = seed;
+    }
+
+    // Una conexión y la copia de su partida
+    private static final class Connection {
+        final int index;
+        final SocketChannel channel;
+        ByteBuffer in = GameProtocol.allocate(1024);
+        final ByteBuffer out = GameProtocol.allocate(256);
+        RemoteGame game = new RemoteGame();
+        int games;
+
+        Connection(int index, SocketChannel channel) {
+            this.index = index;
+            this.channel = channel;
+        }
+    }
+
+    public Results run(long durationNanos) throws IOException {
+        Results results = new Results();
+        GameRandom random = new GameRandom(seed);
+        Connection[] connections = new Connection[clients];
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < clients; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                connections[i] = new Connection(i, channel);
+                if (channel.connect(address)) {
+                    connected(connections[i], results);
+                    channel.register(selector, SelectionKey.OP_READ, connections[i]);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, connections[i]);
+                }
+            }
+            long start = System.nanoTime();
+            long end = start + durationNanos;
+            long nextTurns = start;
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                selector.select(Math.max(1, Math.min(GameEngine.TICK_MILLIS, (end - now) / 1_000_000L)));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.channel.finishConnect();
+                            key.interestOps(SelectionKey.OP_READ);
+                            connected(connection, results);
+                        } else if (key.isReadable()) {
+                            read(connection, results);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        results.errors++;
+                        key.cancel();
+                        connection.channel.close();
+                    }
+                }
+                // Giros al azar, más o menos uno por tick de juego
+                if (System.nanoTime() >= nextTurns) {
+                    nextTurns += GameEngine.TICK_MILLIS * 1_000_000L;
+                    for (Connection connection : connections) {
+                        if (connection.channel.isConnected() && random.nextInt(64) < TURN_CHANCE) {
+                            GameProtocol.putTurn(connection.out, GameProtocol.direction(random.nextInt(4)));
+                            send(connection, results);
+                        }
+                    }
+                }
+            }
+            results.elapsedNanos = System.nanoTime() - start;
+            for (Connection connection : connections) {
+                results.games += connection.games;
+            }
+        } finally {
+            for (Connection connection : connections) {
+                if (connection != null) {
+                    connection.channel.close();
+                }
+            }
+        }
+        return results;
+    }
+
+    private void connected(Connection connection, Results results) throws IOException {
+        results.connected++;
+        join(connection, results);
+    }
+
+    private void join(Connection connection, Results results) throws IOException {
+        connection.game = new RemoteGame();
+        connection.games++;
+        GameProtocol.putJoin(connection.out, seed + connection.index * 1_000_003L + connection.games, 1, 0,
+                GameEngine.DEFAULT_GHOST_COUNT);
+        send(connection, results);
+    }
+
+    // Mensajes pequeños: si el socket no los acepta enteros se descartan (solo es carga)
+    private static void send(Connection connection, Results results) throws IOException {
+        connection.out.flip();
+        connection.channel.write(connection.out);
+        if (connection.out.hasRemaining()) {
+            results.droppedInputs++;
+        }
+        connection.out.clear();
+    }
+
+    private void read(Connection connection, Results results) throws IOException {
+        ByteBuffer in = connection.in;
+        int read = connection.channel.read(in);
+        if (read < 0) {
+            throw new IOException("server closed connection " + connection.index);
+        }
+        results.bytesReceived += read;
+        in.flip();
+        while (in.remaining() >= GameProtocol.FRAME_HEADER) {
+            int length = in.getInt(in.position());
+            if (in.remaining() < GameProtocol.FRAME_HEADER + length) {
+                if (GameProtocol.FRAME_HEADER + length > in.capacity()) {
+                    // Estado completo de un mapa grande: hace falta más sitio
+                    ByteBuffer bigger = GameProtocol.allocate(GameProtocol.FRAME_HEADER + length);
+                    bigger.put(in);
+                    connection.in = bigger;
+                    return;
+                }
+                break;
+            }
+            int end = in.position() + GameProtocol.FRAME_HEADER + length;
+            ByteBuffer frame = in.duplicate().order(in.order());
+            frame.position(in.position() + GameProtocol.FRAME_HEADER).limit(end);
+            connection.game.apply(frame);
+            if (frame.hasRemaining()) {
+                throw new IllegalStateException("trailing bytes in server message");
+            }
+            in.position(end);
+            results.updates++;
+            if (connection.game.isLost()) {
+                join(connection, results);
+            }
+        }
+        in.compact();
+    }
+
+    public static class Results {
+        private int connected;
+        private int games;
+        private long updates;
+        private long bytesReceived;
+        private long droppedInputs;
+        private int errors;
+        private long elapsedNanos;
+
+        public int getConnected() {
+            return connected;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public long getUpdates() {
+            return updates;
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+
+        public long getDroppedInputs() {
+            return droppedInputs;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public double getUpdatesPerSecond() {
+            return updates * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        public double getBytesPerUpdate() {
+            return (double) bytesReceived / Math.max(1, updates);
+        }
+    }
+
+    // Uso: java LoadClient [clientes] [segundos] [puerto] [hilos del servidor]
+    // Con puerto 0 arranca un servidor en este mismo proceso.
+    public static void main(String[] args) throws IOException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        GameServer server = port == 0 ? new GameServer(0, threads, GameServer.DEFAULT_TICK_NANOS) : null;
+        try {
+            InetSocketAddress address = server != null ? server.getAddress()
+                    : new InetSocketAddress("localhost", port);
+            Results results = new LoadClient(address, clients, 1).run(seconds * 1_000_000_000L);
+            System.out.printf("clients=%d connected=%d games=%d errors=%d%n", clients, results.getConnected(),
+                    results.getGames(), results.getErrors());
+            System.out.printf("updates/s=%.0f (%.1f per client per second), bytes/update=%.1f, dropped inputs=%d%n",
+                    results.getUpdatesPerSecond(), results.getUpdatesPerSecond() / clients,
+                    results.getBytesPerUpdate(), results.getDroppedInputs());
+            if (server != null) {
+                System.out.printf("server: sessions=%d tick mean %.2f ms max %.2f ms, skipped updates=%d%n",
+                        server.getSessionCount(), server.getMeanTickNanos() / 1e6, server.getMaxTickNanos() / 1e6,
+                        server.getSkippedUpdates());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,392 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Generador de laberintos al estilo Pac-Man a partir de una semilla.
+// Se genera la mitad izquierda (con la columna central) con el algoritmo de Eller y se
+// refleja, así que el laberinto es simétrico y todas las celdas están conectadas. Después
+// se abre una pared en cada callejón sin salida y se añaden túneles laterales.
+// Eller avanza fila a fila recordando solo la fila actual: las filas de tiles se escriben
+// en orden en los planos de bits (en el heap o directamente en un fichero binario), sin
+// tener nunca el laberinto entero en memoria como int[][].
+//
+// Las celdas del laberinto están en tiles de coordenadas impares y las paredes entre
+// ellas en las pares, por eso el ancho es 4k+3 (la columna central es una celda) y el
+// alto es impar.
+public final class MazeGenerator {
+    public static final int MIN_SIZE = 7;
+    // Una fila de celdas tiene túnel con probabilidad 1/TUNNEL_CHANCE (la central siempre)
+    private static final int TUNNEL_CHANCE = 16;
+    // Probabilidad 1/DOWN_CHANCE de abrir hacia abajo, además del paso obligatorio por conjunto
+    private static final int DOWN_CHANCE = 3;
+    // Bytes de cada escritura al fichero
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final long seed;
+
+    public MazeGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public static boolean isValidSize(int width, int height) {
+        return width >= MIN_SIZE && width % 4 == 3 && height >= MIN_SIZE && height % 2 == 1
+                && (long) width * height <= Integer.MAX_VALUE;
+    }
+
+    private static void checkSize(int width, int height) {
+        if (!isValidSize(width, height)) {
+            throw new IllegalArgumentException("invalid maze size " + width + "x" + height
+                    + ": width must be 4k+3 and height odd, both at least " + MIN_SIZE);
+        }
+    }
+
+    // Fila de celdas de la casa de los fantasmas (y del túnel fijo) y de la salida de Pacman
+    private static int ghostCellRow(int cellRows) {
+        return cellRows / 2;
+    }
+
+    private static int pacmanCellRow(int cellRows) {
+        int ghostRow = ghostCellRow(cellRows);
+        return ghostRow + Math.max(1, (cellRows - ghostRow) / 2);
+    }
+
+    // Genera el laberinto en el heap (dos planos de bits, sin tabla de celdas)
+    public Level generate(String name, int width, int height) {
+        checkSize(width, height);
+        int longs = LevelGrid.planeLongs(width, height);
+        long[] walls = new long[longs];
+        long[] pellets = new long[longs];
+        try {
+            generate(width, height, new ArrayWriter(walls), new ArrayWriter(pellets));
+        } catch (IOException e) {
+            // Los planos en memoria no hacen E/S
+            throw new IllegalStateException(e);
+        }
+        LevelGrid grid = new LevelGrid(width, height, LongBuffer.wrap(walls), LongBuffer.wrap(pellets));
+        int[][] homes = ghostHomes(width, height);
+        return new Level(name, grid, width / 2, 2 * pacmanCellRow(height / 2) + 1, homes[0], homes[1]);
+    }
+
+    // Genera el laberinto directamente en un fichero de nivel binario (ver LevelLoader),
+    // escribiendo cada plano por bloques a medida que se producen las filas
+    public void write(Path file, int width, int height) throws IOException {
+        checkSize(width, height);
+        int[][] homes = ghostHomes(width, height);
+        ByteBuffer header = LevelLoader.header(width, height, width / 2, 2 * pacmanCellRow(height / 2) + 1,
+                homes[0], homes[1]);
+        long planeBytes = (long) LevelGrid.planeLongs(width, height) * 8;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header, 0);
+            long wallsStart = header.capacity();
+            generate(width, height, new ChannelWriter(channel, wallsStart),
+                    new ChannelWriter(channel, wallsStart + planeBytes));
+        }
+    }
+
+    // Casas de los fantasmas: la celda central de la fila de la casa y los pasos a sus lados
+    private static int[][] ghostHomes(int width, int height) {
+        int center = width / 2;
+        int row = 2 * ghostCellRow(height / 2) + 1;
+        return new int[][] {{center, center - 1, center + 1}, {row, row, row}};
+    }
+
+    private void generate(int width, int height, PlaneWriter walls, PlaneWriter pellets) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        // Celdas de la mitad izquierda, la central incluida (la última)
+        int half = (width + 1) / 4;
+        int cellRows = height / 2;
+        int ghostRow = ghostCellRow(cellRows);
+        int ghostTileRow = 2 * ghostRow + 1;
+
+        // Conjuntos de Eller de la fila actual como union-find sobre las posiciones
+        int[] sets = new int[half];
+        int[] nextSets = new int[half];
+        // Paso de la celda i a la i + 1, hacia abajo y hacia arriba (el de la fila anterior)
+        boolean[] right = new boolean[half];
+        boolean[] down = new boolean[half];
+        boolean[] up = new boolean[half];
+        int[] perSet = new int[half];
+        boolean[] setHasDown = new boolean[half];
+        int[] options = new int[4];
+
+        for (int i = 0; i < half; i++) {
+            sets[i] = i;
+        }
+        TileRow tiles = new TileRow(width, half, walls, pellets);
+        tiles.emitBorder();
+
+        for (int row = 0; row < cellRows; row++) {
+            boolean last = row == cellRows - 1;
+            boolean tunnel = row == ghostRow || random.nextInt(TUNNEL_CHANCE) == 0;
+
+            // Pasos horizontales: se unen conjuntos distintos al azar (todos en la última fila)
+            for (int i = 0; i < half - 1; i++) {
+                int a = find(sets, i);
+                int b = find(sets, i + 1);
+                // La casa de los fantasmas abre la celda central hacia los dos lados
+                boolean house = row == ghostRow && i == half - 2;
+                right[i] = house || (a != b && (last || random.nextBoolean()));
+                if (right[i] && a != b) {
+                    sets[a] = b;
+                }
+            }
+            right[half - 1] = false;
+
+            // Pasos hacia abajo: al menos uno por conjunto para que ninguno quede aislado
+            if (last) {
+                Arrays.fill(down, false);
+            } else {
+                Arrays.fill(perSet, 0);
+                Arrays.fill(setHasDown, false);
+                for (int i = 0; i < half; i++) {
+                    perSet[find(sets, i)]++;
+                }
+                for (int i = 0; i < half; i++) {
+                    int set = find(sets, i);
+                    boolean lastOfSet = --perSet[set] == 0;
+                    down[i] = random.nextInt(DOWN_CHANCE) == 0 || (lastOfSet && !setHasDown[set]);
+                    if (down[i]) {
+                        setHasDown[set] = true;
+                    }
+                }
+            }
+
+            // Sin callejones: una celda con una sola salida abre otra pared al azar.
+            // Abrir paredes nunca desconecta nada, solo añade ciclos.
+            for (int i = 0; i < half; i++) {
+                boolean left = i > 0 ? right[i - 1] : tunnel;
+                // La celda central sale a la derecha por el reflejo de su paso izquierdo
+                boolean toRight = i < half - 1 ? right[i] : right[i - 1];
+                int exits = (left ? 1 : 0) + (toRight ? 1 : 0) + (down[i] ? 1 : 0) + (row > 0 && up[i] ? 1 : 0);
+                if (exits > 1) {
+                    continue;
+                }
+                int count = 0;
+                if (i > 0 && !left) {
+                    options[count++] = 0;
+                }
+                if (i < half - 1 && !toRight) {
+                    options[count++] = 1;
+                }
+                if (!last && !down[i]) {
+                    options[count++] = 2;
+                }
+                if (row > 0 && !up[i]) {
+                    options[count++] = 3;
+                }
+                switch (options[random.nextInt(count)]) {
+                    case 0: right[i - 1] = true; break;
+                    case 1: right[i] = true; break;
+                    case 2: down[i] = true; break;
+                    default: up[i] = true; break;
+                }
+            }
+
+            // La pared sobre esta fila ya no cambia: se emite junto con la fila de celdas
+            if (row > 0) {
+                tiles.emitWalls(up);
+            }
+            tiles.emitCells(right, tunnel, row == ghostRow ? ghostTileRow : -1);
+
+            // Conjuntos de la fila siguiente: las celdas con paso hacia arriba heredan el
+            // conjunto de la de encima, el resto empieza en uno propio
+            Arrays.fill(perSet, -1);
+            for (int i = 0; i < half; i++) {
+                nextSets[i] = i;
+                if (down[i]) {
+                    int set = find(sets, i);
+                    if (perSet[set] < 0) {
+                        perSet[set] = i;
+                    } else {
+                        nextSets[i] = perSet[set];
+                    }
+                }
+            }
+            int[] swapSets = sets;
+            sets = nextSets;
+            nextSets = swapSets;
+            boolean[] swapRows = up;
+            up = down;
+            down = swapRows;
+        }
+        tiles.emitBorder();
+        walls.finish();
+        pellets.finish();
+    }
+
+    private static int find(int[] sets, int i) {
+        while (sets[i] != i) {
+            sets[i] = sets[sets[i]];
+            i = sets[i];
+        }
+        return i;
+    }
+
+    // Convierte una fila de celdas de la mitad izquierda en una fila de tiles completa
+    private static final class TileRow {
+        private final int width;
+        private final int half;
+        // Celdas del ancho completo
+        private final int cells;
+        private final PlaneWriter walls;
+        private final PlaneWriter pellets;
+
+        TileRow(int width, int half, PlaneWriter walls, PlaneWriter pellets) {
+            this.width = width;
+            this.half = half;
+            this.cells = 2 * half - 1;
+            this.walls = walls;
+            this.pellets = pellets;
+        }
+
+        // Celda de la mitad izquierda que corresponde a la celda k del ancho completo
+        private int mirror(int k) {
+            return k < half ? k : cells - 1 - k;
+        }
+
+        void emitBorder() throws IOException {
+            for (int x = 0; x < width; x++) {
+                tile(true, false);
+            }
+        }
+
+        // Fila de paredes entre dos filas de celdas: solo se abren los pasos verticales
+        void emitWalls(boolean[] open) throws IOException {
+            for (int x = 0; x < width; x++) {
+                boolean wall = x % 2 == 0 || !open[mirror(x / 2)];
+                tile(wall, !wall);
+            }
+        }
+
+        // Fila de celdas; en la fila de la casa, sus tres tiles no tienen puntos
+        void emitCells(boolean[] right, boolean tunnel, int house) throws IOException {
+            int center = width / 2;
+            for (int x = 0; x < width; x++) {
+                boolean wall;
+                if (x == 0 || x == width - 1) {
+                    wall = !tunnel;
+                } else if (x % 2 == 1) {
+                    wall = false;
+                } else {
+                    // Paso entre las celdas k y k + 1 del ancho completo
+                    int k = x / 2 - 1;
+                    wall = !(k < half - 1 ? right[k] : right[cells - 2 - k]);
+                }
+                tile(wall, !wall && (house < 0 || Math.abs(x - center) > 1));
+            }
+        }
+
+        private void tile(boolean wall, boolean pellet) throws IOException {
+            walls.append(wall);
+            pellets.append(pellet);
+        }
+    }
+
+    // Escribe un plano de bits tile a tile, en el mismo orden que LevelGrid
+    private abstract static class PlaneWriter {
+        private long word;
+        private int bits;
+
+        final void append(boolean set) throws IOException {
+            if (set) {
+                word |= 1L << bits;
+            }
+            if (++bits == 64) {
+                emit(word);
+                word = 0;
+                bits = 0;
+            }
+        }
+
+        void finish() throws IOException {
+            if (bits > 0) {
+                emit(word);
+                word = 0;
+                bits = 0;
+            }
+        }
+
+        abstract void emit(long word) throws IOException;
+    }
+
+    private static final class ArrayWriter extends PlaneWriter {
+        private final long[] plane;
+        private int next;
+
+        ArrayWriter(long[] plane) {
+            this.plane = plane;
+        }
+
+        @Override
+        void emit(long word) {
+            plane[next++] = word;
+        }
+    }
+
+    // Escribe por bloques en una posición fija del fichero (los dos planos a la vez)
+    private static final class ChannelWriter extends PlaneWriter {
+        private final FileChannel channel;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        ChannelWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        void emit(long word) throws IOException {
+            if (!chunk.hasRemaining()) {
+                flush();
+            }
+            chunk.putLong(word);
+        }
+
+        @Override
+        void finish() throws IOException {
+            super.finish();
+            flush();
+        }
+
+        private void flush() throws IOException {
+            chunk.flip();
+            position += writeFully(channel, chunk, position);
+            chunk.clear();
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            total += channel.write(buffer, position + total);
+        }
+        return total;
+    }
+
+    // Uso: java MazeGenerator ancho alto [semilla] [fichero]
+    // Sin fichero solo se genera en memoria y se mide el tiempo.
+    public static void main(String[] args) throws IOException {
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        MazeGenerator generator = new MazeGenerator(seed);
+        long start = System.nanoTime();
+        if (args.length > 3) {
+            generator.write(java.nio.file.Paths.get(args[3]), width, height);
+        } else {
+            generator.generate("Laberinto " + seed, width, height);
+        }
+        System.out.printf("%dx%d maze generated in %.1f ms%n", width, height, (System.nanoTime() - start) / 1e6);
+    }
+}
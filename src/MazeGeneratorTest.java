@@ -0,0 +1,151 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MazeGenerator class.
+ */
+public class MazeGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testGeneratedMazesArePlayable() {
+        int[][] sizes = {{7, 7}, {19, 19}, {23, 31}, {63, 41}, {131, 99}};
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 20; seed++) {
+                Level level = new MazeGenerator(seed).generate("test", size[0], size[1]);
+                assertPlayable(level, "seed " + seed + " size " + size[0] + "x" + size[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testSameSeedGivesSameMaze() {
+        LevelGrid a = new MazeGenerator(42).generate("a", 63, 41).getTemplate();
+        LevelGrid b = new MazeGenerator(42).generate("b", 63, 41).getTemplate();
+        LevelGrid c = new MazeGenerator(43).generate("c", 63, 41).getTemplate();
+        Assertions.assertTrue(sameCells(a, b));
+        Assertions.assertFalse(sameCells(a, c));
+    }
+
+    @Test
+    public void testStreamedFileMatchesMazeInMemory() throws IOException {
+        Path file = tempDir.resolve("generated.pmaz");
+        new MazeGenerator(7).write(file, 131, 99);
+        Level mapped = LevelLoader.load(file);
+        Level inMemory = new MazeGenerator(7).generate("generated", 131, 99);
+        Assertions.assertTrue(sameCells(inMemory.getTemplate(), mapped.getTemplate()));
+        Assertions.assertEquals(inMemory.getPacmanColumn(), mapped.getPacmanColumn());
+        Assertions.assertEquals(inMemory.getPacmanRow(), mapped.getPacmanRow());
+        Assertions.assertEquals(inMemory.getGhostHomeCount(), mapped.getGhostHomeCount());
+    }
+
+    @Test
+    public void testLargeMazeIsStreamedToDisk() throws IOException {
+        Path file = tempDir.resolve("large.pmaz");
+        new MazeGenerator(3).write(file, 1023, 1023);
+        assertPlayable(LevelLoader.load(file), "1023x1023");
+    }
+
+    @Test
+    public void testInvalidSizesAreRejected() {
+        MazeGenerator generator = new MazeGenerator(1);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate("x", 17, 19));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate("x", 19, 18));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate("x", 3, 5));
+        Assertions.assertTrue(MazeGenerator.isValidSize(GameEngine.BOARD_WIDTH, GameEngine.BOARD_HEIGHT));
+    }
+
+    private static boolean sameCells(LevelGrid a, LevelGrid b) {
+        if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) {
+            return false;
+        }
+        for (int row = 0; row < a.getHeight(); row++) {
+            for (int col = 0; col < a.getWidth(); col++) {
+                if (a.get(col, row) != b.get(col, row)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Simétrico, con túnel, sin callejones y con todos los puntos alcanzables desde la salida
+    private static void assertPlayable(Level level, String label) {
+        LevelGrid grid = level.getTemplate();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        boolean tunnel = false;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                Assertions.assertEquals(grid.isWallTile(col, row), grid.isWallTile(width - 1 - col, row),
+                        label + ": not symmetric at " + col + "," + row);
+                if (grid.isWallTile(col, row)) {
+                    continue;
+                }
+                tunnel |= col == 0;
+                int exits = 0;
+                for (int dir = 0; dir < 4; dir++) {
+                    if (neighbor(grid, col, row, dir) >= 0) {
+                        exits++;
+                    }
+                }
+                Assertions.assertTrue(exits >= 2, label + ": dead end at " + col + "," + row);
+            }
+        }
+        Assertions.assertTrue(tunnel, label + ": no tunnel");
+
+        // BFS desde la salida de Pacman
+        boolean[] seen = new boolean[width * height];
+        int[] queue = new int[width * height];
+        int start = level.getPacmanRow() * width + level.getPacmanColumn();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        seen[start] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbor(grid, cell % width, cell / width, dir);
+                if (next >= 0 && !seen[next]) {
+                    seen[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        int pellets = 0;
+        for (int cell = 0; cell < width * height; cell++) {
+            if (grid.get(cell % width, cell / width) == GameEngine.POINT) {
+                pellets++;
+                Assertions.assertTrue(seen[cell], label + ": unreachable pellet at " + cell);
+            }
+        }
+        Assertions.assertEquals(grid.countCells(GameEngine.POINT), pellets);
+        // Todo lo transitable tiene punto salvo las casas de los fantasmas
+        Assertions.assertEquals(grid.countCells(GameEngine.EMPTY), level.getGhostHomeCount(), label);
+        for (int i = 0; i < level.getGhostHomeCount(); i++) {
+            Assertions.assertTrue(seen[level.getGhostRow(i) * width + level.getGhostColumn(i)], label + ": ghost home");
+        }
+    }
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    // Vecino transitable (con túneles horizontales), o -1
+    private static int neighbor(LevelGrid grid, int col, int row, int dir) {
+        int width = grid.getWidth();
+        col = (col + DX[dir] + width) % width;
+        row += DY[dir];
+        if (row < 0 || row >= grid.getHeight() || grid.isWallTile(col, row)) {
+            return -1;
+        }
+        return row * width + col;
+    }
+}
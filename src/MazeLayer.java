@@ -0,0 +1,149 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Capa estática del laberinto: paredes y puntos se dibujan una sola vez por nivel en
+// una imagen compatible con la pantalla, y cada frame se copia con un único drawImage.
+// Cuando Pacman se come un punto se borra solo ese tile de la imagen.
+// Los laberintos demasiado grandes para una imagen se dibujan tile a tile, pero solo
+// los tiles que caen dentro del área de recorte.
+// La capa se dibuja con un tamaño de tile en píxeles (GameEngine.TILE_SIZE si no se
+// escala) y solo se vuelve a dibujar cuando cambia ese tamaño.
+public class MazeLayer {
+    private static final int TILE_SIZE = GameEngine.TILE_SIZE;
+    private static final int DOT_SIZE = 4;
+    private static final Color WALL_BORDER = Color.BLUE.darker();
+    // Píxeles como mucho de la imagen cacheada (16 MB en formato RGB de 32 bits)
+    public static final long MAX_CACHED_PIXELS = 2048L * 2048L;
+
+    private BufferedImage image;
+    private LevelGrid grid;
+    private int tileSize = TILE_SIZE;
+    private final Rectangle clip = new Rectangle();
+
+    // Indica si la capa actual corresponde a este mapa
+    public boolean isBuiltFor(LevelGrid grid) {
+        return isBuiltFor(grid, TILE_SIZE);
+    }
+
+    // Indica si la capa actual corresponde a este mapa dibujado con tiles de tileSize píxeles
+    public boolean isBuiltFor(LevelGrid grid, int tileSize) {
+        return this.grid == grid && this.tileSize == tileSize && (image != null || !fitsInImage(grid, tileSize));
+    }
+
+    // Obliga a reconstruir la capa aunque el mapa sea el mismo (los puntos han vuelto)
+    public void invalidate() {
+        grid = null;
+    }
+
+    private static boolean fitsInImage(LevelGrid grid, int tileSize) {
+        return (long) grid.getWidth() * tileSize * grid.getHeight() * tileSize <= MAX_CACHED_PIXELS;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public boolean isCached() {
+        return image != null;
+    }
+
+    public void rebuild(LevelGrid grid, GraphicsConfiguration config) {
+        rebuild(grid, config, TILE_SIZE);
+    }
+
+    public void rebuild(LevelGrid grid, GraphicsConfiguration config, int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("tileSize must be positive: " + tileSize);
+        }
+        this.grid = grid;
+        this.tileSize = tileSize;
+        if (!fitsInImage(grid, tileSize)) {
+            image = null;
+            return;
+        }
+        int width = grid.getWidth() * tileSize;
+        int height = grid.getHeight() * tileSize;
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = config != null
+                    ? config.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            for (int row = 0; row < grid.getHeight(); row++) {
+                for (int col = 0; col < grid.getWidth(); col++) {
+                    drawCell(g, col, row, grid.get(col, row), tileSize);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Con tiles de TILE_SIZE píxeles sale el mismo dibujo que antes de poder escalar
+    private static void drawCell(Graphics g, int col, int row, int cellValue, int tileSize) {
+        int pixelX = col * tileSize;
+        int pixelY = row * tileSize;
+        if (cellValue == GameEngine.WALL) {
+            // Dibujar pared con un borde que engorda con el tile
+            int border = Math.max(1, tileSize / TILE_SIZE);
+            g.setColor(Color.BLUE);
+            g.fillRect(pixelX, pixelY, tileSize, tileSize);
+            g.setColor(WALL_BORDER);
+            g.fillRect(pixelX, pixelY, tileSize, border);
+            g.fillRect(pixelX, pixelY + tileSize - border, tileSize, border);
+            g.fillRect(pixelX, pixelY, border, tileSize);
+            g.fillRect(pixelX + tileSize - border, pixelY, border, tileSize);
+        } else if (cellValue == GameEngine.POINT) {
+            // Dibujar punto
+            int dot = Math.max(1, DOT_SIZE * tileSize / TILE_SIZE);
+            g.setColor(Color.WHITE);
+            g.fillOval(pixelX + tileSize / 2 - dot / 2,
+                      pixelY + tileSize / 2 - dot / 2,
+                      dot, dot);
+        }
+    }
+
+    // Borra el punto de un tile de la imagen cacheada
+    public void erasePellet(int col, int row) {
+        if (image == null) {
+            return;
+        }
+        Graphics g = image.getGraphics();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(col * tileSize, row * tileSize, tileSize, tileSize);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    public void draw(Graphics g) {
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+            return;
+        }
+        // Sin imagen: solo los tiles visibles, leídos directamente del mapa
+        // Sin recorte getClipBounds deja el rectángulo como está: todo el laberinto
+        clip.setBounds(0, 0, grid.getWidth() * tileSize, grid.getHeight() * tileSize);
+        g.getClipBounds(clip);
+        int firstCol = Math.max(0, clip.x / tileSize);
+        int firstRow = Math.max(0, clip.y / tileSize);
+        int lastCol = Math.min(grid.getWidth() - 1, (clip.x + clip.width) / tileSize);
+        int lastRow = Math.min(grid.getHeight() - 1, (clip.y + clip.height) / tileSize);
+        g.setColor(Color.BLACK);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                drawCell(g, col, row, grid.get(col, row), tileSize);
+            }
+        }
+    }
+
+    BufferedImage getImage() {
+        return image;
+    }
+}
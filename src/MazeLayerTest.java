@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+/**
+ * Unit tests for the MazeLayer class.
+ */
+public class MazeLayerTest {
+
+    private static final int T = GameEngine.TILE_SIZE;
+
+    private GameEngine engine;
+    private MazeLayer layer;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new GameEngine();
+        layer = new MazeLayer();
+        layer.rebuild(engine.getGrid(), null);
+    }
+
+    private int pixel(int x, int y) {
+        return layer.getImage().getRGB(x, y) & 0xFFFFFF;
+    }
+
+    @Test
+    public void testImageCoversBoard() {
+        BufferedImage image = layer.getImage();
+        Assertions.assertEquals(engine.getGrid().getPixelWidth(), image.getWidth());
+        Assertions.assertEquals(engine.getGrid().getPixelHeight(), image.getHeight());
+        Assertions.assertTrue(layer.isBuiltFor(engine.getGrid()));
+    }
+
+    @Test
+    public void testWallsAndPelletsArePrerendered() {
+        // (0, 0) es pared y (1, 1) tiene un punto en el nivel 1
+        Assertions.assertEquals(Color.BLUE.getRGB() & 0xFFFFFF, pixel(T / 2, T / 2));
+        Assertions.assertEquals(GameEngine.POINT, engine.getCell(1, 1));
+        Assertions.assertEquals(Color.WHITE.getRGB() & 0xFFFFFF, pixel(T + T / 2, T + T / 2));
+    }
+
+    @Test
+    public void testErasePelletClearsOnlyThatTile() {
+        layer.erasePellet(1, 1);
+        Assertions.assertEquals(0, pixel(T + T / 2, T + T / 2));
+        Assertions.assertEquals(Color.WHITE.getRGB() & 0xFFFFFF, pixel(2 * T + T / 2, T + T / 2));
+    }
+
+    @Test
+    public void testRebuildAtLargerTileSize() {
+        layer.rebuild(engine.getGrid(), null, 3 * T);
+        Assertions.assertTrue(layer.isBuiltFor(engine.getGrid(), 3 * T));
+        Assertions.assertFalse(layer.isBuiltFor(engine.getGrid()));
+        Assertions.assertEquals(3 * engine.getGrid().getPixelWidth(), layer.getImage().getWidth());
+        // Borde de la pared más grueso, punto en el centro del tile y borrado del tile entero
+        Assertions.assertEquals(Color.BLUE.darker().getRGB() & 0xFFFFFF, pixel(2, 30));
+        Assertions.assertEquals(Color.BLUE.getRGB() & 0xFFFFFF, pixel(3, 30));
+        Assertions.assertEquals(Color.WHITE.getRGB() & 0xFFFFFF, pixel(3 * T + 3 * T / 2, 3 * T + 3 * T / 2));
+        layer.erasePellet(1, 1);
+        Assertions.assertEquals(0, pixel(3 * T + 3 * T / 2, 3 * T + 3 * T / 2));
+    }
+
+    @Test
+    public void testRebuildNeededAfterLevelChange() {
+        engine.loadLevel(2);
+        Assertions.assertFalse(layer.isBuiltFor(engine.getGrid()));
+    }
+
+    @Test
+    public void testHugeMazeDrawsOnlyVisibleTiles() {
+        LevelGrid huge = LevelTest.box(2048, 2048);
+        MazeLayer big = new MazeLayer();
+        big.rebuild(huge, null);
+        Assertions.assertFalse(big.isCached());
+        Assertions.assertTrue(big.isBuiltFor(huge));
+
+        BufferedImage view = new BufferedImage(3 * T, 3 * T, BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g = view.createGraphics();
+        // Ventana sobre los tiles (1000..1002, 0..2): fila 0 de pared, puntos debajo
+        g.translate(-1000 * T, 0);
+        g.setClip(1000 * T, 0, 3 * T, 3 * T);
+        big.draw(g);
+        g.dispose();
+        Assertions.assertEquals(Color.BLUE.getRGB() & 0xFFFFFF, view.getRGB(T / 2, T / 2) & 0xFFFFFF);
+        Assertions.assertEquals(Color.WHITE.getRGB() & 0xFFFFFF, view.getRGB(T + T / 2, T + T / 2) & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,82 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Eventos de JDK Flight Recorder con las medidas de GameMetrics. Esta clase solo se
+// carga si la JVM tiene JFR (ver GameMetrics), y sin una grabación activa que los pida
+// no se crea ningún evento: solo se consulta isEnabled().
+final class MetricsEvents {
+    private static final EventType TICK = EventType.getEventType(TickEvent.class);
+    private static final EventType FRAME = EventType.getEventType(FrameEvent.class);
+
+    private MetricsEvents() {
+    }
+
+    static void tick(long tick, long tickNanos, long ghostNanos) {
+        if (TICK.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.tick = tick;
+            event.tickTime = tickNanos;
+            event.ghostTime = ghostNanos;
+            event.commit();
+        }
+    }
+
+    static void frame(long paintNanos, long intervalNanos, long jitterNanos, long allocatedBytes) {
+        if (FRAME.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.paintTime = paintNanos;
+            event.frameInterval = intervalNanos;
+            event.jitter = jitterNanos;
+            event.allocated = allocatedBytes;
+            event.commit();
+        }
+    }
+
+    @Name("pacman.Tick")
+    @Label("Game Tick")
+    @Category("Pac-Man")
+    @Description("One GameEngine.step()")
+    @StackTrace(false)
+    static final class TickEvent extends Event {
+        @Label("Tick")
+        long tick;
+
+        @Label("Tick Time")
+        @Timespan
+        long tickTime;
+
+        @Label("Ghost Move Time")
+        @Timespan
+        long ghostTime;
+    }
+
+    @Name("pacman.Frame")
+    @Label("Rendered Frame")
+    @Category("Pac-Man")
+    @Description("One GameRenderer.render()")
+    @StackTrace(false)
+    static final class FrameEvent extends Event {
+        @Label("Paint Time")
+        @Timespan
+        long paintTime;
+
+        @Label("Frame Interval")
+        @Timespan
+        long frameInterval;
+
+        @Label("Frame Jitter")
+        @Timespan
+        long jitter;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+}
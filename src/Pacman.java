@@ -6,22 +6,38 @@ public class Pacman {
     private Direction direction = Direction.LEFT;
     private Direction nextDirection = Direction.LEFT;
     private int score = 0;
-    private Board board;
+    // Pasos dados, para animar la boca
+    private int animationStep = 0;
+    private GameEngine engine;
     private static final int SIZE = 20;
     private static final int SPEED = 5;
+    // Longs que ocupa el estado en una instantánea (ver GameSnapshot)
+    static final int STATE_LONGS = 3;
+    private static final Direction[] DIRECTIONS = Direction.values();
 
     public Pacman(int x, int y, Board board) {
+        this(x, y, board.getEngine());
+    }
+
+    public Pacman(int x, int y, GameEngine engine) {
         this.x = x;
         this.y = y;
-        this.board = board;
+        this.engine = engine;
     }
 
     public void draw(Graphics g) {
-        g.setColor(Color.YELLOW);
-        g.fillArc(x, y, SIZE, SIZE, direction.getAngle(), 300);
+        SpriteAtlas.shared().drawPacman(g, direction, getMouthFrame(), x, y);
+    }
+
+    // Boca abierta, media y cerrada, y vuelta a abrir: cambia cada dos pasos
+    int getMouthFrame() {
+        int phase = (animationStep / 2) % (2 * SpriteAtlas.MOUTH_FRAMES - 2);
+        return phase < SpriteAtlas.MOUTH_FRAMES ? phase : 2 * SpriteAtlas.MOUTH_FRAMES - 2 - phase;
     }
 
     public void move() {
+        int startX = x;
+        int startY = y;
         // Intentar cambiar a la siguiente dirección si es posible
         int nextX = x;
         int nextY = y;
@@ -33,7 +49,7 @@ public class Pacman {
             case DOWN: nextY = y + SPEED; break;
         }
         
-        if (board.canMove(nextX, nextY, SIZE)) {
+        if (engine.canMove(nextX, nextY, SIZE)) {
             direction = nextDirection;
             x = nextX;
             y = nextY;
@@ -49,25 +65,62 @@ public class Pacman {
                 case DOWN: nextY = y + SPEED; break;
             }
             
-            if (board.canMove(nextX, nextY, SIZE)) {
+            if (engine.canMove(nextX, nextY, SIZE)) {
                 x = nextX;
                 y = nextY;
             }
         }
         
         // Aplicar efecto túnel (wrap-around horizontal)
-        x = board.wrapX(x);
+        x = engine.wrapX(x);
+        if (x != startX || y != startY) {
+            animationStep++;
+        }
     }
 
     public void keyPressed(KeyEvent e) {
         switch (e.getKeyCode()) {
-            case KeyEvent.VK_LEFT: nextDirection = Direction.LEFT; break;
-            case KeyEvent.VK_RIGHT: nextDirection = Direction.RIGHT; break;
-            case KeyEvent.VK_UP: nextDirection = Direction.UP; break;
-            case KeyEvent.VK_DOWN: nextDirection = Direction.DOWN; break;
+            case KeyEvent.VK_LEFT: setNextDirection(Direction.LEFT); break;
+            case KeyEvent.VK_RIGHT: setNextDirection(Direction.RIGHT); break;
+            case KeyEvent.VK_UP: setNextDirection(Direction.UP); break;
+            case KeyEvent.VK_DOWN: setNextDirection(Direction.DOWN); break;
+        }
+    }
+
+    // Cambio de dirección sin teclado (simulación sin pantalla). Solo los cambios
+    // reales se notifican al motor, que es lo que guarda una repetición.
+    public void setNextDirection(Direction nextDirection) {
+        if (nextDirection != this.nextDirection) {
+            this.nextDirection = nextDirection;
+            engine.pacmanTurned(nextDirection);
         }
     }
 
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public Direction getNextDirection() {
+        return nextDirection;
+    }
+
+    int writeState(long[] state, int at) {
+        state[at++] = GameSnapshot.pack(x, y);
+        state[at++] = GameSnapshot.pack(score, animationStep);
+        state[at++] = GameSnapshot.pack(direction.ordinal(), nextDirection.ordinal());
+        return at;
+    }
+
+    int readState(long[] state, int at) {
+        x = GameSnapshot.high(state[at]);
+        y = GameSnapshot.low(state[at++]);
+        score = GameSnapshot.high(state[at]);
+        animationStep = GameSnapshot.low(state[at++]);
+        direction = DIRECTIONS[GameSnapshot.high(state[at])];
+        nextDirection = DIRECTIONS[GameSnapshot.low(state[at++])];
+        return at;
+    }
+
     public int getScore() {
         return score;
     }
@@ -60,4 +60,16 @@ public class PacmanTest {
         Assertions.assertEquals(300, testPacman.getY());
         Assertions.assertEquals(0, testPacman.getScore());
     }
+
+    @Test
+    public void testMouthAnimatesWhileMoving() {
+        Pacman moving = new Pacman(9 * Board.TILE_SIZE, 15 * Board.TILE_SIZE, board);
+        Assertions.assertEquals(0, moving.getMouthFrame());
+        boolean changed = false;
+        for (int i = 0; i < 4; i++) {
+            moving.move();
+            changed |= moving.getMouthFrame() != 0;
+        }
+        Assertions.assertTrue(changed);
+    }
 }
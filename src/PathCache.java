@@ -0,0 +1,116 @@
+// Camino A* cacheado de un fantasma hacia Pacman. Se reutiliza mientras Pacman siga
+// en el mismo tile y el fantasma siga sobre el camino; solo se vuelve a planificar
+// cuando Pacman cambia de tile, el fantasma se sale del camino o el paso está bloqueado.
+public class PathCache {
+    private int[] path = new int[64];
+    private int length;
+    // Posición del fantasma dentro del camino
+    private int index;
+    // Origen y destino con los que se planificó el camino actual
+    private int planFrom = -1;
+    private int planTarget = -1;
+    // Tras restaurar una instantánea el camino se recalcula en el siguiente uso: A* es
+    // determinista, así que sale el mismo camino y no hace falta guardarlo
+    private boolean stale;
+
+    private long hits;
+    private long misses;
+
+    // Dirección del siguiente paso desde ghostCell hacia targetCell, o null si ya
+    // está en el destino o no hay camino
+    public Direction next(AStarPathfinder pathfinder, int ghostCell, int targetCell) {
+        LevelGrid grid = pathfinder.getGrid();
+        if (stale) {
+            int restoredIndex = index;
+            plan(pathfinder, planFrom, planTarget);
+            index = restoredIndex;
+            stale = false;
+        }
+        if (length > 0 && targetCell == planTarget) {
+            if (index + 1 < length && path[index + 1] == ghostCell) {
+                index++;
+            }
+            if (path[index] == ghostCell) {
+                if (index + 1 >= length) {
+                    hits++;
+                    return null;
+                }
+                int step = path[index + 1];
+                if (!grid.isWallTile(step % grid.getWidth(), step / grid.getWidth())) {
+                    hits++;
+                    return direction(grid.getWidth(), ghostCell, step);
+                }
+            }
+        }
+        misses++;
+        plan(pathfinder, ghostCell, targetCell);
+        return length > 1 ? direction(grid.getWidth(), ghostCell, path[1]) : null;
+    }
+
+    // Longs que ocupa en una instantánea: solo el plan y la posición, no el camino
+    static final int STATE_LONGS = 2;
+
+    int writeState(long[] state, int at) {
+        state[at++] = GameSnapshot.pack(length, index);
+        state[at++] = GameSnapshot.pack(planFrom, planTarget);
+        return at;
+    }
+
+    int readState(long[] state, int at) {
+        length = GameSnapshot.high(state[at]);
+        index = GameSnapshot.low(state[at++]);
+        planFrom = GameSnapshot.high(state[at]);
+        planTarget = GameSnapshot.low(state[at++]);
+        stale = length > 0;
+        return at;
+    }
+
+    private void plan(AStarPathfinder pathfinder, int from, int target) {
+        planFrom = from;
+        planTarget = target;
+        index = 0;
+        int found = pathfinder.findPath(from, target);
+        if (found < 0) {
+            length = 0;
+            return;
+        }
+        if (found > path.length) {
+            path = new int[Math.max(found, path.length * 2)];
+        }
+        System.arraycopy(pathfinder.getPath(), 0, path, 0, found);
+        length = found;
+    }
+
+    // Dirección entre dos celdas adyacentes (teniendo en cuenta el túnel)
+    static Direction direction(int width, int from, int to) {
+        int fromRow = from / width;
+        int toRow = to / width;
+        if (fromRow != toRow) {
+            return toRow < fromRow ? Direction.UP : Direction.DOWN;
+        }
+        int dc = to % width - from % width;
+        return dc == -1 || dc == width - 1 ? Direction.LEFT : Direction.RIGHT;
+    }
+
+    public void invalidate() {
+        length = 0;
+        planFrom = -1;
+        planTarget = -1;
+    }
+
+    public int getPlanFrom() {
+        return planFrom;
+    }
+
+    public int getPlanTarget() {
+        return planTarget;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PathCache class.
+ */
+public class PathCacheTest {
+
+    private LevelGrid grid;
+    private AStarPathfinder pathfinder;
+    private PathCache cache;
+    private int width;
+
+    @BeforeEach
+    public void setUp() {
+        grid = new GameEngine(1).getGrid();
+        pathfinder = new AStarPathfinder(grid);
+        cache = new PathCache();
+        width = grid.getWidth();
+    }
+
+    private int cell(int col, int row) {
+        return row * width + col;
+    }
+
+    @Test
+    public void testFirstQueryIsMiss() {
+        Assertions.assertEquals(Direction.DOWN, cache.next(pathfinder, cell(1, 1), cell(1, 3)));
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testFollowingThePathHitsTheCache() {
+        cache.next(pathfinder, cell(1, 1), cell(1, 3));
+        // Mismo tile y luego el siguiente tile del camino: no hace falta replanificar
+        Assertions.assertEquals(Direction.DOWN, cache.next(pathfinder, cell(1, 1), cell(1, 3)));
+        Assertions.assertEquals(Direction.DOWN, cache.next(pathfinder, cell(1, 2), cell(1, 3)));
+        assertNull(cache.next(pathfinder, cell(1, 3), cell(1, 3)));
+        Assertions.assertEquals(3, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, pathfinder.getSearches());
+    }
+
+    @Test
+    public void testTargetChangeReplans() {
+        cache.next(pathfinder, cell(1, 1), cell(1, 3));
+        cache.next(pathfinder, cell(1, 1), cell(3, 1));
+        Assertions.assertEquals(2, cache.getMisses());
+        Assertions.assertEquals(cell(1, 1), cache.getPlanFrom());
+        Assertions.assertEquals(cell(3, 1), cache.getPlanTarget());
+    }
+
+    @Test
+    public void testLeavingThePathReplans() {
+        cache.next(pathfinder, cell(1, 1), cell(1, 3));
+        cache.next(pathfinder, cell(2, 1), cell(1, 3));
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.next(pathfinder, cell(1, 1), cell(1, 3));
+        cache.invalidate();
+        Assertions.assertEquals(-1, cache.getPlanTarget());
+        cache.next(pathfinder, cell(1, 1), cell(1, 3));
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testDirectionAcrossTunnel() {
+        Assertions.assertEquals(Direction.LEFT, PathCache.direction(width, cell(0, 9), cell(18, 9)));
+        Assertions.assertEquals(Direction.RIGHT, PathCache.direction(width, cell(18, 9), cell(0, 9)));
+        Assertions.assertEquals(Direction.UP, PathCache.direction(width, cell(1, 2), cell(1, 1)));
+    }
+}
@@ -0,0 +1,262 @@
+// Índice de los puntos que quedan en un nivel, sobre el plano de puntos de LevelGrid
+// (no lo copia). Guarda cuántos quedan en total, por fila y por bloque de
+// BLOCK_SIZE x BLOCK_SIZE tiles, así que el total es O(1) y las consultas saltan los
+// bloques vacíos sin mirarlos. Dentro de un bloque cada fila es un tramo de 16 bits del
+// plano: el punto más cercano de la fila sale con numberOfTrailingZeros/LeadingZeros.
+//
+// Las celdas se identifican como fila * ancho + columna. Las distancias son Manhattan
+// en tiles sin tener en cuenta paredes ni túneles; para distancias por el laberinto
+// está DistanceField.
+public class PelletIndex {
+    public static final int NONE = -1;
+    // Potencia de dos que divide 64: un tramo de fila de un bloque cabe en un long
+    public static final int BLOCK_SIZE = 16;
+    private static final int BLOCK_SHIFT = 4;
+
+    private final LevelGrid grid;
+    private final int width;
+    private final int height;
+    private final int blockColumns;
+    private final int blockRows;
+    private final int[] rowCounts;
+    private final int[] blockCounts;
+    private int remaining;
+
+    public PelletIndex(LevelGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        blockColumns = (width + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        blockRows = (height + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        rowCounts = new int[height];
+        blockCounts = new int[blockColumns * blockRows];
+        for (int row = 0; row < height; row++) {
+            int blockRow = (row >> BLOCK_SHIFT) * blockColumns;
+            for (int block = 0; block < blockColumns; block++) {
+                int col = block << BLOCK_SHIFT;
+                int count = Long.bitCount(grid.pelletRun(row * width + col, Math.min(BLOCK_SIZE, width - col)));
+                blockCounts[blockRow + block] += count;
+                rowCounts[row] += count;
+            }
+            remaining += rowCounts[row];
+        }
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public int getRowCount(int row) {
+        return rowCounts[row];
+    }
+
+    // Puntos del bloque que contiene la celda (col, row)
+    public int getBlockCount(int col, int row) {
+        return blockCounts[(row >> BLOCK_SHIFT) * blockColumns + (col >> BLOCK_SHIFT)];
+    }
+
+    public boolean contains(int col, int row) {
+        return grid.pelletRun(row * width + col, 1) != 0;
+    }
+
+    // Quita un punto del mapa y de los recuentos; devuelve false si no había
+    public boolean remove(int col, int row) {
+        if (!contains(col, row)) {
+            return false;
+        }
+        grid.set(col, row, GameEngine.EMPTY);
+        adjust(row * width + col, -1);
+        return true;
+    }
+
+    // Sustituye una página del plano de puntos (ver GameSnapshot) actualizando los
+    // recuentos solo con las celdas que cambian
+    void loadPage(int page, long[] data) {
+        int from = page * LevelGrid.PELLET_PAGE_LONGS;
+        for (int i = 0; i < data.length; i++) {
+            long current = grid.pelletWord(from + i);
+            for (long changed = current ^ data[i]; changed != 0; changed &= changed - 1) {
+                int bit = Long.numberOfTrailingZeros(changed);
+                adjust((from + i) << 6 | bit, (data[i] >>> bit & 1) != 0 ? 1 : -1);
+            }
+        }
+        grid.loadPelletPage(page, data);
+    }
+
+    private void adjust(int cell, int delta) {
+        int row = cell / width;
+        int col = cell - row * width;
+        rowCounts[row] += delta;
+        blockCounts[(row >> BLOCK_SHIFT) * blockColumns + (col >> BLOCK_SHIFT)] += delta;
+        remaining += delta;
+    }
+
+    // Punto más cercano a (col, row), o NONE si no queda ninguno. Recorre anillos de
+    // bloques alrededor del de la consulta y para en cuanto ningún bloque más lejano
+    // puede mejorar el mejor encontrado. Con empates gana la fila y columna menor.
+    public int nearest(int col, int row) {
+        if (remaining == 0) {
+            return NONE;
+        }
+        int blockColumn = col >> BLOCK_SHIFT;
+        int blockRow = row >> BLOCK_SHIFT;
+        int maxRing = Math.max(Math.max(blockColumn, blockColumns - 1 - blockColumn),
+                Math.max(blockRow, blockRows - 1 - blockRow));
+        int bestDistance = Integer.MAX_VALUE;
+        int bestCell = NONE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Un bloque del anillo ring está al menos a (ring - 1) * BLOCK_SIZE + 1 tiles
+            if (ring > 0 && (ring - 1) * BLOCK_SIZE + 1 > bestDistance) {
+                break;
+            }
+            int top = Math.max(0, blockRow - ring);
+            int bottom = Math.min(blockRows - 1, blockRow + ring);
+            for (int by = top; by <= bottom; by++) {
+                // En las filas intermedias del anillo solo cuentan los bloques de los extremos
+                int step = by == blockRow - ring || by == blockRow + ring ? 1 : 2 * ring;
+                for (int bx = blockColumn - ring; bx <= blockColumn + ring; bx += step) {
+                    if (bx < 0 || bx >= blockColumns || blockCounts[by * blockColumns + bx] == 0) {
+                        continue;
+                    }
+                    long found = nearestInBlock(bx, by, col, row, bestDistance);
+                    if (found < 0) {
+                        continue;
+                    }
+                    int distance = (int) (found >>> 32);
+                    int cell = (int) found;
+                    if (distance < bestDistance || (distance == bestDistance && cell < bestCell)) {
+                        bestDistance = distance;
+                        bestCell = cell;
+                    }
+                }
+            }
+        }
+        return bestCell;
+    }
+
+    // Mejor punto de un bloque como (distancia << 32 | celda), o -1 si no hay ninguno a
+    // distancia limit o menor
+    private long nearestInBlock(int blockColumn, int blockRow, int col, int row, int limit) {
+        int left = blockColumn << BLOCK_SHIFT;
+        int span = Math.min(BLOCK_SIZE, width - left);
+        int top = blockRow << BLOCK_SHIFT;
+        int bottom = Math.min(height, top + BLOCK_SIZE);
+        int gapX = col < left ? left - col : (col >= left + span ? col - (left + span - 1) : 0);
+        int gapY = row < top ? top - row : (row >= bottom ? row - (bottom - 1) : 0);
+        if (gapX + gapY > limit) {
+            return -1;
+        }
+        int bestDistance = limit;
+        int bestCell = Integer.MAX_VALUE;
+        for (int y = top; y < bottom; y++) {
+            int dy = Math.abs(y - row);
+            if (rowCounts[y] == 0 || dy + gapX > bestDistance) {
+                continue;
+            }
+            long bits = grid.pelletRun(y * width + left, span);
+            if (bits == 0) {
+                continue;
+            }
+            int x;
+            int offset = col - left;
+            if (offset < 0) {
+                x = Long.numberOfTrailingZeros(bits);
+            } else if (offset >= span) {
+                x = 63 - Long.numberOfLeadingZeros(bits);
+            } else {
+                // El más cercano a la izquierda (inclusive) y a la derecha de la columna
+                long before = bits & (-1L >>> (63 - offset));
+                long after = bits >>> offset;
+                int leftX = before == 0 ? -1 : 63 - Long.numberOfLeadingZeros(before);
+                int rightX = after == 0 ? -1 : offset + Long.numberOfTrailingZeros(after);
+                x = leftX < 0 || (rightX >= 0 && rightX - offset < offset - leftX) ? rightX : leftX;
+            }
+            int distance = Math.abs(left + x - col) + dy;
+            int cell = y * width + left + x;
+            if (distance < bestDistance || (distance == bestDistance && cell < bestCell)) {
+                bestDistance = distance;
+                bestCell = cell;
+            }
+        }
+        return bestCell == Integer.MAX_VALUE ? -1 : (long) bestDistance << 32 | bestCell;
+    }
+
+    // Puntos en el rectángulo [col0, col1) x [row0, row1), recortado al mapa. Los bloques
+    // cubiertos enteros se suman de sus recuentos; solo los bordes se cuentan con popcount.
+    public int countInRegion(int col0, int row0, int col1, int row1) {
+        col0 = Math.max(col0, 0);
+        row0 = Math.max(row0, 0);
+        col1 = Math.min(col1, width);
+        row1 = Math.min(row1, height);
+        if (col0 >= col1 || row0 >= row1) {
+            return 0;
+        }
+        if (col0 == 0 && col1 == width) {
+            int count = 0;
+            for (int row = row0; row < row1; row++) {
+                count += rowCounts[row];
+            }
+            return count;
+        }
+        // Bloques completos dentro del rectángulo (el último bloque puede ser más corto)
+        int bx0 = (col0 + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int bx1 = col1 == width ? blockColumns : col1 >> BLOCK_SHIFT;
+        int by0 = (row0 + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int by1 = row1 == height ? blockRows : row1 >> BLOCK_SHIFT;
+        if (bx0 >= bx1 || by0 >= by1) {
+            return countRows(col0, col1, row0, row1);
+        }
+        int innerCol0 = bx0 << BLOCK_SHIFT;
+        int innerCol1 = Math.min(width, bx1 << BLOCK_SHIFT);
+        int innerRow0 = by0 << BLOCK_SHIFT;
+        int innerRow1 = Math.min(height, by1 << BLOCK_SHIFT);
+        int count = 0;
+        for (int by = by0; by < by1; by++) {
+            for (int bx = bx0; bx < bx1; bx++) {
+                count += blockCounts[by * blockColumns + bx];
+            }
+        }
+        count += countRows(col0, col1, row0, innerRow0);
+        count += countRows(col0, col1, innerRow1, row1);
+        count += countRows(col0, innerCol0, innerRow0, innerRow1);
+        count += countRows(innerCol1, col1, innerRow0, innerRow1);
+        return count;
+    }
+
+    private int countRows(int col0, int col1, int row0, int row1) {
+        int count = 0;
+        for (int row = row0; row < row1; row++) {
+            if (rowCounts[row] == 0) {
+                continue;
+            }
+            int first = row * width;
+            for (int col = col0; col < col1; col += 64) {
+                count += Long.bitCount(grid.pelletRun(first + col, Math.min(64, col1 - col)));
+            }
+        }
+        return count;
+    }
+
+    // Escribe en cells las celdas con punto del rectángulo, por filas, hasta llenar el
+    // array; devuelve cuántas ha escrito. No reserva memoria.
+    public int findInRegion(int col0, int row0, int col1, int row1, int[] cells) {
+        col0 = Math.max(col0, 0);
+        row0 = Math.max(row0, 0);
+        col1 = Math.min(col1, width);
+        row1 = Math.min(row1, height);
+        int found = 0;
+        for (int row = row0; row < row1 && found < cells.length; row++) {
+            if (rowCounts[row] == 0) {
+                continue;
+            }
+            int first = row * width;
+            for (int col = col0; col < col1 && found < cells.length; col += 64) {
+                long bits = grid.pelletRun(first + col, Math.min(64, col1 - col));
+                for (; bits != 0 && found < cells.length; bits &= bits - 1) {
+                    cells[found++] = first + col + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PelletIndex class.
+ */
+public class PelletIndexTest {
+
+    // Mapa sin paredes con puntos al azar (density sobre 100)
+    private static LevelGrid randomGrid(int width, int height, int density, long seed) {
+        GameRandom random = new GameRandom(seed);
+        LevelGrid grid = new LevelGrid(width, height);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (random.nextInt(100) < density) {
+                    grid.set(col, row, GameEngine.POINT);
+                }
+            }
+        }
+        return grid;
+    }
+
+    private static int bruteNearest(LevelGrid grid, int col, int row) {
+        int best = Integer.MAX_VALUE;
+        int bestCell = PelletIndex.NONE;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                int distance = Math.abs(x - col) + Math.abs(y - row);
+                if (grid.get(x, y) == GameEngine.POINT && distance < best) {
+                    best = distance;
+                    bestCell = y * grid.getWidth() + x;
+                }
+            }
+        }
+        return bestCell;
+    }
+
+    private static int bruteCount(LevelGrid grid, int col0, int row0, int col1, int row1) {
+        int count = 0;
+        for (int y = Math.max(0, row0); y < Math.min(row1, grid.getHeight()); y++) {
+            for (int x = Math.max(0, col0); x < Math.min(col1, grid.getWidth()); x++) {
+                if (grid.get(x, y) == GameEngine.POINT) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testCountsMatchGrid() {
+        LevelGrid grid = randomGrid(83, 45, 30, 1);
+        PelletIndex index = new PelletIndex(grid);
+        Assertions.assertEquals(grid.countCells(GameEngine.POINT), index.getRemaining());
+        Assertions.assertEquals(bruteCount(grid, 0, 7, 83, 8), index.getRowCount(7));
+        Assertions.assertEquals(bruteCount(grid, 16, 32, 32, 45), index.getBlockCount(20, 40));
+    }
+
+    @Test
+    public void testRemoveUpdatesCounts() {
+        LevelGrid grid = randomGrid(40, 40, 100, 2);
+        PelletIndex index = new PelletIndex(grid);
+        Assertions.assertTrue(index.remove(5, 6));
+        Assertions.assertFalse(index.remove(5, 6));
+        Assertions.assertEquals(GameEngine.EMPTY, grid.get(5, 6));
+        Assertions.assertEquals(1599, index.getRemaining());
+        Assertions.assertEquals(39, index.getRowCount(6));
+        Assertions.assertEquals(255, index.getBlockCount(0, 0));
+        Assertions.assertFalse(index.contains(5, 6));
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        GameRandom random = new GameRandom(3);
+        for (int density : new int[] {0, 1, 5, 50}) {
+            LevelGrid grid = randomGrid(97, 61, density, density);
+            PelletIndex index = new PelletIndex(grid);
+            for (int i = 0; i < 300; i++) {
+                int col = random.nextInt(97);
+                int row = random.nextInt(61);
+                int expected = bruteNearest(grid, col, row);
+                int actual = index.nearest(col, row);
+                if (expected == PelletIndex.NONE) {
+                    Assertions.assertEquals(PelletIndex.NONE, actual);
+                } else {
+                    Assertions.assertNotEquals(PelletIndex.NONE, actual);
+                    Assertions.assertEquals(distance(expected, col, row, 97), distance(actual, col, row, 97),
+                            "density " + density + " query " + col + "," + row);
+                }
+                // Comer de vez en cuando para que los recuentos cambien entre consultas
+                if (actual != PelletIndex.NONE && i % 3 == 0) {
+                    index.remove(actual % 97, actual / 97);
+                }
+            }
+        }
+    }
+
+    private static int distance(int cell, int col, int row, int width) {
+        return Math.abs(cell % width - col) + Math.abs(cell / width - row);
+    }
+
+    @Test
+    public void testSinglePelletFarAway() {
+        LevelGrid grid = new LevelGrid(300, 200);
+        grid.set(299, 199, GameEngine.POINT);
+        PelletIndex index = new PelletIndex(grid);
+        Assertions.assertEquals(199 * 300 + 299, index.nearest(0, 0));
+        Assertions.assertEquals(199 * 300 + 299, index.nearest(299, 199));
+    }
+
+    @Test
+    public void testRegionQueries() {
+        LevelGrid grid = randomGrid(150, 90, 20, 4);
+        PelletIndex index = new PelletIndex(grid);
+        int[][] regions = {{0, 0, 150, 90}, {3, 5, 140, 77}, {16, 16, 48, 32}, {10, 10, 12, 12},
+                {-5, -5, 20, 200}, {100, 40, 100, 60}, {0, 20, 150, 21}, {130, 70, 150, 90}};
+        int[] cells = new int[150 * 90];
+        for (int[] r : regions) {
+            int expected = bruteCount(grid, r[0], r[1], r[2], r[3]);
+            Assertions.assertEquals(expected, index.countInRegion(r[0], r[1], r[2], r[3]));
+            int found = index.findInRegion(r[0], r[1], r[2], r[3], cells);
+            Assertions.assertEquals(expected, found);
+            for (int i = 0; i < found; i++) {
+                Assertions.assertEquals(GameEngine.POINT, grid.get(cells[i] % 150, cells[i] / 150));
+                Assertions.assertTrue(i == 0 || cells[i] > cells[i - 1]);
+            }
+        }
+        Assertions.assertEquals(3, index.findInRegion(0, 0, 150, 90, new int[3]));
+    }
+
+    @Test
+    public void testLoadPageUpdatesCounts() {
+        LevelGrid grid = randomGrid(200, 100, 50, 5);
+        PelletIndex index = new PelletIndex(grid);
+        long[] page = grid.copyPelletPage(1);
+        for (int col = 0; col < 200; col++) {
+            index.remove(col, 25);
+        }
+        Assertions.assertEquals(0, index.getRowCount(25));
+        index.loadPage(1, page);
+        Assertions.assertEquals(grid.countCells(GameEngine.POINT), index.getRemaining());
+        Assertions.assertEquals(bruteCount(grid, 0, 25, 200, 26), index.getRowCount(25));
+        Assertions.assertEquals(bruteCount(grid, 16, 16, 32, 32), index.getBlockCount(16, 16));
+    }
+
+    @Test
+    public void testEngineKeepsIndexInSync() {
+        GameEngine engine = new GameEngine(1, 0, 3, 7);
+        PelletIndex pellets = engine.getPellets();
+        Assertions.assertEquals(engine.getTotalPoints(), pellets.getRemaining());
+        GameSnapshot start = engine.snapshot();
+        engine.step(200);
+        Assertions.assertEquals(engine.getTotalPoints() - engine.getPointsEaten(), pellets.getRemaining());
+        engine.restore(start);
+        Assertions.assertEquals(engine.getTotalPoints(), engine.getPellets().getRemaining());
+    }
+}
@@ -0,0 +1,198 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Codificador PNG mínimo para los fotogramas de FrameExporter: sin filtro por fila y con
+// el nivel de deflate más rápido. El de ImageIO prueba los cinco filtros en cada fila y
+// es varias veces más lento con imágenes que son casi todo negro. Los fotogramas tienen
+// pocos colores, así que se escriben con paleta (un byte por píxel, un tercio de datos
+// que comprimir); si salen más de 256 colores se escriben en RGB.
+// No es seguro entre hilos: cada hilo codificador usa el suyo y reutiliza sus buffers.
+public final class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int COLOR_TYPE_RGB = 2;
+    private static final int COLOR_TYPE_PALETTE = 3;
+    private static final int MAX_PALETTE = 256;
+    // Tabla hash abierta de color a índice de paleta (potencia de dos, mitad vacía)
+    private static final int HASH_SIZE = 2 * MAX_PALETTE;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final byte[] header = new byte[13];
+    private final byte[] chunkHeader = new byte[8];
+    private final byte[] chunkTrailer = new byte[4];
+    private byte[] rows = new byte[0];
+    private byte[] compressed = new byte[0];
+    private int[] pixels = new int[0];
+    private final int[] hashColors = new int[HASH_SIZE];
+    private final short[] hashIndexes = new short[HASH_SIZE];
+    private final byte[] palette = new byte[3 * MAX_PALETTE];
+    private int paletteSize;
+
+    public void write(BufferedImage image, OutputStream out) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] direct = directPixels(image);
+        if (direct == null && pixels.length < width) {
+            pixels = new int[width];
+        }
+        boolean indexed = toIndexedRows(image, direct, width, height);
+        int size = indexed ? (1 + width) * height : toRgbRows(image, direct, width, height);
+
+        deflater.reset();
+        deflater.setInput(rows, 0, size);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, Math.max(64 * 1024, compressed.length * 2));
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        out.write(SIGNATURE);
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = (byte) (indexed ? COLOR_TYPE_PALETTE : COLOR_TYPE_RGB);
+        header[10] = 0;
+        header[11] = 0;
+        header[12] = 0;
+        writeChunk(out, "IHDR", header, header.length);
+        if (indexed) {
+            writeChunk(out, "PLTE", palette, 3 * paletteSize);
+        }
+        writeChunk(out, "IDAT", compressed, length);
+        writeChunk(out, "IEND", header, 0);
+    }
+
+    // Píxeles de la fila y: la propia imagen (a partir de y * width) o una copia de la fila
+    private int[] row(BufferedImage image, int[] direct, int width, int y) {
+        if (direct != null) {
+            return direct;
+        }
+        image.getRGB(0, y, width, 1, pixels, 0, width);
+        return pixels;
+    }
+
+    // Filas de índices de paleta con el byte de filtro 0 delante; false si hay más de
+    // MAX_PALETTE colores
+    private boolean toIndexedRows(BufferedImage image, int[] direct, int width, int height) {
+        int size = (1 + width) * height;
+        if (rows.length < size) {
+            rows = new byte[size];
+        }
+        paletteSize = 0;
+        Arrays.fill(hashIndexes, (short) -1);
+        int at = 0;
+        // Los píxeles iguales seguidos son lo normal: se recuerda el último
+        int lastColor = 0;
+        int lastIndex = -1;
+        for (int y = 0; y < height; y++) {
+            int[] row = row(image, direct, width, y);
+            int offset = direct != null ? y * width : 0;
+            rows[at++] = 0;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[offset + x] & 0xFFFFFF;
+                if (rgb != lastColor || lastIndex < 0) {
+                    lastIndex = paletteIndex(rgb);
+                    if (lastIndex < 0) {
+                        return false;
+                    }
+                    lastColor = rgb;
+                }
+                rows[at++] = (byte) lastIndex;
+            }
+        }
+        return true;
+    }
+
+    private int paletteIndex(int rgb) {
+        int slot = (rgb * 0x9E3779B1) >>> (32 - Integer.numberOfTrailingZeros(HASH_SIZE));
+        while (true) {
+            int index = hashIndexes[slot];
+            if (index < 0) {
+                if (paletteSize == MAX_PALETTE) {
+                    return -1;
+                }
+                index = paletteSize++;
+                hashColors[slot] = rgb;
+                hashIndexes[slot] = (short) index;
+                palette[3 * index] = (byte) (rgb >>> 16);
+                palette[3 * index + 1] = (byte) (rgb >>> 8);
+                palette[3 * index + 2] = (byte) rgb;
+                return index;
+            }
+            if (hashColors[slot] == rgb) {
+                return index;
+            }
+            slot = (slot + 1) & (HASH_SIZE - 1);
+        }
+    }
+
+    // Filas RGB con el byte de filtro 0 delante; devuelve los bytes escritos
+    private int toRgbRows(BufferedImage image, int[] direct, int width, int height) {
+        int size = (1 + width * 3) * height;
+        if (rows.length < size) {
+            rows = new byte[size];
+        }
+        int at = 0;
+        for (int y = 0; y < height; y++) {
+            int[] row = row(image, direct, width, y);
+            int offset = direct != null ? y * width : 0;
+            rows[at++] = 0;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[offset + x];
+                rows[at++] = (byte) (rgb >>> 16);
+                rows[at++] = (byte) (rgb >>> 8);
+                rows[at++] = (byte) rgb;
+            }
+        }
+        return size;
+    }
+
+    // Los píxeles de la propia imagen cuando es RGB empaquetado en ints y la fila y empieza
+    // en y * width (las de FrameExporter). Las subimágenes comparten el buffer de la imagen
+    // original con otro desplazamiento y otra longitud de fila: esas van por getRGB.
+    private static int[] directPixels(BufferedImage image) {
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB) {
+            return null;
+        }
+        WritableRaster raster = image.getRaster();
+        if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                || ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() != image.getWidth()
+                || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+                || raster.getDataBuffer().getOffset() != 0) {
+            return null;
+        }
+        return ((DataBufferInt) raster.getDataBuffer()).getData();
+    }
+
+    private void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        putInt(chunkHeader, 0, length);
+        for (int i = 0; i < 4; i++) {
+            chunkHeader[4 + i] = (byte) type.charAt(i);
+        }
+        crc.reset();
+        crc.update(chunkHeader, 4, 4);
+        crc.update(data, 0, length);
+        putInt(chunkTrailer, 0, (int) crc.getValue());
+        out.write(chunkHeader);
+        out.write(data, 0, length);
+        out.write(chunkTrailer);
+    }
+
+    private static void putInt(byte[] bytes, int at, int value) {
+        bytes[at] = (byte) (value >>> 24);
+        bytes[at + 1] = (byte) (value >>> 16);
+        bytes[at + 2] = (byte) (value >>> 8);
+        bytes[at + 3] = (byte) value;
+    }
+}
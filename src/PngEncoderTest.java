@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Unit tests for the PngEncoder class.
+ */
+public class PngEncoderTest {
+
+    private static BufferedImage roundTrip(PngEncoder encoder, BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.write(image, out);
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        Assertions.assertEquals(expected.getWidth(), actual.getWidth());
+        Assertions.assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assertions.assertEquals(expected.getRGB(x, y) & 0xFFFFFF, actual.getRGB(x, y) & 0xFFFFFF,
+                        "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testGameFrameRoundTripsWithPalette() throws IOException {
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        BufferedImage frame = new BufferedImage(engine.getGrid().getPixelWidth(),
+                engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        new GameRenderer(engine).render(g, null, 1.0);
+        g.dispose();
+        BufferedImage decoded = roundTrip(new PngEncoder(), frame);
+        Assertions.assertEquals(BufferedImage.TYPE_BYTE_INDEXED, decoded.getType());
+        assertSamePixels(frame, decoded);
+    }
+
+    @Test
+    public void testManyColorsFallBackToRgb() throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 4) << 8 | (x ^ y));
+            }
+        }
+        BufferedImage decoded = roundTrip(new PngEncoder(), image);
+        Assertions.assertNotEquals(BufferedImage.TYPE_BYTE_INDEXED, decoded.getType());
+        assertSamePixels(image, decoded);
+    }
+
+    @Test
+    public void testEncoderIsReusableAcrossSizesAndTypes() throws IOException {
+        PngEncoder encoder = new PngEncoder();
+        BufferedImage big = new BufferedImage(50, 40, BufferedImage.TYPE_INT_RGB);
+        big.setRGB(3, 4, 0x123456);
+        assertSamePixels(big, roundTrip(encoder, big));
+        // Sin acceso directo a los píxeles se leen fila a fila
+        BufferedImage small = new BufferedImage(7, 5, BufferedImage.TYPE_3BYTE_BGR);
+        small.setRGB(6, 4, 0xFFFF00);
+        assertSamePixels(small, roundTrip(encoder, small));
+        assertSamePixels(big, roundTrip(encoder, big));
+    }
+
+    @Test
+    public void testSubimageIsEncodedFromItsOwnPixels() throws IOException {
+        // La subimagen comparte el buffer del original, con desplazamiento y filas más largas
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 4) << 8);
+            }
+        }
+        BufferedImage sub = image.getSubimage(10, 20, 30, 16);
+        assertSamePixels(sub, roundTrip(new PngEncoder(), sub));
+        // Con pocos colores va por la paleta
+        BufferedImage plain = new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB);
+        plain.setRGB(25, 30, 0xFF0000);
+        BufferedImage corner = plain.getSubimage(20, 25, 10, 10);
+        assertSamePixels(corner, roundTrip(new PngEncoder(), corner));
+    }
+}
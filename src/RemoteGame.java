@@ -0,0 +1,144 @@
+import java.nio.ByteBuffer;
+
+// Copia en el cliente de una partida que corre en GameServer: se construye con el
+// mensaje FULL y se mantiene al día aplicando cada DELTA (ver GameProtocol).
+public class RemoteGame {
+    private long tick;
+    private int level;
+    private int score;
+    private int flags;
+    private int width;
+    private int height;
+    private long[] pellets = new long[0];
+    private int pelletCount;
+    // Pacman en la posición 0 y los fantasmas detrás
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private byte[] directions = new byte[0];
+    private long fullUpdates;
+    private long deltaUpdates;
+
+    // Aplica el contenido de una trama, sin la cabecera de longitud
+    public void apply(ByteBuffer message) {
+        int type = message.get();
+        if (type == GameProtocol.FULL) {
+            applyFull(message);
+        } else if (type == GameProtocol.DELTA) {
+            applyDelta(message);
+        } else {
+            throw new IllegalArgumentException("unknown server message type " + type);
+        }
+    }
+
+    private void applyFull(ByteBuffer in) {
+        tick = in.getLong();
+        level = in.getInt();
+        score = in.getInt();
+        flags = in.get();
+        width = in.getInt();
+        height = in.getInt();
+        pellets = new long[in.getInt()];
+        pelletCount = 0;
+        for (int i = 0; i < pellets.length; i++) {
+            pellets[i] = in.getLong();
+            pelletCount += Long.bitCount(pellets[i]);
+        }
+        int entities = in.get() & 0xFF;
+        xs = new int[entities];
+        ys = new int[entities];
+        directions = new byte[entities];
+        for (int i = 0; i < entities; i++) {
+            xs[i] = in.getInt();
+            ys[i] = in.getInt();
+            directions[i] = in.get();
+        }
+        fullUpdates++;
+    }
+
+    private void applyDelta(ByteBuffer in) {
+        if (xs.length == 0) {
+            throw new IllegalStateException("delta update before the full state");
+        }
+        tick += GameProtocol.getVarInt(in);
+        flags = in.get();
+        score += GameProtocol.getVarInt(in);
+        for (int moved = GameProtocol.getVarInt(in); moved > 0; moved--) {
+            int entity = GameProtocol.getVarInt(in);
+            int index = entity >>> 2;
+            directions[index] = (byte) (entity & 3);
+            xs[index] += GameProtocol.unzigzag(GameProtocol.getVarInt(in));
+            ys[index] += GameProtocol.unzigzag(GameProtocol.getVarInt(in));
+        }
+        for (int eaten = GameProtocol.getVarInt(in); eaten > 0; eaten--) {
+            int cell = GameProtocol.getVarInt(in);
+            long bit = 1L << cell;
+            if ((pellets[cell >>> 6] & bit) != 0) {
+                pellets[cell >>> 6] &= ~bit;
+                pelletCount--;
+            }
+        }
+        deltaUpdates++;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isWon() {
+        return (flags & GameProtocol.FLAG_WON) != 0;
+    }
+
+    public boolean isLost() {
+        return (flags & GameProtocol.FLAG_LOST) != 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean hasPellet(int col, int row) {
+        int cell = row * width + col;
+        return (pellets[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public int getPelletCount() {
+        return pelletCount;
+    }
+
+    // Entidad 0 es Pacman; 1..n los fantasmas
+    public int getEntityCount() {
+        return xs.length;
+    }
+
+    public int getX(int entity) {
+        return xs[entity];
+    }
+
+    public int getY(int entity) {
+        return ys[entity];
+    }
+
+    public Direction getDirection(int entity) {
+        return GameProtocol.direction(directions[entity]);
+    }
+
+    public long getFullUpdates() {
+        return fullUpdates;
+    }
+
+    public long getDeltaUpdates() {
+        return deltaUpdates;
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Repetición de una partida: semilla, parámetros de inicio y los cambios de dirección de
+// Pacman con el tick en que se produjeron. No hace falta nada más, porque toda la
+// aleatoriedad sale de la semilla (ver GameRandom) y la simulación no depende del reloj.
+// Al final se guardan la puntuación y el resumen del estado (GameEngine.stateHash) para
+// comprobar que la repetición llega exactamente al mismo estado.
+//
+// Formato binario (little endian): "PREP", versión, semilla, nivel inicial, inteligencia
+// de los fantasmas, número de fantasmas, niveles integrados (1 byte), ticks totales,
+// puntuación final, resumen final, número de eventos y bytes de eventos. Cada evento es
+// un varint con (ticks desde el evento anterior << 2 | dirección), así que un giro
+// ocupa uno o dos bytes.
+public final class ReplayLog {
+    public static final int MAGIC = 0x50455250; // "PREP" en little endian
+    public static final int VERSION = 1;
+    // Ocho enteros, tres longs y el indicador de niveles integrados
+    private static final int HEADER_BYTES = 8 * 4 + 3 * 8 + 1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final long seed;
+    private final int startLevel;
+    private final int ghostIntelligence;
+    private final int ghostCount;
+    private final boolean builtInLevels;
+    private final long endTick;
+    private final int finalScore;
+    private final long finalStateHash;
+    private final int eventCount;
+    private final byte[] events;
+
+    private ReplayLog(long seed, int startLevel, int ghostIntelligence, int ghostCount, boolean builtInLevels,
+                      long endTick, int finalScore, long finalStateHash, int eventCount, byte[] events) {
+        this.seed = seed;
+        this.startLevel = startLevel;
+        this.ghostIntelligence = ghostIntelligence;
+        this.ghostCount = ghostCount;
+        this.builtInLevels = builtInLevels;
+        this.endTick = endTick;
+        this.finalScore = finalScore;
+        this.finalStateHash = finalStateHash;
+        this.eventCount = eventCount;
+        this.events = events;
+    }
+
+    // Empieza a grabar una partida que aún no ha avanzado ningún tick
+    public static Recorder record(GameEngine engine) {
+        if (engine.getTickCount() != 0) {
+            throw new IllegalStateException("recording must start before the first tick");
+        }
+        Recorder recorder = new Recorder(engine);
+        engine.addListener(recorder);
+        return recorder;
+    }
+
+    // Graba los cambios de dirección de Pacman a medida que se producen
+    public static final class Recorder implements GameEngine.Listener {
+        private final GameEngine engine;
+        private final int startLevel;
+        private byte[] events = new byte[256];
+        private int size;
+        private int count;
+        private long lastTick;
+
+        private Recorder(GameEngine engine) {
+            this.engine = engine;
+            this.startLevel = engine.getCurrentLevel();
+        }
+
+        @Override
+        public synchronized void pacmanTurned(Direction direction) {
+            long tick = engine.getTickCount();
+            writeVarLong((tick - lastTick) << 2 | direction.ordinal());
+            lastTick = tick;
+            count++;
+        }
+
+        private void writeVarLong(long value) {
+            if (size + 10 > events.length) {
+                events = Arrays.copyOf(events, events.length * 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                events[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            events[size++] = (byte) value;
+        }
+
+        // Al volver a una instantánea se descartan los giros desde ese tick: los que
+        // sigan (re-simulados o nuevos) se vuelven a grabar
+        @Override
+        public synchronized void stateRestored() {
+            long tick = engine.getTickCount();
+            int position = 0;
+            long eventTick = 0;
+            for (int i = 0; i < count; i++) {
+                long event = readVarLong(events, position);
+                if (eventTick + (event >>> 2) >= tick) {
+                    size = position;
+                    count = i;
+                    break;
+                }
+                position += varLongSize(event);
+                eventTick += event >>> 2;
+            }
+            lastTick = eventTick;
+        }
+
+        public synchronized int getEventCount() {
+            return count;
+        }
+
+        // Cierra la grabación con el estado actual de la partida
+        public synchronized ReplayLog finish() {
+            return new ReplayLog(engine.getSeed(), startLevel, engine.getGhostIntelligence(), engine.getGhostCount(),
+                    engine.usesBuiltInLevels(), engine.getTickCount(), engine.getPacman().getScore(),
+                    engine.stateHash(), count, Arrays.copyOf(events, size));
+        }
+    }
+
+    // Vuelve a jugar la partida sin pantalla, tan rápido como se pueda
+    public GameEngine replay() {
+        return play(newEngine());
+    }
+
+    public GameEngine replay(Level[] levels) {
+        return play(newEngine(levels));
+    }
+
+    // Partida en el estado inicial de la repetición, para engancharle listeners (por
+    // ejemplo un FrameExporter) antes de jugarla con play
+    public GameEngine newEngine() {
+        if (!builtInLevels) {
+            throw new IllegalStateException("recorded with custom levels: use newEngine(Level[])");
+        }
+        return new GameEngine(startLevel, ghostIntelligence, ghostCount, seed);
+    }
+
+    public GameEngine newEngine(Level[] levels) {
+        return new GameEngine(levels, startLevel, ghostIntelligence, ghostCount, seed);
+    }
+
+    // Juega la repetición sobre una partida de newEngine que aún no ha avanzado
+    public GameEngine play(GameEngine engine) {
+        int position = 0;
+        int remaining = eventCount;
+        long eventTick = 0;
+        int direction = 0;
+        if (remaining > 0) {
+            long event = readVarLong(events, position);
+            position += varLongSize(event);
+            eventTick = event >>> 2;
+            direction = (int) (event & 3);
+        }
+        while (true) {
+            // Los giros grabados en el tick t se aplican antes de simular el tick t + 1
+            while (remaining > 0 && eventTick == engine.getTickCount()) {
+                engine.getPacman().setNextDirection(DIRECTIONS[direction]);
+                if (--remaining > 0) {
+                    long event = readVarLong(events, position);
+                    position += varLongSize(event);
+                    eventTick += event >>> 2;
+                    direction = (int) (event & 3);
+                }
+            }
+            if (engine.getTickCount() >= endTick || engine.isGameLost()) {
+                return engine;
+            }
+            engine.step();
+        }
+    }
+
+    private static long readVarLong(byte[] bytes, int position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    // Indica si una partida repetida ha terminado exactamente como la grabada
+    public boolean matches(GameEngine engine) {
+        return engine.getTickCount() == endTick && engine.getPacman().getScore() == finalScore
+                && engine.stateHash() == finalStateHash;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    public long getFinalStateHash() {
+        return finalStateHash;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    // Bytes que ocupa la repetición en formato binario
+    public int getEncodedSize() {
+        return HEADER_BYTES + events.length;
+    }
+
+    // ---- Formato binario ----
+
+    public void write(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(Integer.reverseBytes(MAGIC));
+        out.writeInt(Integer.reverseBytes(VERSION));
+        out.writeLong(Long.reverseBytes(seed));
+        out.writeInt(Integer.reverseBytes(startLevel));
+        out.writeInt(Integer.reverseBytes(ghostIntelligence));
+        out.writeInt(Integer.reverseBytes(ghostCount));
+        out.writeByte(builtInLevels ? 1 : 0);
+        out.writeLong(Long.reverseBytes(endTick));
+        out.writeInt(Integer.reverseBytes(finalScore));
+        out.writeLong(Long.reverseBytes(finalStateHash));
+        out.writeInt(Integer.reverseBytes(eventCount));
+        out.writeInt(Integer.reverseBytes(events.length));
+        out.write(events);
+        out.flush();
+    }
+
+    public static ReplayLog read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in, file.getFileName().toString());
+        }
+    }
+
+    public static ReplayLog read(InputStream stream, String name) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (Integer.reverseBytes(in.readInt()) != MAGIC) {
+            throw new IOException(name + ": not a replay file");
+        }
+        int version = Integer.reverseBytes(in.readInt());
+        if (version != VERSION) {
+            throw new IOException(name + ": unsupported replay version " + version);
+        }
+        long seed = Long.reverseBytes(in.readLong());
+        int startLevel = Integer.reverseBytes(in.readInt());
+        int ghostIntelligence = Integer.reverseBytes(in.readInt());
+        int ghostCount = Integer.reverseBytes(in.readInt());
+        boolean builtInLevels = in.readByte() != 0;
+        long endTick = Long.reverseBytes(in.readLong());
+        int finalScore = Integer.reverseBytes(in.readInt());
+        long finalStateHash = Long.reverseBytes(in.readLong());
+        int eventCount = Integer.reverseBytes(in.readInt());
+        int length = Integer.reverseBytes(in.readInt());
+        if (startLevel <= 0 || ghostCount < 0 || endTick < 0 || eventCount < 0 || length < eventCount
+                || length > 10L * eventCount) {
+            throw new IOException(name + ": corrupt replay header");
+        }
+        byte[] events = new byte[length];
+        in.readFully(events);
+        return new ReplayLog(seed, startLevel, ghostIntelligence, ghostCount, builtInLevels, endTick, finalScore,
+                finalStateHash, eventCount, events);
+    }
+
+    // Uso: java ReplayLog fichero
+    // Repite la partida sin pantalla y comprueba que termina en el mismo estado.
+    public static void main(String[] args) throws IOException {
+        ReplayLog log = read(Paths.get(args[0]));
+        long start = System.nanoTime();
+        GameEngine engine = log.replay();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("seed=%d ticks=%d events=%d size=%d bytes%n",
+                log.getSeed(), log.getEndTick(), log.getEventCount(), log.getEncodedSize());
+        System.out.printf("replayed in %.3fs (%.0f ticks/s), score %d, %s%n", seconds,
+                log.getEndTick() / Math.max(seconds, 1e-9), engine.getPacman().getScore(),
+                log.matches(engine) ? "identical final state" : "FINAL STATE DIFFERS");
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ReplayLog class.
+ */
+public class ReplayLogTest {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Juega hasta maxTicks con un jugador aleatorio que gira en los cruces de tiles
+    private static void play(GameEngine engine, long playerSeed, int maxTicks) {
+        SplittableRandom player = new SplittableRandom(playerSeed);
+        for (int i = 0; i < maxTicks && !engine.isGameLost(); i++) {
+            Pacman pacman = engine.getPacman();
+            if (pacman.getX() % GameEngine.TILE_SIZE == 0 && pacman.getY() % GameEngine.TILE_SIZE == 0
+                    && player.nextInt(3) == 0) {
+                pacman.setNextDirection(DIRECTIONS[player.nextInt(DIRECTIONS.length)]);
+            }
+            engine.step();
+        }
+    }
+
+    @Test
+    public void testReplayReachesIdenticalState() {
+        for (long seed = 1; seed <= 5; seed++) {
+            GameEngine engine = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, seed);
+            ReplayLog.Recorder recorder = ReplayLog.record(engine);
+            play(engine, seed * 31, 5_000);
+            ReplayLog log = recorder.finish();
+            Assertions.assertTrue(log.getEventCount() > 0);
+
+            GameEngine replayed = log.replay();
+            Assertions.assertTrue(log.matches(replayed), "seed " + seed);
+            Assertions.assertEquals(engine.stateHash(), replayed.stateHash());
+            Assertions.assertEquals(engine.getTickCount(), replayed.getTickCount());
+            Assertions.assertEquals(engine.getPacman().getScore(), replayed.getPacman().getScore());
+        }
+    }
+
+    @Test
+    public void testBinaryRoundTripIsCompact() throws IOException {
+        GameEngine engine = new GameEngine(2, 1, 5, 42);
+        ReplayLog.Recorder recorder = ReplayLog.record(engine);
+        play(engine, 9, 3_000);
+        ReplayLog log = recorder.finish();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        log.write(bytes);
+        Assertions.assertEquals(log.getEncodedSize(), bytes.size());
+        // Los giros están separados por pocos ticks: como mucho dos bytes cada uno
+        Assertions.assertTrue(bytes.size() <= 64 + 2 * log.getEventCount());
+
+        ReplayLog read = ReplayLog.read(new ByteArrayInputStream(bytes.toByteArray()), "test");
+        Assertions.assertEquals(log.getSeed(), read.getSeed());
+        Assertions.assertEquals(log.getEventCount(), read.getEventCount());
+        Assertions.assertTrue(read.matches(read.replay()));
+    }
+
+    @Test
+    public void testReplayWithCustomLevels() {
+        Level[] levels = {GameEngine.getBuiltInLevel(3)};
+        GameEngine engine = new GameEngine(levels, 1, 2, 3, 77);
+        ReplayLog.Recorder recorder = ReplayLog.record(engine);
+        play(engine, 5, 2_000);
+        ReplayLog log = recorder.finish();
+        assertThrows(IllegalStateException.class, log::replay);
+        Assertions.assertTrue(log.matches(log.replay(levels)));
+    }
+
+    @Test
+    public void testDifferentSeedDoesNotMatch() {
+        GameEngine engine = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 1);
+        ReplayLog.Recorder recorder = ReplayLog.record(engine);
+        play(engine, 3, 500);
+        ReplayLog log = recorder.finish();
+
+        GameEngine other = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 2);
+        play(other, 3, 500);
+        Assertions.assertFalse(log.matches(other));
+    }
+
+    @Test
+    public void testRecordingMustStartAtFirstTick() {
+        GameEngine engine = new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, 1);
+        engine.step();
+        assertThrows(IllegalStateException.class, () -> ReplayLog.record(engine));
+    }
+
+    @Test
+    public void testCorruptFilesAreRejected() {
+        byte[] junk = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> ReplayLog.read(new ByteArrayInputStream(junk), "junk"));
+    }
+}
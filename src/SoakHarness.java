@@ -0,0 +1,476 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+// Prueba de larga duración: juega una partida sin pantalla durante cientos de millones
+// de ticks, pasando por todos los niveles (al perder se empieza en el siguiente), y cada
+// ventana de ticks mide el ritmo de ticks, el heap que queda vivo tras el último GC y lo
+// que reserva el hilo de la simulación. También vigila a Pacman y a los fantasmas: si
+// alguno pasa stuckTicks ticks sin moverse (fuera de las pausas entre niveles) cuenta
+// como atasco. Las ventanas salen como CSV y el resumen final como clave=valor, que un
+// trabajo nocturno puede comparar con umbrales (ver Report.check).
+public class SoakHarness {
+    public static final String SAMPLE_HEADER =
+            "tick,seconds,ticks_per_sec,heap_after_gc_bytes,alloc_bytes_per_tick,level,stuck_events";
+    // Pacman cambia cada tantos ticks a una de las salidas abiertas de su tile, al azar
+    // (con direcciones cualesquiera se quedaba quieto en los callejones y contaba como atasco)
+    private static final int TURN_TICKS = 16;
+    // Atascos que se guardan con detalle en el informe
+    private static final int MAX_STUCK_EXAMPLES = 10;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Niveles de fichero, o null para los integrados seguidos de los generados
+    private final Level[] levels;
+    private final long ticks;
+    private final long window;
+    private final int stuckTicks;
+    private final int maxLevel;
+    private final long seed;
+
+    // Con los niveles integrados y los generados hasta maxLevel
+    public SoakHarness(long ticks, long window, int stuckTicks, int maxLevel, long seed) {
+        this(null, ticks, window, stuckTicks, maxLevel, seed);
+    }
+
+    // Con niveles cargados de fichero (se pasa por todos)
+    public SoakHarness(Level[] levels, long ticks, long window, int stuckTicks, long seed) {
+        this(levels.clone(), ticks, window, stuckTicks, levels.length, seed);
+    }
+
+    private SoakHarness(Level[] levels, long ticks, long window, int stuckTicks, int maxLevel, long seed) {
+        if (ticks < 1 || window < 1) {
+            throw new IllegalArgumentException("ticks and window must be positive: " + ticks + ", " + window);
+        }
+        if (stuckTicks < 1) {
+            throw new IllegalArgumentException("stuckTicks must be positive: " + stuckTicks);
+        }
+        if (maxLevel < 1) {
+            throw new IllegalArgumentException("maxLevel must be at least 1: " + maxLevel);
+        }
+        this.levels = levels;
+        this.ticks = ticks;
+        this.window = window;
+        this.stuckTicks = stuckTicks;
+        this.maxLevel = maxLevel;
+        this.seed = seed;
+    }
+
+    // Ejecuta la prueba escribiendo una línea CSV por ventana en samples (null = ninguna)
+    public Report run(PrintStream samples) {
+        GameEngine engine = levels != null
+                ? new GameEngine(levels, 1, 0, GameEngine.DEFAULT_GHOST_COUNT, seed)
+                : new GameEngine(1, 0, GameEngine.DEFAULT_GHOST_COUNT, seed);
+        GameRandom random = new GameRandom(GameRandom.mix64(seed));
+        Report report = new Report();
+        // Posición de cada entidad (0 Pacman, i + 1 el fantasma i) y tick en que cambió
+        int entities = engine.getGhostCount() + 1;
+        int[] lastX = new int[entities];
+        int[] lastY = new int[entities];
+        long[] movedTick = new long[entities];
+        boolean[] flagged = new boolean[entities];
+        int startLevel = 1;
+        int level = engine.getCurrentLevel();
+        resetPositions(engine, lastX, lastY, movedTick, flagged, 0);
+
+        if (samples != null) {
+            samples.println(SAMPLE_HEADER);
+        }
+        long start = System.nanoTime();
+        long windowStart = start;
+        long allocatedStart = AllocationMeter.currentThreadAllocatedBytes();
+        long windowAllocated = allocatedStart;
+        for (long tick = 1; tick <= ticks; tick++) {
+            if (tick % TURN_TICKS == 0) {
+                steer(engine, random);
+            }
+            engine.step();
+
+            boolean reloaded = false;
+            if (engine.isGameLost()) {
+                // Siguiente partida empezando en el siguiente nivel
+                report.games++;
+                startLevel = startLevel % maxLevel + 1;
+                engine.loadLevel(startLevel);
+                reloaded = true;
+            } else if (engine.getCurrentLevel() != level) {
+                report.levelsCleared++;
+                if (engine.getCurrentLevel() > maxLevel) {
+                    engine.loadLevel(1);
+                }
+                reloaded = true;
+            }
+            if (reloaded || engine.isGameWon()) {
+                // Posiciones nuevas, o la pausa entre niveles en la que nadie se mueve
+                level = engine.getCurrentLevel();
+                report.maxLevelReached = Math.max(report.maxLevelReached, level);
+                resetPositions(engine, lastX, lastY, movedTick, flagged, tick);
+            } else {
+                checkStuck(engine, report, lastX, lastY, movedTick, flagged, tick);
+            }
+
+            if (tick % window == 0 || tick == ticks) {
+                long now = System.nanoTime();
+                long allocated = AllocationMeter.currentThreadAllocatedBytes();
+                long windowTicks = tick % window == 0 ? window : tick % window;
+                double seconds = (now - windowStart) / 1e9;
+                double ticksPerSecond = windowTicks / Math.max(seconds, 1e-9);
+                double allocPerTick = allocated < 0 ? -1 : (double) (allocated - windowAllocated) / windowTicks;
+                long heap = heapAfterGc();
+                report.addSample(tick, ticksPerSecond, heap);
+                if (samples != null) {
+                    samples.printf("%d,%.3f,%.0f,%d,%.3f,%d,%d%n", tick, (now - start) / 1e9, ticksPerSecond, heap,
+                            allocPerTick, level, report.stuckEvents);
+                    samples.flush();
+                }
+                windowStart = now;
+                windowAllocated = allocated;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = AllocationMeter.currentThreadAllocatedBytes();
+        report.finish(ticks, elapsed, allocated < 0 || allocatedStart < 0 ? -1 : allocated - allocatedStart);
+        return report;
+    }
+
+    private static void steer(GameEngine engine, GameRandom random) {
+        Pacman pacman = engine.getPacman();
+        TileExits tileExits = engine.getTileExits();
+        int col = (pacman.getX() + GameEngine.TILE_SIZE / 2) / GameEngine.TILE_SIZE % tileExits.getWidth();
+        int row = (pacman.getY() + GameEngine.TILE_SIZE / 2) / GameEngine.TILE_SIZE;
+        int exits = tileExits.getExits(row * tileExits.getWidth() + col);
+        if (exits == 0) {
+            pacman.setNextDirection(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+            return;
+        }
+        // La k-ésima salida abierta
+        for (int skip = random.nextInt(Integer.bitCount(exits)); skip > 0; skip--) {
+            exits &= exits - 1;
+        }
+        pacman.setNextDirection(DIRECTIONS[Integer.numberOfTrailingZeros(exits)]);
+    }
+
+    private static void resetPositions(GameEngine engine, int[] lastX, int[] lastY, long[] movedTick,
+                                       boolean[] flagged, long tick) {
+        Ghost[] ghosts = engine.getGhosts();
+        for (int i = 0; i < lastX.length; i++) {
+            lastX[i] = i == 0 ? engine.getPacman().getX() : ghosts[i - 1].getX();
+            lastY[i] = i == 0 ? engine.getPacman().getY() : ghosts[i - 1].getY();
+            movedTick[i] = tick;
+            flagged[i] = false;
+        }
+    }
+
+    private void checkStuck(GameEngine engine, Report report, int[] lastX, int[] lastY, long[] movedTick,
+                            boolean[] flagged, long tick) {
+        Ghost[] ghosts = engine.getGhosts();
+        for (int i = 0; i < lastX.length; i++) {
+            int x = i == 0 ? engine.getPacman().getX() : ghosts[i - 1].getX();
+            int y = i == 0 ? engine.getPacman().getY() : ghosts[i - 1].getY();
+            if (x != lastX[i] || y != lastY[i]) {
+                if (flagged[i]) {
+                    report.stuckMaxTicks = Math.max(report.stuckMaxTicks, tick - movedTick[i]);
+                }
+                lastX[i] = x;
+                lastY[i] = y;
+                movedTick[i] = tick;
+                flagged[i] = false;
+            } else if (!flagged[i] && tick - movedTick[i] >= stuckTicks) {
+                // Un atasco cuenta una vez aunque dure mucho más
+                flagged[i] = true;
+                report.stuckEvents++;
+                report.stuckMaxTicks = Math.max(report.stuckMaxTicks, tick - movedTick[i]);
+                if (report.stuckExamples.size() < MAX_STUCK_EXAMPLES) {
+                    report.stuckExamples.add("tick " + tick + " level " + engine.getCurrentLevel() + " "
+                            + (i == 0 ? "pacman" : "ghost " + (i - 1)) + " at tile "
+                            + x / GameEngine.TILE_SIZE + "," + y / GameEngine.TILE_SIZE);
+                }
+            }
+        }
+    }
+
+    // Heap ocupado justo después del GC más reciente, en bytes; -1 si aún no ha habido
+    // ninguno o la JVM no lo expone
+    static long heapAfterGc() {
+        Set<String> heapPools = new HashSet<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+        com.sun.management.GcInfo latest = null;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof com.sun.management.GarbageCollectorMXBean) {
+                com.sun.management.GcInfo info = ((com.sun.management.GarbageCollectorMXBean) collector).getLastGcInfo();
+                if (info != null && (latest == null || info.getEndTime() > latest.getEndTime())) {
+                    latest = info;
+                }
+            }
+        }
+        if (latest == null) {
+            return -1;
+        }
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> pool : latest.getMemoryUsageAfterGc().entrySet()) {
+            if (heapPools.contains(pool.getKey())) {
+                used += pool.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+
+    // Resumen de la prueba. Las claves de toProperties son las que se pueden limitar con
+    // umbrales "min.clave" y "max.clave".
+    public static class Report {
+        private long ticks;
+        private long elapsedNanos;
+        private long allocatedBytes;
+        private long games;
+        private long levelsCleared;
+        private int maxLevelReached = 1;
+        private long stuckEvents;
+        private long stuckMaxTicks;
+        private final List<String> stuckExamples = new ArrayList<>();
+        // Una entrada por ventana
+        private final List<long[]> heapSamples = new ArrayList<>();
+        private final List<Double> throughputSamples = new ArrayList<>();
+
+        void addSample(long tick, double ticksPerSecond, long heapAfterGc) {
+            throughputSamples.add(ticksPerSecond);
+            if (heapAfterGc >= 0) {
+                heapSamples.add(new long[] {tick, heapAfterGc});
+            }
+        }
+
+        void finish(long ticks, long elapsedNanos, long allocatedBytes) {
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public double getTicksPerSecond() {
+            return ticks / Math.max(elapsedNanos / 1e9, 1e-9);
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getLevelsCleared() {
+            return levelsCleared;
+        }
+
+        public int getMaxLevelReached() {
+            return maxLevelReached;
+        }
+
+        public long getStuckEvents() {
+            return stuckEvents;
+        }
+
+        public long getStuckMaxTicks() {
+            return stuckMaxTicks;
+        }
+
+        public List<String> getStuckExamples() {
+            return stuckExamples;
+        }
+
+        public int getWindowCount() {
+            return throughputSamples.size();
+        }
+
+        // Media de ticks por segundo de un cuarto de las ventanas: el primero sin contar la
+        // primera ventana (calentamiento del JIT) o el último
+        private double quarterThroughput(boolean last) {
+            int count = throughputSamples.size();
+            int from = count > 1 ? 1 : 0;
+            int quarter = Math.max(1, (count - from) / 4);
+            int begin = last ? count - quarter : from;
+            double sum = 0;
+            for (int i = begin; i < begin + quarter; i++) {
+                sum += throughputSamples.get(i);
+            }
+            return sum / quarter;
+        }
+
+        // Pendiente por mínimos cuadrados del heap tras GC, en bytes por millón de ticks
+        public double getHeapDriftPerMillionTicks() {
+            int n = heapSamples.size();
+            if (n < 2) {
+                return 0;
+            }
+            double meanX = 0;
+            double meanY = 0;
+            for (long[] sample : heapSamples) {
+                meanX += sample[0];
+                meanY += sample[1];
+            }
+            meanX /= n;
+            meanY /= n;
+            double covariance = 0;
+            double variance = 0;
+            for (long[] sample : heapSamples) {
+                covariance += (sample[0] - meanX) * (sample[1] - meanY);
+                variance += (sample[0] - meanX) * (sample[0] - meanX);
+            }
+            return variance == 0 ? 0 : covariance / variance * 1_000_000;
+        }
+
+        public Map<String, String> toProperties() {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("ticks", Long.toString(ticks));
+            values.put("seconds", format(elapsedNanos / 1e9));
+            values.put("games", Long.toString(games));
+            values.put("levels_cleared", Long.toString(levelsCleared));
+            values.put("max_level_reached", Integer.toString(maxLevelReached));
+            values.put("windows", Integer.toString(getWindowCount()));
+            values.put("ticks_per_sec", format(getTicksPerSecond()));
+            if (!throughputSamples.isEmpty()) {
+                double first = quarterThroughput(false);
+                double last = quarterThroughput(true);
+                values.put("ticks_per_sec_first_quarter", format(first));
+                values.put("ticks_per_sec_last_quarter", format(last));
+                values.put("ticks_per_sec_ratio", format(last / first));
+            }
+            if (!heapSamples.isEmpty()) {
+                long max = 0;
+                for (long[] sample : heapSamples) {
+                    max = Math.max(max, sample[1]);
+                }
+                values.put("heap_after_gc_first", Long.toString(heapSamples.get(0)[1]));
+                values.put("heap_after_gc_last", Long.toString(heapSamples.get(heapSamples.size() - 1)[1]));
+                values.put("heap_after_gc_max", Long.toString(max));
+                values.put("heap_drift_bytes_per_million_ticks", format(getHeapDriftPerMillionTicks()));
+            }
+            if (allocatedBytes >= 0) {
+                values.put("alloc_bytes_per_tick", format((double) allocatedBytes / Math.max(1, ticks)));
+            }
+            values.put("stuck_events", Long.toString(stuckEvents));
+            values.put("stuck_max_ticks", Long.toString(stuckMaxTicks));
+            for (int i = 0; i < stuckExamples.size(); i++) {
+                values.put("stuck_example_" + i, stuckExamples.get(i));
+            }
+            return values;
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.3f", value);
+        }
+
+        public void write(PrintStream out) {
+            for (Map.Entry<String, String> value : toProperties().entrySet()) {
+                out.println(value.getKey() + "=" + value.getValue());
+            }
+        }
+
+        public void write(Path file) throws IOException {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+                write(out);
+            }
+        }
+
+        // Compara con umbrales "min.clave=valor" y "max.clave=valor" y devuelve los que no
+        // se cumplen (vacía si todo va bien). Una clave que falta en el informe también falla.
+        public List<String> check(Properties thresholds) {
+            Map<String, String> values = toProperties();
+            List<String> violations = new ArrayList<>();
+            for (String name : thresholds.stringPropertyNames()) {
+                boolean min = name.startsWith("min.");
+                if (!min && !name.startsWith("max.")) {
+                    continue;
+                }
+                String key = name.substring(4);
+                double limit = Double.parseDouble(thresholds.getProperty(name).trim());
+                String value = values.get(key);
+                if (value == null) {
+                    violations.add(key + " missing from report (" + name + "=" + limit + ")");
+                    continue;
+                }
+                double actual = Double.parseDouble(value);
+                if (min ? actual < limit : actual > limit) {
+                    violations.add(key + "=" + value + " " + (min ? "below minimum " : "above maximum ") + limit);
+                }
+            }
+            return violations;
+        }
+    }
+
+    // Uso: java SoakHarness [ticks] [ventana] [--stuck N] [--max-level N] [--seed N]
+    //      [--level FICHERO] [--report FICHERO] [--thresholds FICHERO]
+    // Las ventanas salen por stdout como CSV y el resumen por stderr (y en --report).
+    // Con --thresholds termina con código 1 si algún umbral no se cumple.
+    public static void main(String[] args) throws IOException {
+        long ticks = 200_000_000L;
+        long window = 1_000_000L;
+        int stuck = 500;
+        int maxLevel = GameEngine.getLevelCount() + 2;
+        long seed = 1L;
+        Path reportFile = null;
+        Path thresholdsFile = null;
+        Level level = null;
+        int positional = 0;
+        for (int i = 0; i < args.length; i++) {
+            if ("--stuck".equals(args[i]) && i + 1 < args.length) {
+                stuck = Integer.parseInt(args[++i]);
+            } else if ("--max-level".equals(args[i]) && i + 1 < args.length) {
+                maxLevel = Integer.parseInt(args[++i]);
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if ("--level".equals(args[i]) && i + 1 < args.length) {
+                level = LevelLoader.load(Paths.get(args[++i]));
+            } else if ("--report".equals(args[i]) && i + 1 < args.length) {
+                reportFile = Paths.get(args[++i]);
+            } else if ("--thresholds".equals(args[i]) && i + 1 < args.length) {
+                thresholdsFile = Paths.get(args[++i]);
+            } else if (positional == 0) {
+                ticks = Long.parseLong(args[i]);
+                positional++;
+            } else if (positional == 1) {
+                window = Long.parseLong(args[i]);
+                positional++;
+            }
+        }
+
+        SoakHarness harness = level != null
+                ? new SoakHarness(new Level[] {level}, ticks, window, stuck, seed)
+                : new SoakHarness(ticks, window, stuck, maxLevel, seed);
+        Report report = harness.run(System.out);
+        report.write(System.err);
+        if (reportFile != null) {
+            report.write(reportFile);
+        }
+        if (thresholdsFile != null) {
+            Properties thresholds = new Properties();
+            try (InputStream in = Files.newInputStream(thresholdsFile)) {
+                thresholds.load(in);
+            }
+            List<String> violations = report.check(thresholds);
+            for (String violation : violations) {
+                System.err.println("THRESHOLD " + violation);
+            }
+            if (!violations.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+}
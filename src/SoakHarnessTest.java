@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Unit tests for the SoakHarness class.
+ */
+public class SoakHarnessTest {
+
+    @Test
+    public void testShortRunReportsEveryWindow() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SoakHarness.Report report;
+        try (PrintStream samples = new PrintStream(bytes, true, "UTF-8")) {
+            report = new SoakHarness(20_000, 5_000, 500, 3, 1).run(samples);
+        }
+        String[] lines = bytes.toString("UTF-8").split("\n");
+        Assertions.assertEquals(SoakHarness.SAMPLE_HEADER, lines[0]);
+        Assertions.assertEquals(5, lines.length);
+        Assertions.assertTrue(lines[4].startsWith("20000,"));
+        Assertions.assertEquals(SoakHarness.SAMPLE_HEADER.split(",").length, lines[4].split(",").length);
+
+        Assertions.assertEquals(20_000, report.getTicks());
+        Assertions.assertEquals(4, report.getWindowCount());
+        // Pacman pierde enseguida y cada partida empieza en el nivel siguiente
+        Assertions.assertTrue(report.getGames() > 3);
+        Assertions.assertEquals(3, report.getMaxLevelReached());
+        Assertions.assertEquals(0, report.getStuckEvents());
+        Map<String, String> values = report.toProperties();
+        Assertions.assertEquals("20000", values.get("ticks"));
+        Assertions.assertTrue(Double.parseDouble(values.get("ticks_per_sec")) > 0);
+        Assertions.assertTrue(values.containsKey("ticks_per_sec_ratio"));
+    }
+
+    @Test
+    public void testGhostsThatCannotMoveAreFlagged() throws IOException {
+        // Pacman tiene un pasillo y los fantasmas y el único punto están encerrados
+        Level level = LevelLoader.readText(new StringReader(
+                "name Encerrados\n"
+                + "pacman 1 1\n"
+                + "ghost 7 1\n"
+                + "maze\n"
+                + "#########\n"
+                + "#   #.# #\n"
+                + "#########\n"), "encerrados");
+        SoakHarness.Report report = new SoakHarness(new Level[] {level}, 1_000, 1_000, 100, 1).run(null);
+        Assertions.assertEquals(GameEngine.DEFAULT_GHOST_COUNT, report.getStuckEvents());
+        Assertions.assertTrue(report.getStuckMaxTicks() >= 100);
+        Assertions.assertTrue(report.getStuckExamples().get(0).contains("ghost 0 at tile 7,1"),
+                report.getStuckExamples().get(0));
+        Assertions.assertEquals(0, report.getGames());
+    }
+
+    @Test
+    public void testCheckThresholds() {
+        SoakHarness.Report report = new SoakHarness(2_000, 1_000, 500, 1, 1).run(null);
+        Properties thresholds = new Properties();
+        thresholds.setProperty("min.ticks_per_sec", "1");
+        thresholds.setProperty("max.stuck_events", "0");
+        thresholds.setProperty("comment", "ignored");
+        Assertions.assertTrue(report.check(thresholds).isEmpty());
+
+        thresholds.setProperty("min.games", "1000000");
+        thresholds.setProperty("max.no_such_metric", "1");
+        List<String> violations = report.check(thresholds);
+        Assertions.assertEquals(2, violations.size(), violations.toString());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SoakHarness(0, 1, 1, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SoakHarness(1, 1, 0, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SoakHarness(1, 1, 1, 0, 1));
+    }
+}
@@ -0,0 +1,224 @@
+// Hash espacial uniforme para entidades cuadradas de lado entitySize, con cubetas de
+// lado bucketSize (un tile, o varios en mapas muy grandes).
+// Cada cubeta guarda una lista doblemente enlazada de ids en arrays primitivos, así
+// que mover una entidad solo toca su cubeta vieja y la nueva, y las consultas de
+// colisión o proximidad solo recorren las cubetas alrededor de la zona pedida.
+// Las posiciones fuera del mapa (túneles) se guardan en la cubeta del borde.
+public class SpatialHash {
+    public static final int NONE = -1;
+    // Cubetas como mucho en forGrid; en mapas mayores cada cubeta cubre varios tiles
+    public static final int MAX_GRID_BUCKETS = 1 << 16;
+
+    private final int columns;
+    private final int rows;
+    private final int cellSize;
+    private final int entitySize;
+
+    // Primera entidad de cada cubeta
+    private final int[] head;
+    // Por entidad: enlaces de la lista de su cubeta, cubeta actual y posición
+    private int[] next;
+    private int[] prev;
+    private int[] bucketOf;
+    private int[] xs;
+    private int[] ys;
+    private int size;
+
+    public SpatialHash(int columns, int rows, int cellSize, int capacity) {
+        this(columns, rows, cellSize, cellSize, capacity);
+    }
+
+    public SpatialHash(int columns, int rows, int cellSize, int entitySize, int capacity) {
+        if (columns <= 0 || rows <= 0 || cellSize <= 0 || entitySize <= 0) {
+            throw new IllegalArgumentException("invalid hash size: " + columns + "x" + rows + " cells of " + cellSize);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.entitySize = entitySize;
+        head = new int[columns * rows];
+        java.util.Arrays.fill(head, NONE);
+        next = new int[0];
+        prev = new int[0];
+        bucketOf = new int[0];
+        xs = new int[0];
+        ys = new int[0];
+        ensureCapacity(capacity);
+    }
+
+    // Hash con una cubeta por tile del mapa, o por bloque de tiles si el mapa es enorme
+    public static SpatialHash forGrid(LevelGrid grid, int capacity) {
+        int tiles = 1;
+        while ((long) ceilDiv(grid.getWidth(), tiles) * ceilDiv(grid.getHeight(), tiles) > MAX_GRID_BUCKETS) {
+            tiles *= 2;
+        }
+        return new SpatialHash(ceilDiv(grid.getWidth(), tiles), ceilDiv(grid.getHeight(), tiles),
+                tiles * LevelGrid.TILE_SIZE, LevelGrid.TILE_SIZE, capacity);
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    public int getBucketCount() {
+        return head.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int old = bucketOf.length;
+        if (capacity <= old) {
+            return;
+        }
+        int grown = Math.max(capacity, old * 2);
+        next = java.util.Arrays.copyOf(next, grown);
+        prev = java.util.Arrays.copyOf(prev, grown);
+        bucketOf = java.util.Arrays.copyOf(bucketOf, grown);
+        xs = java.util.Arrays.copyOf(xs, grown);
+        ys = java.util.Arrays.copyOf(ys, grown);
+        java.util.Arrays.fill(bucketOf, old, grown, NONE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < bucketOf.length && bucketOf[id] != NONE;
+    }
+
+    public void insert(int id, int x, int y) {
+        if (id < 0) {
+            throw new IllegalArgumentException("negative id: " + id);
+        }
+        ensureCapacity(id + 1);
+        if (bucketOf[id] != NONE) {
+            throw new IllegalStateException("id already present: " + id);
+        }
+        xs[id] = x;
+        ys[id] = y;
+        link(id, bucket(x, y));
+        size++;
+    }
+
+    // Actualiza la posición; solo cambia de lista si cambia de cubeta
+    public void move(int id, int x, int y) {
+        xs[id] = x;
+        ys[id] = y;
+        int bucket = bucket(x, y);
+        if (bucket != bucketOf[id]) {
+            unlink(id);
+            link(id, bucket);
+        }
+    }
+
+    public void remove(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        unlink(id);
+        bucketOf[id] = NONE;
+        size--;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(head, NONE);
+        java.util.Arrays.fill(bucketOf, NONE);
+        size = 0;
+    }
+
+    public int getX(int id) {
+        return xs[id];
+    }
+
+    public int getY(int id) {
+        return ys[id];
+    }
+
+    // Primera entidad cuyo cuadrado se solapa con el rectángulo dado, sin contar
+    // la entidad exclude (NONE para no excluir ninguna), o NONE
+    public int firstOverlap(int x, int y, int width, int height, int exclude) {
+        int firstCol = clampColumn(Math.floorDiv(x - entitySize + 1, cellSize));
+        int lastCol = clampColumn(Math.floorDiv(x + width - 1, cellSize));
+        int firstRow = clampRow(Math.floorDiv(y - entitySize + 1, cellSize));
+        int lastRow = clampRow(Math.floorDiv(y + height - 1, cellSize));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                for (int id = head[row * columns + col]; id != NONE; id = next[id]) {
+                    if (id != exclude && overlaps(id, x, y, width, height)) {
+                        return id;
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    // Escribe en out los ids cuyo cuadrado se solapa con el rectángulo dado (como
+    // mucho out.length) y devuelve cuántos hay en total
+    public int query(int x, int y, int width, int height, int[] out) {
+        int firstCol = clampColumn(Math.floorDiv(x - entitySize + 1, cellSize));
+        int lastCol = clampColumn(Math.floorDiv(x + width - 1, cellSize));
+        int firstRow = clampRow(Math.floorDiv(y - entitySize + 1, cellSize));
+        int lastRow = clampRow(Math.floorDiv(y + height - 1, cellSize));
+        int found = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                for (int id = head[row * columns + col]; id != NONE; id = next[id]) {
+                    if (overlaps(id, x, y, width, height)) {
+                        if (found < out.length) {
+                            out[found] = id;
+                        }
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Entidades a menos de radius píxeles (en cada eje) del cuadrado de la entidad id
+    public int queryNear(int id, int radius, int[] out) {
+        return query(xs[id] - radius, ys[id] - radius, entitySize + 2 * radius, entitySize + 2 * radius, out);
+    }
+
+    private boolean overlaps(int id, int x, int y, int width, int height) {
+        int ex = xs[id];
+        int ey = ys[id];
+        return ex < x + width && x < ex + entitySize && ey < y + height && y < ey + entitySize;
+    }
+
+    private int bucket(int x, int y) {
+        return clampRow(Math.floorDiv(y, cellSize)) * columns + clampColumn(Math.floorDiv(x, cellSize));
+    }
+
+    private int clampColumn(int col) {
+        return col < 0 ? 0 : (col >= columns ? columns - 1 : col);
+    }
+
+    private int clampRow(int row) {
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+
+    private void link(int id, int bucket) {
+        int first = head[bucket];
+        next[id] = first;
+        prev[id] = NONE;
+        if (first != NONE) {
+            prev[first] = id;
+        }
+        head[bucket] = id;
+        bucketOf[id] = bucket;
+    }
+
+    private void unlink(int id) {
+        int bucket = bucketOf[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            head[bucket] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests for the SpatialHash class.
+ */
+public class SpatialHashTest {
+
+    private static final int T = GameEngine.TILE_SIZE;
+
+    private SpatialHash hash;
+
+    @BeforeEach
+    public void setUp() {
+        hash = new SpatialHash(19, 19, T, 4);
+    }
+
+    private static boolean overlaps(int ax, int ay, int bx, int by, int width, int height) {
+        return ax < bx + width && bx < ax + T && ay < by + height && by < ay + T;
+    }
+
+    @Test
+    public void testInsertAndOverlap() {
+        hash.insert(0, 100, 100);
+        Assertions.assertEquals(1, hash.size());
+        Assertions.assertEquals(0, hash.firstOverlap(110, 110, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(SpatialHash.NONE, hash.firstOverlap(120, 100, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(SpatialHash.NONE, hash.firstOverlap(100, 100, T, T, 0));
+    }
+
+    @Test
+    public void testMoveAcrossBuckets() {
+        hash.insert(0, 100, 100);
+        hash.move(0, 200, 40);
+        Assertions.assertEquals(SpatialHash.NONE, hash.firstOverlap(100, 100, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(0, hash.firstOverlap(205, 45, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(200, hash.getX(0));
+        Assertions.assertEquals(40, hash.getY(0));
+    }
+
+    @Test
+    public void testRemove() {
+        hash.insert(0, 100, 100);
+        hash.insert(1, 100, 100);
+        hash.remove(0);
+        Assertions.assertFalse(hash.contains(0));
+        Assertions.assertEquals(1, hash.firstOverlap(100, 100, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(1, hash.size());
+    }
+
+    @Test
+    public void testDuplicateInsertRejected() {
+        hash.insert(0, 100, 100);
+        Assertions.assertThrows(IllegalStateException.class, () -> hash.insert(0, 20, 20));
+    }
+
+    @Test
+    public void testPositionsOutsideBoardUseEdgeBuckets() {
+        // Entrando por el túnel izquierdo
+        hash.insert(0, -15, 180);
+        Assertions.assertEquals(0, hash.firstOverlap(-5, 180, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(SpatialHash.NONE, hash.firstOverlap(5, 180, T, T, SpatialHash.NONE));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        for (int i = 0; i < 100; i++) {
+            hash.insert(i, 20 + i, 20);
+        }
+        Assertions.assertEquals(100, hash.size());
+        int[] out = new int[200];
+        Assertions.assertEquals(100, hash.query(0, 0, 19 * T, 19 * T, out));
+    }
+
+    @Test
+    public void testQueriesMatchBruteForce() {
+        SplittableRandom random = new SplittableRandom(7);
+        int n = 300;
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(-T, 19 * T);
+            ys[i] = random.nextInt(0, 18 * T);
+            hash.insert(i, xs[i], ys[i]);
+        }
+        int[] out = new int[n];
+        for (int round = 0; round < 200; round++) {
+            int id = random.nextInt(n);
+            xs[id] += random.nextInt(-8, 9);
+            ys[id] = Math.max(0, ys[id] + random.nextInt(-8, 9));
+            hash.move(id, xs[id], ys[id]);
+
+            int qx = random.nextInt(-T, 19 * T);
+            int qy = random.nextInt(0, 18 * T);
+            int width = random.nextInt(1, 3 * T);
+            int height = random.nextInt(1, 3 * T);
+            int expected = 0;
+            for (int i = 0; i < n; i++) {
+                if (overlaps(xs[i], ys[i], qx, qy, width, height)) {
+                    expected++;
+                }
+            }
+            int found = hash.query(qx, qy, width, height, out);
+            Assertions.assertEquals(expected, found);
+            for (int i = 0; i < Math.min(found, out.length); i++) {
+                Assertions.assertTrue(overlaps(xs[out[i]], ys[out[i]], qx, qy, width, height));
+            }
+            Assertions.assertEquals(expected > 0, hash.firstOverlap(qx, qy, width, height, SpatialHash.NONE) != SpatialHash.NONE);
+        }
+    }
+
+    @Test
+    public void testQueryNearFindsNeighbours() {
+        hash.insert(0, 100, 100);
+        hash.insert(1, 130, 100);
+        hash.insert(2, 200, 200);
+        int[] out = new int[4];
+        // Radio 15: el cuadrado de 0 ampliado llega hasta x = 135
+        Assertions.assertEquals(2, hash.queryNear(0, 15, out));
+        Assertions.assertEquals(1, hash.queryNear(0, 5, out));
+    }
+
+    @Test
+    public void testHugeGridUsesCoarserBuckets() {
+        SpatialHash huge = SpatialHash.forGrid(new LevelGrid(4096, 4096), 8);
+        Assertions.assertTrue(huge.getBucketCount() <= SpatialHash.MAX_GRID_BUCKETS);
+        huge.insert(0, 4000 * T, 3000 * T);
+        Assertions.assertEquals(0, huge.firstOverlap(4000 * T + 10, 3000 * T - 10, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(SpatialHash.NONE, huge.firstOverlap(4000 * T + T, 3000 * T, T, T, SpatialHash.NONE));
+        Assertions.assertEquals(19 * 19, SpatialHash.forGrid(new GameEngine().getGrid(), 3).getBucketCount());
+    }
+}
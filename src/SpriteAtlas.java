@@ -0,0 +1,141 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sprites prerenderizados de Pacman y de los fantasmas. Cada sprite se dibuja una sola
+// vez con las mismas primitivas que usaba draw() en su propia imagen compatible (en el
+// origen, porque el rasterizado de arcos varía un píxel según la posición) y después
+// se copia con un único drawImage. El atlas es único y lo comparten todos los Board.
+// Para dibujar a otra escala se crea un atlas con otro tamaño de sprite: las mismas
+// primitivas se rasterizan a ese tamaño en vez de escalar las imágenes ya hechas.
+public final class SpriteAtlas {
+    public static final int SPRITE_SIZE = 20;
+
+    // Apertura de la boca de Pacman en grados para cada fotograma; el 0 es el dibujo original
+    private static final int[] MOUTH_OPENINGS = {60, 30, 0};
+    public static final int MOUTH_FRAMES = MOUTH_OPENINGS.length;
+
+    // Colores de los fantasmas de GameEngine, que se rasterizan al arrancar
+    private static final Color[] DEFAULT_GHOST_COLORS = {Color.RED, Color.PINK, Color.CYAN};
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static final class Holder {
+        static final SpriteAtlas INSTANCE = new SpriteAtlas(defaultConfiguration());
+    }
+
+    private final GraphicsConfiguration config;
+    private final int size;
+    // Pacman por dirección y fotograma de boca
+    private final BufferedImage[][] pacmanFrames;
+    // Fantasmas por color, con una variante de ojos por dirección
+    private final ConcurrentHashMap<Color, BufferedImage[]> ghostFrames = new ConcurrentHashMap<>();
+
+    SpriteAtlas(GraphicsConfiguration config) {
+        this(config, SPRITE_SIZE);
+    }
+
+    // Atlas con sprites de size píxeles de lado; SPRITE_SIZE es el tamaño sin escalar
+    public SpriteAtlas(GraphicsConfiguration config, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.config = config;
+        this.size = size;
+        pacmanFrames = new BufferedImage[DIRECTIONS.length][MOUTH_FRAMES];
+        for (Direction direction : DIRECTIONS) {
+            for (int frame = 0; frame < MOUTH_FRAMES; frame++) {
+                BufferedImage image = createImage();
+                Graphics2D g = image.createGraphics();
+                try {
+                    g.setColor(Color.YELLOW);
+                    g.fillArc(0, 0, size, size, direction.getAngle(), 360 - MOUTH_OPENINGS[frame]);
+                } finally {
+                    g.dispose();
+                }
+                pacmanFrames[direction.ordinal()][frame] = image;
+            }
+        }
+        for (Color color : DEFAULT_GHOST_COLORS) {
+            ghostFrames(color);
+        }
+    }
+
+    public static SpriteAtlas shared() {
+        return Holder.INSTANCE;
+    }
+
+    private static GraphicsConfiguration defaultConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private BufferedImage createImage() {
+        return config != null
+                ? config.createCompatibleImage(size, size, Transparency.BITMASK)
+                : new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    public void drawPacman(Graphics g, Direction direction, int frame, int x, int y) {
+        g.drawImage(pacmanFrames[direction.ordinal()][frame], x, y, null);
+    }
+
+    public void drawGhost(Graphics g, Color color, Direction direction, int x, int y) {
+        g.drawImage(ghostFrames(color)[direction.ordinal()], x, y, null);
+    }
+
+    // Los colores que no se conocían al arrancar se rasterizan la primera vez que se usan
+    private BufferedImage[] ghostFrames(Color color) {
+        BufferedImage[] frames = ghostFrames.get(color);
+        if (frames == null) {
+            frames = new BufferedImage[DIRECTIONS.length];
+            for (Direction direction : DIRECTIONS) {
+                frames[direction.ordinal()] = renderGhost(color, direction);
+            }
+            BufferedImage[] previous = ghostFrames.putIfAbsent(color, frames);
+            if (previous != null) {
+                frames = previous;
+            }
+        }
+        return frames;
+    }
+
+    private BufferedImage renderGhost(Color color, Direction direction) {
+        BufferedImage image = createImage();
+        Graphics2D g = image.createGraphics();
+        try {
+            // El fantasma está dibujado para SPRITE_SIZE píxeles
+            if (size != SPRITE_SIZE) {
+                g.scale((double) size / SPRITE_SIZE, (double) size / SPRITE_SIZE);
+            }
+            // Cuerpo
+            g.setColor(color);
+            g.fillArc(0, 0, SPRITE_SIZE, SPRITE_SIZE, 0, 180);
+            g.fillRect(0, SPRITE_SIZE / 2, SPRITE_SIZE, SPRITE_SIZE / 2);
+            // Ojos
+            g.setColor(Color.WHITE);
+            g.fillOval(3, 5, 5, 5);
+            g.fillOval(12, 5, 5, 5);
+            // Pupilas desplazadas un píxel hacia donde mira el fantasma
+            int px = direction == Direction.LEFT ? -1 : (direction == Direction.RIGHT ? 1 : 0);
+            int py = direction == Direction.UP ? -1 : (direction == Direction.DOWN ? 1 : 0);
+            g.setColor(Color.BLACK);
+            g.fillOval(4 + px, 6 + py, 3, 3);
+            g.fillOval(13 + px, 6 + py, 3, 3);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    int getGhostColorCount() {
+        return ghostFrames.size();
+    }
+}
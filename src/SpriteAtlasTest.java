@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Unit tests for the SpriteAtlas class.
+ */
+public class SpriteAtlasTest {
+
+    private static final int S = SpriteAtlas.SPRITE_SIZE;
+
+    private static BufferedImage canvas() {
+        return new BufferedImage(3 * S, 3 * S, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assertions.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testSharedInstanceIsReused() {
+        Assertions.assertSame(SpriteAtlas.shared(), SpriteAtlas.shared());
+    }
+
+    @Test
+    public void testPacmanFrameZeroMatchesOriginalDrawing() {
+        SpriteAtlas atlas = new SpriteAtlas(null);
+        for (Direction direction : Direction.values()) {
+            BufferedImage expected = canvas();
+            Graphics2D g = expected.createGraphics();
+            g.setColor(Color.YELLOW);
+            g.fillArc(0, 0, S, S, direction.getAngle(), 300);
+            g.dispose();
+
+            BufferedImage actual = canvas();
+            g = actual.createGraphics();
+            atlas.drawPacman(g, direction, 0, 0, 0);
+            g.dispose();
+            assertSameImage(expected, actual);
+        }
+    }
+
+    @Test
+    public void testScaledAtlasRasterizesAtItsSize() {
+        SpriteAtlas atlas = new SpriteAtlas(null, 3 * S);
+        Assertions.assertEquals(3 * S, atlas.getSize());
+        BufferedImage image = new BufferedImage(3 * S, 3 * S, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        atlas.drawGhost(g, Color.RED, Direction.LEFT, 0, 0);
+        g.dispose();
+        // Cuerpo abajo a la derecha y ojo blanco a 3x
+        Assertions.assertEquals(Color.RED.getRGB(), image.getRGB(3 * S - 2, 3 * S - 2));
+        Assertions.assertEquals(Color.WHITE.getRGB(), image.getRGB(3 * 7, 3 * 6));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SpriteAtlas(null, 0));
+    }
+
+    @Test
+    public void testPacmanClosedFrameFillsMouth() {
+        SpriteAtlas atlas = new SpriteAtlas(null);
+        BufferedImage image = canvas();
+        Graphics2D g = image.createGraphics();
+        atlas.drawPacman(g, Direction.RIGHT, SpriteAtlas.MOUTH_FRAMES - 1, 0, 0);
+        g.dispose();
+        // Con la boca cerrada el píxel a la derecha del centro es amarillo
+        Assertions.assertEquals(Color.YELLOW.getRGB(), image.getRGB(S - 4, S / 2 - 2));
+    }
+
+    @Test
+    public void testGhostMatchesOriginalBodyAndEyes() {
+        SpriteAtlas atlas = new SpriteAtlas(null);
+        BufferedImage expected = canvas();
+        Graphics2D g = expected.createGraphics();
+        int x = 0;
+        int y = 0;
+        g.setColor(Color.RED);
+        g.fillArc(x, y, S, S, 0, 180);
+        g.fillRect(x, y + S / 2, S, S / 2);
+        g.setColor(Color.WHITE);
+        g.fillOval(x + 3, y + 5, 5, 5);
+        g.fillOval(x + 12, y + 5, 5, 5);
+        g.setColor(Color.BLACK);
+        g.fillOval(x + 4, y + 6 + 1, 3, 3);
+        g.fillOval(x + 13, y + 6 + 1, 3, 3);
+        g.dispose();
+
+        BufferedImage actual = canvas();
+        g = actual.createGraphics();
+        atlas.drawGhost(g, Color.RED, Direction.DOWN, x, y);
+        g.dispose();
+        assertSameImage(expected, actual);
+    }
+
+    @Test
+    public void testUnknownGhostColorIsRasterizedOnce() {
+        SpriteAtlas atlas = new SpriteAtlas(null);
+        int before = atlas.getGhostColorCount();
+        BufferedImage image = canvas();
+        Graphics2D g = image.createGraphics();
+        atlas.drawGhost(g, Color.ORANGE, Direction.LEFT, 0, 0);
+        atlas.drawGhost(g, Color.ORANGE, Direction.RIGHT, S, 0);
+        g.dispose();
+        Assertions.assertEquals(before + 1, atlas.getGhostColorCount());
+        Assertions.assertEquals(Color.ORANGE.getRGB(), image.getRGB(S / 2, S - 2));
+    }
+}
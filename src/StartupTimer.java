@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Tiempos de arranque de Game: desde que arranca la JVM hasta que entra main, el motor
+// está listo, la ventana se muestra, se dibuja el primer fotograma y termina el primer
+// tick. Todos se miden desde el arranque de la JVM para poder compararlos entre
+// versiones; el informe se escribe cuando ya hay fotograma y tick, en un hilo aparte
+// para no retrasar el bucle del juego.
+public class StartupTimer implements GameEngine.Listener {
+    // Cabecera de las líneas que añade writeLog
+    public static final String LOG_HEADER = "epoch_ms,jvm_to_main_ms,engine_ms,window_ms,first_frame_ms,first_tick_ms";
+
+    private final long mainNanos = System.nanoTime();
+    private final long mainMillis = System.currentTimeMillis();
+    // Nanosegundos de System.nanoTime() de cada fase (0 = aún no ha pasado)
+    private volatile long engineNanos;
+    private volatile long windowNanos;
+    private volatile long firstFrameNanos;
+    private volatile long firstTickNanos;
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private volatile Runnable onComplete;
+
+    public void engineReady() {
+        engineNanos = System.nanoTime();
+    }
+
+    public void windowShown() {
+        windowNanos = System.nanoTime();
+    }
+
+    // Lo llama GameRenderer al terminar su primer fotograma
+    public void frameRendered() {
+        if (firstFrameNanos == 0) {
+            firstFrameNanos = System.nanoTime();
+            checkComplete();
+        }
+    }
+
+    @Override
+    public void tickCompleted(long tick) {
+        if (firstTickNanos == 0) {
+            firstTickNanos = System.nanoTime();
+            checkComplete();
+        }
+    }
+
+    // Se ejecuta una vez, en un hilo aparte, cuando ya hay primer fotograma y primer tick
+    public void setOnComplete(Runnable action) {
+        onComplete = action;
+    }
+
+    private void checkComplete() {
+        Runnable action = onComplete;
+        if (isComplete() && action != null && reported.compareAndSet(false, true)) {
+            Thread thread = new Thread(action, "pacman-startup-report");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public boolean isComplete() {
+        return firstFrameNanos != 0 && firstTickNanos != 0;
+    }
+
+    // Milisegundos desde el arranque de la JVM hasta main. Consultar la JVM carga la API
+    // de gestión, así que solo se hace al escribir el informe.
+    public long getJvmToMainMillis() {
+        return Math.max(0, mainMillis - ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    // Milisegundos desde main hasta una fase, o -1 si aún no ha pasado
+    private long sinceMain(long phaseNanos) {
+        return phaseNanos == 0 ? -1 : (phaseNanos - mainNanos) / 1_000_000L;
+    }
+
+    public long getEngineMillis() {
+        return sinceMain(engineNanos);
+    }
+
+    public long getWindowMillis() {
+        return sinceMain(windowNanos);
+    }
+
+    public long getFirstFrameMillis() {
+        return sinceMain(firstFrameNanos);
+    }
+
+    public long getFirstTickMillis() {
+        return sinceMain(firstTickNanos);
+    }
+
+    // Fase medida desde el arranque de la JVM, o -1 si aún no ha pasado
+    private static long fromJvm(long jvmToMain, long sinceMain) {
+        return sinceMain < 0 ? -1 : jvmToMain + sinceMain;
+    }
+
+    public void print(PrintStream out) {
+        long jvm = getJvmToMainMillis();
+        out.printf("startup (ms since JVM start): main %d, engine %d, window %d, first frame %d, first tick %d%n",
+                jvm, fromJvm(jvm, getEngineMillis()), fromJvm(jvm, getWindowMillis()),
+                fromJvm(jvm, getFirstFrameMillis()), fromJvm(jvm, getFirstTickMillis()));
+    }
+
+    // Añade una línea CSV (con LOG_HEADER si el fichero es nuevo) para seguir el arranque
+    // entre versiones
+    public void writeLog(Path file) throws IOException {
+        long jvm = getJvmToMainMillis();
+        String line = mainMillis + "," + jvm + "," + fromJvm(jvm, getEngineMillis())
+                + "," + fromJvm(jvm, getWindowMillis()) + "," + fromJvm(jvm, getFirstFrameMillis())
+                + "," + fromJvm(jvm, getFirstTickMillis()) + "\n";
+        if (!Files.exists(file)) {
+            line = LOG_HEADER + "\n" + line;
+        }
+        Files.write(file, line.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the StartupTimer class.
+ */
+public class StartupTimerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void renderFrame(GameEngine engine, GameRenderer renderer) {
+        BufferedImage image = new BufferedImage(engine.getGrid().getPixelWidth(),
+                engine.getGrid().getPixelHeight() + GameRenderer.STATUS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            renderer.render(g, null, 1.0);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    @Test
+    public void testPhasesBeforeStartAreMissing() {
+        StartupTimer startup = new StartupTimer();
+        Assertions.assertFalse(startup.isComplete());
+        Assertions.assertEquals(-1, startup.getEngineMillis());
+        Assertions.assertEquals(-1, startup.getFirstFrameMillis());
+        Assertions.assertEquals(-1, startup.getFirstTickMillis());
+        Assertions.assertTrue(startup.getJvmToMainMillis() >= 0);
+    }
+
+    @Test
+    public void testFirstFrameAndTickCompleteStartup() throws InterruptedException {
+        StartupTimer startup = new StartupTimer();
+        CountDownLatch done = new CountDownLatch(1);
+        startup.setOnComplete(done::countDown);
+        GameEngine engine = new GameEngine(1, 0, 3, 1);
+        startup.engineReady();
+        GameRenderer renderer = new GameRenderer(engine);
+        engine.addListener(startup);
+        renderer.setStartupTimer(startup);
+        startup.windowShown();
+
+        renderFrame(engine, renderer);
+        Assertions.assertTrue(startup.getFirstFrameMillis() >= startup.getEngineMillis());
+        Assertions.assertFalse(startup.isComplete());
+        engine.step(3);
+        Assertions.assertTrue(startup.isComplete());
+        Assertions.assertTrue(startup.getFirstTickMillis() >= startup.getEngineMillis());
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        // Solo se mide el primero de cada uno
+        long firstFrame = startup.getFirstFrameMillis();
+        renderFrame(engine, renderer);
+        Assertions.assertEquals(firstFrame, startup.getFirstFrameMillis());
+    }
+
+    @Test
+    public void testWriteLogAppendsCsvLines() throws IOException {
+        StartupTimer startup = new StartupTimer();
+        startup.engineReady();
+        startup.frameRendered();
+        startup.tickCompleted(1);
+        Path log = tempDir.resolve("startup.csv");
+        startup.writeLog(log);
+        startup.writeLog(log);
+        List<String> lines = Files.readAllLines(log);
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals(StartupTimer.LOG_HEADER, lines.get(0));
+        String[] fields = lines.get(1).split(",");
+        Assertions.assertEquals(6, fields.length);
+        // La ventana no se ha mostrado
+        Assertions.assertEquals("-1", fields[3]);
+        Assertions.assertTrue(Long.parseLong(fields[5]) >= Long.parseLong(fields[1]));
+    }
+}
@@ -0,0 +1,99 @@
+// Salidas de cada tile del laberinto como máscara de bits, para que los fantasmas no
+// tengan que mirar las paredes al moverse. Los tiles con exactamente dos salidas son
+// pasillos (rectos o en esquina) donde solo se puede seguir adelante, así que los
+// fantasmas solo deciden en los demás: cruces de tres o cuatro salidas y callejones.
+// Como DistanceField, solo depende de las paredes: cada Level guarda el suyo y lo
+// comparten todas las partidas del nivel.
+public final class TileExits {
+    public static final int NONE = -1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+    private final int height;
+    // Por celda: un bit por dirección transitable (1 << ordinal), incluidos los túneles
+    private final byte[] exits;
+
+    public TileExits(LevelGrid grid) {
+        width = grid.getWidth();
+        height = grid.getHeight();
+        exits = new byte[width * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (grid.isWallTile(col, row)) {
+                    continue;
+                }
+                int mask = 0;
+                for (Direction dir : DIRECTIONS) {
+                    if (neighbor(grid, col, row, dir) >= 0) {
+                        mask |= 1 << dir.ordinal();
+                    }
+                }
+                exits[row * width + col] = (byte) mask;
+            }
+        }
+    }
+
+    // Un tile con exactamente dos salidas es parte de un pasillo (recto o en esquina)
+    private static boolean isNodeMask(int mask) {
+        return Integer.bitCount(mask) != 2;
+    }
+
+    // Celda vecina transitable en una dirección (con túneles horizontales), o -1
+    private static int neighbor(LevelGrid grid, int col, int row, Direction dir) {
+        int width = grid.getWidth();
+        switch (dir) {
+            case LEFT: col = col == 0 ? width - 1 : col - 1; break;
+            case RIGHT: col = col == width - 1 ? 0 : col + 1; break;
+            case UP: row--; break;
+            case DOWN: row++; break;
+        }
+        if (row < 0 || row >= grid.getHeight() || grid.isWallTile(col, row)) {
+            return -1;
+        }
+        return row * width + col;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Máscara de direcciones transitables desde una celda (0 si es pared)
+    public int getExits(int cell) {
+        return exits[cell];
+    }
+
+    public boolean canExit(int cell, Direction dir) {
+        return (exits[cell] & (1 << dir.ordinal())) != 0;
+    }
+
+    // Indica si en la celda hay que decidir (cruce o callejón); las paredes y los tiles
+    // aislados no son nodos
+    public boolean isNode(int cell) {
+        int mask = exits[cell];
+        return mask != 0 && isNodeMask(mask);
+    }
+
+    // Indica si la celda es parte de un pasillo, donde no hay nada que decidir
+    public boolean isCorridor(int cell) {
+        return Integer.bitCount(exits[cell]) == 2;
+    }
+
+    // Dirección con la que se sigue un pasillo al llegar a una celda moviéndose en dir:
+    // recto si se puede y si no la otra salida que no sea volver atrás. Sin salida
+    // posible (callejón) devuelve la dirección contraria.
+    public Direction corridorExit(int cell, Direction dir) {
+        int mask = exits[cell];
+        if ((mask & (1 << dir.ordinal())) != 0) {
+            return dir;
+        }
+        int forward = mask & ~(1 << dir.opposite().ordinal());
+        if (forward == 0) {
+            return dir.opposite();
+        }
+        return DIRECTIONS[Integer.numberOfTrailingZeros(forward)];
+    }
+}
@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the TileExits class.
+ */
+public class TileExitsTest {
+
+    private static int cell(TileExits exits, int col, int row) {
+        return row * exits.getWidth() + col;
+    }
+
+    @Test
+    public void testCorridorsAndNodes() {
+        TileExits exits = new TileExits(new GameEngine(1).getGrid());
+        // Esquina y pasillo recto del nivel 1
+        Assertions.assertTrue(exits.isCorridor(cell(exits, 1, 1)));
+        Assertions.assertTrue(exits.isCorridor(cell(exits, 1, 2)));
+        // Cruce en T y pared
+        Assertions.assertTrue(exits.isNode(cell(exits, 1, 3)));
+        Assertions.assertFalse(exits.isNode(cell(exits, 0, 0)));
+        Assertions.assertFalse(exits.isCorridor(cell(exits, 0, 0)));
+        Assertions.assertEquals(0, exits.getExits(cell(exits, 0, 0)));
+    }
+
+    @Test
+    public void testCorridorExitFollowsCorner() {
+        TileExits exits = new TileExits(new GameEngine(1).getGrid());
+        // (1, 1) es una esquina con salidas abajo y a la derecha
+        Assertions.assertEquals(Direction.RIGHT, exits.corridorExit(cell(exits, 1, 1), Direction.UP));
+        Assertions.assertEquals(Direction.DOWN, exits.corridorExit(cell(exits, 1, 1), Direction.LEFT));
+        Assertions.assertEquals(Direction.DOWN, exits.corridorExit(cell(exits, 1, 2), Direction.DOWN));
+    }
+
+    @Test
+    public void testTunnelExits() {
+        // Fila 9 del nivel 1: las columnas 0 y 18 están conectadas por el túnel
+        TileExits exits = new TileExits(new GameEngine(1).getGrid());
+        Assertions.assertTrue(exits.canExit(cell(exits, 0, 9), Direction.LEFT));
+        Assertions.assertTrue(exits.canExit(cell(exits, 18, 9), Direction.RIGHT));
+        Assertions.assertTrue(exits.isCorridor(cell(exits, 0, 9)));
+    }
+
+    @Test
+    public void testExitsMatchWalls() {
+        LevelGrid grid = new MazeGenerator(7).generate("test", 43, 31).getTemplate();
+        TileExits exits = new TileExits(grid);
+        int width = grid.getWidth();
+        for (int row = 0; row < grid.getHeight(); row++) {
+            for (int col = 0; col < width; col++) {
+                int cell = row * width + col;
+                if (grid.isWallTile(col, row)) {
+                    Assertions.assertEquals(0, exits.getExits(cell));
+                    continue;
+                }
+                Assertions.assertEquals(!exits.isCorridor(cell) && exits.getExits(cell) != 0, exits.isNode(cell));
+                // Cada salida lleva a un tile libre que tiene la salida contraria
+                int right = col == width - 1 ? 0 : col + 1;
+                Assertions.assertEquals(!grid.isWallTile(right, row), exits.canExit(cell, Direction.RIGHT));
+                if (exits.canExit(cell, Direction.RIGHT)) {
+                    Assertions.assertTrue(exits.canExit(row * width + right, Direction.LEFT));
+                }
+                boolean down = row + 1 < grid.getHeight() && !grid.isWallTile(col, row + 1);
+                Assertions.assertEquals(down, exits.canExit(cell, Direction.DOWN));
+                if (down) {
+                    Assertions.assertTrue(exits.canExit(cell + width, Direction.UP));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLevelSharesGraph() {
+        Level level = GameEngine.getProceduralLevel(4);
+        Assertions.assertSame(level.getTileExits(), level.getTileExits());
+        GameEngine engine = new GameEngine(1);
+        Assertions.assertNotNull(engine.getTileExits());
+    }
+}